@@ -1,7 +1,13 @@
 import javax.swing.*;
 import java.awt.*;
 import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import utils.BackgroundExecutor;
+import utils.DataBootstrap;
 import utils.FontUtil;
+import utils.LocalCache;
+import utils.PendingOperations;
 import utils.SocketClient;
 import utils.SessionManager;
 
@@ -14,6 +20,9 @@ public class Main {
     private static final String PENGATURAN = "pengaturan";
     private static final String AUTH = "auth";
     private static final String APP = "app";
+    // Backoff between session checks while the backend is unreachable
+    private static final long REVALIDATE_INITIAL_MILLIS = 5000;
+    private static final long REVALIDATE_MAX_MILLIS = 60000;
 
     public static void main(String[] args) {
         SwingUtilities.invokeLater(Main::createAndShowUI);
@@ -25,11 +34,12 @@ public class Main {
                 "SansSerif");
 
         // Task 8.1: Initialize SocketClient on startup
+        String connectError = null;
         try {
             SocketClient.getInstance().connect();
         } catch (IOException e) {
-            showConnectionError(e.getMessage());
-            return; // Exit if cannot connect to backend
+            // A cached session can still start offline from the local cache
+            connectError = e.getMessage();
         }
 
         JFrame frame = new JFrame("FinTrack - Financial Tracker");
@@ -49,6 +59,7 @@ public class Main {
 
         // Task 8.3: Ensure logout from TopBar returns to AUTH page
         JPanel appShell = createAppShell(() -> {
+            LocalCache.clear();
             authPage.logout();
             authPage.resetFields();
             shellLayout.show(shell, AUTH);
@@ -63,22 +74,35 @@ public class Main {
         // Task 8.2: Implement session validation on startup
         SessionManager sessionManager = SessionManager.getInstance();
         sessionManager.loadFromFile();
+        LocalCache.install();
 
-        if (sessionManager.hasValidSession()) {
+        if (sessionManager.hasValidSession() && LocalCache.restore(sessionManager.getUsername())) {
+            // Warm start: show the cached data now, then validate the session
+            // and reconcile with the backend in the background, once it is
+            // reachable
+            shellLayout.show(shell, APP);
+            validateCachedSession(sessionManager.getSessionToken(), REVALIDATE_INITIAL_MILLIS, () -> {
+                DataBootstrap.reconcile(report -> PendingOperations.replay());
+                startSubscription();
+            }, () -> {
+                if (!sessionManager.hasValidSession()) {
+                    LocalCache.clear(); // Session rejected, not just unreachable
+                }
+                shellLayout.show(shell, AUTH);
+            });
+        } else if (connectError != null) {
+            showConnectionError(connectError);
+            return; // Exit if cannot connect to backend without a cache
+        } else if (sessionManager.hasValidSession()) {
             // If session exists, validate it
             if (sessionManager.validateSession()) {
-                // If valid, load all data from backend first
-                loadAllDataFromBackend(() -> {
-                    // After data loaded, show APP shell
-                    SwingUtilities.invokeLater(() -> {
-                        shellLayout.show(shell, APP);
-                    });
+                // If valid, load all data from backend first, then show APP shell
+                DataBootstrap.loadAll(report -> {
+                    LocalCache.enable();
+                    PendingOperations.replay();
+                    shellLayout.show(shell, APP);
                 });
-                try {
-                    SocketClient.getInstance().startSubscription();
-                } catch (Exception e) {
-                    System.err.println("Warning: failed to start subscription on resume: " + e.getMessage());
-                }
+                startSubscription();
             } else {
                 // If invalid, show AUTH page
                 shellLayout.show(shell, AUTH);
@@ -89,6 +113,46 @@ public class Main {
         }
     }
 
+    /**
+     * Validate the cached session in the background. While the backend is
+     * unreachable the app keeps working on the cached data, local changes
+     * wait in PendingOperations, and the check is retried with backoff.
+     *
+     * @param token       cached session token; checks stop once the user
+     *                    logs out or in meanwhile
+     * @param delayMillis wait before the next attempt if this one cannot
+     *                    reach the backend
+     * @param onValid     run on the EDT once the backend accepts the session
+     * @param onInvalid   run on the EDT if the backend rejects it
+     */
+    private static void validateCachedSession(String token, long delayMillis, Runnable onValid,
+            Runnable onInvalid) {
+        BackgroundExecutor.execute(() -> {
+            SessionManager sessionManager = SessionManager.getInstance();
+            if (!token.equals(sessionManager.getSessionToken())) {
+                return;
+            }
+            boolean valid = sessionManager.validateSession();
+            if (!valid && sessionManager.hasValidSession() && !SocketClient.getInstance().isConnected()) {
+                System.err.println("Warning: backend unreachable, working offline; retrying in "
+                        + delayMillis / 1000 + "s");
+                long next = Math.min(delayMillis * 2, REVALIDATE_MAX_MILLIS);
+                CompletableFuture.delayedExecutor(delayMillis, TimeUnit.MILLISECONDS)
+                        .execute(() -> validateCachedSession(token, next, onValid, onInvalid));
+                return;
+            }
+            SwingUtilities.invokeLater(valid ? onValid : onInvalid);
+        });
+    }
+
+    private static void startSubscription() {
+        try {
+            SocketClient.getInstance().startSubscription();
+        } catch (Exception e) {
+            System.err.println("Warning: failed to start subscription on resume: " + e.getMessage());
+        }
+    }
+
     /**
      * Show connection error dialog and exit application.
      * 
@@ -117,7 +181,6 @@ public class Main {
 
             // Get current snapshots
             utils.AccountStore.Snapshot accounts = utils.AccountStore.snapshot();
-            utils.TransactionStore.Snapshot transactions = utils.TransactionStore.snapshot();
 
             // Calculate total saldo from accounts
             long totalSaldo = accounts.accounts().stream()
@@ -125,15 +188,9 @@ public class Main {
                     .sum();
 
             // Calculate income and expense for current month
-            long incomeThisMonth = transactions.transactions().stream()
-                    .filter(t -> t.yearMonth().equals(now) && t.isIncome())
-                    .mapToLong(utils.TransactionStore.Transaction::amount)
-                    .sum();
-
-            long expenseThisMonth = transactions.transactions().stream()
-                    .filter(t -> t.yearMonth().equals(now) && !t.isIncome())
-                    .mapToLong(utils.TransactionStore.Transaction::amount)
-                    .sum();
+            utils.TransactionRollup rollup = utils.TransactionStore.rollup();
+            long incomeThisMonth = rollup.total(now, utils.TransactionStore.TYPE_INCOME);
+            long expenseThisMonth = rollup.total(now, utils.TransactionStore.TYPE_EXPENSE);
 
             // Update InfoBar with real data
             javax.swing.SwingUtilities.invokeLater(() -> {
@@ -181,56 +238,4 @@ public class Main {
         CardLayout cl = (CardLayout) content.getLayout();
         cl.show(content, route);
     }
-
-    /**
-     * Load all data from backend (accounts, categories, transactions) before
-     * showing main app.
-     * 
-     * @param onComplete callback to run after all data is loaded
-     */
-    private static void loadAllDataFromBackend(Runnable onComplete) {
-        new Thread(() -> {
-            try {
-                // Load accounts
-                utils.AccountStore.loadFromBackend(
-                        () -> {
-                            // Load categories
-                            utils.CategoryStore.loadFromBackend(
-                                    () -> {
-                                        // Load transactions
-                                        utils.TransactionStore.loadFromBackend(
-                                                () -> {
-                                                    // All data loaded successfully
-                                                    if (onComplete != null) {
-                                                        onComplete.run();
-                                                    }
-                                                },
-                                                error -> {
-                                                    System.err.println("Failed to load transactions: " + error);
-                                                    if (onComplete != null) {
-                                                        onComplete.run();
-                                                    }
-                                                });
-                                    },
-                                    error -> {
-                                        System.err.println("Failed to load categories: " + error);
-                                        if (onComplete != null) {
-                                            onComplete.run();
-                                        }
-                                    });
-                        },
-                        error -> {
-                            System.err.println("Failed to load accounts: " + error);
-                            if (onComplete != null) {
-                                onComplete.run();
-                            }
-                        });
-            } catch (Exception e) {
-                System.err.println("Error loading data: " + e.getMessage());
-                if (onComplete != null) {
-                    onComplete.run();
-                }
-            }
-        }).start();
-    }
 }
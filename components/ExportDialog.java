@@ -0,0 +1,152 @@
+import javax.swing.*;
+import javax.swing.border.EmptyBorder;
+import javax.swing.filechooser.FileNameExtensionFilter;
+import java.awt.*;
+import java.io.File;
+import java.util.concurrent.CompletionException;
+import utils.ReportExporter;
+import utils.TransactionFilter;
+
+/**
+ * Dialog that exports a report through ReportExporter, with a progress bar
+ * and a cancel button.
+ */
+public class ExportDialog extends JDialog {
+    private final JProgressBar progressBar = new JProgressBar(0, 1000);
+    private final JLabel statusLabel = new JLabel("Menyiapkan laporan...");
+    private final JButton cancelBtn = new JButton("Batal");
+    private ReportExporter.Job job;
+
+    /**
+     * Ask where to save the report, then export it with a progress dialog.
+     *
+     * @param owner  component the dialogs are centered on
+     * @param filter transactions to include
+     * @param format CSV or Excel
+     */
+    public static void open(Component owner, TransactionFilter filter, ReportExporter.Format format) {
+        String extension = format.extension();
+        JFileChooser chooser = new JFileChooser();
+        chooser.setDialogTitle("Simpan laporan");
+        chooser.setFileFilter(new FileNameExtensionFilter(
+                format == ReportExporter.Format.EXCEL ? "Excel XML Spreadsheet" : "CSV", extension));
+        chooser.setSelectedFile(new File("laporan-keuangan." + extension));
+        if (chooser.showSaveDialog(owner) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        File file = chooser.getSelectedFile();
+        if (!file.getName().toLowerCase().endsWith("." + extension)) {
+            file = new File(file.getParentFile(), file.getName() + "." + extension);
+        }
+        if (file.exists() && JOptionPane.showConfirmDialog(owner, "File " + file.getName() + " sudah ada. Timpa?",
+                "Export", JOptionPane.YES_NO_OPTION) != JOptionPane.YES_OPTION) {
+            return;
+        }
+        ExportDialog dialog = new ExportDialog(SwingUtilities.getWindowAncestor(owner), file.getName());
+        dialog.setLocationRelativeTo(owner);
+        dialog.start(file, filter, format);
+        dialog.setVisible(true);
+    }
+
+    private ExportDialog(Window owner, String fileName) {
+        super(owner, "Export Laporan", ModalityType.APPLICATION_MODAL);
+        setDefaultCloseOperation(DO_NOTHING_ON_CLOSE);
+
+        JPanel content = new JPanel();
+        content.setLayout(new BoxLayout(content, BoxLayout.Y_AXIS));
+        content.setBorder(new EmptyBorder(16, 16, 16, 16));
+        content.setBackground(Color.WHITE);
+
+        JLabel fileLabel = new JLabel("File: " + fileName);
+        fileLabel.setForeground(new Color(51, 65, 85));
+        content.add(left(fileLabel));
+        content.add(Box.createVerticalStrut(12));
+
+        progressBar.setStringPainted(true);
+        progressBar.setString("");
+        content.add(left(progressBar));
+        content.add(Box.createVerticalStrut(6));
+        statusLabel.setForeground(new Color(100, 116, 139));
+        content.add(left(statusLabel));
+
+        JPanel buttons = new JPanel(new FlowLayout(FlowLayout.RIGHT, 8, 0));
+        buttons.setOpaque(false);
+        buttons.add(cancelBtn);
+        content.add(Box.createVerticalStrut(12));
+        content.add(left(buttons));
+
+        cancelBtn.addActionListener(e -> cancel());
+        addWindowListener(new java.awt.event.WindowAdapter() {
+            @Override
+            public void windowClosing(java.awt.event.WindowEvent e) {
+                cancel();
+            }
+        });
+
+        setContentPane(content);
+        setMinimumSize(new Dimension(420, 0));
+        pack();
+    }
+
+    private static JComponent left(JComponent c) {
+        c.setAlignmentX(Component.LEFT_ALIGNMENT);
+        return c;
+    }
+
+    private void start(File file, TransactionFilter filter, ReportExporter.Format format) {
+        job = ReportExporter.export(file.toPath(), filter, format, this::showProgress);
+        job.result().whenComplete((result, ex) -> SwingUtilities.invokeLater(() -> {
+            job = null;
+            progressBar.setIndeterminate(false);
+            cancelBtn.setText("Tutup");
+            cancelBtn.setEnabled(true);
+            if (ex != null) {
+                Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+                statusLabel.setText("Export gagal: " + cause.getMessage());
+                statusLabel.setForeground(new Color(220, 38, 38));
+                return;
+            }
+            if (result.cancelled()) {
+                statusLabel.setText("Export dibatalkan");
+                return;
+            }
+            progressBar.setValue(progressBar.getMaximum());
+            progressBar.setString("Selesai");
+            statusLabel.setText((result.rows() >= 0 ? result.rows() + " transaksi, " : "")
+                    + formatSize(result.bytes()) + " tersimpan");
+        }));
+    }
+
+    private void showProgress(ReportExporter.Progress progress) {
+        if (job == null) {
+            return; // Late update after the result
+        }
+        if (progress.total() > 0) {
+            int value = (int) (progress.done() * progressBar.getMaximum() / progress.total());
+            progressBar.setValue(value);
+            progressBar.setString(value / 10 + "%");
+        } else {
+            progressBar.setIndeterminate(true);
+        }
+        statusLabel.setText(progress.rows() >= 0
+                ? progress.rows() + " transaksi ditulis"
+                : formatSize(progress.done()) + " diterima dari server");
+    }
+
+    private static String formatSize(long bytes) {
+        if (bytes < 1024 * 1024) {
+            return (bytes + 1023) / 1024 + " KB";
+        }
+        return String.format("%.1f MB", bytes / (1024.0 * 1024.0));
+    }
+
+    private void cancel() {
+        if (job != null) {
+            job.cancel();
+            cancelBtn.setEnabled(false);
+            statusLabel.setText("Membatalkan...");
+        } else {
+            dispose();
+        }
+    }
+}
@@ -0,0 +1,180 @@
+import javax.swing.*;
+import javax.swing.border.EmptyBorder;
+import javax.swing.filechooser.FileNameExtensionFilter;
+import java.awt.*;
+import java.io.File;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import utils.AccountStore;
+import utils.ComboUtil;
+import utils.StatementImporter;
+
+/**
+ * Dialog that imports a CSV or OFX bank statement through StatementImporter,
+ * with a progress bar and a summary of rejected rows.
+ */
+public class ImportDialog extends JDialog {
+    private static final int PROBLEMS_SHOWN = 20;
+
+    private final File file;
+    private final JComboBox<String> accountCombo = new JComboBox<>();
+    private final JProgressBar progressBar = new JProgressBar(0, 1000);
+    private final JLabel statusLabel = new JLabel(" ");
+    private final JTextArea problemsArea = new JTextArea(8, 40);
+    private final JButton startBtn = new JButton("Impor");
+    private final JButton cancelBtn = new JButton("Batal");
+    private StatementImporter.Job job;
+
+    /**
+     * Ask for a statement file, then show the import dialog for it.
+     *
+     * @param owner component the dialogs are centered on
+     */
+    public static void open(Component owner) {
+        List<AccountStore.Account> accounts = AccountStore.snapshot().accounts();
+        if (accounts.isEmpty()) {
+            JOptionPane.showMessageDialog(owner, "Tambahkan akun terlebih dahulu sebelum mengimpor",
+                    "Impor", JOptionPane.WARNING_MESSAGE);
+            return;
+        }
+        JFileChooser chooser = new JFileChooser();
+        chooser.setDialogTitle("Pilih rekening koran");
+        chooser.setFileFilter(new FileNameExtensionFilter("Rekening koran (CSV, OFX)", "csv", "txt", "ofx", "qfx"));
+        if (chooser.showOpenDialog(owner) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        ImportDialog dialog = new ImportDialog(SwingUtilities.getWindowAncestor(owner), chooser.getSelectedFile(),
+                accounts);
+        dialog.setLocationRelativeTo(owner);
+        dialog.setVisible(true);
+    }
+
+    private ImportDialog(Window owner, File file, List<AccountStore.Account> accounts) {
+        super(owner, "Impor Transaksi", ModalityType.APPLICATION_MODAL);
+        this.file = file;
+        setDefaultCloseOperation(DO_NOTHING_ON_CLOSE);
+
+        JPanel content = new JPanel();
+        content.setLayout(new BoxLayout(content, BoxLayout.Y_AXIS));
+        content.setBorder(new EmptyBorder(16, 16, 16, 16));
+        content.setBackground(Color.WHITE);
+
+        JLabel fileLabel = new JLabel("File: " + file.getName());
+        fileLabel.setForeground(new Color(51, 65, 85));
+        content.add(left(fileLabel));
+        content.add(Box.createVerticalStrut(12));
+
+        JLabel accountLabel = new JLabel("Akun untuk baris tanpa akun");
+        accountLabel.setForeground(new Color(100, 116, 139));
+        content.add(left(accountLabel));
+        content.add(Box.createVerticalStrut(4));
+        for (AccountStore.Account account : accounts) {
+            accountCombo.addItem(account.name());
+        }
+        ComboUtil.apply(accountCombo);
+        accountCombo.setMaximumSize(new Dimension(Integer.MAX_VALUE, 32));
+        content.add(left(accountCombo));
+        content.add(Box.createVerticalStrut(12));
+
+        progressBar.setStringPainted(true);
+        progressBar.setString("");
+        content.add(left(progressBar));
+        content.add(Box.createVerticalStrut(6));
+        statusLabel.setForeground(new Color(100, 116, 139));
+        content.add(left(statusLabel));
+        content.add(Box.createVerticalStrut(8));
+
+        problemsArea.setEditable(false);
+        problemsArea.setLineWrap(true);
+        problemsArea.setWrapStyleWord(true);
+        JScrollPane problemsScroll = new JScrollPane(problemsArea);
+        problemsScroll.setVisible(false);
+        content.add(left(problemsScroll));
+
+        JPanel buttons = new JPanel(new FlowLayout(FlowLayout.RIGHT, 8, 0));
+        buttons.setOpaque(false);
+        buttons.add(cancelBtn);
+        buttons.add(startBtn);
+        content.add(Box.createVerticalStrut(12));
+        content.add(left(buttons));
+
+        startBtn.addActionListener(e -> start(problemsScroll));
+        cancelBtn.addActionListener(e -> cancel());
+        addWindowListener(new java.awt.event.WindowAdapter() {
+            @Override
+            public void windowClosing(java.awt.event.WindowEvent e) {
+                cancel();
+            }
+        });
+
+        setContentPane(content);
+        setMinimumSize(new Dimension(460, 0));
+        pack();
+    }
+
+    private static JComponent left(JComponent c) {
+        c.setAlignmentX(Component.LEFT_ALIGNMENT);
+        return c;
+    }
+
+    private void start(JScrollPane problemsScroll) {
+        startBtn.setEnabled(false);
+        accountCombo.setEnabled(false);
+        statusLabel.setText("Membaca file...");
+        job = StatementImporter.importFile(file.toPath(), (String) accountCombo.getSelectedItem(), this::showProgress);
+        job.result().whenComplete((result, ex) -> SwingUtilities.invokeLater(() -> {
+            cancelBtn.setText("Tutup");
+            cancelBtn.setEnabled(true);
+            job = null;
+            if (ex != null) {
+                Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+                statusLabel.setText("Impor gagal: " + cause.getMessage());
+                statusLabel.setForeground(new Color(220, 38, 38));
+                return;
+            }
+            progressBar.setValue(progressBar.getMaximum());
+            progressBar.setString("Selesai");
+            statusLabel.setText((result.cancelled() ? "Dibatalkan. " : "") + result.saved() + " transaksi tersimpan, "
+                    + result.failed() + " gagal");
+            if (!result.problems().isEmpty()) {
+                StringBuilder text = new StringBuilder();
+                List<StatementImporter.Problem> problems = result.problems();
+                for (int i = 0; i < Math.min(PROBLEMS_SHOWN, problems.size()); i++) {
+                    text.append("Baris ").append(problems.get(i).line()).append(": ")
+                            .append(problems.get(i).message()).append('\n');
+                }
+                if (result.failed() > PROBLEMS_SHOWN) {
+                    text.append("... dan ").append(result.failed() - PROBLEMS_SHOWN).append(" lainnya");
+                }
+                problemsArea.setText(text.toString().trim());
+                problemsArea.setCaretPosition(0);
+                problemsScroll.setVisible(true);
+                pack();
+            }
+        }));
+    }
+
+    private void showProgress(StatementImporter.Progress progress) {
+        if (job == null) {
+            return; // Late update after the result
+        }
+        if (progress.totalBytes() > 0) {
+            int value = (int) (progress.bytesRead() * progressBar.getMaximum() / progress.totalBytes());
+            progressBar.setValue(value);
+            progressBar.setString(value / 10 + "%");
+        }
+        statusLabel.setText(progress.rowsRead() + " baris dibaca, " + progress.saved() + " tersimpan, "
+                + progress.failed() + " gagal");
+    }
+
+    private void cancel() {
+        if (job != null) {
+            // Rows already queued are still saved; wait for them
+            job.cancel();
+            cancelBtn.setEnabled(false);
+            statusLabel.setText("Membatalkan...");
+        } else {
+            dispose();
+        }
+    }
+}
@@ -3,10 +3,14 @@ import java.awt.*;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.function.Supplier;
+import utils.PendingOperations;
 
 public class TopBar extends JPanel {
     private final Font topFont;
     private final Runnable onLogout;
+    private final JButton pendingBtn = new JButton();
+    private List<PendingOperations.Operation> failedOperations = List.of();
+    private boolean offline;
 
     public TopBar() {
         this(null);
@@ -29,7 +33,7 @@ public class TopBar extends JPanel {
         JButton btnFile = makeTopButton("File", () -> createMenuContent(simpleMenu("New", "Open", "Save", "-", "Exit")));
         JButton btnView = makeTopButton("View", () -> createMenuContent(simpleMenu("Toggle Sidebar", "Refresh")));
         JButton btnEdit = makeTopButton("Edit", () -> createMenuContent(simpleMenu("Undo", "Redo", "-", "Preferences")));
-        JButton btnTools = makeTopButton("Tools", () -> createMenuContent(simpleMenu("Import", "Export")));
+        JButton btnTools = makeTopButton("Tools", () -> createMenuContent(toolsMenuItems()));
         JButton btnHelp = makeTopButton("Help", () -> createMenuContent(simpleMenu("Documentation", "About")));
 
         leftButtons.add(btnFile);
@@ -61,8 +65,26 @@ public class TopBar extends JPanel {
         profileBtn.addActionListener(e -> showPopupBelow(profileBtn,
             () -> createMenuContent(profileMenuItems())));
 
+        // Changes the stores applied locally but the backend has not confirmed
+        pendingBtn.setFont(topFont.deriveFont(topFont.getSize2D() - 2f));
+        pendingBtn.setFocusPainted(false);
+        pendingBtn.setBorderPainted(false);
+        pendingBtn.setContentAreaFilled(false);
+        pendingBtn.setOpaque(false);
+        pendingBtn.setBorder(BorderFactory.createEmptyBorder(6, 12, 6, 12));
+        pendingBtn.setVisible(false);
+        pendingBtn.addActionListener(e -> {
+            if (!failedOperations.isEmpty()) {
+                showPopupBelow(pendingBtn, () -> createMenuContent(failureMenuItems()));
+            } else if (offline) {
+                PendingOperations.retryNow();
+            }
+        });
+        PendingOperations.addListener(this::showPending);
+
         JPanel right = new JPanel(new FlowLayout(FlowLayout.RIGHT, 0, 0));
         right.setOpaque(false);
+        right.add(pendingBtn);
         right.add(profileBtn);
 
         add(left, BorderLayout.WEST);
@@ -125,6 +147,58 @@ public class TopBar extends JPanel {
         return list;
     }
 
+    private void showPending(PendingOperations.Snapshot snapshot) {
+        failedOperations = snapshot.failed();
+        offline = snapshot.offline();
+        int pending = snapshot.pending().size();
+        if (!failedOperations.isEmpty()) {
+            pendingBtn.setText(failedOperations.size() + " perubahan gagal");
+            pendingBtn.setForeground(new Color(220, 38, 38));
+            pendingBtn.setCursor(Cursor.getPredefinedCursor(Cursor.HAND_CURSOR));
+        } else if (offline) {
+            // Click to retry now instead of waiting for the next attempt
+            pendingBtn.setText("Offline: " + pending + " perubahan menunggu");
+            pendingBtn.setForeground(new Color(217, 119, 6));
+            pendingBtn.setCursor(Cursor.getPredefinedCursor(Cursor.HAND_CURSOR));
+        } else {
+            pendingBtn.setText("Menyimpan " + pending + " perubahan...");
+            pendingBtn.setForeground(new Color(100, 116, 139));
+            pendingBtn.setCursor(Cursor.getDefaultCursor());
+        }
+        StringBuilder tip = new StringBuilder("<html>");
+        for (PendingOperations.Operation op : snapshot.pending()) {
+            tip.append("Menunggu: ").append(escapeHtml(op.description())).append("<br>");
+        }
+        for (PendingOperations.Operation op : failedOperations) {
+            tip.append("Gagal: ").append(escapeHtml(op.description())).append(" (")
+                .append(escapeHtml(op.error())).append(")<br>");
+        }
+        pendingBtn.setToolTipText(tip.append("</html>").toString());
+        pendingBtn.setVisible(pending > 0 || !failedOperations.isEmpty());
+        revalidate();
+    }
+
+    private static String escapeHtml(String text) {
+        return text == null ? "" : text.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;");
+    }
+
+    private List<MenuItem> failureMenuItems() {
+        List<MenuItem> items = new ArrayList<>();
+        for (PendingOperations.Operation op : failedOperations) {
+            items.add(MenuItem.action(op.description() + ": " + op.error(), () -> {}));
+        }
+        items.add(MenuItem.divider());
+        items.add(MenuItem.action("Tutup", PendingOperations::dismissFailures));
+        return items;
+    }
+
+    private List<MenuItem> toolsMenuItems() {
+        List<MenuItem> items = new ArrayList<>();
+        items.add(MenuItem.action("Import", () -> ImportDialog.open(this)));
+        items.add(MenuItem.action("Export", () -> System.out.println("Clicked: Export")));
+        return items;
+    }
+
     private List<MenuItem> profileMenuItems() {
         List<MenuItem> items = new ArrayList<>();
         items.add(MenuItem.action("View Profile", () -> System.out.println("Clicked: View Profile")));
@@ -1,8 +1,11 @@
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
 import java.awt.*;
+import java.util.HashMap;
+import java.util.Map;
 import utils.ScrollUtil;
 import utils.AccountStore;
+import utils.ChangeSet;
 
 public class AkunWalletPage extends JPanel {
     private final JPanel accountsGrid;
@@ -13,6 +16,7 @@ public class AkunWalletPage extends JPanel {
     private final JLabel creditLabel;
     private JLabel loadingLabel;
     private AccountStore.Snapshot snapshot = AccountStore.snapshot();
+    private final Map<String, JPanel> cardsById = new HashMap<>();
 
     public AkunWalletPage() {
         setLayout(new BorderLayout());
@@ -96,8 +100,7 @@ public class AkunWalletPage extends JPanel {
         loadingLabel.setVisible(false);
         root.add(loadingLabel);
 
-        AccountStore.addListener(this::renderSnapshot);
-        renderSnapshot(AccountStore.snapshot());
+        AccountStore.addChangeListener(this::applyChanges);
         
         // Load data from backend
         loadDataFromBackend();
@@ -132,25 +135,63 @@ public class AkunWalletPage extends JPanel {
             return;
         }
 
-        showLoading(true);
+        // Shown right away; rolled back and reported if the backend rejects it
         AccountStore.addAccount(name, number.isEmpty() ? "-" : number, balance, type,
-            accountId -> {
-                // onSuccess
-                showLoading(false);
-            },
-            error -> {
-                // onError
-                showLoading(false);
-                JOptionPane.showMessageDialog(this, "Gagal menambah akun: " + error, "Error", JOptionPane.ERROR_MESSAGE);
-            }
+            accountId -> {},
+            error -> JOptionPane.showMessageDialog(this, "Gagal menambah akun: " + error, "Error", JOptionPane.ERROR_MESSAGE)
         );
     }
 
     private void renderSnapshot(AccountStore.Snapshot snap) {
         this.snapshot = snap;
         accountsGrid.removeAll();
+        cardsById.clear();
         for (AccountStore.Account acc : snap.accounts()) {
-            accountsGrid.add(buildAccountCard(acc));
+            JPanel card = buildAccountCard(acc);
+            cardsById.put(acc.id(), card);
+            accountsGrid.add(card);
+        }
+        accountsGrid.revalidate();
+        accountsGrid.repaint();
+        updateSummaries();
+    }
+
+    /**
+     * Touch only the cards of accounts that changed; a balance refresh no
+     * longer rebuilds every card.
+     */
+    private void applyChanges(AccountStore.Snapshot snap, ChangeSet<AccountStore.Account> changes) {
+        if (changes.reset()) {
+            renderSnapshot(snap);
+            return;
+        }
+        this.snapshot = snap;
+        for (AccountStore.Account acc : changes.removed()) {
+            JPanel card = cardsById.remove(acc.id());
+            if (card != null) {
+                accountsGrid.remove(card);
+            }
+        }
+        for (AccountStore.Account acc : changes.updated()) {
+            JPanel old = cardsById.get(acc.id());
+            if (old == null) {
+                continue;
+            }
+            int index = accountsGrid.getComponentZOrder(old);
+            accountsGrid.remove(index);
+            JPanel card = buildAccountCard(acc);
+            cardsById.put(acc.id(), card);
+            accountsGrid.add(card, index);
+        }
+        for (AccountStore.Account acc : changes.added()) {
+            int index = snap.accounts().indexOf(acc);
+            JPanel card = buildAccountCard(acc);
+            cardsById.put(acc.id(), card);
+            accountsGrid.add(card, index >= 0 ? Math.min(index, accountsGrid.getComponentCount()) : -1);
+        }
+        if (accountsGrid.getComponentCount() != snap.accounts().size()) {
+            renderSnapshot(snap); // Out of step; start over
+            return;
         }
         accountsGrid.revalidate();
         accountsGrid.repaint();
@@ -196,17 +237,9 @@ public class AkunWalletPage extends JPanel {
             int confirm = JOptionPane.showConfirmDialog(this, "Hapus akun ini?", "Konfirmasi", JOptionPane.YES_NO_OPTION);
             if (confirm != JOptionPane.YES_OPTION) return;
             
-            showLoading(true);
             AccountStore.removeAccount(acc.id(),
-                () -> {
-                    // onSuccess
-                    showLoading(false);
-                },
-                error -> {
-                    // onError
-                    showLoading(false);
-                    JOptionPane.showMessageDialog(this, "Gagal menghapus akun: " + error, "Error", JOptionPane.ERROR_MESSAGE);
-                }
+                () -> {},
+                error -> JOptionPane.showMessageDialog(this, "Gagal menghapus akun: " + error, "Error", JOptionPane.ERROR_MESSAGE)
             );
         });
         menu.add(deleteItem);
@@ -1,6 +1,10 @@
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
 import java.awt.*;
+import utils.BackgroundExecutor;
+import utils.DataBootstrap;
+import utils.LocalCache;
+import utils.PendingOperations;
 import utils.SocketClient;
 import utils.SessionManager;
 
@@ -191,8 +195,8 @@ public class AuthPage extends JPanel {
         loginButton.setEnabled(false);
         loginButton.setText("Loading...");
 
-        // Execute in background thread
-        new Thread(() -> {
+        // Execute on shared background executor
+        BackgroundExecutor.execute(() -> {
             try {
                 SocketClient client = SocketClient.getInstance();
                 String command = client.formatCommand("LOGIN", username, password);
@@ -237,13 +241,13 @@ public class AuthPage extends JPanel {
                     }
 
                     // Load all data from backend before showing dashboard
-                    loadAllDataFromBackend(() -> {
-                        // Call success callback on EDT after data loaded
-                        SwingUtilities.invokeLater(() -> {
-                            if (onLoginSuccess != null) {
-                                onLoginSuccess.run();
-                            }
-                        });
+                    DataBootstrap.loadAll(report -> {
+                        LocalCache.enable();
+                        // Send changes left over from an earlier session of this user
+                        PendingOperations.replay();
+                        if (onLoginSuccess != null) {
+                            onLoginSuccess.run();
+                        }
                     });
                 } else if (response != null && response.startsWith("LOGIN_FAIL")) {
                     System.out.println("[AuthPage] Login failed: " + response);
@@ -270,7 +274,7 @@ public class AuthPage extends JPanel {
                     loginButton.setText(isRegisterMode ? "Daftar" : "Login");
                 });
             }
-        }).start();
+        });
     }
 
     /**
@@ -296,8 +300,8 @@ public class AuthPage extends JPanel {
         loginButton.setEnabled(false);
         loginButton.setText("Loading...");
 
-        // Execute in background thread
-        new Thread(() -> {
+        // Execute on shared background executor
+        BackgroundExecutor.execute(() -> {
             try {
                 SocketClient client = SocketClient.getInstance();
                 String command = client.formatCommand("REGISTER", username, password);
@@ -336,7 +340,7 @@ public class AuthPage extends JPanel {
                     loginButton.setText("Daftar");
                 });
             }
-        }).start();
+        });
     }
 
     /**
@@ -350,7 +354,7 @@ public class AuthPage extends JPanel {
 
         if (sessionToken != null && !sessionToken.isEmpty()) {
             // Send LOGOUT command in background
-            new Thread(() -> {
+            BackgroundExecutor.execute(() -> {
                 try {
                     SocketClient client = SocketClient.getInstance();
                     String command = client.formatCommand("LOGOUT", sessionToken);
@@ -359,7 +363,7 @@ public class AuthPage extends JPanel {
                     // Ignore errors during logout
                     System.err.println("Logout error: " + e.getMessage());
                 }
-            }).start();
+            });
         }
 
         // Clear session
@@ -542,55 +546,4 @@ public class AuthPage extends JPanel {
             return size;
         }
     }
-
-    /**
-     * Load all data from backend (accounts, categories, transactions) after login.
-     * 
-     * @param onComplete callback to run after all data is loaded
-     */
-    private void loadAllDataFromBackend(Runnable onComplete) {
-        new Thread(() -> {
-            try {
-                // Load accounts
-                utils.AccountStore.loadFromBackend(
-                        () -> {
-                            // Load categories
-                            utils.CategoryStore.loadFromBackend(
-                                    () -> {
-                                        // Load transactions
-                                        utils.TransactionStore.loadFromBackend(
-                                                () -> {
-                                                    // All data loaded successfully
-                                                    if (onComplete != null) {
-                                                        onComplete.run();
-                                                    }
-                                                },
-                                                error -> {
-                                                    System.err.println("Failed to load transactions: " + error);
-                                                    if (onComplete != null) {
-                                                        onComplete.run();
-                                                    }
-                                                });
-                                    },
-                                    error -> {
-                                        System.err.println("Failed to load categories: " + error);
-                                        if (onComplete != null) {
-                                            onComplete.run();
-                                        }
-                                    });
-                        },
-                        error -> {
-                            System.err.println("Failed to load accounts: " + error);
-                            if (onComplete != null) {
-                                onComplete.run();
-                            }
-                        });
-            } catch (Exception e) {
-                System.err.println("Error loading data: " + e.getMessage());
-                if (onComplete != null) {
-                    onComplete.run();
-                }
-            }
-        }).start();
-    }
 }
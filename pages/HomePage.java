@@ -7,11 +7,13 @@ import java.awt.geom.Arc2D;
 import java.awt.geom.Path2D;
 import java.time.YearMonth;
 import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import utils.ScrollUtil;
 import utils.AccountStore;
+import utils.ChartScale;
+import utils.DataBootstrap;
+import utils.TransactionRollup;
 import utils.TransactionStore;
 import utils.SocketClient;
 import utils.SessionManager;
@@ -264,21 +266,14 @@ public class HomePage extends JPanel {
 
         YearMonth now = YearMonth.now();
         YearMonth lastMonth = now.minusMonths(1);
+        TransactionRollup rollup = TransactionStore.rollup();
 
-        long incomeThisMonth = transactionSnapshot.transactions().stream()
-                .filter(t -> t.yearMonth().equals(now) && t.isIncome())
-                .mapToLong(TransactionStore.Transaction::amount)
-                .sum();
-        long expenseThisMonth = transactionSnapshot.transactions().stream()
-                .filter(t -> t.yearMonth().equals(now) && !t.isIncome())
-                .mapToLong(TransactionStore.Transaction::amount)
-                .sum();
+        long incomeThisMonth = rollup.total(now, TransactionStore.TYPE_INCOME);
+        long expenseThisMonth = rollup.total(now, TransactionStore.TYPE_EXPENSE);
         long netThisMonth = incomeThisMonth - expenseThisMonth;
 
-        long netLastMonth = transactionSnapshot.transactions().stream()
-                .filter(t -> t.yearMonth().equals(lastMonth))
-                .mapToLong(t -> t.isIncome() ? t.amount() : -t.amount())
-                .sum();
+        long netLastMonth = rollup.total(lastMonth, TransactionStore.TYPE_INCOME)
+                - rollup.total(lastMonth, TransactionStore.TYPE_EXPENSE);
 
         incomeLabel.setText(formatRupiah(incomeThisMonth));
         expenseLabel.setText(formatRupiah(expenseThisMonth));
@@ -293,17 +288,13 @@ public class HomePage extends JPanel {
             months.add(now.minusMonths(i));
         }
         String[] monthLabels = new String[months.size()];
-        int[] incomes = new int[months.size()];
-        int[] expenses = new int[months.size()];
+        long[] incomes = new long[months.size()];
+        long[] expenses = new long[months.size()];
         for (int i = 0; i < months.size(); i++) {
             YearMonth ym = months.get(i);
             monthLabels[i] = ym.getMonth().toString().substring(0, 3);
-            incomes[i] = (int) transactionSnapshot.transactions().stream()
-                    .filter(t -> t.yearMonth().equals(ym) && t.isIncome())
-                    .mapToLong(TransactionStore.Transaction::amount).sum();
-            expenses[i] = (int) transactionSnapshot.transactions().stream()
-                    .filter(t -> t.yearMonth().equals(ym) && !t.isIncome())
-                    .mapToLong(TransactionStore.Transaction::amount).sum();
+            incomes[i] = rollup.total(ym, TransactionStore.TYPE_INCOME);
+            expenses[i] = rollup.total(ym, TransactionStore.TYPE_EXPENSE);
         }
         trendChart.setData(monthLabels, incomes, expenses);
 
@@ -311,14 +302,11 @@ public class HomePage extends JPanel {
         List<CategoryPieChartPanel.Slice> slices = new ArrayList<>();
         Color[] palette = new Color[] { color(37, 99, 235), color(5, 150, 105), color(220, 38, 38), color(245, 158, 11),
                 color(100, 116, 139), color(14, 165, 233) };
-        Map<String, Long> groupedExpenses = transactionSnapshot.transactions().stream()
-                .filter(t -> t.yearMonth().equals(now) && !t.isIncome())
-                .collect(java.util.stream.Collectors.groupingBy(TransactionStore.Transaction::category,
-                        java.util.stream.Collectors.summingLong(TransactionStore.Transaction::amount)));
+        Map<String, TransactionRollup.Cell> groupedExpenses = rollup.byCategory(now, TransactionStore.TYPE_EXPENSE);
         int idx = 0;
-        for (Map.Entry<String, Long> entry : groupedExpenses.entrySet()) {
+        for (Map.Entry<String, TransactionRollup.Cell> entry : groupedExpenses.entrySet()) {
             Color c = palette[idx % palette.length];
-            slices.add(new CategoryPieChartPanel.Slice(entry.getKey(), entry.getValue(), c));
+            slices.add(new CategoryPieChartPanel.Slice(entry.getKey(), entry.getValue().total(), c));
             idx++;
         }
         pieChart.setSlices(slices);
@@ -326,8 +314,8 @@ public class HomePage extends JPanel {
         // Recent transactions
         recentTableModel.setRowCount(0);
         long running = 0;
+        // Snapshots are already sorted newest first
         List<TransactionStore.Transaction> recent = transactionSnapshot.transactions().stream()
-                .sorted(Comparator.comparing(TransactionStore.Transaction::date).reversed())
                 .limit(10)
                 .toList();
         for (TransactionStore.Transaction tx : recent) {
@@ -352,41 +340,11 @@ public class HomePage extends JPanel {
 
     private void loadAllDataFromBackend() {
         showLoading(true);
-
-        // Load accounts first
-        AccountStore.loadFromBackend(
-                () -> {
-                    // Then load categories
-                    utils.CategoryStore.loadFromBackend(
-                            () -> {
-                                // Then load transactions
-                                TransactionStore.loadFromBackend(
-                                        () -> {
-                                            SwingUtilities.invokeLater(() -> {
-                                                showLoading(false);
-                                                refreshData();
-                                            });
-                                        },
-                                        error -> {
-                                            SwingUtilities.invokeLater(() -> {
-                                                showLoading(false);
-                                                System.err.println("Failed to load transactions: " + error);
-                                            });
-                                        });
-                            },
-                            error -> {
-                                SwingUtilities.invokeLater(() -> {
-                                    showLoading(false);
-                                    System.err.println("Failed to load categories: " + error);
-                                });
-                            });
-                },
-                error -> {
-                    SwingUtilities.invokeLater(() -> {
-                        showLoading(false);
-                        System.err.println("Failed to load accounts: " + error);
-                    });
-                });
+        DataBootstrap.loadAll(report -> {
+            showLoading(false);
+            report.failures().forEach(stage -> System.err.println("Failed to load " + stage.name() + ": " + stage.error()));
+            refreshData();
+        });
     }
 
     private JComponent buildUpcomingBills() {
@@ -568,13 +526,13 @@ public class HomePage extends JPanel {
     // Trend chart panel
     static class TrendChartPanel extends JPanel {
         private String[] months = new String[0];
-        private int[] pemasukan = new int[0];
-        private int[] pengeluaran = new int[0];
+        private long[] pemasukan = new long[0];
+        private long[] pengeluaran = new long[0];
 
-        void setData(String[] months, int[] pemasukan, int[] pengeluaran) {
+        void setData(String[] months, long[] pemasukan, long[] pengeluaran) {
             this.months = months == null ? new String[0] : months;
-            this.pemasukan = pemasukan == null ? new int[0] : pemasukan;
-            this.pengeluaran = pengeluaran == null ? new int[0] : pengeluaran;
+            this.pemasukan = pemasukan == null ? new long[0] : pemasukan;
+            this.pengeluaran = pengeluaran == null ? new long[0] : pengeluaran;
             repaint();
         }
 
@@ -585,23 +543,29 @@ public class HomePage extends JPanel {
             g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
             int w = getWidth(), h = getHeight();
             int padL = 50, padR = 16, padT = 10, padB = 30;
-            g2.setColor(new Color(226, 232, 240));
-            int gridLines = 5;
-            for (int i = 0; i <= gridLines; i++) {
-                int y = padT + (h - padT - padB) * i / gridLines;
+            // Long series are merged so each label keeps about 40 pixels
+            int bucket = ChartScale.bucketSize(months.length, (w - padL - padR) / 40);
+            String[] labels = ChartScale.downsampleLabels(months, bucket);
+            long[] incomes = ChartScale.downsample(pemasukan, bucket);
+            long[] expenses = ChartScale.downsample(pengeluaran, bucket);
+            long max = Math.max(java.util.Arrays.stream(incomes).max().orElse(0),
+                    java.util.Arrays.stream(expenses).max().orElse(0));
+            ChartScale.Axis axis = ChartScale.axis(max, 5);
+            for (int i = 0; i <= axis.ticks(); i++) {
+                int y = h - padB - (h - padT - padB) * i / axis.ticks();
+                g2.setColor(new Color(226, 232, 240));
                 g2.drawLine(padL, y, w - padR, y);
+                g2.setColor(new Color(100, 116, 139));
+                String text = ChartScale.label(axis.step() * i);
+                g2.drawString(text, padL - 6 - g2.getFontMetrics().stringWidth(text), y + 4);
             }
-            g2.setColor(new Color(100, 116, 139));
-            int cols = months.length;
+            int cols = labels.length;
             for (int i = 0; i < cols; i++) {
                 int x = padL + (w - padL - padR) * (cols == 1 ? 0 : i) / Math.max(1, cols - 1);
-                g2.drawString(months[i], x - 8, h - 10);
+                g2.drawString(labels[i], x - 8, h - 10);
             }
-            int maxIncome = java.util.Arrays.stream(pemasukan).max().orElse(1);
-            int maxExpense = java.util.Arrays.stream(pengeluaran).max().orElse(1);
-            int max = Math.max(1, Math.max(maxIncome, maxExpense));
-            drawSeries(g2, pemasukan, new Color(5, 150, 105), padL, padR, padT, padB, w, h, max);
-            drawSeries(g2, pengeluaran, new Color(220, 38, 38), padL, padR, padT, padB, w, h, max);
+            drawSeries(g2, incomes, new Color(5, 150, 105), padL, padR, padT, padB, w, h, axis);
+            drawSeries(g2, expenses, new Color(220, 38, 38), padL, padR, padT, padB, w, h, axis);
             int ly = padT + 10;
             int lx = w - padR - 160;
             drawLegend(g2, lx, ly, new Color(5, 150, 105), "Pemasukan");
@@ -609,15 +573,15 @@ public class HomePage extends JPanel {
             g2.dispose();
         }
 
-        private void drawSeries(Graphics2D g2, int[] data, Color col, int padL, int padR, int padT, int padB, int w,
-                int h, int max) {
+        private void drawSeries(Graphics2D g2, long[] data, Color col, int padL, int padR, int padT, int padB, int w,
+                int h, ChartScale.Axis axis) {
             if (data.length == 0)
                 return;
             g2.setColor(col);
             g2.setStroke(new BasicStroke(2f));
             Path2D p = new Path2D.Double();
             for (int i = 0; i < data.length; i++) {
-                double norm = Math.max(0, Math.min(1, data[i] / (double) max));
+                double norm = axis.fraction(data[i]);
                 int x = padL + (w - padL - padR) * (data.length == 1 ? 0 : i) / Math.max(1, data.length - 1);
                 int y = padT + (int) ((1 - norm) * (h - padT - padB));
                 if (i == 0)
@@ -7,6 +7,7 @@ import java.util.Map;
 import java.util.HashMap;
 import utils.ScrollUtil;
 import utils.CategoryStore;
+import utils.TransactionRollup;
 import utils.TransactionStore;
 
 public class KategoriPage extends JPanel {
@@ -209,18 +210,9 @@ public class KategoriPage extends JPanel {
     }
 
     private CategoryStats calculateCategoryStats(String categoryName, boolean isIncome) {
-        int count = 0;
-        long total = 0;
-        
-        for (TransactionStore.Transaction tx : transactionSnapshot.transactions()) {
-            boolean matchType = isIncome ? tx.isIncome() : !tx.isIncome();
-            if (matchType && categoryName.equalsIgnoreCase(tx.category())) {
-                count++;
-                total += tx.amount();
-            }
-        }
-        
-        return new CategoryStats(count, total);
+        String type = isIncome ? TransactionStore.TYPE_INCOME : TransactionStore.TYPE_EXPENSE;
+        TransactionRollup.Cell cell = TransactionStore.rollup().category(type, categoryName);
+        return new CategoryStats(cell.count(), cell.total());
     }
 
     private String getIconForCategory(String name) {
@@ -331,23 +323,17 @@ public class KategoriPage extends JPanel {
             }
         }
         
-        showLoading(true);
+        // The store shows the category right away and takes it back if the
+        // backend rejects it, so the form can close immediately
         CategoryStore.addCategory(type, name,
-            () -> {
-                // onSuccess
-                showLoading(false);
-                editMode = false;
-                editingIndex = -1;
-                editingIncome = false;
-                renderCategoryList();
-                rightCards.show(rightPanelCards, "stats");
-            },
-            error -> {
-                // onError
-                showLoading(false);
-                JOptionPane.showMessageDialog(this, "Gagal menyimpan kategori: " + error, "Error", JOptionPane.ERROR_MESSAGE);
-            }
+            () -> {},
+            error -> JOptionPane.showMessageDialog(this, "Gagal menyimpan kategori: " + error, "Error", JOptionPane.ERROR_MESSAGE)
         );
+        editMode = false;
+        editingIndex = -1;
+        editingIncome = false;
+        renderCategoryList();
+        rightCards.show(rightPanelCards, "stats");
     }
 
     private void ensureIndex(List<Category> list, int index, Category value){
@@ -437,36 +423,20 @@ public class KategoriPage extends JPanel {
             int confirm = JOptionPane.showConfirmDialog(this, "Hapus kategori ini?", "Konfirmasi", JOptionPane.YES_NO_OPTION);
             if (confirm != JOptionPane.YES_OPTION) return;
             
-            showLoading(true);
             if ("income".equals(selectedType)) {
                 incomeCategories.remove(category);
                 CategoryStore.removeCategory(CategoryStore.INCOME, category.name,
-                    () -> {
-                        // onSuccess
-                        showLoading(false);
-                        renderCategoryList();
-                    },
-                    error -> {
-                        // onError
-                        showLoading(false);
-                        JOptionPane.showMessageDialog(this, "Gagal menghapus kategori: " + error, "Error", JOptionPane.ERROR_MESSAGE);
-                    }
+                    () -> {},
+                    error -> JOptionPane.showMessageDialog(this, "Gagal menghapus kategori: " + error, "Error", JOptionPane.ERROR_MESSAGE)
                 );
             } else {
                 expenseCategories.remove(category);
                 CategoryStore.removeCategory(CategoryStore.EXPENSE, category.name,
-                    () -> {
-                        // onSuccess
-                        showLoading(false);
-                        renderCategoryList();
-                    },
-                    error -> {
-                        // onError
-                        showLoading(false);
-                        JOptionPane.showMessageDialog(this, "Gagal menghapus kategori: " + error, "Error", JOptionPane.ERROR_MESSAGE);
-                    }
+                    () -> {},
+                    error -> JOptionPane.showMessageDialog(this, "Gagal menghapus kategori: " + error, "Error", JOptionPane.ERROR_MESSAGE)
                 );
             }
+            renderCategoryList();
         });
         actions.add(editBtn);
         actions.add(deleteBtn);
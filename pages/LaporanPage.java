@@ -5,15 +5,21 @@ import javax.swing.table.TableCellRenderer;
 import java.awt.*;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Method;
+import java.time.LocalDate;
 import java.time.YearMonth;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Locale;
-import java.util.Map;
-import java.util.stream.Collectors;
 import utils.ScrollUtil;
+import utils.AccountStore;
+import utils.BackgroundExecutor;
+import utils.CategoryStore;
+import utils.ChartScale;
 import utils.ComboUtil;
+import utils.ReportAggregator;
+import utils.ReportExporter;
+import utils.TransactionFilter;
 import utils.TransactionStore;
 
 public class LaporanPage extends JPanel {
@@ -23,7 +29,13 @@ public class LaporanPage extends JPanel {
     private TabButton grafButton;
     private TabButton tabelButton;
     private TabButton komparButton;
-    private TransactionStore.Snapshot transactionSnapshot = TransactionStore.snapshot();
+    // Criteria of the figures shown, set by "Tampilkan"; read by the refresh
+    // worker when it starts
+    private volatile TransactionFilter appliedFilter;
+    // Refreshes started and the newest one shown, so a slow stale result never
+    // replaces a newer one
+    private long refreshGeneration;
+    private long renderedGeneration;
     private List<MonthData> monthlyData = new ArrayList<>();
     private List<CategorySlice> categoryBreakdown = new ArrayList<>();
     private List<ComparisonData> comparisonData = new ArrayList<>();
@@ -35,6 +47,10 @@ public class LaporanPage extends JPanel {
     private JLabel totalExpenseLabel;
     private JLabel netIncomeLabel;
     private JLabel totalTxLabel;
+    private JTextField dateFrom;
+    private JTextField dateTo;
+    private JComboBox<String> akunFilter;
+    private JComboBox<String> kategoriFilter;
 
     public LaporanPage() {
         setLayout(new BorderLayout());
@@ -74,12 +90,23 @@ public class LaporanPage extends JPanel {
         RoundPanel filterCard = new RoundPanel(10, Color.WHITE, color(226, 232, 240));
         filterCard.setLayout(new GridLayout(1, 5, 12, 0));
         filterCard.setBorder(new EmptyBorder(16, 16, 16, 16));
-        JTextField dateFrom = new JTextField("2025-01-01");
-        JTextField dateTo = new JTextField("2025-11-18");
-        JComboBox<String> akunFilter = new JComboBox<>(new String[]{"Semua Akun", "BCA", "Mandiri", "Cash"});
-        JComboBox<String> kategoriFilter = new JComboBox<>(new String[]{"Semua Kategori", "Pemasukan", "Makanan", "Transportasi", "Belanja", "Tagihan"});
+        // Same span as the monthly chart
+        dateFrom = new JTextField(YearMonth.now().minusMonths(ReportAggregator.SERIES_MONTHS - 1).atDay(1).toString());
+        // Open-ended unless the user types an end date, so rows dated after
+        // the page was opened, or in the future, are never left out
+        dateTo = new JTextField();
+        dateTo.setToolTipText("yyyy-MM-dd, kosongkan untuk tanpa batas akhir");
+        akunFilter = new JComboBox<>(new String[]{"Semua Akun"});
+        kategoriFilter = new JComboBox<>(new String[]{"Semua Kategori"});
         ComboUtil.apply(akunFilter);
         ComboUtil.apply(kategoriFilter);
+        AccountStore.addListener(snap -> refillFilter(akunFilter, "Semua Akun",
+                snap.accounts().stream().map(AccountStore.Account::name).toList()));
+        CategoryStore.addListener(snap -> {
+            List<String> names = new ArrayList<>(snap.expenses());
+            snap.incomes().stream().filter(name -> !names.contains(name)).forEach(names::add);
+            refillFilter(kategoriFilter, "Semua Kategori", names);
+        });
         filterCard.add(createFormField("Dari Tanggal", dateFrom));
         filterCard.add(createFormField("Sampai Tanggal", dateTo));
         filterCard.add(createFormField("Akun", akunFilter));
@@ -87,6 +114,9 @@ public class LaporanPage extends JPanel {
         JPanel btnPanel = new JPanel(new BorderLayout());
         btnPanel.setOpaque(false);
         JButton showBtn = new RoundedButton("Tampilkan", true);
+        showBtn.addActionListener(e -> applyFilter());
+        dateFrom.addActionListener(e -> applyFilter());
+        dateTo.addActionListener(e -> applyFilter());
         btnPanel.add(showBtn, BorderLayout.SOUTH);
         filterCard.add(btnPanel);
         filterCard.setMaximumSize(new Dimension(Integer.MAX_VALUE, 80));
@@ -132,8 +162,12 @@ public class LaporanPage extends JPanel {
 
         JPanel exportButtons = new JPanel(new FlowLayout(FlowLayout.RIGHT, 8, 0));
         exportButtons.setOpaque(false);
-        exportButtons.add(new RoundedButton("Export PDF", false));
-        exportButtons.add(new RoundedButton("Export Excel", false));
+        JButton exportCsvBtn = new RoundedButton("Export CSV", false);
+        JButton exportExcelBtn = new RoundedButton("Export Excel", false);
+        exportCsvBtn.addActionListener(e -> exportReport(ReportExporter.Format.CSV));
+        exportExcelBtn.addActionListener(e -> exportReport(ReportExporter.Format.EXCEL));
+        exportButtons.add(exportCsvBtn);
+        exportButtons.add(exportExcelBtn);
         exportButtons.add(new RoundedButton("Print", false));
         chartHeader.add(exportButtons, BorderLayout.EAST);
         chartCard.add(chartHeader, BorderLayout.NORTH);
@@ -146,11 +180,8 @@ public class LaporanPage extends JPanel {
         root.add(chartCard);
         root.add(Box.createVerticalGlue());
 
-        TransactionStore.addListener(snap -> {
-            transactionSnapshot = snap;
-            refreshData();
-        });
-        refreshData();
+        appliedFilter = currentFilter();
+        TransactionStore.addListener(snap -> refreshData());
     }
 
     private void switchTab(String key) {
@@ -267,70 +298,139 @@ public class LaporanPage extends JPanel {
         return panel;
     }
 
+    private void exportReport(ReportExporter.Format format) {
+        ExportDialog.open(this, appliedFilter, format);
+    }
+
+    private void refillFilter(JComboBox<String> combo, String allLabel, List<String> items) {
+        Object selected = combo.getSelectedItem();
+        combo.removeAllItems();
+        combo.addItem(allLabel);
+        items.forEach(combo::addItem);
+        if (selected != null && items.contains(selected.toString())) {
+            combo.setSelectedItem(selected);
+        }
+    }
+
+    /**
+     * Show the figures for the filter fields. An invalid date is marked
+     * and the figures shown stay as they are.
+     */
+    private void applyFilter() {
+        TransactionFilter filter;
+        try {
+            filter = currentFilter();
+        } catch (IllegalArgumentException e) {
+            return;
+        }
+        appliedFilter = filter;
+        refreshData();
+    }
+
+    /**
+     * Filter matching the date, account and category fields. An empty date
+     * leaves that end of the range open.
+     *
+     * @throws IllegalArgumentException if a date is invalid or the range is
+     *                                  reversed
+     */
+    private TransactionFilter currentFilter() {
+        LocalDate from = parseDateField(dateFrom);
+        LocalDate to = parseDateField(dateTo);
+        if (from != null && to != null && to.isBefore(from)) {
+            dateTo.setForeground(new Color(220, 38, 38));
+            throw new IllegalArgumentException("End date before start date");
+        }
+        return TransactionFilter.ALL.withDates(from, to)
+                .withAccount(akunFilter.getSelectedIndex() > 0 ? (String) akunFilter.getSelectedItem() : null)
+                .withCategory(kategoriFilter.getSelectedIndex() > 0 ? (String) kategoriFilter.getSelectedItem() : null);
+    }
+
+    private LocalDate parseDateField(JTextField field) {
+        String text = field.getText().trim();
+        try {
+            LocalDate date = text.isEmpty() ? null : LocalDate.parse(text);
+            field.setForeground(color(30, 41, 59));
+            return date;
+        } catch (java.time.format.DateTimeParseException e) {
+            field.setForeground(new Color(220, 38, 38));
+            throw new IllegalArgumentException("Invalid date: " + text, e);
+        }
+    }
+
+    /**
+     * Aggregate the transactions passing the applied filter on a worker and
+     * render the result. The date range is cut out of the store's
+     * date-sorted array by binary search, so only rows inside it are read.
+     * The monthly series and the month comparison end with the month of the
+     * end date. Refreshes requested while one is queued share it, and the
+     * worker reads the filter and the store when it starts, so it always
+     * sees the latest of both.
+     */
     private void refreshData() {
-        YearMonth now = YearMonth.now();
-        long totalIncome = transactionSnapshot.transactions().stream().filter(TransactionStore.Transaction::isIncome).mapToLong(TransactionStore.Transaction::amount).sum();
-        long totalExpense = transactionSnapshot.transactions().stream().filter(t -> !t.isIncome()).mapToLong(TransactionStore.Transaction::amount).sum();
-        long net = totalIncome - totalExpense;
-        if (totalIncomeLabel != null) totalIncomeLabel.setText(formatRupiah(totalIncome));
-        if (totalExpenseLabel != null) totalExpenseLabel.setText(formatRupiah(totalExpense));
-        if (netIncomeLabel != null) netIncomeLabel.setText(formatRupiah(net));
-        if (totalTxLabel != null) totalTxLabel.setText(String.valueOf(transactionSnapshot.transactions().size()));
+        long generation = ++refreshGeneration;
+        BackgroundExecutor.submitCoalesced("LaporanPage.refresh@" + System.identityHashCode(this), () -> {
+            TransactionFilter filter = appliedFilter;
+            YearMonth month = filter.to() != null ? YearMonth.from(filter.to()) : YearMonth.now();
+            List<TransactionStore.Transaction> rows = TransactionStore.filter(filter);
+            // Without a start date the series begins with the oldest row; rows are newest first
+            YearMonth start = filter.from() != null ? YearMonth.from(filter.from())
+                    : rows.isEmpty() ? month : YearMonth.from(rows.get(rows.size() - 1).date());
+            // The month comparison covers the whole month before, even when
+            // the range starts after it; the other criteria still apply
+            YearMonth previous = month.minusMonths(1);
+            List<TransactionStore.Transaction> previousRows = TransactionStore.filter(
+                    filter.withDates(previous.atDay(1), previous.atEndOfMonth()));
+            return ReportAggregator.aggregate(rows, start, month, previousRows);
+        }).thenAccept(report -> SwingUtilities.invokeLater(() -> {
+            if (generation >= renderedGeneration) {
+                renderedGeneration = generation;
+                render(report);
+            }
+        }));
+    }
+
+    private void render(ReportAggregator.Report report) {
+        totalIncomeLabel.setText(formatRupiah(report.income()));
+        totalExpenseLabel.setText(formatRupiah(report.expense()));
+        netIncomeLabel.setText(formatRupiah(report.net()));
+        totalTxLabel.setText(String.valueOf(report.count()));
 
         List<MonthData> months = new ArrayList<>();
-        for (int i = 5; i >= 0; i--) {
-            YearMonth ym = now.minusMonths(i);
-            int income = (int) transactionSnapshot.transactions().stream().filter(t -> t.yearMonth().equals(ym) && t.isIncome()).mapToLong(TransactionStore.Transaction::amount).sum();
-            int expense = (int) transactionSnapshot.transactions().stream().filter(t -> t.yearMonth().equals(ym) && !t.isIncome()).mapToLong(TransactionStore.Transaction::amount).sum();
-            months.add(new MonthData(shortMonth(ym), income, expense));
+        boolean manyYears = report.series().size() > 12;
+        for (ReportAggregator.MonthTotals m : report.series()) {
+            String label = manyYears ? shortMonth(m.month()) + " " + m.month().getYear() % 100 : shortMonth(m.month());
+            months.add(new MonthData(label, m.income(), m.expense()));
         }
         monthlyData = months;
-        if (monthlyChart != null) {
-            monthlyChart.setData(monthlyData);
-        }
+        monthlyChart.setData(monthlyData);
 
-        Map<String, Long> expenseByCat = transactionSnapshot.transactions().stream()
-            .filter(t -> t.yearMonth().equals(now) && !t.isIncome())
-            .collect(Collectors.groupingBy(TransactionStore.Transaction::category, Collectors.summingLong(TransactionStore.Transaction::amount)));
+        List<ReportAggregator.CategoryTotals> spent = new ArrayList<>();
+        for (ReportAggregator.CategoryTotals c : report.categories()) {
+            if (c.monthExpense() > 0) {
+                spent.add(c);
+            }
+        }
         categoryBreakdown = new ArrayList<>();
         Color[] palette = new Color[]{color(37,99,235), color(5,150,105), color(220,38,38), color(245,158,11), color(100,116,139), color(14,165,233)};
-        int idx = 0;
-        for (Map.Entry<String, Long> e : expenseByCat.entrySet()) {
-            categoryBreakdown.add(new CategorySlice(e.getKey(), e.getValue(), palette[idx % palette.length]));
-            idx++;
-        }
-        if (pieChart != null) {
-            pieChart.setData(categoryBreakdown);
+        spent.sort(Comparator.comparingLong(ReportAggregator.CategoryTotals::monthExpense).reversed());
+        for (int i = 0; i < spent.size(); i++) {
+            categoryBreakdown.add(new CategorySlice(spent.get(i).category(), spent.get(i).monthExpense(), palette[i % palette.length]));
         }
+        pieChart.setData(categoryBreakdown);
 
-        YearMonth lastMonth = now.minusMonths(1);
         comparisonData = new ArrayList<>();
-        Map<String, Long> thisMonth = transactionSnapshot.transactions().stream()
-            .filter(t -> t.yearMonth().equals(now) && !t.isIncome())
-            .collect(Collectors.groupingBy(TransactionStore.Transaction::category, Collectors.summingLong(TransactionStore.Transaction::amount)));
-        Map<String, Long> prevMonth = transactionSnapshot.transactions().stream()
-            .filter(t -> t.yearMonth().equals(lastMonth) && !t.isIncome())
-            .collect(Collectors.groupingBy(TransactionStore.Transaction::category, Collectors.summingLong(TransactionStore.Transaction::amount)));
-        thisMonth.keySet().stream().sorted().forEach(cat -> {
-            long cur = thisMonth.getOrDefault(cat, 0L);
-            long prev = prevMonth.getOrDefault(cat, 0L);
-            comparisonData.add(new ComparisonData(cat, (int) cur, (int) prev));
-        });
-        if (comparisonChart != null) {
-            comparisonChart.setData(comparisonData);
+        spent.sort(Comparator.comparing(ReportAggregator.CategoryTotals::category, Comparator.nullsFirst(Comparator.naturalOrder())));
+        for (ReportAggregator.CategoryTotals c : spent) {
+            comparisonData.add(new ComparisonData(c.category(), c.monthExpense(), c.previousMonthExpense()));
         }
+        comparisonChart.setData(comparisonData);
 
-        if (summaryTableModel != null) {
-            summaryTableModel.setRowCount(0);
-            Map<String, List<TransactionStore.Transaction>> grouped = transactionSnapshot.transactions().stream()
-                .collect(Collectors.groupingBy(TransactionStore.Transaction::category));
-            long totalNominal = transactionSnapshot.transactions().stream().mapToLong(TransactionStore.Transaction::amount).sum();
-            grouped.forEach((cat, txs) -> {
-                long total = txs.stream().mapToLong(TransactionStore.Transaction::amount).sum();
-                int count = txs.size();
-                double pct = totalNominal == 0 ? 0 : (total * 100.0 / totalNominal);
-                summaryTableModel.addRow(new Object[]{cat, count, total, pct});
-            });
+        summaryTableModel.setRowCount(0);
+        long totalNominal = report.income() + report.expense();
+        for (ReportAggregator.CategoryTotals c : report.categories()) {
+            double pct = totalNominal == 0 ? 0 : (c.total() * 100.0 / totalNominal);
+            summaryTableModel.addRow(new Object[]{c.category(), c.count(), c.total(), pct});
         }
     }
 
@@ -360,9 +460,9 @@ public class LaporanPage extends JPanel {
 
     private static Color color(int r, int g, int b) { return new Color(r, g, b); }
 
-    private record MonthData(String month, int income, int expense) {}
+    private record MonthData(String month, long income, long expense) {}
     private record CategorySlice(String name, double value, Color color) {}
-    private record ComparisonData(String category, int thisMonth, int lastMonth) {}
+    private record ComparisonData(String category, long thisMonth, long lastMonth) {}
 
     static class RoundPanel extends JPanel {
         private final int arc;
@@ -458,6 +558,7 @@ public class LaporanPage extends JPanel {
     }
 
     static class MonthlyBarChart extends JPanel {
+        private static final int XCHART_MAX_POINTS = 24;
         private List<MonthData> data;
         private JComponent xchartPanel;
         MonthlyBarChart(List<MonthData> data){
@@ -498,30 +599,47 @@ public class LaporanPage extends JPanel {
             g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
             int w=getWidth(), h=getHeight();
             int padL=60, padR=20, padT=10, padB=40;
-            g2.setColor(new Color(226,232,240));
-            for(int i=0;i<=5;i++){
-                int y=padT+(h-padT-padB)*i/5;
-                g2.drawLine(padL, y, w-padR, y);
-            }
             if (data.isEmpty()) {
+                g2.setColor(new Color(226,232,240));
+                for(int i=0;i<=5;i++){
+                    int y=padT+(h-padT-padB)*i/5;
+                    g2.drawLine(padL, y, w-padR, y);
+                }
                 g2.setColor(new Color(148,163,184));
                 g2.drawString("Belum ada data transaksi", padL, padT + 20);
                 g2.dispose();
                 return;
             }
-            int max = data.stream().mapToInt(d->Math.max(d.income(), d.expense())).max().orElse(1);
-            int barWidth = Math.max(8, (w-padL-padR)/Math.max(1, (data.size()*2+data.size())));
+            // Long ranges are merged into groups of months that fit at the smallest bar width
+            int bucket = ChartScale.bucketSize(data.size(), (w-padL-padR)/(8*2+12));
+            String[] labels = ChartScale.downsampleLabels(data.stream().map(MonthData::month).toArray(String[]::new), bucket);
+            long[] incomes = ChartScale.downsample(data.stream().mapToLong(MonthData::income).toArray(), bucket);
+            long[] expenses = ChartScale.downsample(data.stream().mapToLong(MonthData::expense).toArray(), bucket);
+            long max = 0;
+            for(int i=0;i<labels.length;i++){
+                max = Math.max(max, Math.max(incomes[i], expenses[i]));
+            }
+            ChartScale.Axis axis = ChartScale.axis(max, 5);
+            for(int i=0;i<=axis.ticks();i++){
+                int y=h-padB-(h-padT-padB)*i/axis.ticks();
+                g2.setColor(new Color(226,232,240));
+                g2.drawLine(padL, y, w-padR, y);
+                g2.setColor(new Color(100,116,139));
+                String text=ChartScale.label(axis.step()*i);
+                g2.drawString(text, padL-8-g2.getFontMetrics().stringWidth(text), y+4);
+            }
+            int barWidth = Math.max(8, (w-padL-padR)/Math.max(1, labels.length*3));
             int x=padL;
-            for(MonthData d : data){
-                int incHeight = (int)((double)d.income()/max*(h-padT-padB));
-                int expHeight = (int)((double)d.expense()/max*(h-padT-padB));
+            for(int i=0;i<labels.length;i++){
+                int incHeight = (int)(axis.fraction(incomes[i])*(h-padT-padB));
+                int expHeight = (int)(axis.fraction(expenses[i])*(h-padT-padB));
                 int base = h-padB;
                 g2.setColor(new Color(5,150,105));
                 g2.fillRoundRect(x, base-incHeight, barWidth, incHeight, 6, 6);
                 g2.setColor(new Color(220,38,38));
                 g2.fillRoundRect(x+barWidth+4, base-expHeight, barWidth, expHeight, 6, 6);
                 g2.setColor(new Color(100,116,139));
-                g2.drawString(d.month(), x, h-18);
+                g2.drawString(labels[i], x, h-18);
                 x += barWidth*2 + 12;
             }
             // Legend
@@ -551,13 +669,15 @@ public class LaporanPage extends JPanel {
                 yTitle.invoke(builder, "Nominal");
                 Object chart = builderCls.getMethod("build").invoke(builder);
 
-                List<String> months = new ArrayList<>();
+                int bucket = ChartScale.bucketSize(data.size(), XCHART_MAX_POINTS);
+                List<String> months = List.of(ChartScale.downsampleLabels(data.stream().map(MonthData::month).toArray(String[]::new), bucket));
                 List<Double> incomes = new ArrayList<>();
                 List<Double> expenses = new ArrayList<>();
-                for (MonthData d : data) {
-                    months.add(d.month());
-                    incomes.add((double) d.income());
-                    expenses.add((double) d.expense());
+                for (long v : ChartScale.downsample(data.stream().mapToLong(MonthData::income).toArray(), bucket)) {
+                    incomes.add((double) v);
+                }
+                for (long v : ChartScale.downsample(data.stream().mapToLong(MonthData::expense).toArray(), bucket)) {
+                    expenses.add((double) v);
                 }
 
                 Method addSeries = chart.getClass().getMethod("addSeries", String.class, List.class, List.class);
@@ -726,12 +846,12 @@ public class LaporanPage extends JPanel {
                 g2.dispose();
                 return;
             }
-            int max = data.stream().mapToInt(d->Math.max(d.thisMonth(), d.lastMonth())).max().orElse(1);
+            long max = data.stream().mapToLong(d->Math.max(d.thisMonth(), d.lastMonth())).max().orElse(1);
             int barHeight = Math.max(8, (h-padT-padB)/Math.max(1, data.size()*2));
             int y = padT;
             for(ComparisonData d : data){
-                int lastW = (int)((double)d.lastMonth()/max*(w-padL-padR));
-                int thisW = (int)((double)d.thisMonth()/max*(w-padL-padR));
+                int lastW = (int)(ChartScale.fraction(d.lastMonth(), max)*(w-padL-padR));
+                int thisW = (int)(ChartScale.fraction(d.thisMonth(), max)*(w-padL-padR));
                 g2.setColor(new Color(148,163,184));
                 g2.fillRoundRect(padL, y, lastW, barHeight, 8, 8);
                 g2.setColor(new Color(37,99,235));
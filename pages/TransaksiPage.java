@@ -1,26 +1,35 @@
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
-import javax.swing.table.DefaultTableModel;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 import javax.swing.table.TableCellRenderer;
 import java.awt.*;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
-import java.util.HashMap;
-import java.util.Map;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import utils.ScrollUtil;
+import utils.ChangeSet;
 import utils.ComboUtil;
 import utils.CategoryStore;
 import utils.AccountStore;
+import utils.TransactionFilter;
+import utils.TransactionPager;
 import utils.TransactionStore;
+import utils.TransactionTableModel;
 
 public class TransaksiPage extends JPanel {
+    private static final int PAGE_SIZE = 50;
+    // Wait this long after the last keystroke before filtering
+    private static final int FILTER_DELAY_MS = 250;
+
     private boolean editMode = false;
     private int editingRow = -1;
     private JLabel formTitle;
     private JButton saveBtn;
-    private DefaultTableModel tableModel;
+    private TransactionTableModel tableModel;
     private JTable table;
     private JTextField dateField;
     private JComboBox<String> typeCombo;
@@ -29,10 +38,24 @@ public class TransaksiPage extends JPanel {
     private JTextField nominalField;
     private JTextField descField;
     private JLabel pageInfo;
+    private JLabel pageLabel;
+    private JButton prevBtn;
+    private JButton nextBtn;
+    private final TransactionPager pager = new TransactionPager(PAGE_SIZE);
+    private TransactionPager.Page currentPage;
+    // Bumped per page request so a slow response cannot replace a newer one
+    private int pageRequest;
+    // Request whose page is on screen; behind pageRequest while one is in flight
+    private int shownRequest;
+    private JTextField searchField;
+    private JTextField dateFilter;
+    private JComboBox<String> typeFilter;
+    private JComboBox<String> categoryFilter;
+    private JComboBox<String> accountFilter;
+    private Timer filterTimer;
     private JLabel loadingLabel;
     private CategoryStore.Snapshot categorySnapshot = CategoryStore.snapshot();
     private final Map<String, String> accountTypeMap = new HashMap<>();
-    private final List<String> rowIds = new ArrayList<>();
 
     public TransaksiPage() {
         setLayout(new BorderLayout());
@@ -89,38 +112,65 @@ public class TransaksiPage extends JPanel {
         toolbar.setOpaque(false);
         toolbar.setBorder(new EmptyBorder(0, 0, 12, 0));
         JButton filterBtn = new RoundedButton("Filter", false);
-        JTextField dateFilter = new JTextField("2025-11-18");
+        searchField = new JTextField();
+        searchField.setPreferredSize(new Dimension(160, 28));
+        searchField.setToolTipText("Cari keterangan transaksi");
+        dateFilter = new JTextField();
         dateFilter.setPreferredSize(new Dimension(140, 28));
-        JComboBox<String> categoryFilter = new JComboBox<>();
-        JComboBox<String> accountFilter = new JComboBox<>();
+        dateFilter.setToolTipText("yyyy-MM-dd, yyyy-MM, atau yyyy-MM-dd..yyyy-MM-dd");
+        typeFilter = new JComboBox<>(new String[] { "Semua Tipe", "Pengeluaran", "Pemasukan" });
+        categoryFilter = new JComboBox<>();
+        accountFilter = new JComboBox<>();
+        ComboUtil.apply(typeFilter);
         ComboUtil.apply(categoryFilter);
         ComboUtil.apply(accountFilter);
         CategoryStore.addListener(snap -> {
             categorySnapshot = snap;
-            categoryFilter.removeAllItems();
-            categoryFilter.addItem("Semua Kategori");
-            snap.expenses().forEach(categoryFilter::addItem);
-            snap.incomes().forEach(categoryFilter::addItem);
+            List<String> names = new ArrayList<>(snap.expenses());
+            snap.incomes().stream().filter(name -> !names.contains(name)).forEach(names::add);
+            refillFilter(categoryFilter, "Semua Kategori", names);
         });
-        AccountStore.addListener(accSnap -> {
-            accountFilter.removeAllItems();
-            accountFilter.addItem("Semua Akun");
-            accSnap.accounts().forEach(a -> accountFilter.addItem(a.name()));
+        AccountStore.addListener(accSnap -> refillFilter(accountFilter, "Semua Akun",
+                accSnap.accounts().stream().map(AccountStore.Account::name).toList()));
+
+        // Re-filter shortly after the user stops typing or picking
+        filterTimer = new Timer(FILTER_DELAY_MS, e -> applyFilter());
+        filterTimer.setRepeats(false);
+        DocumentListener restartFilter = new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                filterTimer.restart();
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                filterTimer.restart();
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+                filterTimer.restart();
+            }
+        };
+        searchField.getDocument().addDocumentListener(restartFilter);
+        dateFilter.getDocument().addDocumentListener(restartFilter);
+        typeFilter.addActionListener(e -> filterTimer.restart());
+        categoryFilter.addActionListener(e -> filterTimer.restart());
+        accountFilter.addActionListener(e -> filterTimer.restart());
+        filterBtn.addActionListener(e -> {
+            filterTimer.stop();
+            applyFilter();
         });
         toolbar.add(filterBtn);
+        toolbar.add(searchField);
         toolbar.add(dateFilter);
+        toolbar.add(typeFilter);
         toolbar.add(categoryFilter);
         toolbar.add(accountFilter);
         tableCard.add(toolbar, BorderLayout.NORTH);
 
         // Table
-        String[] cols = { "Tanggal", "Keterangan", "Kategori", "Akun", "Saldo", "Aksi" };
-        tableModel = new DefaultTableModel(new Object[0][0], cols) {
-            @Override
-            public boolean isCellEditable(int r, int c) {
-                return false;
-            }
-        };
+        tableModel = new TransactionTableModel();
         table = new JTable(tableModel) {
             @Override
             public Component prepareRenderer(TableCellRenderer r, int row, int col) {
@@ -177,10 +227,14 @@ public class TransaksiPage extends JPanel {
         pagination.add(pageInfo, BorderLayout.WEST);
         JPanel pageControls = new JPanel(new FlowLayout(FlowLayout.RIGHT, 4, 0));
         pageControls.setOpaque(false);
-        JButton prevBtn = new RoundedButton("<", false);
-        JLabel pageLabel = new JLabel("Page 1 of 125");
+        prevBtn = new RoundedButton("<", false);
+        prevBtn.setEnabled(false);
+        prevBtn.addActionListener(e -> showPage(currentPageIndex() - 1));
+        pageLabel = new JLabel("Page 1 of 1");
         pageLabel.setForeground(color(30, 41, 59));
-        JButton nextBtn = new RoundedButton(">", false);
+        nextBtn = new RoundedButton(">", false);
+        nextBtn.setEnabled(false);
+        nextBtn.addActionListener(e -> showPage(currentPageIndex() + 1));
         pageControls.add(prevBtn);
         pageControls.add(pageLabel);
         pageControls.add(nextBtn);
@@ -306,9 +360,8 @@ public class TransaksiPage extends JPanel {
         // Add vertical glue to give scroll some slack
         root.add(Box.createVerticalGlue());
 
-        // Load initial data from store
-        loadFromStore(TransactionStore.snapshot());
-        TransactionStore.addListener(this::loadFromStore);
+        // Show the first page right away, then follow the ledger's changes
+        TransactionStore.addChangeListener(this::applyChanges);
 
         // Load data from backend
         loadDataFromBackend();
@@ -371,37 +424,23 @@ public class TransaksiPage extends JPanel {
             return;
         }
 
-        // Show loading indicator
-        showLoading(true);
-
+        // The store applies the change right away and confirms it in the
+        // background, so the form is ready for the next entry immediately
         if (editMode && editingRow >= 0 && editingRow < tableModel.getRowCount()) {
-            String id = rowIds.get(editingRow);
+            String id = tableModel.getTransaction(editingRow).id();
             TransactionStore.updateTransaction(id, date, type, category, accountLabel, accountType, amount, desc,
                     () -> {
-                        // onSuccess
-                        showLoading(false);
-                        startNewTransaction();
                     },
-                    error -> {
-                        // onError
-                        showLoading(false);
-                        JOptionPane.showMessageDialog(this, "Gagal mengupdate transaksi: " + error, "Error",
-                                JOptionPane.ERROR_MESSAGE);
-                    });
+                    error -> JOptionPane.showMessageDialog(this, "Gagal mengupdate transaksi: " + error, "Error",
+                            JOptionPane.ERROR_MESSAGE));
         } else {
             TransactionStore.addTransaction(date, type, category, accountLabel, accountType, amount, desc,
                     transactionId -> {
-                        // onSuccess
-                        showLoading(false);
-                        startNewTransaction();
                     },
-                    error -> {
-                        // onError
-                        showLoading(false);
-                        JOptionPane.showMessageDialog(this, "Gagal menambah transaksi: " + error, "Error",
-                                JOptionPane.ERROR_MESSAGE);
-                    });
+                    error -> JOptionPane.showMessageDialog(this, "Gagal menambah transaksi: " + error, "Error",
+                            JOptionPane.ERROR_MESSAGE));
         }
+        startNewTransaction();
     }
 
     private long parseNumber(String text) {
@@ -433,68 +472,53 @@ public class TransaksiPage extends JPanel {
     }
 
     private void loadRowForEdit(int row) {
-        if (row < 0 || row >= tableModel.getRowCount())
+        TransactionStore.Transaction tx = tableModel.getTransaction(row);
+        if (tx == null)
             return;
         editingRow = row;
         editMode = true;
         formTitle.setText("Edit Transaksi");
         saveBtn.setText("Update");
 
-        dateField.setText(tableModel.getValueAt(row, 0).toString());
-        descField.setText(tableModel.getValueAt(row, 1).toString());
-        categoryCombo.setSelectedItem(tableModel.getValueAt(row, 2));
-        Object accountVal = tableModel.getValueAt(row, 3);
-        if (accountVal != null) {
-            accountCombo.setSelectedItem(accountVal.toString());
-        }
-
-        // Get transaction from store to determine type and amount
-        if (row < rowIds.size()) {
-            String id = rowIds.get(row);
-            TransactionStore.Snapshot snap = TransactionStore.snapshot();
-            for (TransactionStore.Transaction tx : snap.transactions()) {
-                if (tx.id().equals(id)) {
-                    boolean isIncome = tx.isIncome();
-                    typeCombo.setSelectedIndex(isIncome ? 1 : 0);
-                    nominalField.setText(String.valueOf(tx.amount()));
-                    break;
-                }
-            }
+        dateField.setText(tx.date().toString());
+        descField.setText(tableModel.getValueAt(row, TransactionTableModel.COL_DESCRIPTION).toString());
+        typeCombo.setSelectedIndex(tx.isIncome() ? 1 : 0);
+        categoryCombo.setSelectedItem(tx.category());
+        if (tx.accountName() != null) {
+            accountCombo.setSelectedItem(tx.accountName());
         }
+        nominalField.setText(String.valueOf(tx.amount()));
     }
 
     private void deleteRow(int row) {
-        if (row < 0 || row >= tableModel.getRowCount())
-            return;
-        if (row < rowIds.size()) {
-            String id = rowIds.get(row);
+        TransactionStore.Transaction tx = tableModel.getTransaction(row);
+        if (tx != null) {
+            String id = tx.id();
             int confirm = JOptionPane.showConfirmDialog(this, "Hapus transaksi ini?", "Konfirmasi",
                     JOptionPane.YES_NO_OPTION);
             if (confirm != JOptionPane.YES_OPTION)
                 return;
 
-            showLoading(true);
+            if (editingRow == row) {
+                startNewTransaction();
+            }
             TransactionStore.removeTransaction(id,
                     () -> {
-                        // onSuccess
-                        showLoading(false);
-                        if (editingRow == row) {
-                            startNewTransaction();
-                        }
                     },
-                    error -> {
-                        // onError
-                        showLoading(false);
-                        JOptionPane.showMessageDialog(this, "Gagal menghapus transaksi: " + error, "Error",
-                                JOptionPane.ERROR_MESSAGE);
-                    });
+                    error -> JOptionPane.showMessageDialog(this, "Gagal menghapus transaksi: " + error, "Error",
+                            JOptionPane.ERROR_MESSAGE));
         }
     }
 
     private void updatePagination() {
-        if (pageInfo != null) {
-            pageInfo.setText("Total: " + tableModel.getRowCount() + " transaksi");
+        if (currentPage == null) {
+            return;
         }
+        String suffix = pager.filter().isEmpty() ? " transaksi" : " transaksi (difilter)";
+        pageInfo.setText("Total: " + currentPage.total() + suffix);
+        pageLabel.setText("Page " + (currentPage.index() + 1) + " of " + currentPage.pageCount());
+        prevBtn.setEnabled(currentPage.index() > 0);
+        nextBtn.setEnabled(currentPage.index() + 1 < currentPage.pageCount());
     }
 
     private void refreshCategoryCombo() {
@@ -510,26 +534,121 @@ public class TransaksiPage extends JPanel {
         }
     }
 
-    private void loadFromStore(TransactionStore.Snapshot snap) {
-        tableModel.setRowCount(0);
-        rowIds.clear();
-        long runningBalance = 0;
-        for (TransactionStore.Transaction tx : snap.transactions()) {
-            boolean isIncome = tx.isIncome();
-            long amount = tx.amount();
-            runningBalance += isIncome ? amount : -amount;
-            String desc = tx.description() == null || tx.description().isBlank() ? "-" : tx.description();
-            tableModel.addRow(new Object[] {
-                    tx.date().toString(),
-                    desc,
-                    tx.category(),
-                    tx.accountName(),
-                    formatRupiah(runningBalance),
-                    "Edit | Hapus"
-            });
-            rowIds.add(tx.id());
+    /**
+     * Refill a filter combo from a store snapshot, keeping the selection if
+     * the item still exists.
+     */
+    private void refillFilter(JComboBox<String> combo, String allLabel, List<String> items) {
+        Object selected = combo.getSelectedItem();
+        combo.removeAllItems();
+        combo.addItem(allLabel);
+        items.forEach(combo::addItem);
+        if (selected != null && items.contains(selected.toString())) {
+            combo.setSelectedItem(selected);
+        }
+    }
+
+    /**
+     * Build the filter from the toolbar and show its first page. The
+     * evaluation itself runs in the pager's background fetch.
+     */
+    private void applyFilter() {
+        TransactionFilter filter;
+        try {
+            filter = TransactionFilter.ALL.withDateRange(dateFilter.getText());
+            dateFilter.setForeground(color(30, 41, 59));
+        } catch (IllegalArgumentException e) {
+            dateFilter.setForeground(new Color(220, 38, 38));
+            return; // Keep showing the last valid result while typing
+        }
+        filter = filter.withType(selectedOrNull(typeFilter))
+                .withCategory(selectedOrNull(categoryFilter))
+                .withAccount(selectedOrNull(accountFilter))
+                .withText(searchField.getText());
+        if (filter.equals(pager.filter())) {
+            return;
         }
-        updatePagination();
+        pager.setFilter(filter);
+        showPage(0);
+    }
+
+    // First item of each filter combo means "any"
+    private static String selectedOrNull(JComboBox<String> combo) {
+        return combo.getSelectedIndex() > 0 ? (String) combo.getSelectedItem() : null;
+    }
+
+    private int currentPageIndex() {
+        return currentPage != null ? currentPage.index() : 0;
+    }
+
+    /**
+     * Follow a store change. Edits that leave every row where it was are
+     * patched into the page in place; anything that can move rows between
+     * pages, or out of the filter, reloads the page being viewed.
+     */
+    private void applyChanges(TransactionStore.Snapshot snap, ChangeSet<TransactionStore.Transaction> changes) {
+        pager.invalidate();
+        if (!patchPage(changes)) {
+            showPage(currentPageIndex());
+        }
+    }
+
+    /**
+     * Apply updated rows to the page on screen.
+     *
+     * @return false if the change is structural and the page must be reloaded
+     */
+    private boolean patchPage(ChangeSet<TransactionStore.Transaction> changes) {
+        if (currentPage == null || shownRequest != pageRequest || changes.reset() || !changes.added().isEmpty()
+                || !changes.removed().isEmpty() || !pager.filter().isEmpty()) {
+            return false;
+        }
+        Map<String, TransactionStore.Transaction> updated = new HashMap<>();
+        changes.updated().forEach(tx -> updated.put(tx.id(), tx));
+        List<TransactionStore.Transaction> rows = new ArrayList<>(currentPage.rows());
+        for (int i = 0; i < rows.size() && !updated.isEmpty(); i++) {
+            TransactionStore.Transaction tx = updated.remove(rows.get(i).id());
+            if (tx != null) {
+                if (!tx.date().equals(rows.get(i).date())) {
+                    return false; // May move within the ledger
+                }
+                rows.set(i, tx);
+            }
+        }
+        if (!updated.isEmpty()) {
+            return false; // Rows on other pages may shift this page or its carry
+        }
+        TransactionStore.Transaction editing = editingRow >= 0 ? tableModel.getTransaction(editingRow) : null;
+        currentPage = new TransactionPager.Page(currentPage.index(), currentPage.offset(), currentPage.total(),
+                currentPage.pageSize(), currentPage.carry(), List.copyOf(rows));
+        tableModel.showPage(currentPage.rows(), currentPage.carry());
+        editingRow = editing != null ? tableModel.indexOf(editing.id()) : -1;
+        return true;
+    }
+
+    /**
+     * Fetch a page in the background and show it when it arrives. The row
+     * being edited is followed by ID.
+     */
+    private void showPage(int index) {
+        int request = ++pageRequest;
+        pager.page(index).whenComplete((page, ex) -> SwingUtilities.invokeLater(() -> {
+            if (request != pageRequest) {
+                return; // A newer page was asked for meanwhile
+            }
+            if (ex != null) {
+                Throwable cause = ex.getCause() != null ? ex.getCause() : ex;
+                System.err.println("Failed to load page " + (index + 1) + ": " + cause.getMessage());
+                pageInfo.setText("Gagal memuat halaman");
+                return;
+            }
+            TransactionStore.Transaction editing = editingRow >= 0 ? tableModel.getTransaction(editingRow) : null;
+            tableModel.showPage(page.rows(), page.carry());
+            editingRow = editing != null ? tableModel.indexOf(editing.id()) : -1;
+            currentPage = page;
+            shownRequest = request;
+            updatePagination();
+        }));
     }
 
     private void showLoading(boolean show) {
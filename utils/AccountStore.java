@@ -1,7 +1,12 @@
 package utils;
 
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.function.Consumer;
 
 public final class AccountStore {
@@ -11,152 +16,331 @@ public final class AccountStore {
     public static final String TYPE_CREDIT = "Kredit";
 
     private static final List<Account> accounts = new ArrayList<>();
-    private static final List<Consumer<Snapshot>> listeners = new ArrayList<>();
+    // Commands this store sends through PendingOperations
+    private static final Set<String> COMMANDS = Set.of("ADD_ACCOUNT", "UPDATE_ACCOUNT", "DELETE_ACCOUNT");
+    // Delivers snapshots and change sets to listeners on the EDT
+    private static final StoreNotifier<Snapshot, Account> notifier =
+            new StoreNotifier<>(AccountStore.class, AccountStore::snapshot, Account::id);
     private static final SocketClient client = SocketClient.getInstance();
     private static final SessionManager sessionManager = SessionManager.getInstance();
 
     private AccountStore(){}
 
-    public static synchronized void addListener(Consumer<Snapshot> listener){
-        listeners.add(listener);
-        listener.accept(snapshot());
+    /**
+     * Register a snapshot listener. Called once right away, then on the EDT
+     * after each batch of changes.
+     * @param listener snapshot consumer
+     */
+    public static void addListener(Consumer<Snapshot> listener){
+        notifier.addListener(listener);
+    }
+
+    /**
+     * Register a listener that also receives the added, updated and removed
+     * accounts. Called once right away with a reset change set, then on the
+     * EDT after each batch of changes.
+     * @param listener change listener
+     */
+    public static void addChangeListener(StoreNotifier.ChangeListener<Snapshot, Account> listener){
+        notifier.addChangeListener(listener);
     }
 
     /**
-     * Add account asynchronously via backend.
+     * Add an account. It is stored under a provisional ID and shown to
+     * listeners right away, then sent to the backend in the background; it
+     * moves to its real ID once confirmed and is removed again if rejected.
      * @param name account name
      * @param number account number
      * @param balance account balance (long integer)
      * @param type account type
-     * @param onSuccess callback with account ID on success
-     * @param onError callback with error message on failure
+     * @param onSuccess callback with the real account ID once confirmed
+     * @param onError callback with error message after the rollback
      */
     public static void addAccount(String name, String number, long balance, String type,
                                  Consumer<String> onSuccess, Consumer<String> onError) {
-        executeAsync(() -> {
-            try {
-                String sessionToken = sessionManager.getSessionToken();
-                if (sessionToken == null || sessionToken.isEmpty()) {
-                    updateUI(() -> onError.accept("No valid session. Please login."));
-                    return;
-                }
-                
-                // Format: ADD_ACCOUNT|sessionToken|name|number|balance|type
-                String command = client.formatCommand("ADD_ACCOUNT", sessionToken, name, 
-                                                     number, String.valueOf(balance), type);
-                String response = client.sendCommand(command);
-                
-                if (client.isErrorResponse(response)) {
-                    String errorMsg = client.getErrorMessage(response);
-                    updateUI(() -> onError.accept(errorMsg));
-                    return;
-                }
-                
-                // Parse response - backend returns OK|accountId
-                String[] parts = client.parseResponse(response);
-                
-                if (parts.length >= 2 && parts[0].equals("OK")) {
-                    String accountId = parts[1];
-                    
-                    synchronized (AccountStore.class) {
-                        accounts.add(new Account(accountId, name, number, balance, type));
-                        notifyListeners();
-                    }
-                    
-                    updateUI(() -> onSuccess.accept(accountId));
-                } else {
-                    updateUI(() -> onError.accept("Unexpected response format"));
-                }
-                
-            } catch (Exception e) {
-                updateUI(() -> onError.accept("Failed to add account: " + e.getMessage()));
-            }
-        });
+        // Format: ADD_ACCOUNT|sessionToken|name|number|balance|type|key
+        execute(PendingOperations.command("ADD_ACCOUNT", PendingOperations.provisionalId(), name, number,
+                String.valueOf(balance), type), onSuccess, onError);
     }
 
     /**
-     * Update account asynchronously via backend.
-     * @param id account ID
+     * Update an account. The change is shown to listeners right away and
+     * undone if the backend rejects it.
+     * @param id account ID, provisional or real
      * @param name account name
      * @param number account number
      * @param balance account balance
      * @param type account type
-     * @param onSuccess callback on success
-     * @param onError callback with error message on failure
+     * @param onSuccess callback once confirmed
+     * @param onError callback with error message after the rollback
      */
     public static void updateAccount(String id, String name, String number, long balance, 
                                     String type, Runnable onSuccess, Consumer<String> onError) {
-        executeAsync(() -> {
-            try {
-                String sessionToken = sessionManager.getSessionToken();
-                if (sessionToken == null || sessionToken.isEmpty()) {
-                    updateUI(() -> onError.accept("No valid session. Please login."));
-                    return;
-                }
-                
-                // Format: UPDATE_ACCOUNT|sessionToken|id|name|number|balance|type
-                String command = client.formatCommand("UPDATE_ACCOUNT", sessionToken, id, 
-                                                     name, number, String.valueOf(balance), type);
-                String response = client.sendCommand(command);
-                
-                if (client.isErrorResponse(response)) {
-                    String errorMsg = client.getErrorMessage(response);
-                    updateUI(() -> onError.accept(errorMsg));
-                    return;
-                }
-                
-                // Update local list
-                synchronized (AccountStore.class) {
-                    accounts.removeIf(a -> a.id().equals(id));
-                    accounts.add(new Account(id, name, number, balance, type));
-                    notifyListeners();
+        // Format: UPDATE_ACCOUNT|sessionToken|id|name|number|balance|type|key
+        execute(PendingOperations.command("UPDATE_ACCOUNT", PendingOperations.resolve(id), name, number,
+                String.valueOf(balance), type), confirmedId -> onSuccess.run(), onError);
+    }
+
+    /**
+     * Remove an account. It disappears for listeners right away and comes
+     * back, at its old position, if the backend rejects the delete.
+     * @param id account ID to remove, provisional or real
+     * @param onSuccess callback once confirmed
+     * @param onError callback with error message after the rollback
+     */
+    public static void removeAccount(String id, Runnable onSuccess, Consumer<String> onError) {
+        // Format: DELETE_ACCOUNT|sessionToken|id|key
+        execute(PendingOperations.command("DELETE_ACCOUNT", PendingOperations.resolve(id)),
+                confirmedId -> onSuccess.run(), onError);
+    }
+
+    /**
+     * Apply a command left in the write-ahead log and queue it again.
+     * @param command logged ADD_ACCOUNT, UPDATE_ACCOUNT or DELETE_ACCOUNT
+     */
+    static void replay(PendingOperations.Command command) {
+        execute(command, confirmedId -> {}, error -> {});
+    }
+
+    /**
+     * Apply a command locally, then queue it for the backend with a rollback
+     * that restores the account as it was before.
+     */
+    private static void execute(PendingOperations.Command command, Consumer<String> onSuccess,
+                                Consumer<String> onError) {
+        Account before;
+        Account after;
+        int position;
+        synchronized (AccountStore.class) {
+            String localId = PendingOperations.resolve(command.localId());
+            position = indexOf(localId);
+            before = position >= 0 ? accounts.get(position) : null;
+            applyLocal(command);
+            int i = indexOf(localId);
+            after = i >= 0 ? accounts.get(i) : null;
+            notifyListeners();
+        }
+        String subject = after != null ? after.name() : before != null ? before.name() : "";
+        String description = switch (command.name()) {
+            case "ADD_ACCOUNT" -> "Tambah akun: ";
+            case "UPDATE_ACCOUNT" -> "Ubah akun: ";
+            default -> "Hapus akun: ";
+        } + subject;
+
+        PendingOperations.submit(description, command, () -> send(command, onSuccess), error -> {
+            synchronized (AccountStore.class) {
+                String currentId = PendingOperations.resolve(command.localId());
+                int i = indexOf(currentId);
+                Account current = i >= 0 ? accounts.get(i) : null;
+                if (command.name().equals("ADD_ACCOUNT")) {
+                    removeInternal(currentId);
+                } else if (Objects.equals(current, after != null ? withId(after, currentId) : null)) {
+                    // Only undo if no later change replaced this one
+                    if (before == null) {
+                        removeInternal(currentId);
+                    } else if (current != null) {
+                        putInternal(withId(before, currentId));
+                    } else {
+                        Account restored = withId(before, currentId);
+                        accounts.add(Math.min(position, accounts.size()), restored);
+                        notifier.added(restored);
+                    }
                 }
-                
-                updateUI(onSuccess);
-                
-            } catch (Exception e) {
-                updateUI(() -> onError.accept("Failed to update account: " + e.getMessage()));
+                notifyListeners();
             }
+            updateUI(() -> onError.accept(error));
         });
     }
 
     /**
-     * Remove account asynchronously via backend.
-     * @param id account ID to remove
-     * @param onSuccess callback on success
-     * @param onError callback with error message on failure
+     * Send a command and, for an add, move the account to its real ID.
+     * @return null on success, otherwise the error message
+     * @throws IOException if the backend could not be reached
      */
-    public static void removeAccount(String id, Runnable onSuccess, Consumer<String> onError) {
-        executeAsync(() -> {
-            try {
-                String sessionToken = sessionManager.getSessionToken();
-                if (sessionToken == null || sessionToken.isEmpty()) {
-                    updateUI(() -> onError.accept("No valid session. Please login."));
-                    return;
+    private static String send(PendingOperations.Command command, Consumer<String> onSuccess) throws IOException {
+        String sessionToken = sessionManager.getSessionToken();
+        if (sessionToken == null || sessionToken.isEmpty()) {
+            return "No valid session. Please login.";
+        }
+        boolean add = command.name().equals("ADD_ACCOUNT");
+        String remoteId = PendingOperations.resolve(command.localId());
+        if (!add && PendingOperations.isProvisional(remoteId)) {
+            // Its add was rejected: nothing to delete, nothing to update
+            return command.name().equals("DELETE_ACCOUNT") ? null : "Account was never saved";
+        }
+        
+        String response = client.sendCommand(command.format(sessionToken, add ? null : remoteId));
+        if (client.isErrorResponse(response)) {
+            return client.getErrorMessage(response);
+        }
+        if (add) {
+            // Parse response - backend returns OK|accountId
+            String[] parts = client.parseResponse(response);
+            if (parts.length < 2 || !parts[0].equals("OK")) {
+                return "Unexpected response format";
+            }
+            remoteId = parts[1];
+            synchronized (AccountStore.class) {
+                PendingOperations.confirmId(command.localId(), remoteId);
+                // Swap the ID in place so the account keeps its position
+                int i = indexOf(command.localId());
+                if (i >= 0) {
+                    Account current = accounts.get(i);
+                    notifier.removed(current);
+                    Account confirmed = withId(current, remoteId);
+                    accounts.set(i, confirmed);
+                    notifier.added(confirmed);
+                    notifyListeners();
                 }
-                
-                // Format: DELETE_ACCOUNT|sessionToken|id
-                String command = client.formatCommand("DELETE_ACCOUNT", sessionToken, id);
-                String response = client.sendCommand(command);
-                
-                if (client.isErrorResponse(response)) {
-                    String errorMsg = client.getErrorMessage(response);
-                    updateUI(() -> onError.accept(errorMsg));
-                    return;
+            }
+        }
+        String confirmedId = remoteId;
+        updateUI(() -> onSuccess.accept(confirmedId));
+        return null;
+    }
+
+    /**
+     * Apply the local effect of a queued command.
+     * Caller must hold the class lock.
+     */
+    private static void applyLocal(PendingOperations.Command command) {
+        String id = PendingOperations.resolve(command.localId());
+        switch (command.name()) {
+            case "ADD_ACCOUNT", "UPDATE_ACCOUNT" -> {
+                if (command.name().equals("ADD_ACCOUNT") && !PendingOperations.isProvisional(id)) {
+                    return; // Already confirmed; the real account is in the store
                 }
-                
-                // Remove from local list
-                synchronized (AccountStore.class) {
-                    accounts.removeIf(a -> a.id().equals(id));
-                    notifyListeners();
+                // Fields: name|number|balance|type
+                putInternal(new Account(id, command.arg(0), command.arg(1), Long.parseLong(command.arg(2)),
+                        command.arg(3)));
+            }
+            case "DELETE_ACCOUNT" -> removeInternal(id);
+            default -> throw new IllegalArgumentException("Not an account command: " + command.name());
+        }
+    }
+
+    /**
+     * Apply the queued commands again after the store was reloaded, so a
+     * reload does not undo changes the backend has not confirmed yet.
+     * Caller must hold the class lock.
+     */
+    private static void reapplyQueued() {
+        for (PendingOperations.Command command : PendingOperations.queued(COMMANDS)) {
+            applyLocal(command);
+        }
+    }
+
+    /**
+     * Insert or replace a single account pushed by the server.
+     * @param account account as sent by the server
+     */
+    public static void applyRemoteUpsert(Account account) {
+        synchronized (AccountStore.class) {
+            putInternal(account);
+            notifyListeners();
+        }
+    }
+
+    /**
+     * Remove a single account deleted on another client.
+     * @param id account ID
+     */
+    public static void applyRemoteDelete(String id) {
+        synchronized (AccountStore.class) {
+            removeInternal(id);
+            notifyListeners();
+        }
+    }
+
+    /**
+     * Insert an account or replace it in place, recording the change.
+     * Caller must hold the class lock.
+     */
+    private static void putInternal(Account account) {
+        for (int i = 0; i < accounts.size(); i++) {
+            if (accounts.get(i).id().equals(account.id())) {
+                if (!accounts.get(i).equals(account)) {
+                    accounts.set(i, account);
+                    notifier.updated(account);
                 }
-                
-                updateUI(onSuccess);
-                
-            } catch (Exception e) {
-                updateUI(() -> onError.accept("Failed to remove account: " + e.getMessage()));
+                return;
             }
-        });
+        }
+        accounts.add(account);
+        notifier.added(account);
+    }
+
+    /**
+     * Replace the whole list, recording only what differs so a reload that
+     * just moved balances updates those accounts instead of everything.
+     * Caller must hold the class lock.
+     */
+    private static void replaceAllInternal(List<Account> newAccounts) {
+        Map<String, Account> previous = new HashMap<>();
+        for (Account a : accounts) {
+            previous.put(a.id(), a);
+        }
+        Map<String, Account> next = new HashMap<>();
+        List<String> keptOrder = new ArrayList<>();
+        for (Account a : newAccounts) {
+            next.put(a.id(), a);
+            if (previous.containsKey(a.id())) {
+                keptOrder.add(a.id());
+            }
+        }
+        List<String> oldOrder = new ArrayList<>();
+        for (Account a : accounts) {
+            if (next.containsKey(a.id())) {
+                oldOrder.add(a.id());
+            }
+        }
+        accounts.clear();
+        accounts.addAll(newAccounts);
+        if (!oldOrder.equals(keptOrder)) {
+            notifier.reset(); // Reordered; a diff would not describe it
+            return;
+        }
+        for (Account a : newAccounts) {
+            Account old = previous.remove(a.id());
+            if (old == null) {
+                notifier.added(a);
+            } else if (!old.equals(a)) {
+                notifier.updated(a);
+            }
+        }
+        for (Account gone : previous.values()) {
+            notifier.removed(gone);
+        }
+    }
+
+    /**
+     * Position of an account in the list, or -1.
+     * Caller must hold the class lock.
+     */
+    private static int indexOf(String id) {
+        for (int i = 0; i < accounts.size(); i++) {
+            if (accounts.get(i).id().equals(id)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static Account withId(Account account, String id) {
+        return new Account(id, account.name(), account.number(), account.balance(), account.type());
+    }
+
+    /**
+     * Remove an account, recording the change.
+     * Caller must hold the class lock.
+     */
+    private static void removeInternal(String id) {
+        for (int i = 0; i < accounts.size(); i++) {
+            if (accounts.get(i).id().equals(id)) {
+                notifier.removed(accounts.remove(i));
+                return;
+            }
+        }
     }
 
     /**
@@ -165,64 +349,87 @@ public final class AccountStore {
      * @param onError callback with error message on failure
      */
     public static void loadFromBackend(Runnable onSuccess, Consumer<String> onError) {
-        executeAsync(() -> {
-            try {
-                String sessionToken = sessionManager.getSessionToken();
-                if (sessionToken == null || sessionToken.isEmpty()) {
-                    updateUI(() -> onError.accept("No valid session. Please login."));
-                    return;
-                }
-                
-                // Format: GET_ACCOUNTS|sessionToken
-                String command = client.formatCommand("GET_ACCOUNTS", sessionToken);
-                String response = client.sendCommand(command);
-                
-                if (client.isErrorResponse(response)) {
-                    String errorMsg = client.getErrorMessage(response);
-                    updateUI(() -> onError.accept(errorMsg));
-                    return;
-                }
-                
-                // Parse DATA_ACCOUNTS response
-                // Format: DATA_ACCOUNTS|count|id1|name1|number1|balance1|type1|...
-                String[] parts = client.parseResponse(response);
-                
-                if (parts.length < 2 || !parts[0].equals("DATA_ACCOUNTS")) {
-                    updateUI(() -> onError.accept("Unexpected response format"));
-                    return;
-                }
-                
-                int count = Integer.parseInt(parts[1]);
-                List<Account> newAccounts = new ArrayList<>();
-                
-                int index = 2;
-                for (int i = 0; i < count; i++) {
-                    if (index + 4 >= parts.length) {
-                        break; // Not enough data
+        // Reloads requested while one is still queued share that reload
+        BackgroundExecutor.submitCoalesced("AccountStore.load", AccountStore::fetchAll)
+                .whenComplete((error, ex) -> {
+                    if (ex != null) {
+                        updateUI(() -> onError.accept("Failed to load accounts: " + ex.getMessage()));
+                    } else if (error != null) {
+                        updateUI(() -> onError.accept(error));
+                    } else {
+                        updateUI(onSuccess);
                     }
-                    
-                    String id = parts[index++];
-                    String name = parts[index++];
-                    String number = parts[index++];
-                    long balance = Long.parseLong(parts[index++]);
-                    String type = parts[index++];
-                    
-                    newAccounts.add(new Account(id, name, number, balance, type));
-                }
-                
-                // Update local list
-                synchronized (AccountStore.class) {
-                    accounts.clear();
-                    accounts.addAll(newAccounts);
-                    notifyListeners();
+                });
+    }
+
+    /**
+     * Fetch all data from backend and replace local state.
+     * @return error message, or null on success
+     */
+    private static String fetchAll() {
+        try {
+            String sessionToken = sessionManager.getSessionToken();
+            if (sessionToken == null || sessionToken.isEmpty()) {
+                return "No valid session. Please login.";
+            }
+            
+            // Format: GET_ACCOUNTS|sessionToken
+            String command = client.formatCommand("GET_ACCOUNTS", sessionToken);
+            String response = client.sendCommand(command);
+            
+            if (client.isErrorResponse(response)) {
+                return client.getErrorMessage(response);
+            }
+            
+            // Parse DATA_ACCOUNTS response
+            // Format: DATA_ACCOUNTS|count|id1|name1|number1|balance1|type1|...
+            String[] parts = client.parseResponse(response);
+            
+            if (parts.length < 2 || !parts[0].equals("DATA_ACCOUNTS")) {
+                return "Unexpected response format";
+            }
+            
+            int count = Integer.parseInt(parts[1]);
+            List<Account> newAccounts = new ArrayList<>();
+            
+            int index = 2;
+            for (int i = 0; i < count; i++) {
+                if (index + 4 >= parts.length) {
+                    break; // Not enough data
                 }
                 
-                updateUI(onSuccess);
+                String id = parts[index++];
+                String name = parts[index++];
+                String number = parts[index++];
+                long balance = Long.parseLong(parts[index++]);
+                String type = parts[index++];
                 
-            } catch (Exception e) {
-                updateUI(() -> onError.accept("Failed to load accounts: " + e.getMessage()));
+                newAccounts.add(new Account(id, name, number, balance, type));
             }
-        });
+            
+            // Update local list
+            synchronized (AccountStore.class) {
+                replaceAllInternal(newAccounts);
+                reapplyQueued();
+                notifyListeners();
+            }
+            
+            return null;
+            
+        } catch (Exception e) {
+            return "Failed to load accounts: " + e.getMessage();
+        }
+    }
+
+    /**
+     * Replace local state with accounts read from the local cache.
+     * @param cached accounts as last saved
+     */
+    static void restoreFromCache(List<Account> cached) {
+        synchronized (AccountStore.class) {
+            replaceAllInternal(cached);
+            notifyListeners();
+        }
     }
 
     public static synchronized Snapshot snapshot(){
@@ -230,26 +437,7 @@ public final class AccountStore {
     }
 
     private static void notifyListeners(){
-        Snapshot snap = snapshot();
-        for(Consumer<Snapshot> l : listeners){
-            l.accept(snap);
-        }
-    }
-
-    /**
-     * Execute task on background thread.
-     * @param task runnable to execute
-     */
-    private static void executeAsync(Runnable task) {
-        new Thread(() -> {
-            try {
-                task.run();
-            } catch (Exception e) {
-                // Log error but don't crash
-                System.err.println("Background task error: " + e.getMessage());
-                e.printStackTrace();
-            }
-        }).start();
+        notifier.publish();
     }
 
     /**
@@ -0,0 +1,149 @@
+package utils;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * BackgroundExecutor runs store and network work off the EDT on a shared,
+ * bounded pool instead of a new thread per operation.
+ * Uses virtual threads as workers when the running JDK provides them.
+ */
+public final class BackgroundExecutor {
+    private static final int POOL_SIZE = Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors()));
+    private static final int QUEUE_CAPACITY = 1024;
+    private static final long KEEP_ALIVE_SECONDS = 30;
+
+    private static final boolean virtualThreads;
+    private static final ThreadPoolExecutor executor;
+
+    // Coalesced tasks that are queued but not started yet, by key
+    private static final Map<String, CompletableFuture<?>> queuedByKey = new HashMap<>();
+    private static final AtomicLong coalescedCount = new AtomicLong();
+
+    static {
+        ThreadFactory factory = virtualThreadFactory();
+        virtualThreads = factory != null;
+        if (factory == null) {
+            factory = platformThreadFactory();
+        }
+        executor = new ThreadPoolExecutor(POOL_SIZE, POOL_SIZE, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(QUEUE_CAPACITY), factory,
+                // A full queue throttles the submitter instead of dropping work
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    private BackgroundExecutor() {
+    }
+
+    /**
+     * Run task on the shared pool.
+     * Exceptions are logged so a failing task never kills a worker silently.
+     *
+     * @param task runnable to execute
+     */
+    public static void execute(Runnable task) {
+        executor.execute(() -> {
+            try {
+                task.run();
+            } catch (Exception e) {
+                // Log error but don't crash
+                System.err.println("Background task error: " + e.getMessage());
+                e.printStackTrace();
+            }
+        });
+    }
+
+    /**
+     * Run task on the shared pool unless a task with the same key is already
+     * queued, in which case the caller shares that task's result.
+     * Once a task has started, new submissions queue a fresh run so callers
+     * never miss changes made after the running task read its data.
+     *
+     * @param key  identifies interchangeable tasks, e.g. a store reload
+     * @param task work to run
+     * @return future completed with the task result
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> CompletableFuture<T> submitCoalesced(String key, Callable<T> task) {
+        CompletableFuture<T> future;
+        synchronized (queuedByKey) {
+            CompletableFuture<?> queued = queuedByKey.get(key);
+            if (queued != null) {
+                coalescedCount.incrementAndGet();
+                return (CompletableFuture<T>) queued;
+            }
+            future = new CompletableFuture<>();
+            queuedByKey.put(key, future);
+        }
+
+        CompletableFuture<T> result = future;
+        executor.execute(() -> {
+            synchronized (queuedByKey) {
+                queuedByKey.remove(key, result);
+            }
+            try {
+                result.complete(task.call());
+            } catch (Throwable t) {
+                result.completeExceptionally(t);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Current pool metrics.
+     *
+     * @return snapshot of thread count, queue depth and task counters
+     */
+    public static Metrics metrics() {
+        return new Metrics(executor.getPoolSize(), executor.getActiveCount(), executor.getLargestPoolSize(),
+                executor.getQueue().size(), executor.getCompletedTaskCount(), coalescedCount.get(),
+                virtualThreads);
+    }
+
+    private static ThreadFactory virtualThreadFactory() {
+        try {
+            // Thread.ofVirtual().name("FinTrack-Worker-", 1).factory(), looked up
+            // reflectively so the code still compiles and runs on older JDKs
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder$OfVirtual");
+            builder = builderType.getMethod("name", String.class, long.class).invoke(builder, "FinTrack-Worker-", 1L);
+            return (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static ThreadFactory platformThreadFactory() {
+        AtomicInteger counter = new AtomicInteger();
+        return task -> {
+            Thread thread = new Thread(task, "FinTrack-Worker-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Point-in-time executor metrics.
+     *
+     * @param poolSize        worker threads currently alive
+     * @param activeThreads   workers currently running a task
+     * @param largestPoolSize most workers alive at once
+     * @param queueDepth      tasks waiting for a worker
+     * @param completedTasks  tasks finished since startup
+     * @param coalescedTasks  submissions merged into an already queued task
+     * @param virtualThreads  whether workers are virtual threads
+     */
+    public record Metrics(int poolSize, int activeThreads, int largestPoolSize, int queueDepth,
+            long completedTasks, long coalescedTasks, boolean virtualThreads) {
+    }
+}
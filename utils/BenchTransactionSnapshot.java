@@ -0,0 +1,91 @@
+package utils;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Micro benchmark comparing the old copy-and-sort snapshot with the
+ * copy-on-write sorted array TransactionStore keeps now.
+ * Simulates single edits on a large ledger with several listeners, which is
+ * what a page-heavy session looks like.
+ *
+ * Usage: java -cp out utils.BenchTransactionSnapshot [ledgerSize] [edits]
+ */
+public class BenchTransactionSnapshot {
+    private static final int LISTENERS = 6;
+
+    public static void main(String[] args) throws Exception {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int edits = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+
+        List<TransactionStore.Transaction> ledger = new ArrayList<>(size);
+        LocalDate start = LocalDate.of(2015, 1, 1);
+        for (int i = 0; i < size; i++) {
+            ledger.add(tx("t" + i, start.plusDays(i % 3650), i));
+        }
+        TransactionStore.applyRemoteChanges(ledger, Set.of());
+        long[] sink = {0};
+        for (int l = 0; l < LISTENERS; l++) {
+            TransactionStore.addListener(snap -> sink[0] += snap.transactions().size());
+        }
+
+        System.out.println("=== Snapshot benchmark: " + size + " transactions, " + edits + " edits, "
+                + LISTENERS + " listeners ===\n");
+
+        // Warm up both paths so the JIT has compiled them
+        runLegacy(ledger, edits / 4);
+        runStore(size, edits / 4);
+
+        long legacyNanos = runLegacy(ledger, edits);
+        long storeNanos = runStore(size, edits);
+
+        System.out.printf("copy + sort per listener : %8.3f ms/edit%n", legacyNanos / 1e6 / edits);
+        System.out.printf("copy-on-write snapshot   : %8.3f ms/edit%n", storeNanos / 1e6 / edits);
+        System.out.printf("speedup                  : %8.1fx%n", (double) legacyNanos / Math.max(1, storeNanos));
+    }
+
+    /**
+     * What every edit used to cost: one copy and one sort per listener.
+     */
+    private static long runLegacy(List<TransactionStore.Transaction> ledger, int edits) {
+        Comparator<TransactionStore.Transaction> newestFirst =
+                Comparator.comparing(TransactionStore.Transaction::date).reversed();
+        long sink = 0;
+        long begin = System.nanoTime();
+        for (int e = 0; e < edits; e++) {
+            ledger.set(e % ledger.size(), tx("t" + (e % ledger.size()), LocalDate.of(2020, 1, 1), e));
+            for (int l = 0; l < LISTENERS; l++) {
+                List<TransactionStore.Transaction> copy = new ArrayList<>(ledger);
+                copy.sort(newestFirst);
+                sink += copy.size();
+            }
+        }
+        long elapsed = System.nanoTime() - begin;
+        if (sink == 42) {
+            System.out.println(); // Keep the work observable
+        }
+        return elapsed;
+    }
+
+    /**
+     * Same edits through the store, which notifies every listener with one
+     * shared snapshot on the EDT. Includes waiting for that delivery.
+     */
+    private static long runStore(int size, int edits) throws Exception {
+        long begin = System.nanoTime();
+        for (int e = 0; e < edits; e++) {
+            TransactionStore.applyRemoteUpsert(tx("t" + (e % size), LocalDate.of(2021, 1, 1 + e % 28), e));
+        }
+        javax.swing.SwingUtilities.invokeAndWait(() -> {
+        });
+        return System.nanoTime() - begin;
+    }
+
+    private static TransactionStore.Transaction tx(String id, LocalDate date, long amount) {
+        return new TransactionStore.Transaction(id, date, TransactionStore.TYPE_EXPENSE, "Makan", "BCA", "Bank",
+                amount, "");
+    }
+}
@@ -0,0 +1,289 @@
+package utils;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * CacheFile is the binary on-disk format of LocalCache.
+ * Transactions are stored column by column: dates as epoch-day ints,
+ * amounts as longs, and type, category and account strings as indexes into
+ * one string dictionary, so 100k rows hold only a handful of distinct
+ * strings. Files are read through a MappedByteBuffer; the checksum is
+ * computed over the mapping and numbers are decoded straight from it.
+ *
+ * Layout (big-endian):
+ * header:  magic int "FTC2", format version short, reserved short
+ * body:    username, savedAt long, syncVersion long,
+ *          dictionary (count, strings),
+ *          accounts (count, then id, name, number, balance long, type each),
+ *          expense and income category names (count, strings each),
+ *          transactions (count, then columns: ids, epoch days, amounts,
+ *          type refs, category refs, account name refs, account type refs,
+ *          descriptions)
+ * trailer: CRC32 of the body as int, body length int
+ * Strings are an int byte length (-1 for null) followed by UTF-8 bytes;
+ * refs are int dictionary indexes (-1 for null).
+ */
+final class CacheFile {
+    static final int MAGIC = 0x46544332; // "FTC2"
+    static final short FORMAT_VERSION = 2;
+    private static final int HEADER_BYTES = 8;
+    private static final int TRAILER_BYTES = 8;
+
+    private CacheFile() {
+    }
+
+    /**
+     * Everything LocalCache persists.
+     *
+     * @param username     owner of the data
+     * @param savedAt      save time, epoch millis
+     * @param syncVersion  ledger version the transactions include, or -1
+     * @param accounts     accounts in store order
+     * @param expenses     expense category names
+     * @param incomes      income category names
+     * @param transactions transactions, newest first
+     */
+    record Image(String username, long savedAt, long syncVersion, List<AccountStore.Account> accounts,
+            List<String> expenses, List<String> incomes, List<TransactionStore.Transaction> transactions) {
+    }
+
+    /**
+     * Write an image. The CRC is computed while writing, so the data is
+     * passed over only once.
+     *
+     * @param file  destination, replaced if it exists
+     * @param image data to write
+     * @throws IOException if writing fails
+     */
+    static void write(Path file, Image image) throws IOException {
+        try (OutputStream raw = new BufferedOutputStream(Files.newOutputStream(file), 1 << 16)) {
+            DataOutputStream header = new DataOutputStream(raw);
+            header.writeInt(MAGIC);
+            header.writeShort(FORMAT_VERSION);
+            header.writeShort(0);
+            header.flush();
+
+            CRC32 crc = new CRC32();
+            DataOutputStream out = new DataOutputStream(new CheckedOutputStream(raw, crc));
+            writeString(out, image.username());
+            out.writeLong(image.savedAt());
+            out.writeLong(image.syncVersion());
+
+            List<TransactionStore.Transaction> rows = image.transactions();
+            Map<String, Integer> refs = new HashMap<>();
+            List<String> dictionary = new ArrayList<>();
+            int n = rows.size();
+            int[] types = new int[n];
+            int[] categories = new int[n];
+            int[] accountNames = new int[n];
+            int[] accountTypes = new int[n];
+            for (int i = 0; i < n; i++) {
+                TransactionStore.Transaction tx = rows.get(i);
+                types[i] = ref(refs, dictionary, tx.type());
+                categories[i] = ref(refs, dictionary, tx.category());
+                accountNames[i] = ref(refs, dictionary, tx.accountName());
+                accountTypes[i] = ref(refs, dictionary, tx.accountType());
+            }
+            out.writeInt(dictionary.size());
+            for (String value : dictionary) {
+                writeString(out, value);
+            }
+
+            out.writeInt(image.accounts().size());
+            for (AccountStore.Account a : image.accounts()) {
+                writeString(out, a.id());
+                writeString(out, a.name());
+                writeString(out, a.number());
+                out.writeLong(a.balance());
+                writeString(out, a.type());
+            }
+            writeStrings(out, image.expenses());
+            writeStrings(out, image.incomes());
+
+            out.writeInt(n);
+            for (TransactionStore.Transaction tx : rows) {
+                writeString(out, tx.id());
+            }
+            for (TransactionStore.Transaction tx : rows) {
+                out.writeInt((int) tx.date().toEpochDay());
+            }
+            for (TransactionStore.Transaction tx : rows) {
+                out.writeLong(tx.amount());
+            }
+            for (int[] column : new int[][] { types, categories, accountNames, accountTypes }) {
+                for (int ref : column) {
+                    out.writeInt(ref);
+                }
+            }
+            for (TransactionStore.Transaction tx : rows) {
+                writeString(out, tx.description());
+            }
+            out.flush();
+
+            header.writeInt((int) crc.getValue());
+            header.writeInt(out.size());
+        }
+    }
+
+    /**
+     * Map a cache file and decode it after checking its format version and
+     * checksum. Transactions are only decoded if the file belongs to
+     * expectedUser.
+     *
+     * @param file         file to read
+     * @param expectedUser user of the current session
+     * @return the image, or null if the file belongs to another user
+     * @throws IOException if the file is unreadable, of another format
+     *                     version, truncated or corrupt
+     */
+    static Image read(Path file, String expectedUser) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_BYTES + TRAILER_BYTES || size > Integer.MAX_VALUE) {
+                throw new IOException("Cache file has invalid size " + size);
+            }
+            MappedByteBuffer map = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (map.getInt(0) != MAGIC) {
+                throw new IOException("Not a cache file");
+            }
+            short version = map.getShort(4);
+            if (version != FORMAT_VERSION) {
+                throw new IOException("Unsupported cache format version " + version);
+            }
+            int bodyLength = map.getInt((int) size - 4);
+            int expectedCrc = map.getInt((int) size - 8);
+            if (bodyLength != size - HEADER_BYTES - TRAILER_BYTES) {
+                throw new IOException("Cache file is truncated");
+            }
+            ByteBuffer body = map.slice(HEADER_BYTES, bodyLength);
+            CRC32 crc = new CRC32();
+            crc.update(body.duplicate());
+            if ((int) crc.getValue() != expectedCrc) {
+                throw new IOException("Cache file checksum mismatch");
+            }
+            return decode(body, expectedUser);
+        } catch (IndexOutOfBoundsException | java.nio.BufferUnderflowException e) {
+            throw new IOException("Cache file is malformed", e);
+        }
+    }
+
+    private static Image decode(ByteBuffer in, String expectedUser) {
+        String username = readString(in);
+        if (username == null || !username.equals(expectedUser)) {
+            return null;
+        }
+        long savedAt = in.getLong();
+        long syncVersion = in.getLong();
+
+        String[] dictionary = new String[in.getInt()];
+        for (int i = 0; i < dictionary.length; i++) {
+            dictionary[i] = readString(in);
+        }
+
+        int accountCount = in.getInt();
+        List<AccountStore.Account> accounts = new ArrayList<>(accountCount);
+        for (int i = 0; i < accountCount; i++) {
+            String id = readString(in);
+            String name = readString(in);
+            String number = readString(in);
+            long balance = in.getLong();
+            accounts.add(new AccountStore.Account(id, name, number, balance, readString(in)));
+        }
+        List<String> expenses = readStrings(in);
+        List<String> incomes = readStrings(in);
+
+        int n = in.getInt();
+        String[] ids = new String[n];
+        for (int i = 0; i < n; i++) {
+            ids[i] = readString(in);
+        }
+        // Fixed-width columns are read in place from the mapping
+        int daysAt = in.position();
+        int amountsAt = daysAt + 4 * n;
+        int refsAt = amountsAt + 8 * n;
+        in.position(refsAt + 16 * n);
+        List<TransactionStore.Transaction> rows = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            String description = readString(in);
+            rows.add(new TransactionStore.Transaction(ids[i],
+                    LocalDate.ofEpochDay(in.getInt(daysAt + 4 * i)),
+                    lookup(dictionary, in.getInt(refsAt + 4 * i)),
+                    lookup(dictionary, in.getInt(refsAt + 4 * (n + i))),
+                    lookup(dictionary, in.getInt(refsAt + 4 * (2 * n + i))),
+                    lookup(dictionary, in.getInt(refsAt + 4 * (3 * n + i))),
+                    in.getLong(amountsAt + 8 * i),
+                    description));
+        }
+        return new Image(username, savedAt, syncVersion, accounts, expenses, incomes, rows);
+    }
+
+    private static int ref(Map<String, Integer> refs, List<String> dictionary, String value) {
+        if (value == null) {
+            return -1;
+        }
+        Integer ref = refs.get(value);
+        if (ref == null) {
+            ref = dictionary.size();
+            refs.put(value, ref);
+            dictionary.add(value);
+        }
+        return ref;
+    }
+
+    private static String lookup(String[] dictionary, int ref) {
+        return ref < 0 ? null : dictionary[ref];
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static void writeStrings(DataOutputStream out, List<String> values) throws IOException {
+        out.writeInt(values.size());
+        for (String value : values) {
+            writeString(out, value);
+        }
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static List<String> readStrings(ByteBuffer in) {
+        int count = in.getInt();
+        List<String> values = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            values.add(readString(in));
+        }
+        return values;
+    }
+}
@@ -3,6 +3,7 @@ package utils;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
+import java.util.Set;
 import java.util.function.Consumer;
 
 public final class CategoryStore {
@@ -11,23 +12,42 @@ public final class CategoryStore {
 
     private static final List<String> expenseCategories = new ArrayList<>();
     private static final List<String> incomeCategories = new ArrayList<>();
-    private static final List<Consumer<Snapshot>> listeners = new ArrayList<>();
+    // Commands this store sends through PendingOperations
+    private static final Set<String> COMMANDS = Set.of("ADD_CATEGORY", "DELETE_CATEGORY");
+    // Delivers snapshots and change sets to listeners on the EDT
+    private static final StoreNotifier<Snapshot, Category> notifier =
+            new StoreNotifier<>(CategoryStore.class, CategoryStore::snapshot, Category::key);
     private static final SocketClient client = SocketClient.getInstance();
     private static final SessionManager sessionManager = SessionManager.getInstance();
 
     private CategoryStore() {}
 
-    public static synchronized void addListener(Consumer<Snapshot> listener) {
-        listeners.add(listener);
-        listener.accept(snapshot());
+    /**
+     * Register a snapshot listener. Called once right away, then on the EDT
+     * after each batch of changes.
+     * @param listener snapshot consumer
+     */
+    public static void addListener(Consumer<Snapshot> listener) {
+        notifier.addListener(listener);
+    }
+
+    /**
+     * Register a listener that also receives the added and removed
+     * categories. Called once right away with a reset change set, then on
+     * the EDT after each batch of changes.
+     * @param listener change listener
+     */
+    public static void addChangeListener(StoreNotifier.ChangeListener<Snapshot, Category> listener) {
+        notifier.addChangeListener(listener);
     }
 
     /**
-     * Add category asynchronously via backend.
+     * Add a category. It is shown to listeners right away, then sent to the
+     * backend in the background and removed again if the backend rejects it.
      * @param type category type (Pemasukan/Pengeluaran)
      * @param name category name
-     * @param onSuccess callback on success
-     * @param onError callback with error message on failure
+     * @param onSuccess callback once confirmed
+     * @param onError callback with error message after the rollback
      */
     public static void addCategory(String type, String name, Runnable onSuccess, Consumer<String> onError) {
         if (name == null || name.trim().isEmpty()) {
@@ -35,54 +55,115 @@ public final class CategoryStore {
             return;
         }
         
-        String normalized = name.trim();
+        // Format: ADD_CATEGORY|sessionToken|type|name|key
+        execute(PendingOperations.command("ADD_CATEGORY", null, type, name.trim()), onSuccess, onError);
+    }
+
+    /**
+     * Remove a category. It disappears for listeners right away and comes
+     * back, at its old position, if the backend rejects the delete.
+     * @param type category type (Pemasukan/Pengeluaran)
+     * @param name category name
+     * @param onSuccess callback once confirmed
+     * @param onError callback with error message after the rollback
+     */
+    public static void removeCategory(String type, String name, Runnable onSuccess, Consumer<String> onError) {
+        if (name == null || name.trim().isEmpty()) {
+            onError.accept("Category name cannot be empty");
+            return;
+        }
         
-        executeAsync(() -> {
-            try {
-                String sessionToken = sessionManager.getSessionToken();
-                if (sessionToken == null || sessionToken.isEmpty()) {
-                    updateUI(() -> onError.accept("No valid session. Please login."));
-                    return;
-                }
-                
-                // Format: ADD_CATEGORY|sessionToken|type|name
-                String command = client.formatCommand("ADD_CATEGORY", sessionToken, type, normalized);
-                String response = client.sendCommand(command);
-                
-                if (client.isErrorResponse(response)) {
-                    String errorMsg = client.getErrorMessage(response);
-                    updateUI(() -> onError.accept(errorMsg));
-                    return;
-                }
-                
-                // Response should be OK
-                if (response != null && response.startsWith("OK")) {
-                    // Add to local list
-                    synchronized (CategoryStore.class) {
-                        if (INCOME.equalsIgnoreCase(type)) {
-                            if (!containsIgnoreCase(incomeCategories, normalized)) {
-                                incomeCategories.add(normalized);
-                                notifyListeners();
-                            }
-                        } else {
-                            if (!containsIgnoreCase(expenseCategories, normalized)) {
-                                expenseCategories.add(normalized);
-                                notifyListeners();
-                            }
-                        }
-                    }
-                    
-                    updateUI(onSuccess);
-                } else {
-                    updateUI(() -> onError.accept("Unexpected response format"));
+        // Format: DELETE_CATEGORY|sessionToken|type|name|key
+        execute(PendingOperations.command("DELETE_CATEGORY", null, type, name.trim()), onSuccess, onError);
+    }
+
+    /**
+     * Apply a command left in the write-ahead log and queue it again.
+     * @param command logged ADD_CATEGORY or DELETE_CATEGORY
+     */
+    static void replay(PendingOperations.Command command) {
+        execute(command, () -> {}, error -> {});
+    }
+
+    /**
+     * Apply a command locally, then queue it for the backend with a rollback
+     * that restores the category list as it was before.
+     */
+    private static void execute(PendingOperations.Command command, Runnable onSuccess, Consumer<String> onError) {
+        String type = command.arg(0);
+        String name = command.arg(1);
+        boolean add = command.name().equals("ADD_CATEGORY");
+        int position;
+        String existing;
+        synchronized (CategoryStore.class) {
+            List<String> list = listFor(type);
+            position = indexOfIgnoreCase(list, name);
+            existing = position >= 0 ? list.get(position) : null;
+            applyLocal(command);
+            notifyListeners();
+        }
+        
+        PendingOperations.submit((add ? "Tambah kategori: " : "Hapus kategori: ") + name, command, () -> {
+            String sessionToken = sessionManager.getSessionToken();
+            if (sessionToken == null || sessionToken.isEmpty()) {
+                return "No valid session. Please login.";
+            }
+            
+            String response = client.sendCommand(command.format(sessionToken, null));
+            if (client.isErrorResponse(response)) {
+                return client.getErrorMessage(response);
+            }
+            
+            // Response should be OK
+            if (response == null || !response.startsWith("OK")) {
+                return "Unexpected response format";
+            }
+            updateUI(onSuccess);
+            return null;
+        }, error -> {
+            synchronized (CategoryStore.class) {
+                List<String> list = listFor(type);
+                if (add && existing == null) {
+                    removeInternal(type, name);
+                } else if (!add && existing != null && indexOfIgnoreCase(list, existing) < 0) {
+                    list.add(Math.min(position, list.size()), existing);
+                    notifier.added(new Category(INCOME.equalsIgnoreCase(type) ? INCOME : EXPENSE, existing));
                 }
-                
-            } catch (Exception e) {
-                updateUI(() -> onError.accept("Failed to add category: " + e.getMessage()));
+                notifyListeners();
             }
+            updateUI(() -> onError.accept(error));
         });
     }
 
+    /**
+     * Apply the local effect of a queued command.
+     * Caller must hold the class lock.
+     */
+    private static void applyLocal(PendingOperations.Command command) {
+        // Fields: type|name
+        switch (command.name()) {
+            case "ADD_CATEGORY" -> addInternal(command.arg(0), command.arg(1));
+            case "DELETE_CATEGORY" -> removeInternal(command.arg(0), command.arg(1));
+            default -> throw new IllegalArgumentException("Not a category command: " + command.name());
+        }
+    }
+
+    /**
+     * Replace local state with categories read from the local cache.
+     * @param expenses expense category names as last saved
+     * @param incomes income category names as last saved
+     */
+    static void restoreFromCache(List<String> expenses, List<String> incomes) {
+        synchronized (CategoryStore.class) {
+            expenseCategories.clear();
+            expenseCategories.addAll(expenses);
+            incomeCategories.clear();
+            incomeCategories.addAll(incomes);
+            notifier.reset();
+            notifyListeners();
+        }
+    }
+
     public static synchronized Snapshot snapshot() {
         return new Snapshot(
             List.copyOf(expenseCategories),
@@ -91,62 +172,71 @@ public final class CategoryStore {
     }
 
     /**
-     * Remove category asynchronously via backend.
+     * Add a category created on another client.
      * @param type category type (Pemasukan/Pengeluaran)
      * @param name category name
-     * @param onSuccess callback on success
-     * @param onError callback with error message on failure
      */
-    public static void removeCategory(String type, String name, Runnable onSuccess, Consumer<String> onError) {
-        if (name == null || name.trim().isEmpty()) {
-            onError.accept("Category name cannot be empty");
-            return;
+    public static void applyRemoteAdd(String type, String name) {
+        synchronized (CategoryStore.class) {
+            addInternal(type, name);
+            notifyListeners();
         }
-        
-        String target = name.trim();
-        
-        executeAsync(() -> {
-            try {
-                String sessionToken = sessionManager.getSessionToken();
-                if (sessionToken == null || sessionToken.isEmpty()) {
-                    updateUI(() -> onError.accept("No valid session. Please login."));
-                    return;
-                }
-                
-                // Format: DELETE_CATEGORY|sessionToken|type|name
-                String command = client.formatCommand("DELETE_CATEGORY", sessionToken, type, target);
-                String response = client.sendCommand(command);
-                
-                if (client.isErrorResponse(response)) {
-                    String errorMsg = client.getErrorMessage(response);
-                    updateUI(() -> onError.accept(errorMsg));
-                    return;
-                }
-                
-                // Response should be OK
-                if (response != null && response.startsWith("OK")) {
-                    // Remove from local list
-                    synchronized (CategoryStore.class) {
-                        boolean removed = false;
-                        if (INCOME.equalsIgnoreCase(type)) {
-                            removed = incomeCategories.removeIf(s -> s.equalsIgnoreCase(target));
-                        } else {
-                            removed = expenseCategories.removeIf(s -> s.equalsIgnoreCase(target));
-                        }
-                        if (removed) {
-                            notifyListeners();
-                        }
-                    }
-                    
-                    updateUI(onSuccess);
-                } else {
-                    updateUI(() -> onError.accept("Unexpected response format"));
-                }
-                
-            } catch (Exception e) {
-                updateUI(() -> onError.accept("Failed to remove category: " + e.getMessage()));
+    }
+
+    /**
+     * Remove a category deleted on another client.
+     * @param type category type (Pemasukan/Pengeluaran)
+     * @param name category name
+     */
+    public static void applyRemoteRemove(String type, String name) {
+        synchronized (CategoryStore.class) {
+            removeInternal(type, name);
+            notifyListeners();
+        }
+    }
+
+    /**
+     * Add a category unless it already exists, recording the change.
+     * Caller must hold the class lock.
+     * @return true if the category was added
+     */
+    private static boolean addInternal(String type, String name) {
+        boolean income = INCOME.equalsIgnoreCase(type);
+        List<String> target = income ? incomeCategories : expenseCategories;
+        if (containsIgnoreCase(target, name)) {
+            return false;
+        }
+        target.add(name);
+        notifier.added(new Category(income ? INCOME : EXPENSE, name));
+        return true;
+    }
+
+    /**
+     * Remove a category, recording the change.
+     * Caller must hold the class lock.
+     */
+    private static void removeInternal(String type, String name) {
+        boolean income = INCOME.equalsIgnoreCase(type);
+        List<String> target = income ? incomeCategories : expenseCategories;
+        for (int i = 0; i < target.size(); i++) {
+            if (target.get(i).equalsIgnoreCase(name)) {
+                notifier.removed(new Category(income ? INCOME : EXPENSE, target.remove(i)));
+                return;
             }
-        });
+        }
+    }
+
+    private static List<String> listFor(String type) {
+        return INCOME.equalsIgnoreCase(type) ? incomeCategories : expenseCategories;
+    }
+
+    private static int indexOfIgnoreCase(List<String> list, String value) {
+        for (int i = 0; i < list.size(); i++) {
+            if (list.get(i).equalsIgnoreCase(value)) {
+                return i;
+            }
+        }
+        return -1;
     }
 
     private static boolean containsIgnoreCase(List<String> list, String value) {
@@ -163,92 +253,90 @@ public final class CategoryStore {
      * @param onError callback with error message on failure
      */
     public static void loadFromBackend(Runnable onSuccess, Consumer<String> onError) {
-        executeAsync(() -> {
-            try {
-                String sessionToken = sessionManager.getSessionToken();
-                if (sessionToken == null || sessionToken.isEmpty()) {
-                    updateUI(() -> onError.accept("No valid session. Please login."));
-                    return;
-                }
-                
-                // Format: GET_CATEGORIES|sessionToken
-                String command = client.formatCommand("GET_CATEGORIES", sessionToken);
-                String response = client.sendCommand(command);
-                
-                if (client.isErrorResponse(response)) {
-                    String errorMsg = client.getErrorMessage(response);
-                    updateUI(() -> onError.accept(errorMsg));
-                    return;
-                }
-                
-                // Parse DATA_CATEGORIES response
-                // Format: DATA_CATEGORIES|count|type1|name1|type2|name2|...
-                String[] parts = client.parseResponse(response);
-                
-                if (parts.length < 2 || !parts[0].equals("DATA_CATEGORIES")) {
-                    updateUI(() -> onError.accept("Unexpected response format"));
-                    return;
-                }
-                
-                int count = Integer.parseInt(parts[1]);
-                List<String> newExpenseCategories = new ArrayList<>();
-                List<String> newIncomeCategories = new ArrayList<>();
-                
-                int index = 2;
-                for (int i = 0; i < count; i++) {
-                    if (index + 1 >= parts.length) {
-                        break; // Not enough data
-                    }
-                    
-                    String type = parts[index++];
-                    String name = parts[index++];
-                    
-                    // Separate by type
-                    if (INCOME.equalsIgnoreCase(type)) {
-                        newIncomeCategories.add(name);
+        // Reloads requested while one is still queued share that reload
+        BackgroundExecutor.submitCoalesced("CategoryStore.load", CategoryStore::fetchAll)
+                .whenComplete((error, ex) -> {
+                    if (ex != null) {
+                        updateUI(() -> onError.accept("Failed to load categories: " + ex.getMessage()));
+                    } else if (error != null) {
+                        updateUI(() -> onError.accept(error));
                     } else {
-                        newExpenseCategories.add(name);
+                        updateUI(onSuccess);
                     }
+                });
+    }
+
+    /**
+     * Fetch all data from backend and replace local state.
+     * @return error message, or null on success
+     */
+    private static String fetchAll() {
+        try {
+            String sessionToken = sessionManager.getSessionToken();
+            if (sessionToken == null || sessionToken.isEmpty()) {
+                return "No valid session. Please login.";
+            }
+            
+            // Format: GET_CATEGORIES|sessionToken
+            String command = client.formatCommand("GET_CATEGORIES", sessionToken);
+            String response = client.sendCommand(command);
+            
+            if (client.isErrorResponse(response)) {
+                return client.getErrorMessage(response);
+            }
+            
+            // Parse DATA_CATEGORIES response
+            // Format: DATA_CATEGORIES|count|type1|name1|type2|name2|...
+            String[] parts = client.parseResponse(response);
+            
+            if (parts.length < 2 || !parts[0].equals("DATA_CATEGORIES")) {
+                return "Unexpected response format";
+            }
+            
+            int count = Integer.parseInt(parts[1]);
+            List<String> newExpenseCategories = new ArrayList<>();
+            List<String> newIncomeCategories = new ArrayList<>();
+            
+            int index = 2;
+            for (int i = 0; i < count; i++) {
+                if (index + 1 >= parts.length) {
+                    break; // Not enough data
                 }
                 
-                // Update local lists
-                synchronized (CategoryStore.class) {
-                    expenseCategories.clear();
-                    expenseCategories.addAll(newExpenseCategories);
-                    incomeCategories.clear();
-                    incomeCategories.addAll(newIncomeCategories);
-                    notifyListeners();
-                }
-                
-                updateUI(onSuccess);
+                String type = parts[index++];
+                String name = parts[index++];
                 
-            } catch (Exception e) {
-                updateUI(() -> onError.accept("Failed to load categories: " + e.getMessage()));
+                // Separate by type
+                if (INCOME.equalsIgnoreCase(type)) {
+                    newIncomeCategories.add(name);
+                } else {
+                    newExpenseCategories.add(name);
+                }
             }
-        });
-    }
-
-    private static void notifyListeners() {
-        Snapshot snap = snapshot();
-        for (Consumer<Snapshot> l : listeners) {
-            l.accept(snap);
+            
+            // Update local lists
+            synchronized (CategoryStore.class) {
+                expenseCategories.clear();
+                expenseCategories.addAll(newExpenseCategories);
+                incomeCategories.clear();
+                incomeCategories.addAll(newIncomeCategories);
+                // Keep changes the backend has not confirmed yet
+                for (PendingOperations.Command queued : PendingOperations.queued(COMMANDS)) {
+                    applyLocal(queued);
+                }
+                notifier.reset();
+                notifyListeners();
+            }
+            
+            return null;
+            
+        } catch (Exception e) {
+            return "Failed to load categories: " + e.getMessage();
         }
     }
 
-    /**
-     * Execute task on background thread.
-     * @param task runnable to execute
-     */
-    private static void executeAsync(Runnable task) {
-        new Thread(() -> {
-            try {
-                task.run();
-            } catch (Exception e) {
-                // Log error but don't crash
-                System.err.println("Background task error: " + e.getMessage());
-                e.printStackTrace();
-            }
-        }).start();
+    private static void notifyListeners() {
+        notifier.publish();
     }
 
     /**
@@ -260,4 +348,15 @@ public final class CategoryStore {
     }
 
     public record Snapshot(List<String> expenses, List<String> incomes) {}
+
+    /**
+     * One category as reported in change sets.
+     * @param type Pemasukan/Pengeluaran
+     * @param name category name
+     */
+    public record Category(String type, String name) {
+        String key() {
+            return type + "|" + name.toLowerCase(Locale.ROOT);
+        }
+    }
 }
@@ -0,0 +1,41 @@
+package utils;
+
+import java.util.List;
+
+/**
+ * ChangeSet describes what changed in a store since the last notification.
+ * Listeners can apply it row by row instead of rebuilding from the
+ * snapshot. When reset is true the store was replaced wholesale (e.g. a full
+ * reload) and the lists are empty; listeners should rebuild from the
+ * snapshot.
+ *
+ * @param added   items that are new
+ * @param updated items whose state changed, in their new state
+ * @param removed items that were deleted, in their last known state
+ * @param reset   whether listeners must rebuild from the snapshot
+ */
+public record ChangeSet<T>(List<T> added, List<T> updated, List<T> removed, boolean reset) {
+
+    /**
+     * Change set telling listeners to rebuild from the snapshot.
+     *
+     * @return reset change set
+     */
+    public static <T> ChangeSet<T> resetAll() {
+        return new ChangeSet<>(List.of(), List.of(), List.of(), true);
+    }
+
+    public boolean isEmpty() {
+        return !reset && added.isEmpty() && updated.isEmpty() && removed.isEmpty();
+    }
+
+    /**
+     * Number of individual changes, for deciding between applying the
+     * change set and rebuilding.
+     *
+     * @return added + updated + removed
+     */
+    public int size() {
+        return added.size() + updated.size() + removed.size();
+    }
+}
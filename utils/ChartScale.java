@@ -0,0 +1,170 @@
+package utils;
+
+/**
+ * ChartScale holds the arithmetic shared by the charts: a value axis with
+ * round steps, short rupiah labels and downsampling of long series.
+ *
+ * Everything works on long amounts, as the stores do. Monthly totals of
+ * business accounts pass Integer.MAX_VALUE (about Rp 2,1 M) easily, so no
+ * value is ever narrowed to int; only the final pixel offsets are.
+ */
+public final class ChartScale {
+    private static final long[] UNITS = { 1_000_000_000_000L, 1_000_000_000L, 1_000_000L, 1_000L };
+    private static final String[] UNIT_NAMES = { "T", "M", "jt", "rb" };
+
+    private ChartScale() {
+    }
+
+    /**
+     * Value axis from 0 to max in equal steps.
+     *
+     * @param max  top of the axis, a multiple of step
+     * @param step distance between grid lines, 1, 2 or 5 times a power of 10
+     */
+    public record Axis(long max, long step) {
+        /**
+         * @return number of steps between 0 and max
+         */
+        public int ticks() {
+            return (int) (max / step);
+        }
+
+        /**
+         * Position of a value on the axis.
+         *
+         * @param value amount
+         * @return 0 at the bottom to 1 at max, clamped
+         */
+        public double fraction(long value) {
+            return ChartScale.fraction(value, max);
+        }
+    }
+
+    /**
+     * Smallest axis with round steps that shows maxValue in at most
+     * maxTicks steps.
+     *
+     * @param maxValue largest value to show; negative counts as 0
+     * @param maxTicks most grid steps wanted, at least 1
+     * @return the axis
+     */
+    public static Axis axis(long maxValue, int maxTicks) {
+        int ticks = Math.max(1, maxTicks);
+        if (maxValue <= 0) {
+            return new Axis(ticks, 1);
+        }
+        long raw = maxValue / ticks + (maxValue % ticks == 0 ? 0 : 1);
+        long magnitude = 1;
+        while (magnitude <= raw / 10) {
+            magnitude *= 10;
+        }
+        long step = Long.MAX_VALUE;
+        for (long factor : new long[] { 1, 2, 5, 10 }) {
+            long candidate = multiplyOrMax(magnitude, factor);
+            if (candidate >= raw) {
+                step = candidate;
+                break;
+            }
+        }
+        long steps = maxValue / step + (maxValue % step == 0 ? 0 : 1);
+        return new Axis(multiplyOrMax(step, steps), step);
+    }
+
+    /**
+     * Position of a value between 0 and max.
+     *
+     * @param value amount
+     * @param max   amount at the top; values of 0 or less give 0
+     * @return fraction clamped to 0..1
+     */
+    public static double fraction(long value, long max) {
+        if (max <= 0 || value <= 0) {
+            return 0;
+        }
+        return value >= max ? 1 : (double) value / max;
+    }
+
+    /**
+     * Short label for an amount, e.g. 1,5 jt or 12 M, with at most one
+     * decimal. Units are ribu (rb), juta (jt), miliar (M) and triliun (T).
+     *
+     * @param value amount in rupiah
+     * @return label without the currency
+     */
+    public static String label(long value) {
+        if (value < 0) {
+            return "-" + label(value == Long.MIN_VALUE ? Long.MAX_VALUE : -value);
+        }
+        for (int i = 0; i < UNITS.length; i++) {
+            long unit = UNITS[i];
+            if (value >= unit) {
+                long whole = value / unit;
+                long tenth = value % unit / (unit / 10);
+                return whole + (tenth == 0 || whole >= 100 ? "" : "," + tenth) + " " + UNIT_NAMES[i];
+            }
+        }
+        return Long.toString(value);
+    }
+
+    /**
+     * Number of consecutive points to merge so a series fits.
+     *
+     * @param points    points in the series
+     * @param maxPoints points that fit, at least 1
+     * @return points per bucket, 1 if the series already fits
+     */
+    public static int bucketSize(int points, int maxPoints) {
+        int fit = Math.max(1, maxPoints);
+        return points <= fit ? 1 : (points + fit - 1) / fit;
+    }
+
+    /**
+     * Merge consecutive points by summing them, so the totals of a series of
+     * months become totals per quarter or year. The last bucket may be
+     * shorter. Sums saturate at Long.MAX_VALUE instead of wrapping.
+     *
+     * @param values series
+     * @param bucket points per bucket, from bucketSize
+     * @return merged series
+     */
+    public static long[] downsample(long[] values, int bucket) {
+        if (bucket <= 1) {
+            return values;
+        }
+        long[] merged = new long[(values.length + bucket - 1) / bucket];
+        for (int i = 0; i < values.length; i++) {
+            long sum = merged[i / bucket];
+            long value = values[i];
+            long next = sum + value;
+            // Overflow only if both have the same sign and the result does not
+            merged[i / bucket] = ((sum ^ next) & (value ^ next)) < 0
+                    ? (value < 0 ? Long.MIN_VALUE : Long.MAX_VALUE)
+                    : next;
+        }
+        return merged;
+    }
+
+    /**
+     * Labels for a downsampled series: the first label of each bucket.
+     *
+     * @param labels labels of the full series
+     * @param bucket points per bucket, from bucketSize
+     * @return one label per bucket
+     */
+    public static String[] downsampleLabels(String[] labels, int bucket) {
+        if (bucket <= 1) {
+            return labels;
+        }
+        String[] merged = new String[(labels.length + bucket - 1) / bucket];
+        for (int i = 0; i < merged.length; i++) {
+            merged[i] = labels[i * bucket];
+        }
+        return merged;
+    }
+
+    private static long multiplyOrMax(long a, long b) {
+        long hi = Math.multiplyHigh(a, b);
+        long lo = a * b;
+        return hi != 0 || lo < 0 ? Long.MAX_VALUE : lo;
+    }
+}
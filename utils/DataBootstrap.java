@@ -0,0 +1,146 @@
+package utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * DataBootstrap loads all store data needed by the app shell.
+ * Accounts, categories and transactions are requested concurrently, so the
+ * time to dashboard is the slowest load instead of the sum of all three.
+ */
+public final class DataBootstrap {
+    public static final String STAGE_ACCOUNTS = "accounts";
+    public static final String STAGE_CATEGORIES = "categories";
+    public static final String STAGE_TRANSACTIONS = "transactions";
+
+    private DataBootstrap() {
+    }
+
+    /**
+     * Issue all store loads at once and report when every one of them has
+     * finished or failed. A failed stage does not stop the others.
+     *
+     * @param onComplete callback with per-stage results, invoked on the EDT
+     */
+    public static void loadAll(Consumer<Report> onComplete) {
+        run(false, onComplete);
+    }
+
+    /**
+     * Bring stores restored from the local cache up to date. Accounts and
+     * categories are small and reloaded; transactions only fetch what
+     * changed since the cached ledger version. If changes from the previous
+     * run are still unsent, the cache may hold their effects as if they were
+     * confirmed, and a delta would never undo them once the backend rejects
+     * them; the ledger is then reloaded in full before they are replayed.
+     *
+     * @param onComplete callback with per-stage results, invoked on the EDT
+     */
+    public static void reconcile(Consumer<Report> onComplete) {
+        run(!PendingOperations.hasUnsent(), onComplete);
+    }
+
+    private static void run(boolean incremental, Consumer<Report> onComplete) {
+        long start = System.nanoTime();
+        StageResult[] results = new StageResult[3];
+        AtomicInteger remaining = new AtomicInteger(results.length);
+
+        Runnable finish = () -> {
+            if (remaining.decrementAndGet() > 0) {
+                return;
+            }
+            Report report = new Report(List.of(results), elapsedMillis(start));
+            System.out.println("[Bootstrap] " + report);
+            if (onComplete != null) {
+                onComplete.accept(report);
+            }
+        };
+
+        AccountStore.loadFromBackend(
+                () -> {
+                    results[0] = new StageResult(STAGE_ACCOUNTS, elapsedMillis(start), null);
+                    finish.run();
+                },
+                error -> {
+                    results[0] = new StageResult(STAGE_ACCOUNTS, elapsedMillis(start), error);
+                    finish.run();
+                });
+        CategoryStore.loadFromBackend(
+                () -> {
+                    results[1] = new StageResult(STAGE_CATEGORIES, elapsedMillis(start), null);
+                    finish.run();
+                },
+                error -> {
+                    results[1] = new StageResult(STAGE_CATEGORIES, elapsedMillis(start), error);
+                    finish.run();
+                });
+        Runnable onTransactions = () -> {
+            results[2] = new StageResult(STAGE_TRANSACTIONS, elapsedMillis(start), null);
+            finish.run();
+        };
+        Consumer<String> onTransactionsError = error -> {
+            results[2] = new StageResult(STAGE_TRANSACTIONS, elapsedMillis(start), error);
+            finish.run();
+        };
+        if (incremental) {
+            TransactionStore.syncFromBackend(onTransactions, onTransactionsError);
+        } else {
+            TransactionStore.loadFromBackend(onTransactions, onTransactionsError);
+        }
+    }
+
+    private static long elapsedMillis(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+
+    /**
+     * Outcome of a single load.
+     *
+     * @param name   stage name
+     * @param millis time from bootstrap start until the stage finished
+     * @param error  error message, or null when the stage succeeded
+     */
+    public record StageResult(String name, long millis, String error) {
+        public boolean succeeded() {
+            return error == null;
+        }
+
+        @Override
+        public String toString() {
+            return name + "=" + millis + "ms" + (error == null ? "" : " (failed: " + error + ")");
+        }
+    }
+
+    /**
+     * Outcome of a whole bootstrap run.
+     *
+     * @param stages      per-stage results
+     * @param totalMillis time until the last stage finished
+     */
+    public record Report(List<StageResult> stages, long totalMillis) {
+        public boolean allSucceeded() {
+            return stages.stream().allMatch(StageResult::succeeded);
+        }
+
+        public List<StageResult> failures() {
+            List<StageResult> failed = new ArrayList<>();
+            for (StageResult stage : stages) {
+                if (!stage.succeeded()) {
+                    failed.add(stage);
+                }
+            }
+            return failed;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder();
+            for (StageResult stage : stages) {
+                sb.append(stage).append(", ");
+            }
+            return sb.append("total=").append(totalMillis).append("ms").toString();
+        }
+    }
+}
@@ -0,0 +1,249 @@
+package utils;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * DataEventDispatcher applies DATA_CHANGED events from the subscription
+ * socket to the store they belong to.
+ * Typed events name the changed entity and may carry its new state, so a
+ * single edit on another client is applied locally without a round trip.
+ * Untyped events from older backends still reload every store.
+ * Bursts, e.g. a bulk import on another client, are coalesced so each store
+ * refreshes once per burst instead of once per event.
+ */
+public final class DataEventDispatcher {
+    public static final String ENTITY_TXN = "TXN";
+    public static final String ENTITY_ACCOUNT = "ACCOUNT";
+    public static final String ENTITY_CATEGORY = "CATEGORY";
+
+    public static final String OP_ADD = "ADD";
+    public static final String OP_UPDATE = "UPDATE";
+    public static final String OP_DELETE = "DELETE";
+
+    // Coalescer keys
+    public static final String KEY_TXN_APPLY = "TXN.apply";
+    public static final String KEY_TXN_RELOAD = "TXN.reload";
+    public static final String KEY_ACCOUNT_RELOAD = "ACCOUNT.reload";
+    public static final String KEY_CATEGORY_RELOAD = "CATEGORY.reload";
+
+    private static final long QUIET_MILLIS = 150;
+    private static final long MAX_LATENCY_MILLIS = 1000;
+
+    private static final EventCoalescer coalescer =
+            new EventCoalescer("FinTrack-EventCoalescer", QUIET_MILLIS, MAX_LATENCY_MILLIS);
+
+    // Transaction payloads received since the last flush; latest state wins
+    private static final Map<String, TransactionStore.Transaction> pendingUpserts = new LinkedHashMap<>();
+    private static final Set<String> pendingDeletes = new LinkedHashSet<>();
+
+    private DataEventDispatcher() {
+    }
+
+    /**
+     * Parse and apply one DATA_CHANGED event line.
+     * Formats:
+     * EVENT|DATA_CHANGED
+     * EVENT|DATA_CHANGED|TXN|id|op[|username|date|desc|cat|type|amount|accName|accType]
+     * EVENT|DATA_CHANGED|ACCOUNT|id|op[|name|number|balance|type]
+     * EVENT|DATA_CHANGED|CATEGORY|name|op|type
+     *
+     * @param line raw event line
+     */
+    public static void dispatch(String line) {
+        DataChange change;
+        try {
+            change = parse(line);
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Malformed event, reloading all data: " + line);
+            change = new DataChange(null, null, null, "");
+        }
+
+        if (change.entity() == null) {
+            reloadTransactions();
+            reloadAccounts();
+            reloadCategories();
+            return;
+        }
+        switch (change.entity()) {
+            case ENTITY_TXN -> applyTransaction(change);
+            case ENTITY_ACCOUNT -> applyAccount(change);
+            case ENTITY_CATEGORY -> applyCategory(change);
+            default -> {
+                // Entity this client does not know yet; stay consistent
+                reloadTransactions();
+                reloadAccounts();
+                reloadCategories();
+            }
+        }
+    }
+
+    /**
+     * Catch up on changes that may have been missed while no subscription
+     * was running, e.g. after a reconnect. Transactions are pulled as a
+     * delta where the backend supports it.
+     */
+    public static void resync() {
+        reloadTransactions();
+        reloadAccounts();
+        reloadCategories();
+    }
+
+    /**
+     * Drop buffered changes and pending refreshes, e.g. on logout.
+     */
+    public static void reset() {
+        coalescer.cancelAll();
+        synchronized (pendingUpserts) {
+            pendingUpserts.clear();
+            pendingDeletes.clear();
+        }
+    }
+
+    /**
+     * Events received versus refreshes run, per coalescer key.
+     *
+     * @return copy of the counters
+     */
+    public static Map<String, EventCoalescer.Counts> counters() {
+        return coalescer.counters();
+    }
+
+    /**
+     * Split an event line into its typed parts.
+     *
+     * @param line raw event line
+     * @return parsed change; entity is null for untyped events
+     * @throws IOException never for in-memory input, declared by the reader
+     */
+    static DataChange parse(String line) throws IOException {
+        ResponseReader reader = reader(line);
+        reader.skipField(); // EVENT
+        reader.skipField(); // DATA_CHANGED
+        String entity = reader.nextField();
+        if (entity == null || entity.isEmpty()) {
+            return new DataChange(null, null, null, "");
+        }
+        String id = reader.nextField();
+        String op = reader.nextField();
+        return new DataChange(entity, id, op, reader.restOfLine());
+    }
+
+    private static void applyTransaction(DataChange change) {
+        if (OP_DELETE.equals(change.op()) && change.id() != null) {
+            synchronized (pendingUpserts) {
+                pendingUpserts.remove(change.id());
+                pendingDeletes.add(change.id());
+            }
+            coalescer.submit(KEY_TXN_APPLY, DataEventDispatcher::flushTransactions);
+        } else {
+            TransactionStore.Transaction tx = null;
+            if (!change.payload().isEmpty()) {
+                try {
+                    tx = TransactionStore.readTransaction(change.id(), reader(change.payload()), new HashMap<>());
+                } catch (IOException | RuntimeException e) {
+                    tx = null;
+                }
+            }
+            if (tx != null) {
+                synchronized (pendingUpserts) {
+                    pendingDeletes.remove(tx.id());
+                    pendingUpserts.put(tx.id(), tx);
+                }
+                coalescer.submit(KEY_TXN_APPLY, DataEventDispatcher::flushTransactions);
+            } else {
+                reloadTransactions();
+            }
+        }
+        // Balances are kept by the backend, so every transaction change
+        // moves at least one account
+        reloadAccounts();
+    }
+
+    /**
+     * Apply all buffered transaction payloads as one store mutation.
+     */
+    private static void flushTransactions() {
+        List<TransactionStore.Transaction> upserts;
+        Set<String> deletes;
+        synchronized (pendingUpserts) {
+            upserts = new ArrayList<>(pendingUpserts.values());
+            deletes = new LinkedHashSet<>(pendingDeletes);
+            pendingUpserts.clear();
+            pendingDeletes.clear();
+        }
+        TransactionStore.applyRemoteChanges(upserts, deletes);
+    }
+
+    private static void applyAccount(DataChange change) {
+        if (OP_DELETE.equals(change.op()) && change.id() != null) {
+            AccountStore.applyRemoteDelete(change.id());
+            return;
+        }
+        String[] fields = SocketClient.getInstance().parseResponse(change.payload());
+        if (change.id() != null && fields.length >= 4) {
+            try {
+                AccountStore.applyRemoteUpsert(new AccountStore.Account(change.id(), fields[0], fields[1],
+                        Long.parseLong(fields[2]), fields[3]));
+                return;
+            } catch (NumberFormatException e) {
+                // Fall through to a reload
+            }
+        }
+        reloadAccounts();
+    }
+
+    private static void applyCategory(DataChange change) {
+        String name = change.id();
+        String type = change.payload();
+        if (name != null && !type.isEmpty()) {
+            if (OP_DELETE.equals(change.op())) {
+                CategoryStore.applyRemoteRemove(type, name);
+                return;
+            }
+            if (OP_ADD.equals(change.op())) {
+                CategoryStore.applyRemoteAdd(type, name);
+                return;
+            }
+        }
+        reloadCategories();
+    }
+
+    private static void reloadTransactions() {
+        // Only pulls the rows that changed when the backend supports it
+        coalescer.submit(KEY_TXN_RELOAD, () -> TransactionStore.syncFromBackend(() -> {
+        }, err -> System.err.println("Txn refresh error: " + err)));
+    }
+
+    private static void reloadAccounts() {
+        coalescer.submit(KEY_ACCOUNT_RELOAD, () -> AccountStore.loadFromBackend(() -> {
+        }, err -> System.err.println("Acct refresh error: " + err)));
+    }
+
+    private static void reloadCategories() {
+        coalescer.submit(KEY_CATEGORY_RELOAD, () -> CategoryStore.loadFromBackend(() -> {
+        }, err -> System.err.println("Cat refresh error: " + err)));
+    }
+
+    private static ResponseReader reader(String text) {
+        return new ResponseReader(new StringReader(text), Math.max(16, text.length()));
+    }
+
+    /**
+     * One parsed DATA_CHANGED event.
+     *
+     * @param entity  TXN, ACCOUNT or CATEGORY; null for untyped events
+     * @param id      entity ID (category name for categories)
+     * @param op      ADD, UPDATE or DELETE
+     * @param payload remaining fields, empty when the event carries no state
+     */
+    record DataChange(String entity, String id, String op, String payload) {
+    }
+}
@@ -0,0 +1,149 @@
+package utils;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * EventCoalescer merges bursts of events into one action per key.
+ * An action runs once no event for its key arrived during the quiet window,
+ * or once the first pending event is older than the max latency, whichever
+ * comes first, so a steady stream of events still refreshes periodically.
+ * Actions run on a single scheduler thread; the last action submitted for a
+ * key is the one that runs.
+ */
+public final class EventCoalescer {
+    private final long quietNanos;
+    private final long maxLatencyNanos;
+    private final ScheduledExecutorService scheduler;
+
+    private final Map<String, Pending> pending = new HashMap<>();
+    private final Map<String, long[]> counters = new LinkedHashMap<>();
+
+    /**
+     * @param name             scheduler thread name
+     * @param quietMillis      how long a key must stay idle before it flushes
+     * @param maxLatencyMillis longest an event may wait for its flush
+     */
+    public EventCoalescer(String name, long quietMillis, long maxLatencyMillis) {
+        if (quietMillis < 0 || maxLatencyMillis < quietMillis) {
+            throw new IllegalArgumentException("Require 0 <= quietMillis <= maxLatencyMillis");
+        }
+        this.quietNanos = TimeUnit.MILLISECONDS.toNanos(quietMillis);
+        this.maxLatencyNanos = TimeUnit.MILLISECONDS.toNanos(maxLatencyMillis);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, name);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Record an event for key and make sure action runs after the burst.
+     *
+     * @param key    events with the same key share one flush
+     * @param action work to run on flush, replacing any earlier action
+     */
+    public void submit(String key, Runnable action) {
+        long now = System.nanoTime();
+        synchronized (pending) {
+            counters.computeIfAbsent(key, k -> new long[2])[0]++;
+            Pending p = pending.get(key);
+            if (p != null) {
+                p.action = action;
+                p.lastEvent = now;
+                p.events++;
+                return;
+            }
+            p = new Pending(action, now);
+            pending.put(key, p);
+            schedule(key, p, quietNanos);
+        }
+    }
+
+    /**
+     * Drop every pending action without running it, e.g. on logout.
+     */
+    public void cancelAll() {
+        synchronized (pending) {
+            pending.clear();
+        }
+    }
+
+    /**
+     * Event and flush counts per key since startup.
+     *
+     * @return copy of the counters, in first-seen key order
+     */
+    public Map<String, Counts> counters() {
+        Map<String, Counts> copy = new LinkedHashMap<>();
+        synchronized (pending) {
+            counters.forEach((key, c) -> copy.put(key, new Counts(c[0], c[1])));
+        }
+        return copy;
+    }
+
+    private void schedule(String key, Pending p, long delayNanos) {
+        scheduler.schedule(() -> check(key, p), delayNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Flush key if it went quiet or hit its latency cap, otherwise check
+     * again when the earlier of the two is due.
+     */
+    private void check(String key, Pending p) {
+        Runnable action;
+        int events;
+        synchronized (pending) {
+            if (pending.get(key) != p) {
+                return; // Cancelled
+            }
+            long now = System.nanoTime();
+            long due = Math.min(p.lastEvent + quietNanos, p.firstEvent + maxLatencyNanos);
+            if (now - due < 0) {
+                schedule(key, p, due - now);
+                return;
+            }
+            pending.remove(key);
+            counters.get(key)[1]++;
+            action = p.action;
+            events = p.events;
+        }
+
+        if (events > 1) {
+            System.out.println("[Events] " + key + ": " + events + " events coalesced into one flush");
+        }
+        try {
+            action.run();
+        } catch (Exception e) {
+            // Log error but keep the scheduler alive
+            System.err.println("Event flush error (" + key + "): " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    private static final class Pending {
+        final long firstEvent;
+        long lastEvent;
+        Runnable action;
+        int events = 1;
+
+        Pending(Runnable action, long now) {
+            this.action = action;
+            this.firstEvent = now;
+            this.lastEvent = now;
+        }
+    }
+
+    /**
+     * Counters for one key.
+     *
+     * @param events  events submitted
+     * @param flushes actions actually run
+     */
+    public record Counts(long events, long flushes) {
+    }
+}
@@ -0,0 +1,158 @@
+package utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+
+/**
+ * LocalCache keeps the last known state of all stores in a file next to
+ * .fintrack_session, so a returning user sees the dashboard after one disk
+ * read instead of waiting for session validation and three backend loads.
+ * The stores are then reconciled with the backend in the background.
+ * Saving is debounced: bursts of store changes cause one write, done to a
+ * temporary file that replaces the cache in one move. The file format is
+ * described in CacheFile.
+ * The file is tied to the username it was written for and deleted on logout.
+ */
+public final class LocalCache {
+    private static final String CACHE_FILE = ".fintrack_cache";
+    // Write once the stores have been quiet this long, but at least this often
+    private static final long SAVE_QUIET_MILLIS = 2000;
+    private static final long SAVE_MAX_DELAY_MILLIS = 10000;
+
+    private static final EventCoalescer saver =
+            new EventCoalescer("FinTrack-CacheWriter", SAVE_QUIET_MILLIS, SAVE_MAX_DELAY_MILLIS);
+    private static final SessionManager sessionManager = SessionManager.getInstance();
+    private static boolean installed;
+    // Off until the stores hold this session's data, so the empty stores of
+    // a fresh start never overwrite a good cache
+    private static volatile boolean enabled;
+
+    private LocalCache() {
+    }
+
+    /**
+     * Start saving on store changes. Safe to call more than once.
+     */
+    public static synchronized void install() {
+        if (installed) {
+            return;
+        }
+        installed = true;
+        AccountStore.addListener(snap -> scheduleSave());
+        CategoryStore.addListener(snap -> scheduleSave());
+        TransactionStore.addListener(snap -> scheduleSave());
+    }
+
+    /**
+     * Allow saving, once the stores hold data of the current session, e.g.
+     * after the first backend load.
+     */
+    public static void enable() {
+        enabled = true;
+        scheduleSave();
+    }
+
+    /**
+     * Fill the stores from the cache file if it belongs to the given user.
+     * Enables saving on success.
+     *
+     * @param username user of the current session
+     * @return true if the stores were restored
+     */
+    public static boolean restore(String username) {
+        File file = new File(CACHE_FILE);
+        if (!file.exists()) {
+            return false;
+        }
+        long start = System.nanoTime();
+        try {
+            CacheFile.Image image = CacheFile.read(file.toPath(), username);
+            if (image == null) {
+                return false; // Another user's cache; never show it
+            }
+            AccountStore.restoreFromCache(image.accounts());
+            CategoryStore.restoreFromCache(image.expenses(), image.incomes());
+            TransactionStore.restoreFromCache(image.transactions(), image.syncVersion());
+            enabled = true;
+            System.out.println("[Cache] Restored " + image.accounts().size() + " accounts, "
+                    + (image.expenses().size() + image.incomes().size()) + " categories, "
+                    + image.transactions().size() + " transactions in "
+                    + (System.nanoTime() - start) / 1_000_000 + "ms");
+            return true;
+        } catch (IOException | RuntimeException e) {
+            System.err.println("[Cache] Failed to read cache, ignoring it: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Stop saving and delete the cache file, e.g. on logout. Waits for a
+     * save in progress so it cannot put the file back afterwards.
+     */
+    public static synchronized void clear() {
+        enabled = false;
+        saver.cancelAll();
+        File file = new File(CACHE_FILE);
+        if (file.exists() && !file.delete()) {
+            System.err.println("Warning: Failed to delete cache file");
+        }
+    }
+
+    private static void scheduleSave() {
+        if (enabled) {
+            saver.submit("save", () -> BackgroundExecutor.execute(LocalCache::save));
+        }
+    }
+
+    /**
+     * Write all stores to the cache file, in the binary format of CacheFile.
+     */
+    static synchronized void save() {
+        String username = sessionManager.getUsername();
+        if (!enabled || !sessionManager.hasValidSession() || username == null) {
+            return;
+        }
+        // Version first: a snapshot taken after it can only be newer, and
+        // replaying changes it already holds is harmless
+        long version = TransactionStore.syncVersion();
+        CategoryStore.Snapshot categories = CategoryStore.snapshot();
+        // Rows the backend has not confirmed are left out: a restored
+        // provisional ID would never be reconciled. Unsent edits of other
+        // rows are saved as they are; DataBootstrap.reconcile reloads the
+        // ledger in full when they are still in the log on the next start
+        List<AccountStore.Account> accounts = AccountStore.snapshot().accounts().stream()
+                .filter(a -> !PendingOperations.isProvisional(a.id())).toList();
+        List<TransactionStore.Transaction> transactions = TransactionStore.snapshot().transactions().stream()
+                .filter(tx -> !PendingOperations.isProvisional(tx.id())).toList();
+        CacheFile.Image image = new CacheFile.Image(username, System.currentTimeMillis(), version,
+                accounts, categories.expenses(), categories.incomes(), transactions);
+
+        File target = new File(CACHE_FILE);
+        File temp = new File(CACHE_FILE + ".tmp");
+        try {
+            CacheFile.write(temp.toPath(), image);
+        } catch (IOException e) {
+            System.err.println("Warning: Failed to save cache: " + e.getMessage());
+            temp.delete();
+            return;
+        }
+
+        // On Windows a file stays locked while a mapping of it is alive, i.e.
+        // until the buffer of the last restore is collected; a failed move
+        // then leaves the old cache in place until the next save
+        try {
+            try {
+                Files.move(temp.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            System.err.println("Warning: Failed to save cache: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,458 @@
+package utils;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * PendingOperations is the queue of local changes that the stores have
+ * already applied but the backend has not confirmed yet.
+ * A store applies a mutation to its own state first, so listeners see it at
+ * once, then submits the backend command here. Commands are sent one at a
+ * time in submission order, so an edit of a new row always reaches the
+ * backend after the row itself. A rejected command is reported to the
+ * store, which rolls its change back, and stays listed as failed until
+ * dismissed.
+ *
+ * Every command is logged to a write-ahead log before it is sent. While the
+ * backend is unreachable the queue waits and retries with backoff instead of
+ * failing, and commands still in the log when the app exits are replayed on
+ * the next start. Each command carries an idempotency key, sent as its last
+ * field, so a command resent after a connection drop is applied only once.
+ *
+ * New rows get a provisional ID until the backend returns the real one;
+ * resolve() maps a provisional ID to its real ID once known.
+ */
+public final class PendingOperations {
+    private static final String WAL_FILE = ".fintrack_wal";
+    // Unique per run, so provisional IDs replayed from the log never collide
+    private static final String PROVISIONAL_PREFIX =
+            "local-" + Long.toString(System.currentTimeMillis(), 36) + "-";
+    // Failed operations kept for display, oldest dropped first
+    private static final int FAILURE_HISTORY = 20;
+    private static final long RETRY_INITIAL_MILLIS = 2000;
+    private static final long RETRY_MAX_MILLIS = 60000;
+
+    private static final AtomicLong sequence = new AtomicLong();
+    private static final Map<String, String> realIds = new ConcurrentHashMap<>();
+    private static final List<Consumer<Snapshot>> listeners = new CopyOnWriteArrayList<>();
+    private static final WriteAheadLog wal = new WriteAheadLog(Path.of(WAL_FILE));
+    private static final SessionManager sessionManager = SessionManager.getInstance();
+
+    // Guarded by the class lock
+    private static final List<Entry> pending = new ArrayList<>();
+    private static final Deque<Operation> failed = new ArrayDeque<>();
+    private static CompletableFuture<Void> tail = CompletableFuture.completedFuture(null);
+    private static CompletableFuture<Void> retrySignal = new CompletableFuture<>();
+    private static boolean offline;
+    private static boolean scheduled;
+
+    private PendingOperations() {
+    }
+
+    /**
+     * Register a listener. Called once right away, then on the EDT whenever
+     * operations are queued, confirmed or fail.
+     *
+     * @param listener snapshot consumer
+     */
+    public static void addListener(Consumer<Snapshot> listener) {
+        listeners.add(listener);
+        listener.accept(snapshot());
+    }
+
+    /**
+     * Operations in flight and recent failures.
+     *
+     * @return immutable snapshot
+     */
+    public static synchronized Snapshot snapshot() {
+        List<Operation> operations = new ArrayList<>(pending.size());
+        for (Entry entry : pending) {
+            operations.add(entry.operation());
+        }
+        return new Snapshot(List.copyOf(operations), List.copyOf(failed), offline);
+    }
+
+    /**
+     * Forget the failed operations, e.g. once the user has seen them.
+     */
+    public static void dismissFailures() {
+        synchronized (PendingOperations.class) {
+            failed.clear();
+            scheduleNotify();
+        }
+    }
+
+    /**
+     * Stop waiting for the next retry and send now, e.g. once the
+     * connection is known to be back.
+     */
+    public static synchronized void retryNow() {
+        retrySignal.complete(null);
+    }
+
+    /**
+     * Queue the logged commands of the current user that are not queued
+     * yet, e.g. those left over from a previous run. Their changes are
+     * applied to the stores again, on top of what the stores hold now.
+     * Call once the stores are loaded and the session is valid.
+     */
+    public static void replay() {
+        String username = sessionManager.getUsername();
+        if (username == null) {
+            return;
+        }
+        List<Command> commands = wal.load();
+        realIds.putAll(wal.realIds());
+        int replayed = 0;
+        for (Command command : commands) {
+            if (!command.username().equals(username) || isQueued(command.key())) {
+                continue;
+            }
+            switch (command.name()) {
+                case "ADD", "UPDATE", "DELETE", "ADD_BATCH" -> TransactionStore.replay(command);
+                case "ADD_ACCOUNT", "UPDATE_ACCOUNT", "DELETE_ACCOUNT" -> AccountStore.replay(command);
+                case "ADD_CATEGORY", "DELETE_CATEGORY" -> CategoryStore.replay(command);
+                default -> {
+                    System.err.println("[Pending] Dropping unknown command " + command.name());
+                    complete(command);
+                    continue;
+                }
+            }
+            replayed++;
+        }
+        if (replayed > 0) {
+            System.out.println("[Pending] Replaying " + replayed + " unsent changes");
+        }
+        retryNow();
+    }
+
+    /**
+     * Whether the log holds commands of the current user from a previous
+     * run that are not queued yet. Their effects may have been saved to the
+     * local cache as if the backend had confirmed them.
+     *
+     * @return true if replay() has commands to queue
+     */
+    public static boolean hasUnsent() {
+        String username = sessionManager.getUsername();
+        if (username == null) {
+            return false;
+        }
+        for (Command command : wal.load()) {
+            if (command.username().equals(username) && !isQueued(command.key())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * A new provisional ID for a row created locally.
+     *
+     * @return unique ID that cannot collide with backend IDs
+     */
+    public static String provisionalId() {
+        return PROVISIONAL_PREFIX + sequence.incrementAndGet();
+    }
+
+    /**
+     * Whether id was made by provisionalId().
+     *
+     * @param id row ID, may be null
+     * @return true for provisional IDs
+     */
+    public static boolean isProvisional(String id) {
+        return id != null && id.startsWith("local-");
+    }
+
+    /**
+     * The real ID of a row, if the backend has confirmed it.
+     *
+     * @param id provisional or real ID
+     * @return the real ID if known, otherwise id itself
+     */
+    public static String resolve(String id) {
+        if (!isProvisional(id)) {
+            return id;
+        }
+        return realIds.getOrDefault(id, id);
+    }
+
+    /**
+     * Record the real ID the backend gave a provisionally added row.
+     *
+     * @param provisionalId ID the row was created with
+     * @param realId        ID assigned by the backend
+     */
+    static void confirmId(String provisionalId, String realId) {
+        realIds.put(provisionalId, realId);
+        try {
+            wal.map(provisionalId, realId);
+        } catch (IOException e) {
+            System.err.println("Warning: Failed to log confirmed ID: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Future completed once every operation submitted so far has finished
+     * or been parked for another session.
+     *
+     * @return future that never completes exceptionally
+     */
+    public static synchronized CompletableFuture<Void> idle() {
+        return tail;
+    }
+
+    /**
+     * A new command for the current user with a fresh idempotency key.
+     *
+     * @param name    backend command, e.g. ADD
+     * @param localId ID of the row it changes as known locally, or null
+     * @param args    command fields after the session token and row ID
+     * @return the command
+     */
+    static Command command(String name, String localId, String... args) {
+        String username = sessionManager.getUsername();
+        return new Command(UUID.randomUUID().toString(), username != null ? username : "", name, localId,
+                List.copyOf(Arrays.asList(args)));
+    }
+
+    /**
+     * Commands still queued, oldest first, e.g. to apply them again after
+     * a store reloaded everything from the backend.
+     *
+     * @param names command names of interest
+     * @return matching commands
+     */
+    static synchronized List<Command> queued(Set<String> names) {
+        List<Command> commands = new ArrayList<>();
+        for (Entry entry : pending) {
+            if (names.contains(entry.command().name())) {
+                commands.add(entry.command());
+            }
+        }
+        return commands;
+    }
+
+    /**
+     * Log a command and queue it for sending. A command whose key is already
+     * queued is ignored.
+     *
+     * @param description what the user did, shown while pending or failed
+     * @param command     the command, logged before anything is sent
+     * @param send        sends the command and confirms the change; returns
+     *                    null on success or an error message, and throws
+     *                    IOException if the backend could not be reached
+     * @param onFailure   rolls the local change back; gets the error message
+     */
+    static void submit(String description, Command command, Send send, Consumer<String> onFailure) {
+        try {
+            // Written to the OS before returning; forced to disk before sending
+            wal.append(command);
+        } catch (IOException e) {
+            System.err.println("Warning: Failed to log pending change: " + e.getMessage());
+        }
+        Entry entry = new Entry(new Operation(sequence.incrementAndGet(), description,
+                System.currentTimeMillis(), null), command);
+        synchronized (PendingOperations.class) {
+            if (isQueued(command.key())) {
+                return;
+            }
+            pending.add(entry);
+            tail = tail.thenComposeAsync(v -> run(entry, send, onFailure, RETRY_INITIAL_MILLIS),
+                    BackgroundExecutor::execute);
+            scheduleNotify();
+        }
+    }
+
+    private static CompletableFuture<Void> run(Entry entry, Send send, Consumer<String> onFailure, long delay) {
+        Command command = entry.command();
+        if (!command.username().equals(sessionManager.getUsername())) {
+            // Logged out or another user: keep it in the log for its owner's
+            // next session instead of sending it with the wrong token
+            finish(entry, null, false);
+            return CompletableFuture.completedFuture(null);
+        }
+
+        String error;
+        try {
+            wal.force();
+            error = send.send();
+        } catch (IOException e) {
+            // Backend unreachable: keep the change, wait and send it again
+            System.err.println("[Pending] " + entry.operation().description() + " waiting for connection: "
+                    + e.getMessage());
+            setOffline(true);
+            long next = Math.min(delay * 2, RETRY_MAX_MILLIS);
+            return retryAfter(delay).thenComposeAsync(v -> run(entry, send, onFailure, next),
+                    BackgroundExecutor::execute);
+        } catch (Exception e) {
+            error = e.getMessage() != null ? e.getMessage() : e.toString();
+        }
+        setOffline(false);
+        if (error != null) {
+            System.err.println("[Pending] " + entry.operation().description() + " failed: " + error);
+            try {
+                onFailure.accept(error);
+            } catch (Exception e) {
+                System.err.println("[Pending] Rollback failed: " + e.getMessage());
+            }
+        }
+        complete(command);
+        finish(entry, error, true);
+        return CompletableFuture.completedFuture(null);
+    }
+
+    private static void complete(Command command) {
+        try {
+            wal.complete(command.key());
+        } catch (IOException e) {
+            System.err.println("Warning: Failed to log finished change: " + e.getMessage());
+        }
+    }
+
+    private static synchronized void finish(Entry entry, String error, boolean done) {
+        pending.remove(entry);
+        if (done && error != null) {
+            failed.addLast(entry.operation().failedWith(error));
+            while (failed.size() > FAILURE_HISTORY) {
+                failed.removeFirst();
+            }
+        }
+        scheduleNotify();
+    }
+
+    private static synchronized CompletableFuture<Void> retryAfter(long delayMillis) {
+        if (retrySignal.isDone()) {
+            retrySignal = new CompletableFuture<>();
+        }
+        CompletableFuture<Void> signal = retrySignal;
+        CompletableFuture.delayedExecutor(delayMillis, TimeUnit.MILLISECONDS).execute(() -> signal.complete(null));
+        return signal;
+    }
+
+    private static synchronized void setOffline(boolean value) {
+        if (offline != value) {
+            offline = value;
+            scheduleNotify();
+        }
+    }
+
+    private static synchronized boolean isQueued(String key) {
+        for (Entry entry : pending) {
+            if (entry.command().key().equals(key)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Coalesce notifications into one EDT update. Caller must hold the class
+     * lock.
+     */
+    private static void scheduleNotify() {
+        if (scheduled) {
+            return;
+        }
+        scheduled = true;
+        javax.swing.SwingUtilities.invokeLater(() -> {
+            Snapshot snapshot;
+            synchronized (PendingOperations.class) {
+                scheduled = false;
+                snapshot = snapshot();
+            }
+            for (Consumer<Snapshot> listener : listeners) {
+                listener.accept(snapshot);
+            }
+        });
+    }
+
+    /**
+     * Sends one command.
+     */
+    @FunctionalInterface
+    interface Send {
+        /**
+         * @return null on success, otherwise the backend's error message
+         * @throws IOException if the backend could not be reached
+         * @throws Exception   on any other failure, treated as a rejection
+         */
+        String send() throws Exception;
+    }
+
+    /**
+     * A backend command as logged.
+     *
+     * @param key      idempotency key, sent as the last field
+     * @param username user whose session must send it
+     * @param name     command name, e.g. ADD
+     * @param localId  ID of the changed row as known locally, or null
+     * @param args     fields after the session token and row ID
+     */
+    record Command(String key, String username, String name, String localId, List<String> args) {
+        String arg(int index) {
+            return args.get(index);
+        }
+
+        /**
+         * The command line to send.
+         *
+         * @param sessionToken session token
+         * @param remoteId     row ID as known by the backend, or null if the
+         *                     command has none
+         * @return pipe-delimited command ending in the idempotency key
+         */
+        String format(String sessionToken, String remoteId) {
+            List<String> parts = new ArrayList<>(args.size() + 4);
+            parts.add(name);
+            parts.add(sessionToken);
+            if (remoteId != null) {
+                parts.add(remoteId);
+            }
+            parts.addAll(args);
+            parts.add(key);
+            return String.join("|", parts);
+        }
+    }
+
+    private record Entry(Operation operation, Command command) {
+    }
+
+    /**
+     * One queued change.
+     *
+     * @param seq         submission order
+     * @param description what the user did
+     * @param submittedAt submission time, epoch millis
+     * @param error       failure message, null while pending
+     */
+    public record Operation(long seq, String description, long submittedAt, String error) {
+        Operation failedWith(String message) {
+            return new Operation(seq, description, submittedAt, message);
+        }
+    }
+
+    /**
+     * @param pending operations not confirmed yet, oldest first
+     * @param failed  recent failures, oldest first
+     * @param offline whether the backend was unreachable on the last try
+     */
+    public record Snapshot(List<Operation> pending, List<Operation> failed, boolean offline) {
+    }
+}
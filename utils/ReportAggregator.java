@@ -0,0 +1,186 @@
+package utils;
+
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * ReportAggregator computes every figure of the report page in one pass
+ * over the transactions: income and expense totals, the monthly series, and
+ * per-category counts and totals including the expenses of the report
+ * month and the month before.
+ *
+ * Categories are interned to small ids on first sight so the pass only
+ * does one hash lookup per row and adds into primitive long arrays; no
+ * boxed or per-row objects are created. Meant to run off the EDT.
+ */
+public final class ReportAggregator {
+    // Months in the default monthly series, ending with the report month
+    public static final int SERIES_MONTHS = 6;
+
+    private ReportAggregator() {
+    }
+
+    /**
+     * Aggregate the given transactions.
+     *
+     * @param rows  transactions to include, in any order
+     * @param month report month, the last month of the series
+     * @return report figures
+     */
+    public static Report aggregate(List<TransactionStore.Transaction> rows, YearMonth month) {
+        return aggregate(rows, month.minusMonths(SERIES_MONTHS - 1), month);
+    }
+
+    /**
+     * Aggregate the given transactions with a monthly series over a range.
+     *
+     * @param rows  transactions to include, in any order
+     * @param start first month of the series
+     * @param month report month, the last month of the series
+     * @return report figures
+     */
+    public static Report aggregate(List<TransactionStore.Transaction> rows, YearMonth start, YearMonth month) {
+        return aggregate(rows, start, month, null);
+    }
+
+    /**
+     * Aggregate the given transactions, taking the expenses of the month
+     * before the report month from a separate list. Needed when rows were
+     * cut to a range that starts inside the report month, so the month
+     * before is not among them.
+     *
+     * @param rows          transactions to include, in any order
+     * @param start         first month of the series
+     * @param month         report month, the last month of the series
+     * @param previousMonth transactions of the month before, or null to take
+     *                      them from rows; only categories present in rows
+     *                      are counted
+     * @return report figures
+     */
+    public static Report aggregate(List<TransactionStore.Transaction> rows, YearMonth start, YearMonth month,
+            List<TransactionStore.Transaction> previousMonth) {
+        int last = monthIndex(month.getYear(), month.getMonthValue());
+        int first = Math.min(last, monthIndex(start.getYear(), start.getMonthValue()));
+        int length = last - first + 1;
+        long[] monthIncome = new long[length];
+        long[] monthExpense = new long[length];
+        long income = 0;
+        long expense = 0;
+
+        Map<String, Integer> ids = new HashMap<>();
+        List<String> names = new ArrayList<>();
+        int[] count = new int[16];
+        long[] total = new long[16];
+        long[] monthCategoryExpense = new long[16];
+        long[] previousCategoryExpense = new long[16];
+
+        for (TransactionStore.Transaction tx : rows) {
+            Integer boxed = ids.get(tx.category());
+            int id;
+            if (boxed == null) {
+                id = names.size();
+                ids.put(tx.category(), id);
+                names.add(tx.category());
+                if (id == count.length) {
+                    int grown = id * 2;
+                    count = Arrays.copyOf(count, grown);
+                    total = Arrays.copyOf(total, grown);
+                    monthCategoryExpense = Arrays.copyOf(monthCategoryExpense, grown);
+                    previousCategoryExpense = Arrays.copyOf(previousCategoryExpense, grown);
+                }
+            } else {
+                id = boxed;
+            }
+            long amount = tx.amount();
+            count[id]++;
+            total[id] += amount;
+
+            int m = monthIndex(tx.date().getYear(), tx.date().getMonthValue());
+            if (tx.isIncome()) {
+                income += amount;
+                if (m >= first && m <= last) {
+                    monthIncome[m - first] += amount;
+                }
+            } else {
+                expense += amount;
+                if (m >= first && m <= last) {
+                    monthExpense[m - first] += amount;
+                }
+                if (m == last) {
+                    monthCategoryExpense[id] += amount;
+                } else if (m == last - 1 && previousMonth == null) {
+                    previousCategoryExpense[id] += amount;
+                }
+            }
+        }
+        if (previousMonth != null) {
+            for (TransactionStore.Transaction tx : previousMonth) {
+                Integer id = ids.get(tx.category());
+                if (id != null && !tx.isIncome()
+                        && monthIndex(tx.date().getYear(), tx.date().getMonthValue()) == last - 1) {
+                    previousCategoryExpense[id] += tx.amount();
+                }
+            }
+        }
+
+        List<MonthTotals> series = new ArrayList<>(length);
+        for (int i = 0; i < length; i++) {
+            series.add(new MonthTotals(month.minusMonths(length - 1 - i), monthIncome[i], monthExpense[i]));
+        }
+        List<CategoryTotals> categories = new ArrayList<>(names.size());
+        for (int id = 0; id < names.size(); id++) {
+            categories.add(new CategoryTotals(names.get(id), count[id], total[id], monthCategoryExpense[id],
+                    previousCategoryExpense[id]));
+        }
+        return new Report(month, income, expense, rows.size(), List.copyOf(series), List.copyOf(categories));
+    }
+
+    private static int monthIndex(int year, int month) {
+        return year * 12 + month - 1;
+    }
+
+    /**
+     * Report figures.
+     *
+     * @param month      report month
+     * @param income     total income
+     * @param expense    total expense
+     * @param count      number of transactions
+     * @param series     income and expense of each month of the series,
+     *                   ending with the report month, oldest first
+     * @param categories totals per category, in order of first appearance
+     */
+    public record Report(YearMonth month, long income, long expense, int count, List<MonthTotals> series,
+            List<CategoryTotals> categories) {
+        public long net() {
+            return income - expense;
+        }
+    }
+
+    /**
+     * Totals of one month.
+     *
+     * @param month   month
+     * @param income  income in that month
+     * @param expense expense in that month
+     */
+    public record MonthTotals(YearMonth month, long income, long expense) {
+    }
+
+    /**
+     * Totals of one category, income and expense together.
+     *
+     * @param category             category name as stored
+     * @param count                number of transactions
+     * @param total                sum of amounts
+     * @param monthExpense         expense in the report month
+     * @param previousMonthExpense expense in the month before
+     */
+    public record CategoryTotals(String category, int count, long total, long monthExpense,
+            long previousMonthExpense) {
+    }
+}
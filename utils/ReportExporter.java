@@ -0,0 +1,556 @@
+package utils;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.ByteChannel;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * ReportExporter writes the transactions of a report, followed by a summary
+ * per category, to a CSV or Excel file.
+ *
+ * Rows are read from the current TransactionStore snapshot, which is
+ * immutable and shared, and encoded through one BUFFER_SIZE buffer straight
+ * into a FileChannel. The summary is accumulated in the same pass, so
+ * memory does not grow with the length of the history. Output goes to a
+ * temporary file next to the target, which replaces the target only once
+ * the export is complete.
+ *
+ * CSV reports are produced by the backend (EXPORT_CSV) when it supports
+ * them and nothing is waiting to be sent. The backend streams the file over
+ * a dedicated connection and the bytes go from the socket into the file
+ * with FileChannel.transferFrom, never through the heap. Otherwise the
+ * report is written locally.
+ */
+public final class ReportExporter {
+    static final int BUFFER_SIZE = 1 << 16;
+    // Rows between progress reports and cancellation checks
+    private static final int PROGRESS_ROWS = 4096;
+    // Excel refuses sheets longer than 1,048,576 rows
+    static final int EXCEL_SHEET_ROWS = 1_000_000;
+    private static final int MAX_HEADER_BYTES = 1024;
+    // Cleared once the backend answers UNKNOWN_COMMAND; local export from then on
+    private static volatile boolean backendReportSupported = true;
+
+    private ReportExporter() {
+    }
+
+    /**
+     * Report file formats.
+     */
+    public enum Format {
+        CSV, EXCEL;
+
+        /**
+         * Guess the format from the file name.
+         *
+         * @param file report file
+         * @return EXCEL for .xls and .xml files, CSV otherwise
+         */
+        public static Format of(Path file) {
+            String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+            return name.endsWith(".xls") || name.endsWith(".xml") ? EXCEL : CSV;
+        }
+
+        /**
+         * File extension for new reports. Excel reports are XML Spreadsheet
+         * 2003 documents, which Excel opens without a warning only under
+         * .xml; under .xls it complains that format and extension differ.
+         *
+         * @return file extension, without the dot
+         */
+        public String extension() {
+            return this == EXCEL ? "xml" : "csv";
+        }
+    }
+
+    /**
+     * Export progress, reported on the EDT.
+     *
+     * @param done  transactions scanned, or bytes received from the backend
+     * @param total transactions in the store, or report size; -1 if unknown
+     * @param rows  rows written so far, or -1 when the backend writes them
+     */
+    public record Progress(long done, long total, long rows) {
+    }
+
+    /**
+     * Outcome of an export.
+     *
+     * @param rows      transactions written, or -1 when the backend wrote the
+     *                  report
+     * @param bytes     size of the file
+     * @param cancelled whether the export was stopped; no file is left then
+     */
+    public record Result(long rows, long bytes, boolean cancelled) {
+    }
+
+    /**
+     * Export the transactions passing the filter in the background.
+     *
+     * @param file       target file, replaced if it exists
+     * @param filter     transactions to include
+     * @param format     CSV or Excel
+     * @param onProgress progress callback, on the EDT
+     * @return the running export
+     */
+    public static Job export(Path file, TransactionFilter filter, Format format, Consumer<Progress> onProgress) {
+        Job job = new Job(progress -> javax.swing.SwingUtilities.invokeLater(() -> onProgress.accept(progress)));
+        BackgroundExecutor.execute(() -> {
+            Path temp = file.resolveSibling(file.getFileName() + ".part");
+            try {
+                Result result = null;
+                try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                        StandardOpenOption.TRUNCATE_EXISTING)) {
+                    if (format == Format.CSV && backendReportAvailable()) {
+                        result = job.download(filter, out);
+                    }
+                    if (result == null) {
+                        out.truncate(0);
+                        out.position(0);
+                        long rows = job.write(TransactionStore.snapshot().transactions(), filter, format, out);
+                        result = new Result(rows, out.size(), job.cancelled);
+                    }
+                }
+                if (result.cancelled()) {
+                    Files.deleteIfExists(temp);
+                } else {
+                    Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+                }
+                job.result.complete(result);
+            } catch (Exception e) {
+                try {
+                    Files.deleteIfExists(temp);
+                } catch (IOException ignored) {
+                }
+                job.result.completeExceptionally(e);
+            }
+        });
+        return job;
+    }
+
+    private static boolean backendReportAvailable() {
+        String token = SessionManager.getInstance().getSessionToken();
+        // The backend has not seen queued changes yet, so its report would miss them
+        return backendReportSupported && token != null && !token.isEmpty()
+                && PendingOperations.snapshot().pending().isEmpty();
+    }
+
+    /**
+     * One export run.
+     */
+    public static final class Job {
+        private final CompletableFuture<Result> result = new CompletableFuture<>();
+        private final Consumer<Progress> onProgress;
+        private volatile boolean cancelled;
+        // Connection of a running download, closed to abort a blocked read
+        private volatile ByteChannel transfer;
+
+        /**
+         * @param onProgress progress callback, called from the export thread
+         */
+        Job(Consumer<Progress> onProgress) {
+            this.onProgress = onProgress;
+        }
+
+        /**
+         * @return future completed once the file is in place, or failed if
+         *         it could not be written
+         */
+        public CompletableFuture<Result> result() {
+            return result;
+        }
+
+        /**
+         * Stop the export. The partial file is deleted.
+         */
+        public void cancel() {
+            cancelled = true;
+            ByteChannel channel = transfer;
+            if (channel != null) {
+                try {
+                    channel.close();
+                } catch (IOException ignored) {
+                }
+            }
+        }
+
+        /**
+         * Write the matching transactions and the category summary.
+         *
+         * @param rows   transactions, newest first
+         * @param filter transactions to include
+         * @param format CSV or Excel
+         * @param out    destination, left open
+         * @return number of transactions written
+         * @throws IOException if writing fails
+         */
+        long write(List<TransactionStore.Transaction> rows, TransactionFilter filter, Format format,
+                WritableByteChannel out) throws IOException {
+            Writer writer = Channels.newWriter(out, StandardCharsets.UTF_8.newEncoder(), BUFFER_SIZE);
+            ReportWriter report = format == Format.EXCEL ? new ExcelWriter(writer) : new CsvWriter(writer);
+            Map<String, Totals> totals = new HashMap<>();
+            TransactionFilter rest = filter.withDates(null, null);
+            long written = 0;
+            report.begin();
+            for (int i = 0; i < rows.size(); i++) {
+                if (i % PROGRESS_ROWS == 0) {
+                    if (cancelled) {
+                        break;
+                    }
+                    onProgress.accept(new Progress(i, rows.size(), written));
+                }
+                TransactionStore.Transaction tx = rows.get(i);
+                // Newest first: skip rows after the range, stop at the first before it
+                if (filter.to() != null && tx.date().isAfter(filter.to())) {
+                    continue;
+                }
+                if (filter.from() != null && tx.date().isBefore(filter.from())) {
+                    break;
+                }
+                if (!rest.matches(tx)) {
+                    continue;
+                }
+                report.row(tx);
+                written++;
+                String type = TransactionRollup.typeKey(tx.type());
+                totals.computeIfAbsent(type + '|' + tx.category(), k -> new Totals(type, tx.category())).add(tx);
+            }
+            if (!cancelled) {
+                List<Totals> summary = new ArrayList<>(totals.values());
+                // Income first, then the largest categories
+                summary.sort(Comparator.comparing((Totals t) -> !TransactionStore.TYPE_INCOME.equals(t.type))
+                        .thenComparing(t -> -t.total));
+                report.summary(summary);
+                onProgress.accept(new Progress(rows.size(), rows.size(), written));
+            }
+            writer.flush();
+            return written;
+        }
+
+        private Result download(TransactionFilter filter, FileChannel out) {
+            SocketClient client = SocketClient.getInstance();
+            String command = client.formatCommand("EXPORT_CSV", SessionManager.getInstance().getSessionToken(),
+                    field(filter.from()), field(filter.to()), field(filter.type()), field(filter.category()),
+                    field(filter.account()), field(filter.text()));
+            try (SocketChannel channel = client.openTransferChannel()) {
+                return receive(channel, command, out);
+            } catch (IOException e) {
+                if (cancelled) {
+                    return new Result(-1, 0, true);
+                }
+                System.err.println("Backend report failed, exporting locally: " + e.getMessage());
+                return null;
+            }
+        }
+
+        /**
+         * Send a report command and copy the streamed report into the file.
+         * The backend answers REPORT|size (-1 if unknown, then the report
+         * ends with the connection) followed by the raw bytes, or an ERROR
+         * line.
+         *
+         * @param channel dedicated connection to the backend
+         * @param command report command
+         * @param out     destination, positioned at 0
+         * @return result, or null if the backend cannot produce the report
+         * @throws IOException if the transfer fails
+         */
+        Result receive(ByteChannel channel, String command, FileChannel out) throws IOException {
+            transfer = channel;
+            try {
+                ByteBuffer buffer = ByteBuffer.wrap((command + "\n").getBytes(StandardCharsets.UTF_8));
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+
+                // The header read may take the first bytes of the report along
+                ByteBuffer head = ByteBuffer.allocate(MAX_HEADER_BYTES);
+                int newline = -1;
+                while (newline < 0) {
+                    if (!head.hasRemaining() || channel.read(head) < 0) {
+                        throw new IOException("Invalid report header");
+                    }
+                    for (int i = 0; i < head.position(); i++) {
+                        if (head.get(i) == '\n') {
+                            newline = i;
+                            break;
+                        }
+                    }
+                }
+                String header = new String(head.array(), 0, newline, StandardCharsets.UTF_8).trim();
+                if (header.startsWith("ERROR")) {
+                    if (header.contains("UNKNOWN_COMMAND")) {
+                        backendReportSupported = false;
+                    } else {
+                        System.err.println("Backend report refused: " + header);
+                    }
+                    return null;
+                }
+                String[] parts = header.split("\\|");
+                if (parts.length < 2 || !parts[0].equals("REPORT")) {
+                    throw new IOException("Invalid report header: " + header);
+                }
+                long size = Long.parseLong(parts[1]);
+
+                head.flip().position(newline + 1);
+                long position = 0;
+                while (head.hasRemaining()) {
+                    position += out.write(head);
+                }
+                while (size < 0 || position < size) {
+                    if (cancelled) {
+                        return new Result(-1, position, true);
+                    }
+                    long chunk = size < 0 ? BUFFER_SIZE * 16L : Math.min(BUFFER_SIZE * 16L, size - position);
+                    long n = out.transferFrom(channel, position, chunk);
+                    if (n == 0) {
+                        if (size >= 0) {
+                            throw new IOException("Report ended after " + position + " of " + size + " bytes");
+                        }
+                        break;
+                    }
+                    position += n;
+                    onProgress.accept(new Progress(position, size, -1));
+                }
+                return new Result(-1, position, cancelled);
+            } catch (IOException e) {
+                if (cancelled) {
+                    return new Result(-1, 0, true);
+                }
+                throw e;
+            } catch (NumberFormatException e) {
+                throw new IOException("Invalid report size", e);
+            } finally {
+                transfer = null;
+            }
+        }
+    }
+
+    private static String field(Object value) {
+        return value == null ? "" : value.toString().replace('|', ' ');
+    }
+
+    /**
+     * Running count and total of one category of one type.
+     */
+    private static final class Totals {
+        final String type;
+        final String category;
+        long count;
+        long total;
+
+        Totals(String type, String category) {
+            this.type = type;
+            this.category = category;
+        }
+
+        void add(TransactionStore.Transaction tx) {
+            count++;
+            total += tx.amount();
+        }
+    }
+
+    /**
+     * Writes one report format.
+     */
+    private abstract static class ReportWriter {
+        final Writer out;
+
+        ReportWriter(Writer out) {
+            this.out = out;
+        }
+
+        abstract void begin() throws IOException;
+
+        abstract void row(TransactionStore.Transaction tx) throws IOException;
+
+        abstract void summary(List<Totals> totals) throws IOException;
+    }
+
+    /**
+     * CSV with a BOM, so Excel picks UTF-8; the summary follows the
+     * transactions after an empty line.
+     */
+    private static final class CsvWriter extends ReportWriter {
+        CsvWriter(Writer out) {
+            super(out);
+        }
+
+        @Override
+        void begin() throws IOException {
+            out.write("\uFEFFTanggal,Keterangan,Kategori,Jenis,Akun,Jumlah\n");
+        }
+
+        @Override
+        void row(TransactionStore.Transaction tx) throws IOException {
+            out.write(tx.date().toString());
+            out.write(',');
+            text(tx.description());
+            out.write(',');
+            text(tx.category());
+            out.write(',');
+            text(tx.type());
+            out.write(',');
+            text(tx.accountName());
+            out.write(',');
+            out.write(Long.toString(tx.amount()));
+            out.write('\n');
+        }
+
+        @Override
+        void summary(List<Totals> totals) throws IOException {
+            out.write("\nRingkasan per Kategori\nJenis,Kategori,Jumlah Transaksi,Total\n");
+            for (Totals t : totals) {
+                text(t.type);
+                out.write(',');
+                text(t.category);
+                out.write(',');
+                out.write(Long.toString(t.count));
+                out.write(',');
+                out.write(Long.toString(t.total));
+                out.write('\n');
+            }
+        }
+
+        private void text(String value) throws IOException {
+            if (value == null || value.isEmpty()) {
+                return;
+            }
+            // A leading = + - @ would make spreadsheets evaluate the cell
+            char first = value.charAt(0);
+            if (first == '=' || first == '+' || first == '-' || first == '@') {
+                value = "'" + value;
+            }
+            boolean quote = false;
+            for (int i = 0; i < value.length() && !quote; i++) {
+                char c = value.charAt(i);
+                quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+            }
+            if (!quote) {
+                out.write(value);
+                return;
+            }
+            out.write('"');
+            out.write(value.replace("\"", "\"\""));
+            out.write('"');
+        }
+    }
+
+    /**
+     * Excel 2003 XML spreadsheet, which can be written front to back: one
+     * sheet of transactions, continued on further sheets past
+     * EXCEL_SHEET_ROWS, and one summary sheet.
+     */
+    private static final class ExcelWriter extends ReportWriter {
+        private static final String TX_HEADER = "<Row>" + header("Tanggal") + header("Keterangan")
+                + header("Kategori") + header("Jenis") + header("Akun") + header("Jumlah") + "</Row>\n";
+        private int sheet;
+        private int sheetRows;
+
+        ExcelWriter(Writer out) {
+            super(out);
+        }
+
+        @Override
+        void begin() throws IOException {
+            out.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<?mso-application progid=\"Excel.Sheet\"?>\n"
+                    + "<Workbook xmlns=\"urn:schemas-microsoft-com:office:spreadsheet\""
+                    + " xmlns:ss=\"urn:schemas-microsoft-com:office:spreadsheet\">\n"
+                    + "<Styles><Style ss:ID=\"h\"><Font ss:Bold=\"1\"/></Style>"
+                    + "<Style ss:ID=\"d\"><NumberFormat ss:Format=\"yyyy-mm-dd\"/></Style></Styles>\n");
+            startSheet();
+        }
+
+        private void startSheet() throws IOException {
+            sheet++;
+            sheetRows = 0;
+            out.write("<Worksheet ss:Name=\"Transaksi" + (sheet > 1 ? " " + sheet : "") + "\"><Table>\n");
+            out.write(TX_HEADER);
+        }
+
+        @Override
+        void row(TransactionStore.Transaction tx) throws IOException {
+            if (sheetRows == EXCEL_SHEET_ROWS) {
+                out.write("</Table></Worksheet>\n");
+                startSheet();
+            }
+            sheetRows++;
+            out.write("<Row>");
+            date(tx.date());
+            text(tx.description());
+            text(tx.category());
+            text(tx.type());
+            text(tx.accountName());
+            number(tx.amount());
+            out.write("</Row>\n");
+        }
+
+        @Override
+        void summary(List<Totals> totals) throws IOException {
+            out.write("</Table></Worksheet>\n<Worksheet ss:Name=\"Ringkasan\"><Table>\n<Row>" + header("Jenis")
+                    + header("Kategori") + header("Jumlah Transaksi") + header("Total") + "</Row>\n");
+            for (Totals t : totals) {
+                out.write("<Row>");
+                text(t.type);
+                text(t.category);
+                number(t.count);
+                number(t.total);
+                out.write("</Row>\n");
+            }
+            out.write("</Table></Worksheet>\n</Workbook>\n");
+        }
+
+        private static String header(String title) {
+            return "<Cell ss:StyleID=\"h\"><Data ss:Type=\"String\">" + title + "</Data></Cell>";
+        }
+
+        private void date(LocalDate date) throws IOException {
+            out.write("<Cell ss:StyleID=\"d\"><Data ss:Type=\"DateTime\">");
+            out.write(date.toString());
+            out.write("T00:00:00.000</Data></Cell>");
+        }
+
+        private void number(long value) throws IOException {
+            out.write("<Cell><Data ss:Type=\"Number\">");
+            out.write(Long.toString(value));
+            out.write("</Data></Cell>");
+        }
+
+        private void text(String value) throws IOException {
+            out.write("<Cell><Data ss:Type=\"String\">");
+            if (value != null) {
+                for (int i = 0; i < value.length(); i++) {
+                    char c = value.charAt(i);
+                    switch (c) {
+                        case '&' -> out.write("&amp;");
+                        case '<' -> out.write("&lt;");
+                        case '>' -> out.write("&gt;");
+                        case '"' -> out.write("&quot;");
+                        // Other control characters are not allowed in XML
+                        default -> out.write(c < 0x20 && c != '\t' && c != '\n' ? ' ' : c);
+                    }
+                }
+            }
+            out.write("</Data></Cell>");
+        }
+    }
+}
@@ -0,0 +1,358 @@
+package utils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.time.LocalDate;
+
+/**
+ * ResponseReader tokenizes pipe-delimited protocol lines straight from the
+ * socket buffer.
+ * Large responses can be consumed field by field without first building the
+ * whole line as a String and splitting it into an array. Plain
+ * {@link #readLine()} is still available for small responses.
+ * Not thread-safe; owned by the SocketClient reader thread.
+ */
+public class ResponseReader implements AutoCloseable {
+    private static final int DEFAULT_BUFFER_SIZE = 8192;
+    private static final char SEPARATOR = '|';
+
+    private final Reader source;
+    private final char[] buf;
+    private int pos;
+    private int limit;
+
+    // True once the current line's terminator has been consumed
+    private boolean lineEnded = true;
+    // A '\r' ended the last line; swallow a directly following '\n'
+    private boolean skipLF;
+
+    // Reused for numeric and date fields so they allocate nothing
+    private final StringBuilder scratch = new StringBuilder(32);
+    // Keeps a partially read line across a read timeout
+    private final StringBuilder pendingLine = new StringBuilder();
+
+    public ResponseReader(InputStream in) {
+        this(new InputStreamReader(in, Charset.defaultCharset()), DEFAULT_BUFFER_SIZE);
+    }
+
+    ResponseReader(Reader source, int bufferSize) {
+        this.source = source;
+        this.buf = new char[bufferSize];
+    }
+
+    /**
+     * Block until at least one character is buffered.
+     *
+     * @return false at end of stream
+     * @throws IOException if the read fails or times out
+     */
+    public boolean awaitData() throws IOException {
+        return fill();
+    }
+
+    /**
+     * Read a whole line. Safe to call again after a read timeout: the part
+     * of the line already received is kept.
+     *
+     * @return the line without terminator, or null at end of stream
+     * @throws IOException if the read fails
+     */
+    public String readLine() throws IOException {
+        startLine();
+        while (true) {
+            if (!fill()) {
+                if (pendingLine.length() == 0) {
+                    return null;
+                }
+                break;
+            }
+            int start = pos;
+            while (pos < limit && buf[pos] != '\n' && buf[pos] != '\r') {
+                pos++;
+            }
+            pendingLine.append(buf, start, pos - start);
+            if (pos < limit) {
+                consumeTerminator();
+                break;
+            }
+        }
+        String line = pendingLine.toString();
+        pendingLine.setLength(0);
+        return line;
+    }
+
+    /**
+     * Check whether the current line still has unread fields.
+     *
+     * @return true if another field can be read from the current line
+     */
+    public boolean hasMoreFields() {
+        return !lineEnded;
+    }
+
+    /**
+     * Read the next field of the current line, starting a new line if the
+     * previous one was fully consumed.
+     *
+     * @return field text, or null if the current line has no more fields
+     * @throws IOException if the read fails
+     */
+    public String nextField() throws IOException {
+        if (!startField()) {
+            return null;
+        }
+        scratch.setLength(0);
+        readFieldInto(scratch);
+        return scratch.toString();
+    }
+
+    /**
+     * Skip the next field without materializing it.
+     *
+     * @throws IOException if the read fails
+     */
+    public void skipField() throws IOException {
+        if (startField()) {
+            readFieldInto(null);
+        }
+    }
+
+    /**
+     * Read the next field as a long without allocating a String.
+     *
+     * @return parsed value
+     * @throws IOException           if the read fails
+     * @throws NumberFormatException if the field is missing or not a number
+     */
+    public long nextLong() throws IOException {
+        if (!startField()) {
+            throw new NumberFormatException("Missing numeric field");
+        }
+        scratch.setLength(0);
+        readFieldInto(scratch);
+        return parseLong(scratch);
+    }
+
+    /**
+     * Read the next field as an int.
+     *
+     * @return parsed value
+     * @throws IOException           if the read fails
+     * @throws NumberFormatException if the field is missing or out of range
+     */
+    public int nextInt() throws IOException {
+        return Math.toIntExact(nextLong());
+    }
+
+    /**
+     * Read the next field as a yyyy-MM-dd date.
+     *
+     * @return parsed date, or null if the field is missing or malformed
+     * @throws IOException if the read fails
+     */
+    public LocalDate nextDate() throws IOException {
+        if (!startField()) {
+            return null;
+        }
+        scratch.setLength(0);
+        readFieldInto(scratch);
+        if (scratch.length() != 10 || scratch.charAt(4) != '-' || scratch.charAt(7) != '-') {
+            return null;
+        }
+        int year = digits(scratch, 0, 4);
+        int month = digits(scratch, 5, 7);
+        int day = digits(scratch, 8, 10);
+        if (year < 0 || month < 1 || month > 12 || day < 1 || day > 31) {
+            return null;
+        }
+        try {
+            return LocalDate.of(year, month, day);
+        } catch (RuntimeException e) {
+            return null; // e.g. 2025-02-30
+        }
+    }
+
+    /**
+     * Read whatever is left of the current line, fields and separators
+     * included.
+     *
+     * @return remaining text, empty if the line was already consumed
+     * @throws IOException if the read fails
+     */
+    public String restOfLine() throws IOException {
+        if (lineEnded) {
+            return "";
+        }
+        StringBuilder sb = new StringBuilder();
+        while (fill()) {
+            char c = buf[pos];
+            if (c == '\n' || c == '\r') {
+                consumeTerminator();
+                break;
+            }
+            sb.append(c);
+            pos++;
+        }
+        lineEnded = true;
+        return sb.toString();
+    }
+
+    /**
+     * Discard the rest of the current line.
+     *
+     * @throws IOException if the read fails
+     */
+    public void finishLine() throws IOException {
+        while (!lineEnded && fill()) {
+            char c = buf[pos];
+            if (c == '\n' || c == '\r') {
+                consumeTerminator();
+            } else {
+                pos++;
+            }
+        }
+        lineEnded = true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        source.close();
+    }
+
+    private void startLine() throws IOException {
+        if (!lineEnded) {
+            finishLine();
+        }
+    }
+
+    /**
+     * Position at the start of a field, opening a new line when the
+     * previous one ended.
+     *
+     * @return false if no field is available
+     */
+    private boolean startField() throws IOException {
+        if (lineEnded) {
+            if (!fill()) {
+                return false;
+            }
+            lineEnded = false;
+        }
+        return true;
+    }
+
+    /**
+     * Consume one field and the separator or terminator after it.
+     *
+     * @param into destination, or null to skip
+     */
+    private void readFieldInto(StringBuilder into) throws IOException {
+        while (fill()) {
+            int start = pos;
+            while (pos < limit) {
+                char c = buf[pos];
+                if (c == SEPARATOR || c == '\n' || c == '\r') {
+                    break;
+                }
+                pos++;
+            }
+            if (into != null) {
+                into.append(buf, start, pos - start);
+            }
+            if (pos < limit) {
+                char c = buf[pos];
+                if (c == SEPARATOR) {
+                    pos++;
+                } else {
+                    consumeTerminator();
+                }
+                return;
+            }
+        }
+        lineEnded = true; // End of stream ends the line
+    }
+
+    private void consumeTerminator() {
+        skipLF = buf[pos] == '\r';
+        pos++;
+        lineEnded = true;
+    }
+
+    /**
+     * Make sure at least one unread character is buffered.
+     *
+     * @return false at end of stream
+     */
+    private boolean fill() throws IOException {
+        while (true) {
+            if (pos >= limit) {
+                int n = source.read(buf, 0, buf.length);
+                if (n < 0) {
+                    return false;
+                }
+                pos = 0;
+                limit = n;
+                continue;
+            }
+            if (skipLF) {
+                skipLF = false;
+                if (buf[pos] == '\n') {
+                    pos++;
+                    continue;
+                }
+            }
+            return true;
+        }
+    }
+
+    private static long parseLong(CharSequence s) {
+        int len = s.length();
+        if (len == 0) {
+            throw new NumberFormatException("Empty numeric field");
+        }
+        int i = 0;
+        boolean negative = false;
+        char first = s.charAt(0);
+        if (first == '-' || first == '+') {
+            negative = first == '-';
+            i = 1;
+            if (len == 1) {
+                throw new NumberFormatException("For input string: \"" + s + "\"");
+            }
+        }
+        long value = 0;
+        for (; i < len; i++) {
+            int d = s.charAt(i) - '0';
+            if (d < 0 || d > 9) {
+                throw new NumberFormatException("For input string: \"" + s + "\"");
+            }
+            // Accumulate negatively so Long.MIN_VALUE parses too
+            if (value < (Long.MIN_VALUE + d) / 10) {
+                throw new NumberFormatException("Value out of range: \"" + s + "\"");
+            }
+            value = value * 10 - d;
+        }
+        if (!negative) {
+            if (value == Long.MIN_VALUE) {
+                throw new NumberFormatException("Value out of range: \"" + s + "\"");
+            }
+            return -value;
+        }
+        return value;
+    }
+
+    private static int digits(CharSequence s, int from, int to) {
+        int value = 0;
+        for (int i = from; i < to; i++) {
+            int d = s.charAt(i) - '0';
+            if (d < 0 || d > 9) {
+                return -1;
+            }
+            value = value * 10 + d;
+        }
+        return value;
+    }
+}
@@ -0,0 +1,158 @@
+package utils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Inverted index from description words to transaction IDs.
+ * Words are kept sorted so a query word matches every indexed word it is a
+ * prefix of, which lets a search box show results while the user is still
+ * typing. TransactionStore keeps it in step with every add, update and
+ * remove; it is not thread-safe on its own and is guarded by the store lock.
+ */
+final class SearchIndex {
+    // Above this many matching words, probe a union instead of each word
+    private static final int SCAN_SETS = 8;
+
+    private final TreeMap<String, Set<String>> postings = new TreeMap<>();
+
+    /**
+     * Split text into lowercase words of letters and digits.
+     *
+     * @param text text to split, may be null
+     * @return words in order, possibly repeated
+     */
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean wordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                tokens.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Check whether every word of the query is a prefix of some word of the
+     * text, the same rule search() applies.
+     *
+     * @param text  text to test
+     * @param query search words
+     * @return true if the text matches
+     */
+    static boolean matches(String text, String query) {
+        List<String> words = tokenize(text);
+        for (String prefix : tokenize(query)) {
+            if (words.stream().noneMatch(word -> word.startsWith(prefix))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    void add(String id, String text) {
+        for (String token : tokenize(text)) {
+            postings.computeIfAbsent(token, t -> new HashSet<>(4)).add(id);
+        }
+    }
+
+    void remove(String id, String text) {
+        for (String token : tokenize(text)) {
+            Set<String> ids = postings.get(token);
+            if (ids != null) {
+                ids.remove(id);
+                if (ids.isEmpty()) {
+                    postings.remove(token);
+                }
+            }
+        }
+    }
+
+    /**
+     * Move a text's postings to a new ID, e.g. once a provisional ID is
+     * confirmed, tokenizing the text once.
+     */
+    void rename(String oldId, String newId, String text) {
+        for (String token : tokenize(text)) {
+            Set<String> ids = postings.get(token);
+            if (ids != null && ids.remove(oldId)) {
+                ids.add(newId);
+            }
+        }
+    }
+
+    void clear() {
+        postings.clear();
+    }
+
+    int tokenCount() {
+        return postings.size();
+    }
+
+    /**
+     * IDs of the texts in which every query word is a prefix of some word.
+     * Starts from the query word with the fewest postings and only checks
+     * those IDs against the other words, so the cost follows the rarest
+     * word rather than the most common one.
+     *
+     * @param query search words
+     * @return matching IDs, or null if the query has no words and so does
+     *         not restrict anything
+     */
+    Set<String> search(String query) {
+        List<String> words = tokenize(query);
+        if (words.isEmpty()) {
+            return null;
+        }
+        List<Collection<Set<String>>> matches = new ArrayList<>(words.size());
+        for (String prefix : words) {
+            matches.add(withPrefix(prefix));
+        }
+        matches.sort(Comparator.comparingLong(SearchIndex::postingCount));
+
+        Set<String> result = new HashSet<>();
+        for (Set<String> ids : matches.get(0)) {
+            result.addAll(ids);
+        }
+        for (int w = 1; w < matches.size() && !result.isEmpty(); w++) {
+            Collection<Set<String>> sets = matches.get(w);
+            if (sets.size() > SCAN_SETS) {
+                // Short prefix spanning many words: one union beats probing each
+                Set<String> union = new HashSet<>();
+                sets.forEach(union::addAll);
+                result.retainAll(union);
+            } else {
+                result.removeIf(id -> sets.stream().noneMatch(ids -> ids.contains(id)));
+            }
+        }
+        return result;
+    }
+
+    private static long postingCount(Collection<Set<String>> sets) {
+        long count = 0;
+        for (Set<String> ids : sets) {
+            count += ids.size();
+        }
+        return count;
+    }
+
+    private Collection<Set<String>> withPrefix(String prefix) {
+        Map<String, Set<String>> range = postings.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+        return new ArrayList<>(range.values());
+    }
+}
@@ -128,16 +128,20 @@ public class SessionManager {
     /**
      * Validate session with backend server.
      * Sends VALIDATE_SESSION command to check if token is still valid.
-     * @return true if session is valid, false otherwise
+     * The lock is not held while waiting for the backend, so the session
+     * can still be read meanwhile, e.g. by the UI while working offline.
+     * @return true if session is valid, false otherwise; the session is
+     *         only cleared if the backend rejected it
      */
-    public synchronized boolean validateSession() {
-        if (!hasValidSession()) {
+    public boolean validateSession() {
+        String token = getSessionToken();
+        if (token == null || token.trim().isEmpty()) {
             return false;
         }
         
         try {
             SocketClient client = SocketClient.getInstance();
-            String command = client.formatCommand("VALIDATE_SESSION", sessionToken);
+            String command = client.formatCommand("VALIDATE_SESSION", token);
             String response = client.sendCommand(command);
             
             // Check if response is OK
@@ -149,7 +153,11 @@ public class SessionManager {
             if (client.isErrorResponse(response)) {
                 String[] parts = client.parseResponse(response);
                 if (parts.length >= 2 && parts[1].equals("SESSION_INVALID")) {
-                    clearSession();
+                    synchronized (this) {
+                        if (token.equals(sessionToken)) {
+                            clearSession(); // Unless a new login replaced it
+                        }
+                    }
                 }
                 return false;
             }
@@ -4,13 +4,21 @@ import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.PrintWriter;
+import java.net.InetSocketAddress;
 import java.net.Socket;
 import java.net.SocketTimeoutException;
+import java.nio.channels.SocketChannel;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * SocketClient manages TCP connection to backend server.
  * Implements singleton pattern for centralized socket communication.
- * Thread-safe with synchronized methods.
+ * Requests are pipelined: callers only hold the lock while writing their
+ * command, and a dedicated reader thread completes responses in order.
  */
 public class SocketClient {
     private static final String HOST = "localhost";
@@ -23,9 +31,16 @@ public class SocketClient {
 
     private Socket socket;
     private PrintWriter out;
-    private BufferedReader in;
+    private ResponseReader in;
     private boolean connected;
 
+    // Requests written on the current connection that are still waiting for a
+    // response. The backend answers each client in order, so the head of the
+    // queue always owns the next response line.
+    private Queue<PendingRequest<?>> pending = new ConcurrentLinkedQueue<>();
+    private Thread readerThread;
+    private final AtomicLong nextRequestId = new AtomicLong();
+
     // Subscription channel for server-pushed events (separate socket to avoid read
     // conflicts)
     private Socket subSocket;
@@ -33,6 +48,9 @@ public class SocketClient {
     private BufferedReader subIn;
     private Thread subThread;
     private volatile boolean subRunning = false;
+    // Session the subscription belongs to; kept while it is paused for a
+    // reconnect, cleared when it is stopped
+    private String subscribedToken;
 
     private SocketClient() {
         this.connected = false;
@@ -63,9 +81,14 @@ public class SocketClient {
         try {
             socket = new Socket(HOST, PORT);
             socket.setSoTimeout(TIMEOUT);
+            // Long commands such as ADD_BATCH span several segments; without
+            // this the last one waits for the server's delayed ACK
+            socket.setTcpNoDelay(true);
             out = new PrintWriter(socket.getOutputStream(), true);
-            in = new BufferedReader(new InputStreamReader(socket.getInputStream()));
+            in = new ResponseReader(socket.getInputStream());
+            pending = new ConcurrentLinkedQueue<>();
             connected = true;
+            startReader(socket, in, pending);
         } catch (IOException e) {
             connected = false;
             throw new IOException("Failed to connect to server at " + HOST + ":" + PORT, e);
@@ -105,9 +128,11 @@ public class SocketClient {
         out = null;
         in = null;
         socket = null;
+        readerThread = null;
 
-        // Stop subscription channel if running
-        stopSubscription();
+        // Pause subscription channel if running; events already buffered
+        // are still applied
+        pauseSubscription();
     }
 
     /**
@@ -135,6 +160,7 @@ public class SocketClient {
             try {
                 Thread.sleep(delay);
                 connect();
+                resumeSubscription();
                 return; // Success
             } catch (InterruptedException e) {
                 Thread.currentThread().interrupt();
@@ -150,54 +176,247 @@ public class SocketClient {
 
     /**
      * Send command to backend and return response.
+     * Blocks only the calling thread; other callers may pipeline their own
+     * requests on the same connection meanwhile.
      * Automatically attempts reconnection if connection is lost.
      * 
      * @param command formatted command string
      * @return response from backend
      * @throws IOException if communication fails
      */
-    public synchronized String sendCommand(String command) throws IOException {
-        if (!isConnected()) {
-            reconnect();
-        }
+    public String sendCommand(String command) throws IOException {
+        return sendCommand(command, LINE_HANDLER);
+    }
 
+    /**
+     * Send command to backend and stream its response through handler.
+     * Used for large responses that should be parsed field by field instead
+     * of being read into one String first.
+     * Automatically attempts reconnection if connection is lost.
+     * 
+     * @param command formatted command string
+     * @param handler reads the complete response off the socket
+     * @return handler result
+     * @throws IOException if communication fails
+     */
+    public <T> T sendCommand(String command, ResponseHandler<T> handler) throws IOException {
         try {
-            out.println(command);
-            if (out.checkError()) {
-                throw new IOException("Failed to send command");
-            }
-
-            return readResponse();
+            return awaitResponse(sendCommandAsync(command, handler));
         } catch (IOException e) {
             // Try to reconnect once
             try {
-                reconnect();
+                reconnectIfNeeded();
+                return awaitResponse(sendCommandAsync(command, handler));
+            } catch (IOException reconnectException) {
+                throw new IOException("Communication failed and reconnection failed", reconnectException);
+            }
+        }
+    }
+
+    /**
+     * Send command to backend without waiting for the response.
+     * The returned future is completed by the reader thread when the matching
+     * response line arrives, or failed if the connection drops first.
+     * May block while a lost connection is being re-established.
+     * 
+     * @param command formatted command string
+     * @return future completed with the response line
+     */
+    public CompletableFuture<String> sendCommandAsync(String command) {
+        return sendCommandAsync(command, LINE_HANDLER);
+    }
+
+    /**
+     * Send command to backend without waiting for the response.
+     * When the response arrives, the reader thread hands the stream to
+     * handler and completes the future with its result.
+     * 
+     * @param command formatted command string
+     * @param handler reads the complete response off the socket
+     * @return future completed with the handler result
+     */
+    public <T> CompletableFuture<T> sendCommandAsync(String command, ResponseHandler<T> handler) {
+        PendingRequest<T> request = new PendingRequest<>(nextRequestId.incrementAndGet(), handler);
+        try {
+            synchronized (this) {
+                if (!isConnected()) {
+                    reconnect();
+                }
+                // Enqueue before writing so the reader never sees a response
+                // without its owner
+                pending.add(request);
+                request.sentAt = System.currentTimeMillis();
                 out.println(command);
                 if (out.checkError()) {
-                    throw new IOException("Failed to send command after reconnect");
+                    pending.remove(request);
+                    throw new IOException("Failed to send command");
                 }
-                return readResponse();
-            } catch (IOException reconnectException) {
-                throw new IOException("Communication failed and reconnection failed", reconnectException);
             }
+        } catch (IOException e) {
+            request.future.completeExceptionally(e);
         }
+        return request.future;
     }
 
     /**
-     * Read response from socket with timeout.
+     * Number of requests written on the current connection that have not
+     * received a response yet.
      * 
-     * @return response string
-     * @throws IOException if read fails or times out
+     * @return in-flight request count
      */
-    private String readResponse() throws IOException {
+    public int getInFlightCount() {
+        return pending.size();
+    }
+
+    private <T> T awaitResponse(CompletableFuture<T> future) throws IOException {
         try {
-            String response = in.readLine();
-            if (response == null) {
-                throw new IOException("Server closed connection");
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Request interrupted", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException io) {
+                throw io;
             }
-            return response;
-        } catch (SocketTimeoutException e) {
-            throw new IOException("Request timeout after " + TIMEOUT + "ms", e);
+            throw new IOException(cause != null ? cause.getMessage() : "Request failed", cause);
+        }
+    }
+
+    /**
+     * Reconnect only if no other caller has already restored the connection.
+     * Pipelined callers all fail together when a connection drops, so only
+     * the first of them should tear down and rebuild the socket.
+     */
+    private synchronized void reconnectIfNeeded() throws IOException {
+        if (!isConnected()) {
+            reconnect();
+        }
+    }
+
+    /**
+     * Start the reader thread for a freshly opened connection.
+     * The thread owns its socket and queue, so a stale reader can never
+     * complete requests that were written on a newer connection.
+     */
+    private void startReader(Socket sock, ResponseReader reader, Queue<PendingRequest<?>> queue) {
+        readerThread = new Thread(() -> {
+            IOException failure = null;
+            try {
+                while (true) {
+                    try {
+                        sock.setSoTimeout(readTimeout(queue.peek()));
+                        if (!reader.awaitData()) {
+                            throw new IOException("Server closed connection");
+                        }
+                    } catch (SocketTimeoutException e) {
+                        // Idle connections simply time out; only a stalled
+                        // request is an error
+                        PendingRequest<?> head = queue.peek();
+                        if (head == null || System.currentTimeMillis() - head.sentAt < TIMEOUT) {
+                            continue;
+                        }
+                        throw new IOException("Request #" + head.id + " timeout after " + TIMEOUT + "ms", e);
+                    }
+                    PendingRequest<?> request = queue.peek();
+                    if (request == null) {
+                        System.err.println("Warning: unsolicited response ignored: " + reader.readLine());
+                        continue;
+                    }
+                    try {
+                        request.complete(reader);
+                    } catch (SocketTimeoutException e) {
+                        throw new IOException("Request #" + request.id + " timeout after " + TIMEOUT + "ms", e);
+                    } catch (RuntimeException e) {
+                        // The handler stopped somewhere inside its response,
+                        // so the stream can no longer be trusted
+                        throw new IOException("Malformed response to request #" + request.id + ": " + e.getMessage(), e);
+                    }
+                    // Only dequeue once the response is fully read, so a drop
+                    // mid-response still fails this request
+                    queue.poll();
+                }
+            } catch (IOException e) {
+                failure = e;
+            } finally {
+                connectionLost(sock, queue, failure != null ? failure : new IOException("Connection closed"));
+            }
+        }, "FinTrack-ResponseReader");
+        readerThread.setDaemon(true);
+        readerThread.start();
+    }
+
+    /**
+     * Socket read timeout for the next read: whatever is left of the oldest
+     * pending request's budget, or a full TIMEOUT while the connection is
+     * idle. Timing out on the oldest deadline rather than a fixed interval
+     * keeps a stalled request from waiting up to twice as long when it was
+     * sent just after an idle read started.
+     *
+     * @param head oldest pending request, or null when idle
+     * @return read timeout in milliseconds, at least 1
+     */
+    private static int readTimeout(PendingRequest<?> head) {
+        if (head == null) {
+            return TIMEOUT;
+        }
+        long left = TIMEOUT - (System.currentTimeMillis() - head.sentAt);
+        return (int) Math.max(1, Math.min(TIMEOUT, left));
+    }
+
+    private void connectionLost(Socket sock, Queue<PendingRequest<?>> queue, IOException cause) {
+        synchronized (this) {
+            if (socket == sock) {
+                connected = false;
+                try {
+                    sock.close();
+                } catch (Exception e) {
+                    // Ignore
+                }
+            }
+        }
+        PendingRequest<?> request;
+        while ((request = queue.poll()) != null) {
+            request.future.completeExceptionally(cause);
+        }
+    }
+
+    /**
+     * Reads one complete response off the socket.
+     * Implementations must consume exactly their own response: every line of
+     * it and nothing after it. A handler that throws leaves the stream at an
+     * unknown position, so the connection is dropped.
+     */
+    @FunctionalInterface
+    public interface ResponseHandler<T> {
+        T read(ResponseReader reader) throws IOException;
+    }
+
+    private static final ResponseHandler<String> LINE_HANDLER = reader -> {
+        String line = reader.readLine();
+        if (line == null) {
+            throw new IOException("Server closed connection");
+        }
+        return line;
+    };
+
+    /**
+     * A request waiting for its response. The id correlates log lines and
+     * timeouts with the command that was sent.
+     */
+    private static final class PendingRequest<T> {
+        final long id;
+        final ResponseHandler<T> handler;
+        final CompletableFuture<T> future = new CompletableFuture<>();
+        volatile long sentAt;
+
+        PendingRequest(long id, ResponseHandler<T> handler) {
+            this.id = id;
+            this.handler = handler;
+        }
+
+        void complete(ResponseReader reader) throws IOException {
+            future.complete(handler.read(reader));
         }
     }
 
@@ -214,6 +433,7 @@ public class SocketClient {
             throw new IOException("No session token available for subscription");
         }
 
+        boolean resumed = sessionToken.equals(subscribedToken);
         try {
             subSocket = new Socket(HOST, PORT);
             // Keep subscription responsive but not too aggressive
@@ -223,23 +443,35 @@ public class SocketClient {
             // Send SUBSCRIBE command
             subOut.println(formatCommand("SUBSCRIBE", sessionToken));
             subRunning = true;
+            subscribedToken = sessionToken;
         } catch (IOException e) {
             subRunning = false;
             cleanupSub();
             throw e;
         }
+        if (resumed) {
+            // Events sent while the subscription was down never arrive
+            DataEventDispatcher.resync();
+        }
 
+        Socket socket = subSocket;
+        BufferedReader reader = subIn;
         subThread = new Thread(() -> {
             try {
                 String line;
-                while (subRunning && (line = subIn.readLine()) != null) {
+                while (subRunning && (line = reader.readLine()) != null) {
                     handleEventLine(line);
                 }
             } catch (IOException ex) {
                 // Subscription ended or failed; attempt silent stop
             } finally {
-                cleanupSub();
-                subRunning = false;
+                synchronized (SocketClient.this) {
+                    // A resumed subscription has its own socket by now
+                    if (subSocket == socket) {
+                        cleanupSub();
+                        subRunning = false;
+                    }
+                }
             }
         }, "FinTrack-EventListener");
         subThread.setDaemon(true);
@@ -247,9 +479,20 @@ public class SocketClient {
     }
 
     /**
-     * Stop background subscription and release resources.
+     * Stop background subscription and release resources, dropping events
+     * not applied yet, e.g. on logout.
      */
     public synchronized void stopSubscription() {
+        subscribedToken = null;
+        DataEventDispatcher.reset();
+        pauseSubscription();
+    }
+
+    /**
+     * Close the subscription channel but remember its session, so it can be
+     * resumed after a reconnect. Buffered events are left to be applied.
+     */
+    private void pauseSubscription() {
         subRunning = false;
         if (subThread != null) {
             try {
@@ -260,6 +503,22 @@ public class SocketClient {
         cleanupSub();
     }
 
+    /**
+     * Subscribe again after a reconnect if a subscription was running for
+     * the current session.
+     */
+    private void resumeSubscription() {
+        String sessionToken = SessionManager.getInstance().getSessionToken();
+        if (subscribedToken == null || !subscribedToken.equals(sessionToken)) {
+            return;
+        }
+        try {
+            startSubscription();
+        } catch (IOException e) {
+            System.err.println("Warning: failed to resume subscription: " + e.getMessage());
+        }
+    }
+
     private void cleanupSub() {
         try {
             if (subOut != null)
@@ -282,6 +541,27 @@ public class SocketClient {
         subThread = null;
     }
 
+    /**
+     * Open a dedicated connection for a bulk transfer such as a report
+     * download, so a long binary stream never blocks or interleaves with the
+     * pipelined command connection. The caller owns and closes the channel;
+     * closing it from another thread aborts a blocked read.
+     *
+     * @return connected blocking channel
+     * @throws IOException if the backend is unreachable
+     */
+    public SocketChannel openTransferChannel() throws IOException {
+        SocketChannel channel = SocketChannel.open();
+        try {
+            channel.socket().connect(new InetSocketAddress(HOST, PORT), TIMEOUT);
+            channel.socket().setTcpNoDelay(true);
+            return channel;
+        } catch (IOException e) {
+            channel.close();
+            throw new IOException("Failed to connect to server at " + HOST + ":" + PORT, e);
+        }
+    }
+
     // Dispatch server-sent events
     private void handleEventLine(String line) {
         if (line == null || line.isEmpty())
@@ -290,15 +570,7 @@ public class SocketClient {
             String[] parts = parseResponse(line);
             String eventType = parts.length >= 2 ? parts[1] : "";
             switch (eventType) {
-                case "DATA_CHANGED" -> {
-                    // Refresh all stores in background
-                    TransactionStore.loadFromBackend(() -> {
-                    }, err -> System.err.println("Txn refresh error: " + err));
-                    AccountStore.loadFromBackend(() -> {
-                    }, err -> System.err.println("Acct refresh error: " + err));
-                    CategoryStore.loadFromBackend(() -> {
-                    }, err -> System.err.println("Cat refresh error: " + err));
-                }
+                case "DATA_CHANGED" -> DataEventDispatcher.dispatch(line);
                 default -> {
                     // Unknown event types can be logged
                     System.out.println("Unhandled event: " + line);
@@ -0,0 +1,771 @@
+package utils;
+
+import java.io.BufferedReader;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.ResolverStyle;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * StatementImporter reads CSV and OFX bank statements into TransactionStore.
+ *
+ * The file is streamed: a reader thread parses it into blocks of
+ * BLOCK_ROWS rows, blocks are validated in parallel on the common
+ * fork-join pool, and validated blocks go to
+ * TransactionStore.addTransactions in file order. At most
+ * MAX_BLOCKS_IN_FLIGHT blocks are being validated, and the next block is
+ * only handed to the store once fewer than MAX_BLOCKS_UNCONFIRMED blocks
+ * are waiting for the backend. So the rows held in memory, in the pending
+ * queue and in the write-ahead log stay bounded however long the
+ * statement is; a slow or unreachable backend slows the import down
+ * instead.
+ *
+ * Validation normalizes dates and amounts, decides income or expense from
+ * the sign or the debit/credit columns, and maps category and account
+ * names onto the ones in CategoryStore and AccountStore, ignoring case.
+ * Rows without a known category get "Lainnya" (or the first category of
+ * their type); rows without a known account get the default account.
+ */
+public final class StatementImporter {
+    // Rows per validation block and per addTransactions call
+    static final int BLOCK_ROWS = 5000;
+    private static final int MAX_BLOCKS_IN_FLIGHT = Math.max(2, Runtime.getRuntime().availableProcessors() * 2);
+    // Blocks handed to the store that the backend has not confirmed yet
+    static final int MAX_BLOCKS_UNCONFIRMED = 2;
+    // Problems kept for the summary; later ones are only counted
+    static final int MAX_PROBLEMS = 200;
+    private static final String FALLBACK_CATEGORY = "Lainnya";
+
+    // Strict, so 31/06/2025 is refused instead of rounded to the 30th
+    private static final DateTimeFormatter[] DATE_FORMATS = Arrays.stream(new String[] {
+            "uuuu-M-d", "d/M/uuuu", "d-M-uuuu", "d.M.uuuu", "uuuu/M/d", "uuuuMMdd" })
+            .map(p -> DateTimeFormatter.ofPattern(p).withResolverStyle(ResolverStyle.STRICT))
+            .toArray(DateTimeFormatter[]::new);
+
+    private StatementImporter() {
+    }
+
+    /**
+     * Statement file formats.
+     */
+    public enum Format {
+        CSV, OFX;
+
+        /**
+         * Guess the format from the file name.
+         *
+         * @param file statement file
+         * @return OFX for .ofx and .qfx files, CSV otherwise
+         */
+        public static Format of(Path file) {
+            String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+            return name.endsWith(".ofx") || name.endsWith(".qfx") ? OFX : CSV;
+        }
+    }
+
+    /**
+     * Import progress, reported on the EDT.
+     *
+     * @param bytesRead  bytes of the file parsed so far
+     * @param totalBytes file size
+     * @param rowsRead   statement rows parsed so far
+     * @param saved      rows the backend has confirmed
+     * @param failed     rows rejected by validation or by the backend
+     */
+    public record Progress(long bytesRead, long totalBytes, int rowsRead, int saved, int failed) {
+    }
+
+    /**
+     * A rejected row.
+     *
+     * @param line    line number in the file, 1-based
+     * @param message why it was rejected
+     */
+    public record Problem(int line, String message) {
+    }
+
+    /**
+     * Outcome of an import.
+     *
+     * @param saved     rows the backend confirmed
+     * @param failed    rows rejected
+     * @param problems  the first MAX_PROBLEMS rejections
+     * @param cancelled whether reading stopped early; rows queued before
+     *                  that are still saved
+     */
+    public record Result(int saved, int failed, List<Problem> problems, boolean cancelled) {
+    }
+
+    /**
+     * Import a statement file in the background.
+     *
+     * @param file           CSV or OFX statement
+     * @param defaultAccount account name for rows without a known account
+     * @param onProgress     progress callback, on the EDT
+     * @return the running import
+     */
+    public static Job importFile(Path file, String defaultAccount, Consumer<Progress> onProgress) {
+        Job job = new Job(Mapping.fromStores(defaultAccount), TransactionStore::addTransactions,
+                progress -> javax.swing.SwingUtilities.invokeLater(() -> onProgress.accept(progress)));
+        // Own thread: the reader waits for the backend, which must not tie
+        // up a worker of the shared pool that the pending queue runs on
+        Thread reader = new Thread(() -> {
+            try (InputStream in = Files.newInputStream(file)) {
+                job.run(in, Files.size(file), Format.of(file));
+            } catch (Exception e) {
+                job.result.completeExceptionally(e);
+            }
+        }, "FinTrack-Import");
+        reader.setDaemon(true);
+        reader.start();
+        return job;
+    }
+
+    /**
+     * One import run.
+     */
+    public static final class Job {
+        private final Mapping mapping;
+        private final BiConsumer<List<TransactionStore.NewTransaction>,
+                Consumer<List<TransactionStore.RowResult>>> sink;
+        private final CompletableFuture<Result> result = new CompletableFuture<>();
+        private final Consumer<Progress> onProgress;
+        private final AtomicInteger saved = new AtomicInteger();
+        private final AtomicInteger failed = new AtomicInteger();
+        // Blocks handed to the sink that have not reported back, plus one
+        // for the reader until it is done
+        private final AtomicInteger outstanding = new AtomicInteger(1);
+        private final List<Problem> problems = new ArrayList<>();
+        private volatile long bytesRead;
+        private volatile long totalBytes;
+        private volatile int rowsRead;
+        private volatile boolean cancelled;
+
+        /**
+         * @param mapping    known categories and accounts
+         * @param sink       receives validated rows and reports per-row
+         *                   results, e.g. TransactionStore::addTransactions
+         * @param onProgress progress callback, called from any thread
+         */
+        Job(Mapping mapping, BiConsumer<List<TransactionStore.NewTransaction>,
+                Consumer<List<TransactionStore.RowResult>>> sink, Consumer<Progress> onProgress) {
+            this.mapping = mapping;
+            this.sink = sink;
+            this.onProgress = onProgress;
+        }
+
+        /**
+         * @return future completed once every row is saved or rejected, or
+         *         failed if the file could not be read
+         */
+        public CompletableFuture<Result> result() {
+            return result;
+        }
+
+        /**
+         * Stop reading after the current row. Rows already handed to the
+         * store are still sent.
+         */
+        public void cancel() {
+            cancelled = true;
+            synchronized (outstanding) {
+                outstanding.notifyAll();
+            }
+        }
+
+        /**
+         * Parse, validate and hand off the whole stream.
+         *
+         * @param in     statement bytes, UTF-8
+         * @param size   total size for progress, or -1 if unknown
+         * @param format statement format
+         * @throws IOException if reading fails or the CSV header is not
+         *                     recognized
+         */
+        void run(InputStream in, long size, Format format) throws IOException {
+            totalBytes = size;
+            InputStream counted = new FilterInputStream(in) {
+                @Override
+                public int read(byte[] b, int off, int len) throws IOException {
+                    int n = super.read(b, off, len);
+                    if (n > 0) {
+                        bytesRead += n;
+                    }
+                    return n;
+                }
+            };
+            BufferedReader reader = new BufferedReader(new InputStreamReader(counted, StandardCharsets.UTF_8),
+                    1 << 16);
+            Deque<CompletableFuture<Block>> inFlight = new ArrayDeque<>();
+            List<RawRow> block = new ArrayList<>(BLOCK_ROWS);
+            Consumer<RawRow> collect = row -> {
+                block.add(row);
+                rowsRead++;
+                if (block.size() == BLOCK_ROWS) {
+                    List<RawRow> full = new ArrayList<>(block);
+                    block.clear();
+                    inFlight.addLast(CompletableFuture.supplyAsync(() -> validate(full), ForkJoinPool.commonPool()));
+                    // Keep the reader at most a few blocks ahead of the store
+                    while (inFlight.size() >= MAX_BLOCKS_IN_FLIGHT) {
+                        submit(inFlight.removeFirst().join());
+                    }
+                }
+            };
+            try {
+                if (format == Format.OFX) {
+                    readOfx(reader, collect, () -> cancelled);
+                } else {
+                    readCsv(reader, collect, () -> cancelled);
+                }
+                if (!block.isEmpty()) {
+                    List<RawRow> rest = new ArrayList<>(block);
+                    inFlight.addLast(CompletableFuture.supplyAsync(() -> validate(rest), ForkJoinPool.commonPool()));
+                }
+                while (!inFlight.isEmpty()) {
+                    submit(inFlight.removeFirst().join());
+                }
+            } catch (IOException | RuntimeException e) {
+                // Rows already handed off are still sent
+                cancelled = true;
+                result.completeExceptionally(e);
+            }
+            settle();
+        }
+
+        private Block validate(List<RawRow> rows) {
+            List<TransactionStore.NewTransaction> valid = new ArrayList<>(rows.size());
+            List<Integer> lines = new ArrayList<>(rows.size());
+            List<Problem> rejected = new ArrayList<>();
+            for (RawRow row : rows) {
+                try {
+                    valid.add(mapping.normalize(row));
+                    lines.add(row.line());
+                } catch (IllegalArgumentException e) {
+                    rejected.add(new Problem(row.line(), e.getMessage()));
+                }
+            }
+            return new Block(valid, lines, rejected);
+        }
+
+        private void submit(Block block) {
+            failed.addAndGet(block.rejected().size());
+            addProblems(block.rejected());
+            if (block.rows().isEmpty()) {
+                report();
+                return;
+            }
+            if (!awaitBackend()) {
+                return; // Cancelled; this block was never handed off
+            }
+            outstanding.incrementAndGet();
+            sink.accept(block.rows(), results -> {
+                List<Problem> rejected = new ArrayList<>();
+                for (int i = 0; i < results.size(); i++) {
+                    TransactionStore.RowResult r = results.get(i);
+                    if (r.ok()) {
+                        saved.incrementAndGet();
+                    } else {
+                        failed.incrementAndGet();
+                        rejected.add(new Problem(block.lines().get(i), r.error()));
+                    }
+                }
+                addProblems(rejected);
+                settle();
+            });
+            report();
+        }
+
+        /**
+         * Wait until fewer than MAX_BLOCKS_UNCONFIRMED blocks handed to the
+         * sink are waiting for their results.
+         *
+         * @return false if the import was cancelled meanwhile
+         */
+        private boolean awaitBackend() {
+            synchronized (outstanding) {
+                // One of outstanding stands for the reader itself
+                while (!cancelled && outstanding.get() - 1 >= MAX_BLOCKS_UNCONFIRMED) {
+                    try {
+                        outstanding.wait();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        cancelled = true;
+                    }
+                }
+            }
+            return !cancelled;
+        }
+
+        private void addProblems(List<Problem> more) {
+            synchronized (problems) {
+                for (Problem p : more) {
+                    if (problems.size() == MAX_PROBLEMS) {
+                        break;
+                    }
+                    problems.add(p);
+                }
+            }
+        }
+
+        private void settle() {
+            report();
+            int left;
+            synchronized (outstanding) {
+                left = outstanding.decrementAndGet();
+                outstanding.notifyAll();
+            }
+            if (left == 0) {
+                List<Problem> kept;
+                synchronized (problems) {
+                    kept = List.copyOf(problems);
+                }
+                result.complete(new Result(saved.get(), failed.get(), kept, cancelled));
+            }
+        }
+
+        private void report() {
+            onProgress.accept(new Progress(bytesRead, totalBytes, rowsRead, saved.get(), failed.get()));
+        }
+    }
+
+    /**
+     * Validated rows of one block, with the file line of each.
+     */
+    private record Block(List<TransactionStore.NewTransaction> rows, List<Integer> lines, List<Problem> rejected) {
+    }
+
+    /**
+     * One statement row as found in the file, before validation.
+     *
+     * @param line        line number, 1-based
+     * @param date        date as written
+     * @param description description or memo
+     * @param amount      signed amount, or null if split into debit/credit
+     * @param debit       money out, or null
+     * @param credit      money in, or null
+     * @param type        explicit type (Pemasukan, Pengeluaran, DB, CR), or null
+     * @param category    category name, or null
+     * @param account     account name, or null
+     */
+    record RawRow(int line, String date, String description, String amount, String debit, String credit,
+            String type, String category, String account) {
+    }
+
+    /**
+     * Categories and accounts rows are mapped onto, read once from the
+     * store snapshots so validation threads never touch the stores.
+     */
+    static final class Mapping {
+        private final Map<String, String> expenses = new HashMap<>();
+        private final Map<String, String> incomes = new HashMap<>();
+        private final String expenseFallback;
+        private final String incomeFallback;
+        private final Map<String, AccountStore.Account> accounts = new HashMap<>();
+        private final AccountStore.Account defaultAccount;
+
+        /**
+         * @param expenseNames   expense category names
+         * @param incomeNames    income category names
+         * @param accountList    accounts
+         * @param defaultAccount account name for rows without a known one,
+         *                       or null to reject those rows
+         */
+        Mapping(List<String> expenseNames, List<String> incomeNames, List<AccountStore.Account> accountList,
+                String defaultAccount) {
+            for (String name : expenseNames) {
+                expenses.putIfAbsent(key(name), name);
+            }
+            for (String name : incomeNames) {
+                incomes.putIfAbsent(key(name), name);
+            }
+            expenseFallback = fallback(expenses, expenseNames);
+            incomeFallback = fallback(incomes, incomeNames);
+            for (AccountStore.Account account : accountList) {
+                accounts.putIfAbsent(key(account.name()), account);
+            }
+            this.defaultAccount = defaultAccount != null ? accounts.get(key(defaultAccount)) : null;
+        }
+
+        static Mapping fromStores(String defaultAccount) {
+            CategoryStore.Snapshot categories = CategoryStore.snapshot();
+            return new Mapping(categories.expenses(), categories.incomes(), AccountStore.snapshot().accounts(),
+                    defaultAccount);
+        }
+
+        private static String fallback(Map<String, String> byKey, List<String> names) {
+            String named = byKey.get(key(FALLBACK_CATEGORY));
+            return named != null ? named : names.isEmpty() ? null : names.get(0);
+        }
+
+        private static String key(String name) {
+            return name.trim().toLowerCase(Locale.ROOT);
+        }
+
+        /**
+         * Turn a raw row into a transaction.
+         *
+         * @param row parsed row
+         * @return the transaction to add
+         * @throws IllegalArgumentException with the reason if the row is
+         *                                  not usable
+         */
+        TransactionStore.NewTransaction normalize(RawRow row) {
+            LocalDate date = parseDate(row.date());
+            long amount;
+            if (row.amount() != null && !row.amount().isBlank()) {
+                amount = parseAmount(row.amount());
+            } else {
+                long debit = blank(row.debit()) ? 0 : Math.abs(parseAmount(row.debit()));
+                long credit = blank(row.credit()) ? 0 : Math.abs(parseAmount(row.credit()));
+                amount = credit - debit;
+            }
+            boolean income = amount > 0;
+            String type = row.type() == null ? "" : row.type().trim().toLowerCase(Locale.ROOT);
+            switch (type) {
+                case "pemasukan", "income", "cr", "kredit", "credit", "k" -> income = true;
+                case "pengeluaran", "expense", "db", "debit", "debet", "d" -> income = false;
+                case "" -> {
+                }
+                default -> throw new IllegalArgumentException("Unknown type: " + row.type());
+            }
+            if (amount == 0) {
+                throw new IllegalArgumentException("Amount is zero or missing");
+            }
+
+            Map<String, String> categories = income ? incomes : expenses;
+            String category = blank(row.category()) ? null : categories.get(key(row.category()));
+            if (category == null) {
+                category = income ? incomeFallback : expenseFallback;
+                if (category == null) {
+                    throw new IllegalArgumentException("No " + (income ? "income" : "expense") + " category");
+                }
+            }
+            AccountStore.Account account = blank(row.account()) ? null : accounts.get(key(row.account()));
+            if (account == null) {
+                account = defaultAccount;
+                if (account == null) {
+                    throw new IllegalArgumentException("Unknown account: "
+                            + (blank(row.account()) ? "(none)" : row.account()));
+                }
+            }
+            // The backend protocol cannot carry separators or line breaks
+            String description = row.description() == null ? ""
+                    : row.description().replaceAll("\\s*[|\\r\\n]+\\s*", " ").trim();
+            return new TransactionStore.NewTransaction(date.toString(),
+                    income ? TransactionStore.TYPE_INCOME : TransactionStore.TYPE_EXPENSE, category,
+                    account.name(), account.type(), Math.abs(amount), description);
+        }
+    }
+
+    /**
+     * Parse a statement date in one of the common layouts: ISO, day first
+     * with slashes, dashes or dots, or OFX (yyyyMMdd with an optional time
+     * and zone suffix).
+     *
+     * @param text date as written
+     * @return the date
+     * @throws IllegalArgumentException if no layout matches
+     */
+    static LocalDate parseDate(String text) {
+        if (blank(text)) {
+            throw new IllegalArgumentException("Missing date");
+        }
+        String value = text.trim();
+        if (value.length() > 8 && value.chars().limit(8).allMatch(Character::isDigit)) {
+            value = value.substring(0, 8); // OFX: 20250131120000[+7:WIB]
+        } else {
+            int space = value.indexOf(' ');
+            if (space > 0) {
+                value = value.substring(0, space); // Drop a time of day
+            }
+        }
+        for (DateTimeFormatter format : DATE_FORMATS) {
+            try {
+                return LocalDate.parse(value, format);
+            } catch (Exception e) {
+                // Try the next layout
+            }
+        }
+        throw new IllegalArgumentException("Invalid date: " + text);
+    }
+
+    /**
+     * Parse a statement amount into whole rupiah, rounding half up.
+     * Accepts a currency prefix, Indonesian (1.234.567,89) and English
+     * (1,234,567.89) grouping, a leading minus or parentheses for negative
+     * amounts, and a trailing DB (negative) or CR marker.
+     *
+     * @param text amount as written
+     * @return signed amount
+     * @throws IllegalArgumentException if it is not a number
+     */
+    static long parseAmount(String text) {
+        if (blank(text)) {
+            throw new IllegalArgumentException("Missing amount");
+        }
+        String value = text.trim().toUpperCase(Locale.ROOT);
+        boolean negative = false;
+        if (value.endsWith("DB")) {
+            negative = true;
+            value = value.substring(0, value.length() - 2).trim();
+        } else if (value.endsWith("CR")) {
+            value = value.substring(0, value.length() - 2).trim();
+        }
+        if (value.startsWith("(") && value.endsWith(")")) {
+            negative = !negative;
+            value = value.substring(1, value.length() - 1).trim();
+        }
+        if (value.startsWith("-")) {
+            negative = !negative;
+            value = value.substring(1).trim();
+        } else if (value.startsWith("+")) {
+            value = value.substring(1).trim();
+        }
+        if (value.endsWith(",-") || value.endsWith(".-")) {
+            value = value.substring(0, value.length() - 2); // Rp 5.000,-
+        }
+        if (value.startsWith("RP")) {
+            value = value.substring(2).trim();
+        } else if (value.startsWith("IDR")) {
+            value = value.substring(3).trim();
+        }
+        if (value.startsWith("-")) {
+            negative = !negative; // Rp -5.000
+            value = value.substring(1).trim();
+        }
+        value = value.replace(" ", "");
+
+        int lastDot = value.lastIndexOf('.');
+        int lastComma = value.lastIndexOf(',');
+        String digits;
+        if (lastDot >= 0 && lastComma >= 0) {
+            // Both used: the later one separates the decimals
+            char decimal = lastDot > lastComma ? '.' : ',';
+            char grouping = decimal == '.' ? ',' : '.';
+            digits = value.replace(String.valueOf(grouping), "").replace(decimal, '.');
+        } else if (lastDot >= 0 || lastComma >= 0) {
+            char separator = lastDot >= 0 ? '.' : ',';
+            int last = Math.max(lastDot, lastComma);
+            boolean once = value.indexOf(separator) == last;
+            // One separator with one or two digits after it is a decimal
+            // point; anything else (5.000, 1.250.000) is grouping
+            if (once && value.length() - last - 1 <= 2) {
+                digits = value.replace(separator, '.');
+            } else {
+                digits = value.replace(String.valueOf(separator), "");
+            }
+        } else {
+            digits = value;
+        }
+        if (digits.isEmpty() || !digits.chars().allMatch(c -> Character.isDigit(c) || c == '.')) {
+            throw new IllegalArgumentException("Invalid amount: " + text);
+        }
+        try {
+            long amount = new BigDecimal(digits).setScale(0, RoundingMode.HALF_UP).longValueExact();
+            return negative ? -amount : amount;
+        } catch (ArithmeticException | NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid amount: " + text);
+        }
+    }
+
+    private static boolean blank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    /**
+     * Read CSV rows. The first line must be a header naming at least a date
+     * column and either an amount column or debit/credit columns, in
+     * Indonesian or English. Separator is comma, semicolon or tab, whichever
+     * the header uses; fields may be quoted and quoted fields may span lines.
+     *
+     * @param reader    statement text
+     * @param onRow     receives each data row
+     * @param cancelled checked before each row
+     * @throws IOException if reading fails or the header is not recognized
+     */
+    static void readCsv(BufferedReader reader, Consumer<RawRow> onRow, java.util.function.BooleanSupplier cancelled)
+            throws IOException {
+        String header = reader.readLine();
+        if (header == null) {
+            return;
+        }
+        if (header.startsWith("\uFEFF")) {
+            header = header.substring(1);
+        }
+        char separator = header.indexOf(';') >= 0 ? ';' : header.indexOf('\t') >= 0 ? '\t' : ',';
+        List<String> names = splitCsv(header, separator);
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < names.size(); i++) {
+            String column = columnFor(names.get(i));
+            if (column != null) {
+                columns.putIfAbsent(column, i);
+            }
+        }
+        if (!columns.containsKey("date")
+                || !(columns.containsKey("amount") || columns.containsKey("debit") || columns.containsKey("credit"))) {
+            throw new IOException("Unrecognized CSV header: " + header);
+        }
+
+        int lineNumber = 1;
+        String line;
+        while ((line = reader.readLine()) != null && !cancelled.getAsBoolean()) {
+            lineNumber++;
+            int start = lineNumber;
+            // A quoted field left open continues on the next line
+            while (openQuotes(line)) {
+                String next = reader.readLine();
+                if (next == null) {
+                    break;
+                }
+                line += "\n" + next;
+                lineNumber++;
+            }
+            if (line.isBlank()) {
+                continue;
+            }
+            List<String> f = splitCsv(line, separator);
+            onRow.accept(new RawRow(start, field(f, columns, "date"), field(f, columns, "description"),
+                    field(f, columns, "amount"), field(f, columns, "debit"), field(f, columns, "credit"),
+                    field(f, columns, "type"), field(f, columns, "category"), field(f, columns, "account")));
+        }
+    }
+
+    private static String columnFor(String header) {
+        String name = header.toLowerCase(Locale.ROOT).replaceAll("[^a-z]", "");
+        return switch (name) {
+            case "tanggal", "tgl", "date", "tanggaltransaksi", "transactiondate", "posted", "postingdate" -> "date";
+            case "keterangan", "deskripsi", "description", "uraian", "memo", "narasi", "details" -> "description";
+            case "jumlah", "amount", "nominal", "mutasi", "nilai" -> "amount";
+            case "debit", "debet", "keluar", "withdrawal" -> "debit";
+            case "kredit", "credit", "masuk", "deposit" -> "credit";
+            case "tipe", "jenis", "type", "dbcr" -> "type";
+            case "kategori", "category" -> "category";
+            case "akun", "account", "rekening" -> "account";
+            default -> null;
+        };
+    }
+
+    private static String field(List<String> fields, Map<String, Integer> columns, String column) {
+        Integer index = columns.get(column);
+        return index != null && index < fields.size() ? fields.get(index) : null;
+    }
+
+    private static boolean openQuotes(String line) {
+        boolean open = false;
+        for (int i = 0; i < line.length(); i++) {
+            if (line.charAt(i) == '"') {
+                open = !open;
+            }
+        }
+        return open;
+    }
+
+    /**
+     * Split one CSV record; doubled quotes inside a quoted field stand for
+     * one quote.
+     */
+    static List<String> splitCsv(String line, char separator) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"') {
+                    if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        current.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == separator) {
+                fields.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        fields.add(current.toString());
+        return fields;
+    }
+
+    /**
+     * Read OFX transactions, both SGML (OFX 1.x, unclosed tags) and XML
+     * (OFX 2.x). Each STMTTRN element becomes one row with its DTPOSTED,
+     * TRNAMT, and NAME and MEMO joined as description.
+     *
+     * @param reader    statement text
+     * @param onRow     receives each transaction
+     * @param cancelled checked before each transaction
+     * @throws IOException if reading fails
+     */
+    static void readOfx(BufferedReader reader, Consumer<RawRow> onRow, java.util.function.BooleanSupplier cancelled)
+            throws IOException {
+        Map<String, String> fields = null;
+        int start = 0;
+        int lineNumber = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            // A line may hold several tags; split before each '<'
+            int at = line.indexOf('<');
+            while (at >= 0) {
+                int close = line.indexOf('>', at);
+                if (close < 0) {
+                    break;
+                }
+                int next = line.indexOf('<', close);
+                String tag = line.substring(at + 1, close).trim().toUpperCase(Locale.ROOT);
+                String value = line.substring(close + 1, next < 0 ? line.length() : next).trim();
+                at = next;
+                if (tag.equals("STMTTRN")) {
+                    fields = new HashMap<>();
+                    start = lineNumber;
+                } else if (tag.equals("/STMTTRN") && fields != null) {
+                    if (cancelled.getAsBoolean()) {
+                        return;
+                    }
+                    String name = fields.get("NAME");
+                    String memo = fields.get("MEMO");
+                    String description = name == null ? memo
+                            : memo == null || memo.equals(name) ? name : name + " - " + memo;
+                    onRow.accept(new RawRow(start, fields.get("DTPOSTED"), description, fields.get("TRNAMT"),
+                            null, null, null, null, null));
+                    fields = null;
+                } else if (fields != null && !tag.startsWith("/") && !value.isEmpty()) {
+                    fields.put(tag, unescapeOfx(value));
+                }
+            }
+        }
+    }
+
+    private static String unescapeOfx(String value) {
+        return value.replace("&lt;", "<").replace("&gt;", ">").replace("&amp;", "&");
+    }
+}
@@ -0,0 +1,175 @@
+package utils;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * StoreNotifier collects the changes a store makes and delivers them to
+ * listeners on the EDT.
+ * Changes recorded before the EDT gets to run are merged into one change
+ * set, so a burst of background mutations causes one UI update, not one
+ * per mutation.
+ * The recording methods must be called while holding the store's lock; the
+ * same lock is taken when a batch is delivered so the snapshot and the change
+ * set always agree.
+ */
+public final class StoreNotifier<S, T> {
+    private final Object lock;
+    private final Supplier<S> snapshots;
+    private final Function<T, String> idOf;
+    private final List<ChangeListener<S, T>> listeners = new CopyOnWriteArrayList<>();
+
+    // Pending changes by item ID, guarded by lock
+    private final Map<String, Change<T>> pending = new LinkedHashMap<>();
+    private boolean pendingReset;
+    private boolean scheduled;
+
+    /**
+     * @param lock      the store's lock
+     * @param snapshots builds the store snapshot; called with lock held
+     * @param idOf      identifies items across changes
+     */
+    public StoreNotifier(Object lock, Supplier<S> snapshots, Function<T, String> idOf) {
+        this.lock = lock;
+        this.snapshots = snapshots;
+        this.idOf = idOf;
+    }
+
+    /**
+     * Register a snapshot-only listener. It is called once right away with
+     * the current snapshot, then on the EDT after every batch of changes.
+     *
+     * @param listener snapshot consumer
+     */
+    public void addListener(Consumer<S> listener) {
+        addChangeListener((snapshot, changes) -> listener.accept(snapshot));
+    }
+
+    /**
+     * Register a change listener. It is called once right away with the
+     * current snapshot and a reset change set, then on the EDT after every
+     * batch of changes.
+     *
+     * @param listener change listener
+     */
+    public void addChangeListener(ChangeListener<S, T> listener) {
+        S snapshot;
+        synchronized (lock) {
+            listeners.add(listener);
+            snapshot = snapshots.get();
+        }
+        listener.onChange(snapshot, ChangeSet.resetAll());
+    }
+
+    public void added(T item) {
+        if (pendingReset) {
+            return;
+        }
+        String id = idOf.apply(item);
+        Change<T> prior = pending.get(id);
+        Kind kind = prior != null && prior.kind() == Kind.REMOVED ? Kind.UPDATED
+                : prior != null ? prior.kind() : Kind.ADDED;
+        pending.put(id, new Change<>(kind, item));
+    }
+
+    public void updated(T item) {
+        if (pendingReset) {
+            return;
+        }
+        String id = idOf.apply(item);
+        Change<T> prior = pending.get(id);
+        pending.put(id, new Change<>(prior != null && prior.kind() == Kind.ADDED ? Kind.ADDED : Kind.UPDATED, item));
+    }
+
+    public void removed(T item) {
+        if (pendingReset) {
+            return;
+        }
+        String id = idOf.apply(item);
+        Change<T> prior = pending.get(id);
+        if (prior != null && prior.kind() == Kind.ADDED) {
+            pending.remove(id); // Never seen by listeners
+        } else {
+            pending.put(id, new Change<>(Kind.REMOVED, item));
+        }
+    }
+
+    /**
+     * Record that the store was replaced wholesale.
+     */
+    public void reset() {
+        pending.clear();
+        pendingReset = true;
+    }
+
+    /**
+     * Schedule delivery of the recorded changes on the EDT. Does nothing if
+     * nothing changed or a delivery is already scheduled.
+     */
+    public void publish() {
+        if (scheduled || (!pendingReset && pending.isEmpty())) {
+            return;
+        }
+        scheduled = true;
+        javax.swing.SwingUtilities.invokeLater(this::deliver);
+    }
+
+    private void deliver() {
+        S snapshot;
+        ChangeSet<T> changes;
+        synchronized (lock) {
+            scheduled = false;
+            snapshot = snapshots.get();
+            if (pendingReset) {
+                changes = ChangeSet.resetAll();
+            } else {
+                List<T> added = new ArrayList<>();
+                List<T> updated = new ArrayList<>();
+                List<T> removed = new ArrayList<>();
+                for (Change<T> change : pending.values()) {
+                    switch (change.kind()) {
+                        case ADDED -> added.add(change.item());
+                        case UPDATED -> updated.add(change.item());
+                        case REMOVED -> removed.add(change.item());
+                    }
+                }
+                changes = new ChangeSet<>(List.copyOf(added), List.copyOf(updated), List.copyOf(removed), false);
+            }
+            pending.clear();
+            pendingReset = false;
+        }
+        if (changes.isEmpty()) {
+            return;
+        }
+        for (ChangeListener<S, T> listener : listeners) {
+            try {
+                listener.onChange(snapshot, changes);
+            } catch (Exception e) {
+                // One broken listener must not starve the others
+                System.err.println("Store listener error: " + e.getMessage());
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Receives a snapshot together with the changes that led to it.
+     */
+    @FunctionalInterface
+    public interface ChangeListener<S, T> {
+        void onChange(S snapshot, ChangeSet<T> changes);
+    }
+
+    private enum Kind {
+        ADDED, UPDATED, REMOVED
+    }
+
+    private record Change<T>(Kind kind, T item) {
+    }
+}
@@ -0,0 +1,80 @@
+package utils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Simple test class to verify the binary cache format: round trip, owner
+ * check, and rejection of corrupt or foreign files.
+ */
+public class TestCacheFile {
+
+    public static void main(String[] args) throws IOException {
+        System.out.println("=== CacheFile Basic Tests ===\n");
+
+        Path file = Files.createTempFile("fintrack", ".cache");
+        try {
+            testRoundTrip(file);
+            testRejects(file);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+
+        System.out.println("\n=== All basic tests passed ===");
+    }
+
+    private static CacheFile.Image sample() {
+        return new CacheFile.Image("user", 1234L, 42L,
+                List.of(new AccountStore.Account("a1", "BCA", "123", -5_000, AccountStore.TYPE_BANK)),
+                List.of("Makan", "Transportasi"), List.of("Gaji"),
+                List.of(new TransactionStore.Transaction("t2", LocalDate.parse("2025-05-02"),
+                                TransactionStore.TYPE_INCOME, "Gaji", "BCA", AccountStore.TYPE_BANK,
+                                Long.MAX_VALUE / 2, "Gaji | Mei é\n"),
+                        new TransactionStore.Transaction("t1", LocalDate.parse("1999-12-31"),
+                                TransactionStore.TYPE_EXPENSE, "Makan", "BCA", AccountStore.TYPE_BANK,
+                                25_000, null)));
+    }
+
+    private static void testRoundTrip(Path file) throws IOException {
+        CacheFile.Image image = sample();
+        CacheFile.write(file, image);
+        CacheFile.Image read = CacheFile.read(file, "user");
+
+        assert read != null : "Owner's file should load";
+        assert read.equals(image) : "Round trip failed";
+        assert CacheFile.read(file, "other") == null : "Another user's file must not load";
+
+        System.out.println("✓ round trip tests passed");
+    }
+
+    private static void testRejects(Path file) throws IOException {
+        CacheFile.write(file, sample());
+        byte[] good = Files.readAllBytes(file);
+
+        byte[] corrupt = good.clone();
+        corrupt[corrupt.length / 2] ^= 1;
+        assertRejected(file, corrupt, "Flipped bit");
+
+        byte[] otherVersion = good.clone();
+        otherVersion[5] = 1;
+        assertRejected(file, otherVersion, "Old format version");
+
+        assertRejected(file, java.util.Arrays.copyOf(good, good.length - 3), "Truncated file");
+        assertRejected(file, "FINTRACK_CACHE|1|user|0\n".getBytes(), "Text cache");
+
+        System.out.println("✓ reject tests passed");
+    }
+
+    private static void assertRejected(Path file, byte[] content, String what) throws IOException {
+        Files.write(file, content);
+        try {
+            CacheFile.read(file, "user");
+            assert false : what + " should be rejected";
+        } catch (IOException expected) {
+            // Rejected as it should be
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package utils;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Simple test class to verify ChartScale axes, labels and downsampling
+ * with amounts far beyond the int range.
+ */
+public class TestChartScale {
+
+    public static void main(String[] args) {
+        System.out.println("=== ChartScale Basic Tests ===\n");
+
+        testAxis();
+        testLabels();
+        testDownsample();
+        testLargeMonths();
+
+        System.out.println("\n=== All basic tests passed ===");
+    }
+
+    private static void testAxis() {
+        assert ChartScale.axis(0, 5).equals(new ChartScale.Axis(5, 1)) : "Empty data";
+        assert ChartScale.axis(-10, 5).equals(new ChartScale.Axis(5, 1)) : "Negative counts as empty";
+        assert ChartScale.axis(9_500_000, 5).equals(new ChartScale.Axis(10_000_000, 2_000_000)) : "Round step";
+        assert ChartScale.axis(10_000_000, 5).equals(new ChartScale.Axis(10_000_000, 2_000_000)) : "Exact top";
+        assert ChartScale.axis(12, 5).equals(new ChartScale.Axis(15, 5)) : "Step of five";
+        assert ChartScale.axis(1, 5).equals(new ChartScale.Axis(1, 1)) : "Tiny value";
+
+        // A month of Rp 3,7 M, beyond Integer.MAX_VALUE
+        ChartScale.Axis axis = ChartScale.axis(3_700_000_000L, 5);
+        assert axis.equals(new ChartScale.Axis(4_000_000_000L, 1_000_000_000L)) : "Billions: " + axis;
+        assert axis.ticks() == 4 : "Ticks";
+        assert axis.fraction(2_000_000_000L) == 0.5 : "Fraction above int range";
+
+        for (long max : new long[] { 7, 999, 123_456_789, 98_765_432_123L, Long.MAX_VALUE / 3, Long.MAX_VALUE }) {
+            for (int ticks = 1; ticks <= 10; ticks++) {
+                ChartScale.Axis a = ChartScale.axis(max, ticks);
+                assert a.max() >= max : "Axis must cover " + max;
+                assert a.max() == Long.MAX_VALUE || a.max() % a.step() == 0 : "Top on a step for " + max;
+                assert a.ticks() >= 1 && a.ticks() <= ticks : "Tick count " + a + " for " + max + "/" + ticks;
+                String digits = Long.toString(a.step());
+                assert a.step() == Long.MAX_VALUE || digits.matches("[125]0*") : "Round step " + a.step();
+            }
+        }
+        assert ChartScale.fraction(Long.MAX_VALUE, Long.MAX_VALUE) == 1 : "No overflow at the top";
+        assert ChartScale.fraction(-5, 100) == 0 && ChartScale.fraction(500, 100) == 1 : "Clamped";
+
+        System.out.println("✓ axis tests passed");
+    }
+
+    private static void testLabels() {
+        assert ChartScale.label(0).equals("0") && ChartScale.label(999).equals("999") : "Small";
+        assert ChartScale.label(1_500).equals("1,5 rb") : "Ribu";
+        assert ChartScale.label(2_000_000).equals("2 jt") : "Juta";
+        assert ChartScale.label(3_750_000_000L).equals("3,7 M") : "Miliar";
+        assert ChartScale.label(250_000_000_000L).equals("250 M") : "No decimal past 100";
+        assert ChartScale.label(12_300_000_000_000L).equals("12,3 T") : "Triliun";
+        assert ChartScale.label(-2_500_000_000L).equals("-2,5 M") : "Negative";
+        assert ChartScale.label(Long.MIN_VALUE).startsWith("-") : "Minimum value";
+
+        System.out.println("✓ label tests passed");
+    }
+
+    private static void testDownsample() {
+        assert ChartScale.bucketSize(6, 10) == 1 : "Fits";
+        assert ChartScale.bucketSize(120, 24) == 5 : "Ten years into 24 points";
+        assert ChartScale.bucketSize(25, 24) == 2 : "Round up";
+        assert ChartScale.bucketSize(5, 0) == 5 : "No room";
+
+        long[] values = { 3_000_000_000L, 3_000_000_000L, 3_000_000_000L, 1, 2 };
+        assert Arrays.equals(ChartScale.downsample(values, 2), new long[] { 6_000_000_000L, 3_000_000_001L, 2 })
+                : "Sums past the int range";
+        assert ChartScale.downsample(values, 1) == values : "Bucket of one is a no-op";
+        assert Arrays.equals(ChartScale.downsample(new long[] { Long.MAX_VALUE, 1 }, 2), new long[] { Long.MAX_VALUE })
+                : "Saturates";
+        assert Arrays.equals(ChartScale.downsampleLabels(new String[] { "a", "b", "c", "d", "e" }, 2),
+                new String[] { "a", "c", "e" }) : "First label per bucket";
+
+        System.out.println("✓ downsample tests passed");
+    }
+
+    private static void testLargeMonths() {
+        // Ten years of a business account: Rp 5 M income every month
+        List<TransactionStore.Transaction> rows = new ArrayList<>();
+        YearMonth last = YearMonth.of(2025, 6);
+        for (int i = 0; i < 120; i++) {
+            LocalDate day = last.minusMonths(i).atDay(1);
+            rows.add(new TransactionStore.Transaction("in" + i, day, TransactionStore.TYPE_INCOME, "Penjualan",
+                    "BCA", AccountStore.TYPE_BANK, 5_000_000_000L, ""));
+            rows.add(new TransactionStore.Transaction("out" + i, day, TransactionStore.TYPE_EXPENSE, "Gaji",
+                    "BCA", AccountStore.TYPE_BANK, 2_500_000_000L, ""));
+        }
+        ReportAggregator.Report report = ReportAggregator.aggregate(rows, last.minusMonths(119), last);
+        assert report.series().size() == 120 : "Series over the whole range";
+        assert report.income() == 600_000_000_000L : "Total income";
+        long[] incomes = report.series().stream().mapToLong(ReportAggregator.MonthTotals::income).toArray();
+        assert Arrays.stream(incomes).allMatch(v -> v == 5_000_000_000L) : "No month is truncated";
+
+        int bucket = ChartScale.bucketSize(incomes.length, 24);
+        long[] merged = ChartScale.downsample(incomes, bucket);
+        assert merged.length == 24 && merged[0] == 25_000_000_000L : "Merged into 24 points of five months";
+        assert Arrays.stream(merged).sum() == report.income() : "Merging keeps the total";
+        ChartScale.Axis axis = ChartScale.axis(merged[0], 5);
+        assert axis.max() == 25_000_000_000L && axis.fraction(merged[23]) == 1 : "Axis at Rp 25 M: " + axis;
+
+        System.out.println("✓ large month tests passed");
+    }
+}
@@ -0,0 +1,76 @@
+package utils;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.HashMap;
+import javax.swing.SwingUtilities;
+
+/**
+ * Simple test class to verify DATA_CHANGED event parsing and the direct
+ * store updates it drives. Needs no backend.
+ */
+public class TestDataEventDispatcher {
+
+    public static void main(String[] args) throws Exception {
+        System.out.println("=== DataEventDispatcher Basic Tests ===\n");
+
+        testParse();
+        testTransactionApply();
+
+        System.out.println("\n=== All basic tests passed ===");
+    }
+
+    private static void testParse() throws IOException {
+        DataEventDispatcher.DataChange untyped = DataEventDispatcher.parse("EVENT|DATA_CHANGED");
+        assert untyped.entity() == null : "Untyped event failed";
+
+        DataEventDispatcher.DataChange del = DataEventDispatcher.parse("EVENT|DATA_CHANGED|TXN|42|DELETE");
+        assert del.entity().equals("TXN") : "Entity failed";
+        assert del.id().equals("42") : "Id failed";
+        assert del.op().equals("DELETE") : "Op failed";
+        assert del.payload().isEmpty() : "Empty payload failed";
+
+        DataEventDispatcher.DataChange cat = DataEventDispatcher.parse(
+                "EVENT|DATA_CHANGED|CATEGORY|Makan|ADD|Pengeluaran");
+        assert cat.id().equals("Makan") : "Category name failed";
+        assert cat.payload().equals("Pengeluaran") : "Category type failed";
+
+        System.out.println("✓ parse tests passed");
+    }
+
+    private static void testTransactionApply() throws Exception {
+        DataEventDispatcher.DataChange add = DataEventDispatcher.parse(
+                "EVENT|DATA_CHANGED|TXN|t1|ADD|u|2025-03-01|Makan siang|Makan|Pengeluaran|25000|BCA|Bank");
+        TransactionStore.Transaction tx = TransactionStore.readTransaction(add.id(),
+                new ResponseReader(new StringReader(add.payload()), 16), new HashMap<>());
+        assert tx != null : "Payload parse failed";
+        assert tx.amount() == 25000 : "Amount failed";
+        assert tx.accountName().equals("BCA") : "Account failed";
+
+        int[] notifications = {0};
+        TransactionStore.addListener(snap -> notifications[0]++);
+        int before = notifications[0];
+
+        TransactionStore.applyRemoteUpsert(tx);
+        flushEdt();
+        assert notifications[0] == before + 1 : "Upsert notify failed";
+        TransactionStore.applyRemoteUpsert(tx);
+        flushEdt();
+        assert notifications[0] == before + 1 : "Identical echo should not notify";
+        assert TransactionStore.snapshot().transactions().size() == 1 : "Upsert size failed";
+
+        TransactionStore.applyRemoteDelete("t1");
+        assert TransactionStore.snapshot().transactions().isEmpty() : "Delete failed";
+        TransactionStore.applyRemoteDelete("t1");
+        flushEdt();
+        assert notifications[0] == before + 2 : "Missing delete should not notify";
+
+        System.out.println("✓ transaction apply tests passed");
+    }
+
+    // Listeners are notified on the EDT; wait until pending deliveries ran
+    private static void flushEdt() throws Exception {
+        SwingUtilities.invokeAndWait(() -> {
+        });
+    }
+}
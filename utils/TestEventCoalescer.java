@@ -0,0 +1,68 @@
+package utils;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Simple test class to verify EventCoalescer burst merging.
+ * Timing based, so the bounds are deliberately loose.
+ */
+public class TestEventCoalescer {
+
+    public static void main(String[] args) throws InterruptedException {
+        System.out.println("=== EventCoalescer Basic Tests ===\n");
+
+        testBurst();
+        testMaxLatency();
+        testCancel();
+
+        System.out.println("\n=== All basic tests passed ===");
+    }
+
+    private static void testBurst() throws InterruptedException {
+        EventCoalescer coalescer = new EventCoalescer("TestCoalescer", 100, 2000);
+        AtomicInteger reloads = new AtomicInteger();
+        AtomicInteger other = new AtomicInteger();
+
+        for (int i = 0; i < 200; i++) {
+            coalescer.submit("txn", reloads::incrementAndGet);
+        }
+        coalescer.submit("acct", other::incrementAndGet);
+        Thread.sleep(400);
+
+        assert reloads.get() == 1 : "Burst should flush once, got " + reloads.get();
+        assert other.get() == 1 : "Separate key should flush on its own";
+        EventCoalescer.Counts counts = coalescer.counters().get("txn");
+        assert counts.events() == 200 : "Event counter failed";
+        assert counts.flushes() == 1 : "Flush counter failed";
+
+        System.out.println("✓ burst tests passed");
+    }
+
+    private static void testMaxLatency() throws InterruptedException {
+        EventCoalescer coalescer = new EventCoalescer("TestCoalescer", 100, 250);
+        AtomicInteger flushes = new AtomicInteger();
+
+        // Never quiet for 100ms, so only the latency cap can flush
+        long end = System.currentTimeMillis() + 800;
+        while (System.currentTimeMillis() < end) {
+            coalescer.submit("txn", flushes::incrementAndGet);
+            Thread.sleep(20);
+        }
+        assert flushes.get() >= 2 : "Latency cap should force flushes, got " + flushes.get();
+        assert flushes.get() <= 5 : "Too many flushes: " + flushes.get();
+
+        System.out.println("✓ max latency tests passed");
+    }
+
+    private static void testCancel() throws InterruptedException {
+        EventCoalescer coalescer = new EventCoalescer("TestCoalescer", 50, 100);
+        AtomicInteger flushes = new AtomicInteger();
+
+        coalescer.submit("txn", flushes::incrementAndGet);
+        coalescer.cancelAll();
+        Thread.sleep(200);
+        assert flushes.get() == 0 : "Cancelled action should not run";
+
+        System.out.println("✓ cancel tests passed");
+    }
+}
@@ -0,0 +1,65 @@
+package utils;
+
+import java.io.File;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Simple test class to verify that LocalCache restores exactly what it saved.
+ * Uses the server-push entry points so no backend is needed. Overwrites any
+ * cache file in the working directory.
+ */
+public class TestLocalCache {
+
+    public static void main(String[] args) {
+        System.out.println("=== LocalCache Basic Tests ===\n");
+
+        testRoundTrip();
+        testOwnerAndClear();
+
+        System.out.println("\n=== All basic tests passed ===");
+    }
+
+    private static void testRoundTrip() {
+        SessionManager.getInstance().setSession("cache-token", "cacheuser");
+        AccountStore.applyRemoteUpsert(new AccountStore.Account("a1", "BCA", "123", 500_000, AccountStore.TYPE_BANK));
+        CategoryStore.applyRemoteAdd(CategoryStore.EXPENSE, "Makan");
+        CategoryStore.applyRemoteAdd(CategoryStore.INCOME, "Gaji");
+        TransactionStore.applyRemoteChanges(List.of(
+                new TransactionStore.Transaction("t1", LocalDate.parse("2025-05-01"), TransactionStore.TYPE_EXPENSE,
+                        "Makan", "BCA", AccountStore.TYPE_BANK, 25_000, "Nasi | padang"),
+                new TransactionStore.Transaction("t2", LocalDate.parse("2025-05-02"), TransactionStore.TYPE_INCOME,
+                        "Gaji", "BCA", AccountStore.TYPE_BANK, 9_000_000, "")), Set.of());
+
+        LocalCache.enable();
+        LocalCache.save();
+        List<TransactionStore.Transaction> saved = TransactionStore.snapshot().transactions();
+
+        // Local edits after the save must be undone by a restore
+        TransactionStore.applyRemoteDelete("t1");
+        AccountStore.applyRemoteDelete("a1");
+        assert LocalCache.restore("cacheuser") : "Restore failed";
+
+        List<TransactionStore.Transaction> restored = TransactionStore.snapshot().transactions();
+        assert restored.size() == saved.size() : "Transaction count failed";
+        assert restored.get(0).equals(saved.get(0)) : "Transaction round trip failed";
+        assert restored.get(1).description().equals("Nasi | padang") : "Description round trip failed";
+        assert AccountStore.snapshot().accounts().get(0).balance() == 500_000 : "Account round trip failed";
+        assert CategoryStore.snapshot().incomes().contains("Gaji") : "Category round trip failed";
+
+        System.out.println("✓ round trip tests passed");
+    }
+
+    private static void testOwnerAndClear() {
+        assert !LocalCache.restore("someoneelse") : "Another user's cache must not load";
+
+        LocalCache.clear();
+        assert !new File(".fintrack_cache").exists() : "Clear should delete the file";
+        LocalCache.save();
+        assert !new File(".fintrack_cache").exists() : "Save after clear must not write";
+        assert !LocalCache.restore("cacheuser") : "Restore without a file failed";
+
+        System.out.println("✓ owner and clear tests passed");
+    }
+}
@@ -0,0 +1,228 @@
+package utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Simple test class to verify the pending-operations queue and the
+ * optimistic apply and rollback of the stores. Runs without a backend: a
+ * session without a token makes every store command fail, which exercises
+ * the rollback path. Writes .fintrack_wal in the working directory and
+ * expects it to be gone once the queue is idle.
+ */
+public class TestPendingOperations {
+
+    public static void main(String[] args) throws Exception {
+        System.out.println("=== PendingOperations Basic Tests ===\n");
+
+        SessionManager.getInstance().setSession("", "pendinguser");
+        testOrderAndFailures();
+        testProvisionalIds();
+        testOfflineRetry();
+        testOptimisticRollback();
+        testBatchRollback();
+        testBatchReplay();
+
+        System.out.println("\n=== All basic tests passed ===");
+    }
+
+    private static void testOrderAndFailures() throws Exception {
+        List<Integer> order = Collections.synchronizedList(new ArrayList<>());
+        List<String> rolledBack = Collections.synchronizedList(new ArrayList<>());
+        for (int i = 0; i < 20; i++) {
+            int n = i;
+            PendingOperations.submit("op " + n, PendingOperations.command("TEST", null, String.valueOf(n)), () -> {
+                order.add(n);
+                return n == 7 ? "rejected" : null;
+            }, rolledBack::add);
+        }
+        PendingOperations.idle().get(10, TimeUnit.SECONDS);
+        flushEdt();
+
+        for (int i = 0; i < 20; i++) {
+            assert order.get(i) == i : "Operations must run in submission order";
+        }
+        assert rolledBack.equals(List.of("rejected")) : "Only the failed operation rolls back";
+        PendingOperations.Snapshot snapshot = PendingOperations.snapshot();
+        assert snapshot.pending().isEmpty() : "Nothing should be pending";
+        assert snapshot.failed().size() == 1 && snapshot.failed().get(0).description().equals("op 7")
+                : "Failure should be listed";
+        assert !new File(".fintrack_wal").exists() : "Log should be deleted once everything is done";
+        PendingOperations.dismissFailures();
+        assert PendingOperations.snapshot().failed().isEmpty() : "Dismiss failed";
+
+        System.out.println("✓ order and failure tests passed");
+    }
+
+    private static void testProvisionalIds() {
+        String id = PendingOperations.provisionalId();
+        assert PendingOperations.isProvisional(id) : "Provisional ID not recognized";
+        assert !PendingOperations.isProvisional("42") : "Backend ID taken for provisional";
+        assert PendingOperations.resolve(id).equals(id) : "Unconfirmed ID should resolve to itself";
+        PendingOperations.confirmId(id, "42");
+        assert PendingOperations.resolve(id).equals("42") : "Confirmed ID should resolve";
+
+        PendingOperations.Command command = PendingOperations.command("UPDATE", id, "a", "b");
+        assert command.format("tok", "42").equals("UPDATE|tok|42|a|b|" + command.key())
+                : "Idempotency key should be the last field";
+
+        System.out.println("✓ provisional id tests passed");
+    }
+
+    private static void testOfflineRetry() throws Exception {
+        AtomicInteger attempts = new AtomicInteger();
+        List<String> rolledBack = Collections.synchronizedList(new ArrayList<>());
+        List<String> sent = Collections.synchronizedList(new ArrayList<>());
+        PendingOperations.submit("flaky", PendingOperations.command("TEST", null), () -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw new IOException("Connection refused");
+            }
+            sent.add("flaky");
+            return null;
+        }, rolledBack::add);
+        PendingOperations.submit("after", PendingOperations.command("TEST", null), () -> {
+            sent.add("after");
+            return null;
+        }, rolledBack::add);
+
+        while (attempts.get() < 3) {
+            Thread.sleep(20);
+            PendingOperations.retryNow();
+        }
+        PendingOperations.idle().get(10, TimeUnit.SECONDS);
+        assert sent.equals(List.of("flaky", "after")) : "Order must hold across retries";
+        assert rolledBack.isEmpty() : "An unreachable backend must not roll changes back";
+        assert !PendingOperations.snapshot().offline() : "Should be back online";
+
+        System.out.println("✓ offline retry tests passed");
+    }
+
+    private static void testOptimisticRollback() throws Exception {
+        TransactionStore.applyRemoteChanges(List.of(new TransactionStore.Transaction("t1",
+                java.time.LocalDate.parse("2025-05-01"), TransactionStore.TYPE_EXPENSE, "Makan", "BCA",
+                AccountStore.TYPE_BANK, 10_000, "Makan siang")), java.util.Set.of());
+        int before = TransactionStore.snapshot().transactions().size();
+
+        // Hold the queue so the local state can be checked before any call
+        CountDownLatch gate = new CountDownLatch(1);
+        PendingOperations.submit("gate", PendingOperations.command("TEST", null), () -> {
+            gate.await();
+            return null;
+        }, e -> { });
+        CountDownLatch errors = new CountDownLatch(3);
+        TransactionStore.addTransaction("2025-05-02", TransactionStore.TYPE_EXPENSE, "Makan", "BCA",
+                AccountStore.TYPE_BANK, 5_000, "Kopi", id -> { }, e -> errors.countDown());
+        assert TransactionStore.snapshot().transactions().size() == before + 1 : "Add should show at once";
+        assert PendingOperations.isProvisional(TransactionStore.snapshot().transactions().get(0).id())
+                : "New row should have a provisional ID";
+
+        TransactionStore.updateTransaction("t1", "2025-05-01", TransactionStore.TYPE_EXPENSE, "Makan", "BCA",
+                AccountStore.TYPE_BANK, 99_000, "Makan malam", () -> { }, e -> errors.countDown());
+        assert TransactionStore.findById("t1").amount() == 99_000 : "Update should show at once";
+
+        CategoryStore.addCategory(CategoryStore.EXPENSE, "Hobi", () -> { }, e -> errors.countDown());
+        assert CategoryStore.snapshot().expenses().contains("Hobi") : "Category should show at once";
+        assert PendingOperations.snapshot().pending().size() == 4 : "Operations should be pending";
+        assert new File(".fintrack_wal").exists() : "Pending commands should be logged";
+
+        gate.countDown();
+
+        boolean failed = errors.await(10, TimeUnit.SECONDS);
+        assert failed : "Every operation should fail without a token";
+        assert TransactionStore.snapshot().transactions().size() == before : "Add should roll back";
+        assert TransactionStore.findById("t1").amount() == 10_000 : "Update should roll back";
+        assert !CategoryStore.snapshot().expenses().contains("Hobi") : "Category should roll back";
+        PendingOperations.idle().get(10, TimeUnit.SECONDS);
+        assert PendingOperations.snapshot().failed().size() == 3 : "Failures should be listed";
+        assert !new File(".fintrack_wal").exists() : "Rejected commands should leave the log";
+
+        System.out.println("✓ optimistic rollback tests passed");
+    }
+
+    private static void testBatchRollback() throws Exception {
+        int before = TransactionStore.snapshot().transactions().size();
+        List<TransactionStore.NewTransaction> rows = new ArrayList<>();
+        for (int i = 0; i < 1200; i++) {
+            rows.add(new TransactionStore.NewTransaction("2025-06-01", TransactionStore.TYPE_EXPENSE, "Makan",
+                    "BCA", AccountStore.TYPE_BANK, 1_000 + i, "Baris " + i));
+        }
+        rows.add(new TransactionStore.NewTransaction("2025-06-31", TransactionStore.TYPE_EXPENSE, "Makan",
+                "BCA", AccountStore.TYPE_BANK, 1_000, "Tanggal salah"));
+
+        CountDownLatch gate = new CountDownLatch(1);
+        PendingOperations.submit("gate", PendingOperations.command("TEST", null), () -> {
+            gate.await();
+            return null;
+        }, e -> { });
+        CountDownLatch done = new CountDownLatch(1);
+        List<List<TransactionStore.RowResult>> results = new ArrayList<>();
+        TransactionStore.addTransactions(rows, r -> {
+            results.add(r);
+            done.countDown();
+        });
+        assert TransactionStore.snapshot().transactions().size() == before + 1200 : "Valid rows should show at once";
+        assert PendingOperations.snapshot().pending().size() == 4 : "Rows should be sent in three batches";
+
+        gate.countDown();
+
+        boolean finished = done.await(10, TimeUnit.SECONDS);
+        assert finished : "Batch should complete";
+        List<TransactionStore.RowResult> r = results.get(0);
+        assert r.size() == 1201 : "One result per row";
+        assert r.stream().noneMatch(TransactionStore.RowResult::ok) : "Every row should fail without a token";
+        assert r.get(1200).error().startsWith("Invalid date") : "Invalid row should fail locally";
+        assert TransactionStore.snapshot().transactions().size() == before : "Batch should roll back";
+        PendingOperations.idle().get(10, TimeUnit.SECONDS);
+        assert !new File(".fintrack_wal").exists() : "Rejected batches should leave the log";
+
+        System.out.println("✓ batch rollback tests passed");
+    }
+
+    private static void testBatchReplay() throws Exception {
+        int before = TransactionStore.snapshot().transactions().size();
+        String confirmed = PendingOperations.provisionalId();
+        String unconfirmed = PendingOperations.provisionalId();
+        // Log left by a run that crashed after the backend took the first row
+        WriteAheadLog previousRun = new WriteAheadLog(java.nio.file.Path.of(".fintrack_wal"));
+        previousRun.append(new PendingOperations.Command("replay-batch", "pendinguser", "ADD_BATCH", null, List.of(
+                confirmed, "2025-07-01", "Kopi", "Makan", TransactionStore.TYPE_EXPENSE, "5000", "BCA",
+                AccountStore.TYPE_BANK,
+                unconfirmed, "2025-07-02", "Teh", "Makan", TransactionStore.TYPE_EXPENSE, "4000", "BCA",
+                AccountStore.TYPE_BANK)));
+        previousRun.map(confirmed, "901");
+        previousRun.force();
+
+        CountDownLatch gate = new CountDownLatch(1);
+        PendingOperations.submit("gate", PendingOperations.command("TEST", null), () -> {
+            gate.await();
+            return null;
+        }, e -> { });
+        assert PendingOperations.hasUnsent() : "Logged batch should count as unsent";
+        PendingOperations.replay();
+        assert !PendingOperations.hasUnsent() : "Replayed batch is queued, no longer unsent";
+
+        assert PendingOperations.resolve(confirmed).equals("901") : "Confirmed row should keep its real ID";
+        assert TransactionStore.findById(unconfirmed) != null : "Unconfirmed row should be applied again";
+        assert TransactionStore.findById(confirmed) == null : "Confirmed row should not be added again";
+        assert TransactionStore.snapshot().transactions().size() == before + 1 : "Only one row should be resent";
+
+        gate.countDown();
+        PendingOperations.idle().get(10, TimeUnit.SECONDS);
+        flushEdt();
+        assert TransactionStore.findById(unconfirmed) == null : "Rejected row should roll back";
+        assert !new File(".fintrack_wal").exists() : "Replayed batch should leave the log";
+
+        System.out.println("✓ batch replay tests passed");
+    }
+
+    private static void flushEdt() throws Exception {
+        javax.swing.SwingUtilities.invokeAndWait(() -> {
+        });
+    }
+}
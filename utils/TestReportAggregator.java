@@ -0,0 +1,134 @@
+package utils;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Simple test class to verify that ReportAggregator matches the figures
+ * computed by TransactionRollup.
+ */
+public class TestReportAggregator {
+
+    public static void main(String[] args) {
+        System.out.println("=== ReportAggregator Basic Tests ===\n");
+
+        testFigures();
+        testPreviousMonth();
+        testAgainstRollup();
+
+        System.out.println("\n=== All basic tests passed ===");
+    }
+
+    private static TransactionStore.Transaction tx(String date, String type, String category, long amount) {
+        return new TransactionStore.Transaction(date + category + amount, LocalDate.parse(date), type, category,
+                "BCA", AccountStore.TYPE_BANK, amount, "");
+    }
+
+    private static void testFigures() {
+        List<TransactionStore.Transaction> rows = List.of(
+                tx("2025-06-03", TransactionStore.TYPE_EXPENSE, "Makan", 50_000),
+                tx("2025-06-01", TransactionStore.TYPE_INCOME, "Gaji", 10_000_000),
+                tx("2025-05-20", TransactionStore.TYPE_EXPENSE, "Makan", 20_000),
+                tx("2025-05-02", TransactionStore.TYPE_EXPENSE, "Belanja", 300_000),
+                tx("2024-12-31", TransactionStore.TYPE_EXPENSE, "Belanja", 7_000),
+                tx("2024-06-30", TransactionStore.TYPE_INCOME, "Gaji", 9_000_000));
+        ReportAggregator.Report report = ReportAggregator.aggregate(rows, YearMonth.of(2025, 6));
+
+        assert report.income() == 19_000_000 && report.expense() == 377_000 : "Totals";
+        assert report.net() == 19_000_000 - 377_000 && report.count() == 6 : "Net and count";
+        assert report.series().size() == ReportAggregator.SERIES_MONTHS : "Six months";
+        assert report.series().get(0).month().equals(YearMonth.of(2025, 1)) : "Series starts five months back";
+        ReportAggregator.MonthTotals june = report.series().get(5);
+        assert june.income() == 10_000_000 && june.expense() == 50_000 : "Report month";
+        assert report.series().get(4).expense() == 320_000 : "Previous month";
+        assert report.series().stream().mapToLong(ReportAggregator.MonthTotals::income).sum() == 10_000_000
+                : "Months outside the series are left out";
+
+        List<ReportAggregator.CategoryTotals> categories = report.categories();
+        assert categories.stream().map(ReportAggregator.CategoryTotals::category).toList()
+                .equals(List.of("Makan", "Gaji", "Belanja")) : "Categories in order of appearance";
+        assert categories.get(0).equals(new ReportAggregator.CategoryTotals("Makan", 2, 70_000, 50_000, 20_000))
+                : "Makan totals";
+        assert categories.get(1).monthExpense() == 0 : "Income is not expense";
+        assert categories.get(2).equals(new ReportAggregator.CategoryTotals("Belanja", 2, 307_000, 0, 300_000))
+                : "Belanja totals";
+
+        assert ReportAggregator.aggregate(List.of(), YearMonth.of(2025, 6)).categories().isEmpty() : "Empty";
+
+        System.out.println("✓ figure tests passed");
+    }
+
+    private static void testPreviousMonth() {
+        List<TransactionStore.Transaction> all = List.of(
+                tx("2025-06-20", TransactionStore.TYPE_EXPENSE, "Makan", 50_000),
+                tx("2025-06-10", TransactionStore.TYPE_EXPENSE, "Makan", 8_000),
+                tx("2025-05-20", TransactionStore.TYPE_EXPENSE, "Makan", 20_000),
+                tx("2025-05-15", TransactionStore.TYPE_EXPENSE, "Belanja", 300_000),
+                tx("2025-05-02", TransactionStore.TYPE_INCOME, "Makan", 1_000),
+                tx("2025-04-30", TransactionStore.TYPE_EXPENSE, "Makan", 7_000),
+                new TransactionStore.Transaction("cash", LocalDate.parse("2025-05-10"), TransactionStore.TYPE_EXPENSE,
+                        "Makan", "Cash", AccountStore.TYPE_CASH, 90_000, ""));
+        // A range starting inside the report month, as LaporanPage queries it
+        TransactionFilter filter = TransactionFilter.ALL
+                .withDates(LocalDate.of(2025, 6, 15), LocalDate.of(2025, 6, 30)).withAccount("BCA");
+        TransactionFilter may = filter.withDates(LocalDate.of(2025, 5, 1), LocalDate.of(2025, 5, 31));
+        List<TransactionStore.Transaction> rows = all.stream().filter(filter::matches).toList();
+        List<TransactionStore.Transaction> previous = all.stream().filter(may::matches).toList();
+        YearMonth month = YearMonth.of(2025, 6);
+
+        ReportAggregator.Report report = ReportAggregator.aggregate(rows, month, month, previous);
+        assert report.count() == 1 && report.expense() == 50_000 : "Totals follow the range";
+        assert report.categories().equals(List.of(new ReportAggregator.CategoryTotals("Makan", 1, 50_000, 50_000,
+                20_000))) : "Month before comes from its own rows, same account only";
+        assert ReportAggregator.aggregate(rows, month, month).categories().get(0).previousMonthExpense() == 0
+                : "Rows cut by the range have no month before";
+
+        // Rows that already include the month before are not counted twice
+        List<TransactionStore.Transaction> wide = all.stream().filter(filter
+                .withDates(LocalDate.of(2025, 4, 1), LocalDate.of(2025, 6, 30))::matches).toList();
+        ReportAggregator.Report both = ReportAggregator.aggregate(wide, YearMonth.of(2025, 4), month, previous);
+        assert both.categories().get(0).equals(new ReportAggregator.CategoryTotals("Makan", 5, 86_000, 58_000,
+                20_000)) : "Month before counted once";
+
+        System.out.println("✓ previous month tests passed");
+    }
+
+    private static void testAgainstRollup() {
+        // More categories than the initial accumulator size
+        List<TransactionStore.Transaction> rows = new ArrayList<>();
+        for (int i = 0; i < 50_000; i++) {
+            rows.add(tx(LocalDate.of(2025, 6, 30).minusDays(i % 400).toString(),
+                    i % 9 == 0 ? TransactionStore.TYPE_INCOME : TransactionStore.TYPE_EXPENSE,
+                    "Kategori " + i % 37, 1_000 + i));
+        }
+        TransactionStore.applyRemoteChanges(rows, java.util.Set.of());
+        TransactionRollup rollup = TransactionStore.rollup();
+        YearMonth month = YearMonth.of(2025, 6);
+        ReportAggregator.Report report = ReportAggregator.aggregate(TransactionStore.snapshot().transactions(),
+                month);
+
+        assert report.income() == rollup.total(null, TransactionStore.TYPE_INCOME) : "Income matches rollup";
+        assert report.expense() == rollup.total(null, TransactionStore.TYPE_EXPENSE) : "Expense matches rollup";
+        for (ReportAggregator.MonthTotals m : report.series()) {
+            assert m.income() == rollup.total(m.month(), TransactionStore.TYPE_INCOME) : "Monthly income";
+            assert m.expense() == rollup.total(m.month(), TransactionStore.TYPE_EXPENSE) : "Monthly expense";
+        }
+        Map<String, TransactionRollup.Cell> all = rollup.byCategory(null, null);
+        Map<String, TransactionRollup.Cell> spent = rollup.byCategory(month, TransactionStore.TYPE_EXPENSE);
+        Map<String, TransactionRollup.Cell> previous = rollup.byCategory(month.minusMonths(1), TransactionStore.TYPE_EXPENSE);
+        assert report.categories().size() == all.size() : "Same categories";
+        for (ReportAggregator.CategoryTotals c : report.categories()) {
+            assert c.count() == all.get(c.category()).count() && c.total() == all.get(c.category()).total()
+                    : "Category totals";
+            assert c.monthExpense() == spent.getOrDefault(c.category(), TransactionRollup.Cell.EMPTY).total()
+                    : "Month expense";
+            assert c.previousMonthExpense() == previous.getOrDefault(c.category(), TransactionRollup.Cell.EMPTY)
+                    .total() : "Previous month expense";
+        }
+
+        System.out.println("✓ rollup comparison tests passed");
+    }
+}
@@ -0,0 +1,223 @@
+package utils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.AbstractList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Simple test class to verify ReportExporter output and the streamed
+ * backend download, with in-memory rows and a local socket in place of the
+ * store and the backend.
+ */
+public class TestReportExporter {
+
+    public static void main(String[] args) throws Exception {
+        System.out.println("=== ReportExporter Basic Tests ===\n");
+
+        testCsv();
+        testExcel();
+        testLargeReport();
+        testReceive();
+
+        System.out.println("\n=== All basic tests passed ===");
+    }
+
+    private static TransactionStore.Transaction tx(String id, String date, String type, String category,
+            String account, long amount, String description) {
+        return new TransactionStore.Transaction(id, LocalDate.parse(date), type, category, account,
+                AccountStore.TYPE_BANK, amount, description);
+    }
+
+    // Newest first, as in the store
+    private static final List<TransactionStore.Transaction> ROWS = List.of(
+            tx("5", "2025-06-02", TransactionStore.TYPE_EXPENSE, "Makan", "BCA", 9_000, "Di luar rentang"),
+            tx("4", "2025-05-20", TransactionStore.TYPE_EXPENSE, "Makan", "BCA", 45_000, "Makan, \"siang\""),
+            tx("3", "2025-05-10", TransactionStore.TYPE_INCOME, "Gaji", "BCA", 10_000_000, "=HYPERLINK(1)"),
+            tx("2", "2025-05-05", TransactionStore.TYPE_EXPENSE, "Makan", "Cash", 5_000, "Akun lain"),
+            tx("1", "2025-05-01", TransactionStore.TYPE_EXPENSE, "Belanja", "BCA", 150_000, "Baju <anak> & topi"),
+            tx("0", "2025-04-30", TransactionStore.TYPE_EXPENSE, "Makan", "BCA", 7_000, "Di luar rentang"));
+
+    private static final TransactionFilter MAY_BCA = TransactionFilter.ALL
+            .withDates(LocalDate.of(2025, 5, 1), LocalDate.of(2025, 5, 31)).withAccount("BCA");
+
+    private static String write(List<TransactionStore.Transaction> rows, TransactionFilter filter,
+            ReportExporter.Format format, long[] written) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        written[0] = new ReportExporter.Job(p -> {
+        }).write(rows, filter, format, Channels.newChannel(bytes));
+        return bytes.toString(StandardCharsets.UTF_8);
+    }
+
+    private static void testCsv() throws IOException {
+        long[] written = { 0 };
+        String csv = write(ROWS, MAY_BCA, ReportExporter.Format.CSV, written);
+
+        assert written[0] == 3 : "Only May rows of BCA should be written";
+        assert csv.equals("\uFEFFTanggal,Keterangan,Kategori,Jenis,Akun,Jumlah\n"
+                + "2025-05-20,\"Makan, \"\"siang\"\"\",Makan,Pengeluaran,BCA,45000\n"
+                + "2025-05-10,'=HYPERLINK(1),Gaji,Pemasukan,BCA,10000000\n"
+                + "2025-05-01,Baju <anak> & topi,Belanja,Pengeluaran,BCA,150000\n"
+                + "\nRingkasan per Kategori\nJenis,Kategori,Jumlah Transaksi,Total\n"
+                + "Pemasukan,Gaji,1,10000000\n"
+                + "Pengeluaran,Belanja,1,150000\n"
+                + "Pengeluaran,Makan,1,45000\n") : "Unexpected CSV:\n" + csv;
+
+        assert ReportExporter.Format.of(Path.of("laporan.XLS")) == ReportExporter.Format.EXCEL : "Excel extension";
+        assert ReportExporter.Format.of(Path.of("laporan.csv")) == ReportExporter.Format.CSV : "CSV extension";
+        assert ReportExporter.Format.of(Path.of("laporan." + ReportExporter.Format.EXCEL.extension()))
+                == ReportExporter.Format.EXCEL : "Excel reports are saved under an extension read back as Excel";
+        assert ReportExporter.Format.EXCEL.extension().equals("xml") : "XML Spreadsheet content goes in .xml";
+
+        System.out.println("✓ csv tests passed");
+    }
+
+    private static void testExcel() throws IOException {
+        long[] written = { 0 };
+        String xml = write(ROWS, MAY_BCA, ReportExporter.Format.EXCEL, written);
+
+        assert written[0] == 3 : "Same rows as CSV";
+        assert xml.startsWith("<?xml") && xml.endsWith("</Workbook>\n") : "Complete workbook";
+        assert xml.contains("<Worksheet ss:Name=\"Transaksi\">") && xml.contains("<Worksheet ss:Name=\"Ringkasan\">")
+                : "Transactions and summary sheets";
+        assert xml.contains("<Data ss:Type=\"String\">Baju &lt;anak&gt; &amp; topi</Data>") : "Text is escaped";
+        assert xml.contains("<Data ss:Type=\"String\">=HYPERLINK(1)</Data>") : "Text cells are never formulas";
+        assert xml.contains("<Data ss:Type=\"DateTime\">2025-05-20T00:00:00.000</Data>") : "Dates are typed";
+        assert xml.contains("<Data ss:Type=\"Number\">10000000</Data>") : "Amounts are numbers";
+
+        System.out.println("✓ excel tests passed");
+    }
+
+    private static void testLargeReport() throws IOException {
+        int count = 300_000;
+        // Rows are made on demand, so only the exporter's buffer holds data
+        List<TransactionStore.Transaction> rows = new AbstractList<>() {
+            @Override
+            public TransactionStore.Transaction get(int i) {
+                return tx(String.valueOf(i), LocalDate.of(2025, 12, 31).minusDays(i / 100).toString(),
+                        i % 10 == 0 ? TransactionStore.TYPE_INCOME : TransactionStore.TYPE_EXPENSE,
+                        "Kategori " + i % 7, "BCA", 1_000 + i, "Baris " + i);
+            }
+
+            @Override
+            public int size() {
+                return count;
+            }
+        };
+        long[] lines = { 0 };
+        WritableByteChannel counting = new WritableByteChannel() {
+            @Override
+            public int write(ByteBuffer src) {
+                int n = src.remaining();
+                while (src.hasRemaining()) {
+                    if (src.get() == '\n') {
+                        lines[0]++;
+                    }
+                }
+                return n;
+            }
+
+            @Override
+            public boolean isOpen() {
+                return true;
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        long[] reports = { 0 };
+        ReportExporter.Job job = new ReportExporter.Job(p -> reports[0]++);
+        long written = job.write(rows, TransactionFilter.ALL, ReportExporter.Format.CSV, counting);
+
+        assert written == count : "Every row should be written";
+        // Header, rows, blank line, two summary headers, 7 categories x 2 types
+        assert lines[0] == 1 + count + 3 + 14 : "Unexpected line count " + lines[0];
+        assert reports[0] > count / 5000 : "Progress should be reported while writing";
+
+        ReportExporter.Job cancelled = new ReportExporter.Job(p -> {
+        });
+        cancelled.cancel();
+        lines[0] = 0;
+        assert cancelled.write(rows, TransactionFilter.ALL, ReportExporter.Format.CSV, counting) == 0
+                : "Cancelled export should stop";
+
+        System.out.println("✓ large report tests passed");
+    }
+
+    private static void testReceive() throws Exception {
+        byte[] report = new byte[3 * ReportExporter.BUFFER_SIZE + 17];
+        for (int i = 0; i < report.length; i++) {
+            report[i] = (byte) ('a' + i % 26);
+        }
+        Path file = Files.createTempFile("fintrack-report", ".csv");
+        try (ServerSocketChannel server = ServerSocketChannel.open()) {
+            server.bind(new InetSocketAddress("localhost", 0));
+
+            // Header and first bytes arrive in the same read
+            CompletableFuture<String> command = serve(server, "REPORT|" + report.length + "\n", report);
+            ReportExporter.Result result = receive(server, file);
+            assert command.get().equals("EXPORT_CSV|tok|2025-05-01") : "Command should be sent as given";
+            assert result.bytes() == report.length && result.rows() == -1 && !result.cancelled() : "Result";
+            assert java.util.Arrays.equals(Files.readAllBytes(file), report) : "Report should be copied exactly";
+
+            serve(server, "REPORT|-1\n", report);
+            assert receive(server, file).bytes() == report.length : "Unknown size reads to the end";
+
+            serve(server, "ERROR|UNKNOWN_COMMAND\n", new byte[0]);
+            assert receive(server, file) == null : "Unsupported command falls back";
+
+            serve(server, "REPORT|" + (report.length + 1) + "\n", report);
+            try {
+                receive(server, file);
+                assert false : "Short report should fail";
+            } catch (IOException expected) {
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+
+        System.out.println("✓ receive tests passed");
+    }
+
+    private static ReportExporter.Result receive(ServerSocketChannel server, Path file) throws IOException {
+        try (SocketChannel channel = SocketChannel.open(server.getLocalAddress());
+                FileChannel out = FileChannel.open(file, StandardOpenOption.WRITE,
+                        StandardOpenOption.TRUNCATE_EXISTING)) {
+            return new ReportExporter.Job(p -> {
+            }).receive(channel, "EXPORT_CSV|tok|2025-05-01", out);
+        }
+    }
+
+    private static CompletableFuture<String> serve(ServerSocketChannel server, String header, byte[] body) {
+        return CompletableFuture.supplyAsync(() -> {
+            try (SocketChannel client = server.accept()) {
+                ByteBuffer in = ByteBuffer.allocate(256);
+                while (in.position() == 0 || in.get(in.position() - 1) != '\n') {
+                    client.read(in);
+                }
+                byte[] head = header.getBytes(StandardCharsets.UTF_8);
+                ByteBuffer out = ByteBuffer.allocate(head.length + body.length).put(head).put(body).flip();
+                while (out.hasRemaining()) {
+                    client.write(out);
+                }
+                return new String(in.array(), 0, in.position() - 1, StandardCharsets.UTF_8);
+            } catch (IOException e) {
+                throw new java.io.UncheckedIOException(e);
+            }
+        });
+    }
+}
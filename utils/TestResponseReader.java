@@ -0,0 +1,101 @@
+package utils;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.time.LocalDate;
+
+/**
+ * Simple test class to verify ResponseReader tokenizing.
+ * This is not a comprehensive test suite, just basic verification.
+ */
+public class TestResponseReader {
+
+    public static void main(String[] args) throws IOException {
+        System.out.println("=== ResponseReader Basic Tests ===\n");
+
+        testReadLine();
+        testFields();
+        testNumbersAndDates();
+        testRestOfLine();
+
+        System.out.println("\n=== All basic tests passed ===");
+    }
+
+    private static ResponseReader reader(String text, int bufferSize) {
+        return new ResponseReader(new StringReader(text), bufferSize);
+    }
+
+    private static void testReadLine() throws IOException {
+        // Tiny buffer forces lines to span several refills
+        ResponseReader r = reader("OK|token123\r\nSECOND\rTHIRD\nlast", 3);
+        assert r.readLine().equals("OK|token123") : "CRLF line failed";
+        assert r.readLine().equals("SECOND") : "CR line failed";
+        assert r.readLine().equals("THIRD") : "LF line failed";
+        assert r.readLine().equals("last") : "Unterminated line failed";
+        assert r.readLine() == null : "End of stream failed";
+
+        System.out.println("✓ readLine tests passed");
+    }
+
+    private static void testFields() throws IOException {
+        ResponseReader r = reader("DATA_ALL|2|a||c\r\nNEXT\n", 4);
+        assert r.nextField().equals("DATA_ALL") : "First field failed";
+        r.skipField();
+        assert r.nextField().equals("a") : "Third field failed";
+        assert r.nextField().equals("") : "Empty field failed";
+        assert r.hasMoreFields() : "hasMoreFields before last failed";
+        assert r.nextField().equals("c") : "Last field failed";
+        assert !r.hasMoreFields() : "hasMoreFields after last failed";
+
+        // Next call starts a new line
+        assert r.nextField().equals("NEXT") : "Field on next line failed";
+        assert r.nextField() == null : "Field past end failed";
+
+        // Unread fields are dropped by readLine
+        r = reader("A|B|C\nD\n", 8);
+        assert r.nextField().equals("A") : "Partial line failed";
+        assert r.readLine().equals("D") : "readLine after partial line failed";
+
+        System.out.println("✓ field tests passed");
+    }
+
+    private static void testNumbersAndDates() throws IOException {
+        ResponseReader r = reader("150000|-42|9223372036854775807|-9223372036854775808|12x\n", 5);
+        assert r.nextLong() == 150000L : "Positive long failed";
+        assert r.nextInt() == -42 : "Negative int failed";
+        assert r.nextLong() == Long.MAX_VALUE : "Max long failed";
+        assert r.nextLong() == Long.MIN_VALUE : "Min long failed";
+        try {
+            r.nextLong();
+            assert false : "Malformed long should fail";
+        } catch (NumberFormatException expected) {
+            // ok
+        }
+
+        r = reader("9223372036854775808\n", 16);
+        try {
+            r.nextLong();
+            assert false : "Overflow should fail";
+        } catch (NumberFormatException expected) {
+            // ok
+        }
+
+        r = reader("2025-03-01|2025-02-30|03/01/2025\n", 6);
+        assert r.nextDate().equals(LocalDate.of(2025, 3, 1)) : "Valid date failed";
+        assert r.nextDate() == null : "Impossible date failed";
+        assert r.nextDate() == null : "Wrong format date failed";
+        assert r.nextDate() == null : "Missing date failed";
+
+        System.out.println("✓ number and date tests passed");
+    }
+
+    private static void testRestOfLine() throws IOException {
+        ResponseReader r = reader("ERROR|SESSION_EXPIRED|Sesi berakhir|silakan login\r\nOK\n", 7);
+        assert r.nextField().equals("ERROR") : "Error tag failed";
+        assert r.restOfLine().equals("SESSION_EXPIRED|Sesi berakhir|silakan login") : "restOfLine failed";
+        assert r.restOfLine().equals("") : "restOfLine after end failed";
+        assert r.readLine().equals("OK") : "Line after restOfLine failed";
+
+        System.out.println("✓ restOfLine tests passed");
+    }
+}
@@ -0,0 +1,63 @@
+package utils;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Simple test class to verify SearchIndex tokenizing and prefix queries.
+ */
+public class TestSearchIndex {
+
+    public static void main(String[] args) {
+        System.out.println("=== SearchIndex Basic Tests ===\n");
+
+        testTokenize();
+        testSearch();
+        testMaintenance();
+
+        System.out.println("\n=== All basic tests passed ===");
+    }
+
+    private static void testTokenize() {
+        assert SearchIndex.tokenize("Nasi-Goreng, 2x  Kantor!").equals(List.of("nasi", "goreng", "2x", "kantor"))
+                : "Tokenize failed";
+        assert SearchIndex.tokenize(null).isEmpty() : "Null tokenize failed";
+        assert SearchIndex.matches("Beli bensin motor", "ben mot") : "Prefix match failed";
+        assert !SearchIndex.matches("Beli bensin motor", "ensin") : "Infix should not match";
+
+        System.out.println("✓ tokenize tests passed");
+    }
+
+    private static void testSearch() {
+        SearchIndex index = new SearchIndex();
+        index.add("1", "Nasi goreng kantor");
+        index.add("2", "Nasi padang");
+        index.add("3", "Gojek ke kantor");
+
+        assert index.search("nasi").equals(Set.of("1", "2")) : "Single word failed";
+        assert index.search("go").equals(Set.of("1", "3")) : "Prefix failed";
+        assert index.search("GO kan").equals(Set.of("1", "3")) : "Case and multi-word failed";
+        assert index.search("nasi gojek").isEmpty() : "Intersection failed";
+        assert index.search(" ,. ") == null : "Empty query should not restrict";
+
+        System.out.println("✓ search tests passed");
+    }
+
+    private static void testMaintenance() {
+        SearchIndex index = new SearchIndex();
+        index.add("1", "Bayar listrik");
+        index.add("2", "Bayar air");
+        index.remove("1", "Bayar listrik");
+        assert index.search("bayar").equals(Set.of("2")) : "Remove failed";
+        assert index.search("lis").isEmpty() : "Removed word still found";
+        assert index.tokenCount() == 2 : "Empty posting lists should be dropped";
+
+        // An edit is a remove of the old text and an add of the new one
+        index.remove("2", "Bayar air");
+        index.add("2", "Bayar PDAM");
+        assert index.search("pdam").equals(Set.of("2")) : "Edit failed";
+        assert index.search("air").isEmpty() : "Old text still found";
+
+        System.out.println("✓ maintenance tests passed");
+    }
+}
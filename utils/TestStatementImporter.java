@@ -0,0 +1,261 @@
+package utils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Simple test class to verify StatementImporter parsing, normalization and
+ * the streaming pipeline, with a sink in place of the store.
+ */
+public class TestStatementImporter {
+
+    public static void main(String[] args) throws Exception {
+        System.out.println("=== StatementImporter Basic Tests ===\n");
+
+        testAmounts();
+        testDates();
+        testCsv();
+        testOfx();
+        testLargeStatement();
+        testBackpressure();
+
+        System.out.println("\n=== All basic tests passed ===");
+    }
+
+    private static StatementImporter.Mapping mapping() {
+        return new StatementImporter.Mapping(List.of("Makan", "Lainnya"), List.of("Gaji"),
+                List.of(new AccountStore.Account("1", "BCA", "123", 0, AccountStore.TYPE_BANK),
+                        new AccountStore.Account("2", "GoPay", "081", 0, AccountStore.TYPE_WALLET)),
+                "BCA");
+    }
+
+    private static void testAmounts() {
+        assert StatementImporter.parseAmount("5000") == 5000 : "Plain amount";
+        assert StatementImporter.parseAmount("-5.000") == -5000 : "Indonesian grouping";
+        assert StatementImporter.parseAmount("1.250.000,50") == 1250001 : "Indonesian decimals round half up";
+        assert StatementImporter.parseAmount("1,250,000.49") == 1250000 : "English grouping";
+        assert StatementImporter.parseAmount("Rp 75.000,-") == 75000 : "Rupiah notation";
+        assert StatementImporter.parseAmount("(2,500)") == -2500 : "Parentheses are negative";
+        assert StatementImporter.parseAmount("150.000,00 DB") == -150000 : "DB marker is negative";
+        assert StatementImporter.parseAmount("150.000,00 CR") == 150000 : "CR marker is positive";
+        assert StatementImporter.parseAmount("-12.5") == -13 : "Single decimal point";
+        try {
+            StatementImporter.parseAmount("12a");
+            assert false : "Garbage should be refused";
+        } catch (IllegalArgumentException expected) {
+        }
+
+        System.out.println("✓ amount tests passed");
+    }
+
+    private static void testDates() {
+        LocalDate jan31 = LocalDate.of(2025, 1, 31);
+        assert StatementImporter.parseDate("2025-01-31").equals(jan31) : "ISO date";
+        assert StatementImporter.parseDate("31/01/2025").equals(jan31) : "Day first with slashes";
+        assert StatementImporter.parseDate("31-1-2025").equals(jan31) : "Day first with dashes";
+        assert StatementImporter.parseDate("20250131120000[+7:WIB]").equals(jan31) : "OFX date";
+        assert StatementImporter.parseDate("31/01/2025 08:15").equals(jan31) : "Time of day is dropped";
+        try {
+            StatementImporter.parseDate("31/06/2025");
+            assert false : "Impossible date should be refused";
+        } catch (IllegalArgumentException expected) {
+        }
+
+        System.out.println("✓ date tests passed");
+    }
+
+    private static void testCsv() throws Exception {
+        String csv = "\uFEFFTanggal;Keterangan;Debet;Kredit;Kategori;Rekening\n"
+                + "01/05/2025;\"Makan; siang\";45.000;;makan;\n"
+                + "02/05/2025;Gaji Mei;;10.000.000;Gaji;BCA\n"
+                + "03/05/2025;\"Catatan\n dua baris\";10.000;;Hobi;gopay\n"
+                + "04/05/2025;Tanpa jumlah;;;;\n"
+                + "\n"
+                + "31/06/2025;Tanggal salah;5.000;;;\n"
+                + "05/05/2025;tolak;1.000;;;\n";
+        List<TransactionStore.NewTransaction> sent = Collections.synchronizedList(new ArrayList<>());
+        StatementImporter.Result result = run(csv, StatementImporter.Format.CSV, sent);
+
+        assert sent.size() == 4 : "Four valid rows should be sent";
+        TransactionStore.NewTransaction lunch = sent.get(0);
+        assert lunch.description().equals("Makan; siang") && lunch.amount() == 45_000
+                && lunch.type().equals(TransactionStore.TYPE_EXPENSE) && lunch.category().equals("Makan")
+                && lunch.accountName().equals("BCA") : "Quoted separator, debit and category match";
+        TransactionStore.NewTransaction salary = sent.get(1);
+        assert salary.type().equals(TransactionStore.TYPE_INCOME) && salary.amount() == 10_000_000
+                && salary.date().equals("2025-05-02") : "Credit is income";
+        TransactionStore.NewTransaction note = sent.get(2);
+        assert note.description().equals("Catatan dua baris") && note.category().equals("Lainnya")
+                && note.accountName().equals("GoPay") && note.accountType().equals(AccountStore.TYPE_WALLET)
+                : "Multi-line field, fallback category, account match";
+
+        assert result.saved() == 3 && result.failed() == 3 : "Counts should include local and sink rejections";
+        assert result.problems().stream().map(StatementImporter.Problem::line).toList().equals(List.of(6, 8, 9))
+                : "Problems should carry file lines";
+        assert !result.cancelled() : "Not cancelled";
+
+        try {
+            run("foo,bar\n1,2\n", StatementImporter.Format.CSV, new ArrayList<>());
+            assert false : "Unknown header should fail";
+        } catch (java.util.concurrent.ExecutionException expected) {
+            assert expected.getCause() instanceof IOException : "Header failure should be an IOException";
+        }
+
+        System.out.println("✓ csv tests passed");
+    }
+
+    private static void testOfx() throws Exception {
+        String ofx = "OFXHEADER:100\nDATA:OFXSGML\n\n<OFX><BANKMSGSRSV1><STMTTRNRS><STMTRS><BANKTRANLIST>\n"
+                + "<STMTTRN>\n<TRNTYPE>DEBIT\n<DTPOSTED>20250501\n<TRNAMT>-25000.00\n<NAME>Warung\n"
+                + "<MEMO>Makan &amp; minum\n</STMTTRN>\n"
+                + "<STMTTRN><TRNTYPE>CREDIT</TRNTYPE><DTPOSTED>20250502083000</DTPOSTED>"
+                + "<TRNAMT>500000</TRNAMT><NAME>Transfer</NAME></STMTTRN>\n"
+                + "</BANKTRANLIST></STMTRS></STMTTRNRS></BANKMSGSRSV1></OFX>\n";
+        List<TransactionStore.NewTransaction> sent = Collections.synchronizedList(new ArrayList<>());
+        StatementImporter.Result result = run(ofx, StatementImporter.Format.OFX, sent);
+
+        assert result.saved() == 2 && result.failed() == 0 : "Both transactions should be imported";
+        assert sent.get(0).description().equals("Warung - Makan & minum") && sent.get(0).amount() == 25_000
+                && sent.get(0).type().equals(TransactionStore.TYPE_EXPENSE) : "SGML transaction";
+        assert sent.get(1).date().equals("2025-05-02") && sent.get(1).category().equals("Gaji")
+                && sent.get(1).type().equals(TransactionStore.TYPE_INCOME) : "XML transaction";
+
+        System.out.println("✓ ofx tests passed");
+    }
+
+    private static void testLargeStatement() throws Exception {
+        int rows = 200_000;
+        // Generated on the fly so the test itself never holds the file
+        InputStream in = new InputStream() {
+            private byte[] line = "Tanggal,Keterangan,Jumlah\n".getBytes(StandardCharsets.UTF_8);
+            private int pos;
+            private int next;
+
+            @Override
+            public int read() {
+                if (pos == line.length) {
+                    if (next == rows) {
+                        return -1;
+                    }
+                    next++;
+                    line = ("2025-0" + (1 + next % 9) + "-1" + (next % 10) + ",Baris " + next + ",-" + next + "\n")
+                            .getBytes(StandardCharsets.UTF_8);
+                    pos = 0;
+                }
+                return line[pos++];
+            }
+        };
+        int[] blocks = { 0 };
+        int[] largest = { 0 };
+        List<StatementImporter.Progress> progress = Collections.synchronizedList(new ArrayList<>());
+        StatementImporter.Job job = new StatementImporter.Job(mapping(), (batch, onComplete) -> {
+            blocks[0]++;
+            largest[0] = Math.max(largest[0], batch.size());
+            List<TransactionStore.RowResult> results = new ArrayList<>(batch.size());
+            for (int i = 0; i < batch.size(); i++) {
+                results.add(new TransactionStore.RowResult(String.valueOf(i), null));
+            }
+            onComplete.accept(results);
+        }, progress::add);
+        job.run(in, -1, StatementImporter.Format.CSV);
+        StatementImporter.Result result = job.result().get(30, TimeUnit.SECONDS);
+
+        assert result.saved() == rows && result.failed() == 0 : "Every row should be saved";
+        assert blocks[0] == rows / StatementImporter.BLOCK_ROWS : "Rows should go to the store in blocks";
+        assert largest[0] == StatementImporter.BLOCK_ROWS : "Blocks should be full";
+        StatementImporter.Progress last = progress.get(progress.size() - 1);
+        assert last.rowsRead() == rows && last.saved() == rows : "Final progress should count every row";
+
+        System.out.println("✓ large statement tests passed");
+    }
+
+    private static void testBackpressure() throws Exception {
+        int blocks = 6;
+        StringBuilder csv = new StringBuilder("Tanggal,Keterangan,Jumlah\n");
+        for (int i = 0; i < blocks * StatementImporter.BLOCK_ROWS; i++) {
+            csv.append("2025-05-01,Baris ").append(i).append(",-1000\n");
+        }
+        // The backend confirms nothing until the test says so
+        java.util.concurrent.BlockingQueue<Runnable> unconfirmed = new java.util.concurrent.LinkedBlockingQueue<>();
+        StatementImporter.Job job = new StatementImporter.Job(mapping(), (batch, onComplete) -> {
+            List<TransactionStore.RowResult> results = new ArrayList<>(batch.size());
+            for (int i = 0; i < batch.size(); i++) {
+                results.add(new TransactionStore.RowResult(String.valueOf(i), null));
+            }
+            unconfirmed.add(() -> onComplete.accept(results));
+        }, p -> {
+        });
+        Thread reader = new Thread(() -> {
+            try {
+                job.run(new ByteArrayInputStream(csv.toString().getBytes(StandardCharsets.UTF_8)), csv.length(),
+                        StatementImporter.Format.CSV);
+            } catch (IOException e) {
+                throw new java.io.UncheckedIOException(e);
+            }
+        });
+        reader.start();
+
+        int confirmed = 0;
+        while (confirmed < blocks) {
+            Runnable next = unconfirmed.poll(10, TimeUnit.SECONDS);
+            assert next != null : "Reader should hand off the next block";
+            Thread.sleep(50); // Give the reader time to run ahead if it could
+            assert unconfirmed.size() < StatementImporter.MAX_BLOCKS_UNCONFIRMED
+                    : "Reader should wait for the backend, " + (unconfirmed.size() + 1) + " blocks unconfirmed";
+            next.run();
+            confirmed++;
+        }
+        reader.join(10_000);
+        StatementImporter.Result result = job.result().get(10, TimeUnit.SECONDS);
+        assert result.saved() == blocks * StatementImporter.BLOCK_ROWS : "Every row should be saved";
+
+        // Cancelling releases a reader waiting for the backend
+        unconfirmed.clear();
+        StatementImporter.Job cancelled = new StatementImporter.Job(mapping(), (batch, onComplete) -> {
+        }, p -> {
+        });
+        Thread waiting = new Thread(() -> {
+            try {
+                cancelled.run(new ByteArrayInputStream(csv.toString().getBytes(StandardCharsets.UTF_8)),
+                        csv.length(), StatementImporter.Format.CSV);
+            } catch (IOException e) {
+                throw new java.io.UncheckedIOException(e);
+            }
+        });
+        waiting.start();
+        Thread.sleep(200);
+        cancelled.cancel();
+        waiting.join(10_000);
+        assert !waiting.isAlive() : "Cancel should stop the reader";
+
+        System.out.println("✓ backpressure tests passed");
+    }
+
+    private static StatementImporter.Result run(String text, StatementImporter.Format format,
+            List<TransactionStore.NewTransaction> sent) throws Exception {
+        StatementImporter.Job job = new StatementImporter.Job(mapping(), (batch, onComplete) -> {
+            List<TransactionStore.RowResult> results = new ArrayList<>();
+            for (TransactionStore.NewTransaction tx : batch) {
+                sent.add(tx);
+                results.add(tx.description().equals("tolak")
+                        ? new TransactionStore.RowResult(null, "Rejected")
+                        : new TransactionStore.RowResult(String.valueOf(sent.size()), null));
+            }
+            onComplete.accept(results);
+        }, p -> {
+        });
+        try {
+            job.run(new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8)), text.length(), format);
+        } catch (IOException e) {
+            // Reported through the result as well
+        }
+        return job.result().get(10, TimeUnit.SECONDS);
+    }
+}
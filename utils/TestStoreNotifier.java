@@ -0,0 +1,112 @@
+package utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import javax.swing.SwingUtilities;
+
+/**
+ * Simple test class to verify StoreNotifier batching and change merging.
+ */
+public class TestStoreNotifier {
+    private static final Object lock = new Object();
+    private static final List<String> items = new ArrayList<>();
+
+    public static void main(String[] args) throws Exception {
+        System.out.println("=== StoreNotifier Basic Tests ===\n");
+
+        testBatching();
+        testMerging();
+        testReset();
+
+        System.out.println("\n=== All basic tests passed ===");
+    }
+
+    private static StoreNotifier<List<String>, String> notifier() {
+        // Items are "id:value"; the id is the part before the colon
+        return new StoreNotifier<>(lock, () -> List.copyOf(items), s -> s.substring(0, s.indexOf(':')));
+    }
+
+    private static void testBatching() throws Exception {
+        StoreNotifier<List<String>, String> notifier = notifier();
+        List<ChangeSet<String>> received = new ArrayList<>();
+        notifier.addChangeListener((snap, changes) -> received.add(changes));
+        assert received.size() == 1 && received.get(0).reset() : "Initial delivery should be a reset";
+        received.clear();
+
+        // Three mutations published before the EDT runs: one delivery
+        SwingUtilities.invokeAndWait(() -> {
+            synchronized (lock) {
+                for (String item : List.of("a:1", "b:1", "c:1")) {
+                    items.add(item);
+                    notifier.added(item);
+                    notifier.publish();
+                }
+            }
+            assert received.isEmpty() : "Delivery must not be synchronous";
+        });
+        SwingUtilities.invokeAndWait(() -> {
+        });
+        assert received.size() == 1 : "Expected one batch, got " + received.size();
+        assert received.get(0).added().equals(List.of("a:1", "b:1", "c:1")) : "Batch content failed";
+
+        System.out.println("✓ batching tests passed");
+    }
+
+    private static void testMerging() throws Exception {
+        StoreNotifier<List<String>, String> notifier = notifier();
+        List<ChangeSet<String>> received = new ArrayList<>();
+        notifier.addChangeListener((snap, changes) -> received.add(changes));
+        received.clear();
+
+        synchronized (lock) {
+            notifier.added("d:1");
+            notifier.updated("d:2");    // still an add, latest state
+            notifier.added("e:1");
+            notifier.removed("e:1");    // never seen, drops out
+            notifier.removed("a:1");
+            notifier.added("a:2");      // delete + re-add is an update
+            notifier.updated("b:2");
+            notifier.removed("b:2");    // update then delete is a delete
+            notifier.publish();
+        }
+        SwingUtilities.invokeAndWait(() -> {
+        });
+        ChangeSet<String> changes = received.get(0);
+        assert changes.added().equals(List.of("d:2")) : "Merged add failed: " + changes.added();
+        assert changes.updated().equals(List.of("a:2")) : "Merged update failed: " + changes.updated();
+        assert changes.removed().equals(List.of("b:2")) : "Merged remove failed: " + changes.removed();
+
+        // Nothing net changed: no delivery at all
+        received.clear();
+        synchronized (lock) {
+            notifier.added("f:1");
+            notifier.removed("f:1");
+            notifier.publish();
+        }
+        SwingUtilities.invokeAndWait(() -> {
+        });
+        assert received.isEmpty() : "Empty batch should not be delivered";
+
+        System.out.println("✓ merging tests passed");
+    }
+
+    private static void testReset() throws Exception {
+        StoreNotifier<List<String>, String> notifier = notifier();
+        List<ChangeSet<String>> received = new ArrayList<>();
+        notifier.addChangeListener((snap, changes) -> received.add(changes));
+        received.clear();
+
+        synchronized (lock) {
+            notifier.updated("a:3");
+            notifier.reset();
+            notifier.added("z:1");
+            notifier.publish();
+        }
+        SwingUtilities.invokeAndWait(() -> {
+        });
+        assert received.size() == 1 && received.get(0).reset() : "Reset should win";
+        assert received.get(0).size() == 0 : "Reset carries no rows";
+
+        System.out.println("✓ reset tests passed");
+    }
+}
@@ -0,0 +1,178 @@
+package utils;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Simple test class to verify TransactionStore index queries.
+ * Uses the server-push entry points so no backend is needed.
+ */
+public class TestTransactionStore {
+    private static final String IN = TransactionStore.TYPE_INCOME;
+    private static final String OUT = TransactionStore.TYPE_EXPENSE;
+
+    public static void main(String[] args) {
+        System.out.println("=== TransactionStore Basic Tests ===\n");
+
+        testQueries();
+        testIndexMaintenance();
+        testRollup();
+        testSnapshotOrder();
+        testFilter();
+
+        System.out.println("\n=== All basic tests passed ===");
+    }
+
+    private static TransactionStore.Transaction tx(String id, String date, String type, String category,
+            String account, long amount) {
+        return new TransactionStore.Transaction(id, LocalDate.parse(date), type, category, account, "Bank",
+                amount, "");
+    }
+
+    private static void testQueries() {
+        TransactionStore.applyRemoteChanges(List.of(
+                tx("1", "2025-01-05", IN, "Gaji", "BCA", 1000),
+                tx("2", "2025-01-10", OUT, "Makan", "BCA", 200),
+                tx("3", "2025-02-01", OUT, "Makan", "Cash", 50),
+                tx("4", "2025-02-03", OUT, "Transport", "BCA", 30)), Set.of());
+
+        YearMonth jan = YearMonth.of(2025, 1);
+        YearMonth feb = YearMonth.of(2025, 2);
+        assert TransactionStore.total(jan, IN, null, null) == 1000 : "January income failed";
+        assert TransactionStore.total(feb, OUT, null, null) == 80 : "February expense failed";
+        assert TransactionStore.total(null, OUT, "makan", null) == 250 : "Case-insensitive category failed";
+        assert TransactionStore.total(null, null, null, "BCA") == 1230 : "Account total failed";
+
+        List<TransactionStore.Transaction> makan = TransactionStore.query(null, null, "Makan", null);
+        assert makan.size() == 2 : "Category query size failed";
+        assert makan.get(0).id().equals("3") : "Query should be newest first";
+        assert TransactionStore.query(feb, OUT, "Makan", "Cash").size() == 1 : "Combined query failed";
+        assert TransactionStore.findById("4").amount() == 30 : "findById failed";
+        assert TransactionStore.findById("missing") == null : "Missing id failed";
+
+        System.out.println("✓ query tests passed");
+    }
+
+    private static void testIndexMaintenance() {
+        // Move transaction 2 to another month, category and account
+        TransactionStore.applyRemoteUpsert(tx("2", "2025-02-10", OUT, "Transport", "Cash", 200));
+        YearMonth jan = YearMonth.of(2025, 1);
+        assert TransactionStore.total(jan, OUT, null, null) == 0 : "Old month bucket not cleared";
+        assert TransactionStore.query(null, null, "Makan", null).size() == 1 : "Old category bucket not cleared";
+        assert TransactionStore.total(null, null, "Transport", "Cash") == 200 : "New buckets failed";
+
+        TransactionStore.applyRemoteDelete("2");
+        assert TransactionStore.query(null, null, "Transport", null).size() == 1 : "Delete not unindexed";
+        assert TransactionStore.snapshot().transactions().size() == 3 : "Snapshot size failed";
+
+        System.out.println("✓ index maintenance tests passed");
+    }
+
+    private static void testRollup() {
+        // Ledger here: 1 Gaji/BCA Jan, 3 Makan/Cash Feb, 4 Transport/BCA Feb
+        YearMonth jan = YearMonth.of(2025, 1);
+        YearMonth feb = YearMonth.of(2025, 2);
+        TransactionRollup rollup = TransactionStore.rollup();
+        assert rollup == TransactionStore.rollup() : "Unchanged ledger should reuse the view";
+        assert rollup.total(jan, IN) == 1000 : "Rollup month income failed";
+        assert rollup.cell(feb, OUT).count() == 2 : "Rollup month count failed";
+        assert rollup.total(null, OUT) == 80 : "Rollup all-time failed";
+        assert rollup.category(OUT, "MAKAN").total() == 50 : "Rollup category failed";
+        assert rollup.byCategory(feb, OUT).get("Transport").total() == 30 : "Rollup byCategory failed";
+
+        TransactionStore.applyRemoteUpsert(tx("3", "2025-02-01", OUT, "Makan", "Cash", 70));
+        TransactionRollup updated = TransactionStore.rollup();
+        assert updated != rollup : "Mutation should publish a new view";
+        assert rollup.total(feb, OUT) == 80 : "Old view must stay unchanged";
+        assert updated.total(feb, OUT) == 100 : "Incremental update failed";
+
+        TransactionStore.applyRemoteDelete("4");
+        assert TransactionStore.rollup().byCategory(feb, OUT).get("Transport") == null : "Empty cell not dropped";
+
+        System.out.println("✓ rollup tests passed");
+    }
+
+    private static void testSnapshotOrder() {
+        // Ledger here: 1 (2025-01-05), 3 (2025-02-01)
+        TransactionStore.Snapshot before = TransactionStore.snapshot();
+        assert before == TransactionStore.snapshot() : "Unchanged ledger should reuse the snapshot";
+
+        TransactionStore.applyRemoteUpsert(tx("5", "2025-01-05", OUT, "Makan", "BCA", 10));
+        TransactionStore.applyRemoteUpsert(tx("6", "2025-03-01", OUT, "Makan", "BCA", 10));
+        List<String> ids = TransactionStore.snapshot().transactions().stream()
+                .map(TransactionStore.Transaction::id).toList();
+        assert ids.equals(List.of("6", "3", "1", "5")) : "Incremental order failed: " + ids;
+        assert before.transactions().size() == 2 : "Published snapshot must not change";
+
+        // Same date keeps its slot, a new date moves
+        TransactionStore.applyRemoteUpsert(tx("1", "2025-01-05", IN, "Gaji", "BCA", 999));
+        TransactionStore.applyRemoteUpsert(tx("3", "2024-12-31", OUT, "Makan", "Cash", 70));
+        ids = TransactionStore.snapshot().transactions().stream().map(TransactionStore.Transaction::id).toList();
+        assert ids.equals(List.of("6", "1", "5", "3")) : "Update order failed: " + ids;
+
+        // A bulk change rebuilds with one sort and must agree
+        List<TransactionStore.Transaction> bulk = new java.util.ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            bulk.add(tx("b" + i, "2025-0" + (1 + i % 3) + "-15", OUT, "Makan", "BCA", 1));
+        }
+        TransactionStore.applyRemoteChanges(bulk, Set.of("6"));
+        List<TransactionStore.Transaction> all = TransactionStore.snapshot().transactions();
+        assert all.size() == 53 : "Bulk size failed";
+        for (int i = 1; i < all.size(); i++) {
+            assert !all.get(i).date().isAfter(all.get(i - 1).date()) : "Bulk order failed at " + i;
+        }
+        try {
+            all.remove(0);
+            assert false : "Snapshot list must be read-only";
+        } catch (UnsupportedOperationException expected) {
+            // ok
+        }
+
+        System.out.println("✓ snapshot order tests passed");
+    }
+
+    private static void testFilter() {
+        TransactionStore.applyRemoteChanges(List.of(
+                new TransactionStore.Transaction("f1", LocalDate.parse("2025-04-02"), OUT, "Makan", "BCA", "Bank",
+                        40, "Nasi goreng kantor"),
+                new TransactionStore.Transaction("f2", LocalDate.parse("2025-04-20"), IN, "Gaji", "BCA", "Bank",
+                        900, "Gaji April")), Set.of());
+
+        TransactionFilter april = TransactionFilter.ALL.withDateRange("2025-04");
+        assert april.from().equals(LocalDate.parse("2025-04-01")) : "Month range start failed";
+        assert april.to().equals(LocalDate.parse("2025-04-30")) : "Month range end failed";
+        assert TransactionFilter.ALL.withDateRange("2025-04-02..").to() == null : "Open range failed";
+        try {
+            TransactionFilter.ALL.withDateRange("2025-04-30..2025-04-01");
+            assert false : "Reversed range should be rejected";
+        } catch (IllegalArgumentException expected) {
+            // ok
+        }
+
+        // Indexed evaluation must agree with a plain scan, in the same order
+        List<TransactionFilter> filters = List.of(
+                april,
+                TransactionFilter.ALL.withDateRange("2025-04-02.."),
+                TransactionFilter.ALL.withDateRange("1990-01-01..1990-12-31"),
+                april.withType(IN),
+                TransactionFilter.ALL.withCategory("makan"),
+                TransactionFilter.ALL.withAccount("Cash").withDateRange("2025-01-01..2025-03-01"),
+                TransactionFilter.ALL.withText("GORENG kantor"),
+                TransactionFilter.ALL.withDateRange("2019-06-01..2019-06-30").withType(OUT));
+        List<TransactionStore.Transaction> all = TransactionStore.snapshot().transactions();
+        for (TransactionFilter filter : filters) {
+            List<TransactionStore.Transaction> expected = all.stream().filter(filter::matches).toList();
+            List<TransactionStore.Transaction> actual = TransactionStore.filter(filter);
+            assert actual.size() == expected.size() : "Filter size failed for " + filter;
+            for (int i = 0; i < actual.size(); i++) {
+                assert actual.get(i).date().equals(expected.get(i).date()) : "Filter order failed for " + filter;
+            }
+        }
+        assert TransactionStore.filter(TransactionFilter.ALL.withText("goreng")).get(0).id().equals("f1")
+                : "Text filter failed";
+
+        System.out.println("✓ filter tests passed");
+    }
+}
@@ -0,0 +1,114 @@
+package utils;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import javax.swing.event.TableModelEvent;
+
+/**
+ * Simple test class to verify TransactionTableModel deltas and balances.
+ * Works on plain lists, so no store or backend is needed.
+ */
+public class TestTransactionTableModel {
+    private static final String IN = TransactionStore.TYPE_INCOME;
+    private static final String OUT = TransactionStore.TYPE_EXPENSE;
+
+    public static void main(String[] args) {
+        System.out.println("=== TransactionTableModel Basic Tests ===\n");
+
+        testCells();
+        testDelta();
+        testReset();
+
+        System.out.println("\n=== All basic tests passed ===");
+    }
+
+    private static TransactionStore.Transaction tx(String id, String date, String type, long amount) {
+        return new TransactionStore.Transaction(id, LocalDate.parse(date), type, "Makan", "BCA", "Bank",
+                amount, id.equals("b") ? "" : "Catatan " + id);
+    }
+
+    private static void testCells() {
+        TransactionTableModel model = new TransactionTableModel();
+        model.setTransactions(List.of(
+                tx("c", "2025-03-03", IN, 1000),
+                tx("b", "2025-03-02", OUT, 300),
+                tx("a", "2025-03-01", OUT, 200)));
+
+        assert model.getRowCount() == 3 : "Row count failed";
+        assert model.getValueAt(0, TransactionTableModel.COL_DATE).equals("2025-03-03") : "Date cell failed";
+        assert model.getValueAt(1, TransactionTableModel.COL_DESCRIPTION).equals("-") : "Blank description failed";
+        assert model.getValueAt(2, TransactionTableModel.COL_BALANCE).equals("Rp 500") : "Balance cell failed";
+        assert model.getValueAt(0, TransactionTableModel.COL_BALANCE).equals("Rp 1.000") : "Grouping failed";
+        assert model.indexOf("a") == 2 : "indexOf failed";
+
+        System.out.println("✓ cell tests passed");
+    }
+
+    private static void testDelta() {
+        TransactionTableModel model = new TransactionTableModel();
+        List<TransactionStore.Transaction> before = List.of(
+                tx("d", "2025-03-04", OUT, 10),
+                tx("c", "2025-03-03", IN, 1000),
+                tx("b", "2025-03-02", OUT, 300),
+                tx("a", "2025-03-01", OUT, 200));
+        model.setTransactions(before);
+        model.getValueAt(3, TransactionTableModel.COL_BALANCE); // Warm the cache
+
+        List<TableModelEvent> events = new ArrayList<>();
+        List<String> mismatches = new ArrayList<>();
+        int[] rowCount = { model.getRowCount() };
+        model.addTableModelListener(e -> {
+            events.add(e);
+            // Every event must agree with the row count the model reports
+            if (e.getType() == TableModelEvent.DELETE) {
+                rowCount[0] -= e.getLastRow() - e.getFirstRow() + 1;
+            } else if (e.getType() == TableModelEvent.INSERT) {
+                rowCount[0] += e.getLastRow() - e.getFirstRow() + 1;
+            }
+            if (rowCount[0] != model.getRowCount()) {
+                mismatches.add(e.getType() + "@" + e.getFirstRow());
+            }
+        });
+
+        // Remove c, move b above d, add e at the bottom
+        TransactionStore.Transaction movedB = tx("b", "2025-03-05", OUT, 300);
+        TransactionStore.Transaction e = tx("e", "2025-02-01", IN, 50);
+        List<TransactionStore.Transaction> after = List.of(movedB, before.get(0), before.get(3), e);
+        model.apply(after, new ChangeSet<>(List.of(e), List.of(movedB), List.of(before.get(1)), false));
+
+        assert mismatches.isEmpty() : "Events out of step with row count: " + mismatches;
+        assert events.stream().noneMatch(ev -> ev.getFirstRow() == TableModelEvent.HEADER_ROW)
+                : "Delta should not fire a full refresh";
+        assert model.getRowCount() == 4 : "Delta row count failed";
+        assert model.getTransaction(0).date().equals(LocalDate.parse("2025-03-05")) : "Moved row failed";
+        assert model.getTransaction(3).id().equals("e") : "Added row failed";
+        assert model.balanceAt(3) == -300 - 10 - 200 + 50 : "Balance after delta failed";
+        assert model.getValueAt(3, TransactionTableModel.COL_BALANCE).equals("Rp -460") : "Stale cached cell";
+
+        System.out.println("✓ delta tests passed");
+    }
+
+    private static void testReset() {
+        TransactionTableModel model = new TransactionTableModel();
+        model.setTransactions(List.of(tx("a", "2025-03-01", IN, 5)));
+        int[] full = { 0 };
+        model.addTableModelListener(e -> {
+            if (e.getFirstRow() == TableModelEvent.HEADER_ROW || e.getLastRow() == Integer.MAX_VALUE) {
+                full[0]++;
+            }
+        });
+
+        model.apply(List.of(), ChangeSet.resetAll());
+        assert full[0] == 1 : "Reset should fire one full refresh";
+        assert model.getRowCount() == 0 : "Reset row count failed";
+
+        // A change set that does not explain the new list falls back to a refresh
+        model.apply(List.of(tx("x", "2025-03-01", IN, 5), tx("y", "2025-03-01", IN, 5)),
+                new ChangeSet<>(List.of(tx("x", "2025-03-01", IN, 5)), List.of(), List.of(), false));
+        assert model.getRowCount() == 2 : "Fallback refresh failed";
+        assert full[0] == 2 : "Fallback should fire a full refresh";
+
+        System.out.println("✓ reset tests passed");
+    }
+}
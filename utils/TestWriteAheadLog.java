@@ -0,0 +1,104 @@
+package utils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Simple test class to verify that WriteAheadLog keeps exactly the commands
+ * that did not finish, across reloads and torn writes.
+ */
+public class TestWriteAheadLog {
+
+    public static void main(String[] args) throws IOException {
+        System.out.println("=== WriteAheadLog Basic Tests ===\n");
+
+        Path dir = Files.createTempDirectory("fintrack-wal");
+        Path file = dir.resolve("wal");
+        try {
+            testReload(file);
+            testTornWrite(file);
+            testBatchIds(file);
+        } finally {
+            Files.deleteIfExists(file);
+            Files.deleteIfExists(dir);
+        }
+
+        System.out.println("\n=== All basic tests passed ===");
+    }
+
+    private static PendingOperations.Command command(String key, String name, String localId, String... args) {
+        return new PendingOperations.Command(key, "user", name, localId, List.of(args));
+    }
+
+    private static void testReload(Path file) throws IOException {
+        WriteAheadLog log = new WriteAheadLog(file);
+        PendingOperations.Command add = command("k1", "ADD", "local-x-1", "2025-05-01", "Kopi | susu", "Makan",
+                "Pengeluaran", "5000", "BCA", "Bank");
+        PendingOperations.Command update = command("k2", "UPDATE", "local-x-1", "2025-05-01", "Kopi", "Makan",
+                "Pengeluaran", "6000", "BCA", "Bank");
+        PendingOperations.Command category = command("k3", "ADD_CATEGORY", null, "Pengeluaran", "Hobi");
+        log.append(add);
+        log.append(update);
+        log.append(category);
+        log.append(add); // Replayed commands are not logged twice
+        log.map("local-x-1", "77");
+        log.complete("k1");
+        log.complete("k3");
+
+        WriteAheadLog reloaded = new WriteAheadLog(file);
+        List<PendingOperations.Command> open = reloaded.load();
+        assert open.equals(List.of(update)) : "Only the unfinished command should remain";
+        assert reloaded.realIds().equals(java.util.Map.of("local-x-1", "77")) : "ID mapping should survive";
+        assert Files.readAllLines(file).size() == 2 : "Reload should compact the file";
+
+        reloaded.complete("k2");
+        assert !Files.exists(file) : "An empty log should be deleted";
+
+        // Separators inside values cannot be stored and become spaces
+        log = new WriteAheadLog(file);
+        log.append(add);
+        assert new WriteAheadLog(file).load().get(0).arg(1).equals("Kopi   susu") : "Separator should become a space";
+        log.complete("k1");
+
+        System.out.println("✓ reload tests passed");
+    }
+
+    private static void testTornWrite(Path file) throws IOException {
+        WriteAheadLog log = new WriteAheadLog(file);
+        log.append(command("k1", "DELETE", "5"));
+        log.force();
+        // A crash in the middle of the next entry
+        Files.writeString(file, "PUT|k2|user||ADD_CATEGORY|2|Pengeluaran|Ho", StandardCharsets.UTF_8,
+                StandardOpenOption.APPEND);
+
+        List<PendingOperations.Command> open = new WriteAheadLog(file).load();
+        assert open.size() == 1 && open.get(0).key().equals("k1") : "Torn entry should be skipped";
+
+        System.out.println("✓ torn write tests passed");
+    }
+
+    private static void testBatchIds(Path file) throws IOException {
+        WriteAheadLog log = new WriteAheadLog(file);
+        PendingOperations.Command batch = command("k1", "ADD_BATCH", null,
+                "local-x-1", "2025-05-01", "Kopi", "Makan", "Pengeluaran", "5000", "BCA", "Bank",
+                "local-x-2", "2025-05-02", "Teh", "Makan", "Pengeluaran", "4000", "BCA", "Bank");
+        log.append(batch);
+        log.map("local-x-1", "77");
+        log.map("local-x-9", "78"); // Row of a batch that finished
+
+        WriteAheadLog reloaded = new WriteAheadLog(file);
+        assert reloaded.load().equals(List.of(batch)) : "Batch should remain open";
+        assert reloaded.realIds().equals(java.util.Map.of("local-x-1", "77"))
+                : "Confirmed batch rows should keep their mapping";
+        reloaded = new WriteAheadLog(file);
+        reloaded.load();
+        assert reloaded.realIds().equals(java.util.Map.of("local-x-1", "77")) : "Mapping should survive compaction";
+        reloaded.complete("k1");
+
+        System.out.println("✓ batch id tests passed");
+    }
+}
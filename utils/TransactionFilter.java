@@ -0,0 +1,101 @@
+package utils;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.Locale;
+
+/**
+ * Criteria for TransactionStore.filter. Null fields match anything.
+ *
+ * @param from     earliest date, inclusive
+ * @param to       latest date, inclusive
+ * @param type     Pemasukan/Pengeluaran
+ * @param category category name, case-insensitive
+ * @param account  account name
+ * @param text     words that must each start a word of the description,
+ *                 case-insensitive
+ */
+public record TransactionFilter(LocalDate from, LocalDate to, String type, String category, String account,
+        String text) {
+    public static final TransactionFilter ALL = new TransactionFilter(null, null, null, null, null, null);
+
+    public TransactionFilter {
+        text = text == null || text.isBlank() ? null : text.trim().toLowerCase(Locale.ROOT);
+    }
+
+    public boolean isEmpty() {
+        return equals(ALL);
+    }
+
+    public TransactionFilter withDates(LocalDate from, LocalDate to) {
+        return new TransactionFilter(from, to, type, category, account, text);
+    }
+
+    public TransactionFilter withType(String type) {
+        return new TransactionFilter(from, to, type, category, account, text);
+    }
+
+    public TransactionFilter withCategory(String category) {
+        return new TransactionFilter(from, to, type, category, account, text);
+    }
+
+    public TransactionFilter withAccount(String account) {
+        return new TransactionFilter(from, to, type, category, account, text);
+    }
+
+    public TransactionFilter withText(String text) {
+        return new TransactionFilter(from, to, type, category, account, text);
+    }
+
+    /**
+     * Set the date range from user input: empty for any date, yyyy-MM-dd
+     * for one day, yyyy-MM for a month, or two dates separated by "..".
+     *
+     * @param input text typed by the user
+     * @return filter with the parsed range
+     * @throws IllegalArgumentException if the input is not a valid range
+     */
+    public TransactionFilter withDateRange(String input) {
+        String value = input == null ? "" : input.trim();
+        try {
+            if (value.isEmpty()) {
+                return withDates(null, null);
+            }
+            int dots = value.indexOf("..");
+            if (dots >= 0) {
+                String start = value.substring(0, dots).trim();
+                String end = value.substring(dots + 2).trim();
+                LocalDate first = start.isEmpty() ? null : LocalDate.parse(start);
+                LocalDate last = end.isEmpty() ? null : LocalDate.parse(end);
+                if (first != null && last != null && last.isBefore(first)) {
+                    throw new IllegalArgumentException("End date before start date: " + value);
+                }
+                return withDates(first, last);
+            }
+            if (value.length() == 7) {
+                YearMonth month = YearMonth.parse(value);
+                return withDates(month.atDay(1), month.atEndOfMonth());
+            }
+            LocalDate day = LocalDate.parse(value);
+            return withDates(day, day);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid date range: " + value, e);
+        }
+    }
+
+    /**
+     * Check one transaction against every criterion.
+     *
+     * @param tx transaction to test
+     * @return true if it passes all criteria
+     */
+    public boolean matches(TransactionStore.Transaction tx) {
+        return (from == null || !tx.date().isBefore(from))
+                && (to == null || !tx.date().isAfter(to))
+                && (type == null || TransactionRollup.typeKey(type).equals(TransactionRollup.typeKey(tx.type())))
+                && (category == null || category.equalsIgnoreCase(tx.category()))
+                && (account == null || account.equals(tx.accountName()))
+                && (text == null || SearchIndex.matches(tx.description(), text));
+    }
+}
@@ -0,0 +1,263 @@
+package utils;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * TransactionPager serves the transaction ledger one page at a time, newest
+ * first, for views that only show a window of it.
+ * Once TransactionStore has loaded the ledger, pages are cut from its
+ * snapshot, so optimistic and offline changes show at once and paging costs
+ * no round trip. Before that, pages come from the backend through GET_PAGE,
+ * so the first page is on screen without waiting for the whole ledger.
+ * While a filter is set, pages are cut from the filtered result, which is
+ * computed once from the store's indexes and shared by all pages.
+ * A few recent pages are cached and the page after the one requested is
+ * prefetched in the background. Call invalidate() whenever the ledger
+ * changes.
+ */
+public class TransactionPager {
+    public static final String SORT_DATE_DESC = "DATE_DESC";
+
+    // Pages kept around, including the prefetched one
+    private static final int CACHED_PAGES = 4;
+    // Cleared once the backend rejects GET_PAGE so we stop asking
+    private static volatile boolean pagingSupported = true;
+
+    private final SocketClient client = SocketClient.getInstance();
+    private final SessionManager sessionManager = SessionManager.getInstance();
+    private final int pageSize;
+    // Guarded by this; futures so concurrent requests share one fetch
+    private final Map<Integer, CompletableFuture<Page>> cache =
+            new LinkedHashMap<>(8, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Integer, CompletableFuture<Page>> eldest) {
+                    return size() > CACHED_PAGES;
+                }
+            };
+    private long generation;
+    // Guarded by this
+    private TransactionFilter filter = TransactionFilter.ALL;
+    private List<TransactionStore.Transaction> filtered;
+
+    /**
+     * @param pageSize rows per page
+     */
+    public TransactionPager(int pageSize) {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("pageSize must be positive");
+        }
+        this.pageSize = pageSize;
+    }
+
+    public int pageSize() {
+        return pageSize;
+    }
+
+    /**
+     * Get a page, from the cache if possible. Once it arrives the following
+     * page is prefetched. A page past the end resolves to the last page.
+     *
+     * @param index zero-based page number
+     * @return future completed on a background thread with the page, or
+     *         exceptionally with the backend error
+     */
+    public CompletableFuture<Page> page(int index) {
+        CompletableFuture<Page> future = request(Math.max(0, index));
+        future.thenAccept(page -> {
+            if (page.index() + 1 < page.pageCount()) {
+                request(page.index() + 1); // Prefetch
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Drop all cached pages. Fetches still in flight finish but are not
+     * cached.
+     */
+    public synchronized void invalidate() {
+        cache.clear();
+        filtered = null;
+        generation++;
+    }
+
+    /**
+     * Page through the transactions passing the filter only. Clears the
+     * cache if the filter changed.
+     *
+     * @param filter criteria, or TransactionFilter.ALL for the whole ledger
+     */
+    public synchronized void setFilter(TransactionFilter filter) {
+        if (!filter.equals(this.filter)) {
+            this.filter = filter;
+            invalidate();
+        }
+    }
+
+    public synchronized TransactionFilter filter() {
+        return filter;
+    }
+
+    private synchronized CompletableFuture<Page> request(int index) {
+        CompletableFuture<Page> cached = cache.get(index);
+        if (cached != null && !cached.isCompletedExceptionally()) {
+            return cached;
+        }
+        long requestedIn = generation;
+        CompletableFuture<Page> future = BackgroundExecutor
+                .submitCoalesced("TransactionPager@" + System.identityHashCode(this) + ":" + requestedIn + ":" + index,
+                        () -> fetchClamped(index));
+        cache.put(index, future);
+        return future;
+    }
+
+    private Page fetchClamped(int index) throws IOException {
+        Page page = fetch(index);
+        if (page.rows().isEmpty() && page.total() > 0) {
+            // Ledger shrank below this page; show the last one instead
+            page = fetch(page.pageCount() - 1);
+        }
+        return page;
+    }
+
+    private Page fetch(int index) throws IOException {
+        int offset = index * pageSize;
+        List<TransactionStore.Transaction> matches = filteredRows();
+        if (matches != null) {
+            return slice(matches, index, offset);
+        }
+        if (pagingSupported && !TransactionStore.isLoaded()) {
+            String sessionToken = sessionManager.getSessionToken();
+            if (sessionToken == null || sessionToken.isEmpty()) {
+                throw new IOException("No valid session. Please login.");
+            }
+            // Format: GET_PAGE|sessionToken|offset|limit|sort
+            String command = client.formatCommand("GET_PAGE", sessionToken, String.valueOf(offset),
+                    String.valueOf(pageSize), SORT_DATE_DESC);
+            Page page = client.sendCommand(command, reader -> readPage(reader, index));
+            if (page != null) {
+                return page;
+            }
+        }
+        return localPage(index, offset);
+    }
+
+    /**
+     * Stream a DATA_PAGE response.
+     * Format:
+     * DATA_PAGE|total|offset|count|carry|id1|username1|date1|desc1|cat1|type1|amount1|accName1|accType1|...
+     * where carry is the running balance of all rows before offset.
+     *
+     * @return the page, or null if the backend could not serve it
+     */
+    private Page readPage(ResponseReader reader, int index) throws IOException {
+        String head = reader.nextField();
+        if ("ERROR".equals(head)) {
+            String response = "ERROR|" + reader.restOfLine();
+            String[] parts = client.parseResponse(response);
+            String code = parts.length >= 2 ? parts[1] : "";
+            if (code.startsWith("SESSION_")) {
+                throw new IOException(client.getErrorMessage(response));
+            }
+            if (code.equals("UNKNOWN_COMMAND")) {
+                // Backend without paging: serve pages locally from now on
+                pagingSupported = false;
+            }
+            // Other errors only affect this request; serve it locally
+            return null;
+        }
+        if (!"DATA_PAGE".equals(head)) {
+            reader.finishLine();
+            throw new IOException("Unexpected response format");
+        }
+        int total = reader.nextInt();
+        int offset = reader.nextInt();
+        int count = reader.nextInt();
+        long carry = reader.nextLong();
+        List<TransactionStore.Transaction> rows = new ArrayList<>(Math.min(count, pageSize));
+        Map<String, String> pool = new HashMap<>();
+        for (int i = 0; i < count && reader.hasMoreFields(); i++) {
+            TransactionStore.Transaction tx = TransactionStore.readTransaction(reader.nextField(), reader, pool);
+            if (tx == null) {
+                break; // Not enough data
+            }
+            rows.add(tx);
+        }
+        reader.finishLine();
+        return new Page(offset / pageSize, offset, total, pageSize, carry, List.copyOf(rows));
+    }
+
+    /**
+     * Slice a page out of the local snapshot. The snapshot list wraps the
+     * store's sorted array, so this copies one page, not the ledger.
+     */
+    private Page localPage(int index, int offset) {
+        return slice(TransactionStore.snapshot().transactions(), index, offset);
+    }
+
+    /**
+     * Result of the current filter, evaluated at most once per generation.
+     *
+     * @return matching rows, or null when no filter is set
+     */
+    private List<TransactionStore.Transaction> filteredRows() {
+        TransactionFilter current;
+        long requestedIn;
+        synchronized (this) {
+            if (filter.isEmpty()) {
+                return null;
+            }
+            if (filtered != null) {
+                return filtered;
+            }
+            current = filter;
+            requestedIn = generation;
+        }
+        List<TransactionStore.Transaction> result = TransactionStore.filter(current);
+        synchronized (this) {
+            if (requestedIn == generation) {
+                filtered = result;
+            }
+        }
+        return result;
+    }
+
+    private Page slice(List<TransactionStore.Transaction> all, int index, int offset) {
+        int from = Math.min(offset, all.size());
+        int to = Math.min(from + pageSize, all.size());
+        long carry = 0;
+        for (int i = 0; i < from; i++) {
+            TransactionStore.Transaction tx = all.get(i);
+            carry += tx.isIncome() ? tx.amount() : -tx.amount();
+        }
+        return new Page(index, from, all.size(), pageSize, carry, List.copyOf(all.subList(from, to)));
+    }
+
+    /**
+     * One page of the ledger.
+     *
+     * @param index    zero-based page number
+     * @param offset   position of the first row in the whole ledger
+     * @param total    number of transactions in the whole ledger
+     * @param pageSize rows per page
+     * @param carry    running balance of all rows before this page
+     * @param rows     transactions on this page, newest first
+     */
+    public record Page(int index, int offset, int total, int pageSize, long carry,
+            List<TransactionStore.Transaction> rows) {
+
+        /**
+         * @return number of pages, at least 1 so an empty ledger still has a
+         *         page to show
+         */
+        public int pageCount() {
+            return Math.max(1, (total + pageSize - 1) / pageSize);
+        }
+    }
+}
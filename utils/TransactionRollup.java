@@ -0,0 +1,185 @@
+package utils;
+
+import java.time.YearMonth;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * TransactionRollup is an immutable view of pre-aggregated transaction
+ * totals keyed by (month, type, category, account).
+ * TransactionStore keeps the underlying table up to date on every mutation,
+ * so charts and summary cards read totals without scanning the ledger.
+ */
+public final class TransactionRollup {
+    private final Map<Key, Cell> cells;
+    // Derived per-month and per-type totals, the most common lookups
+    private final Map<YearMonth, Map<String, Cell>> byMonth = new HashMap<>();
+    private final Map<String, Cell> byType = new HashMap<>();
+
+    private TransactionRollup(Map<Key, Cell> cells) {
+        this.cells = Collections.unmodifiableMap(cells);
+        for (Map.Entry<Key, Cell> e : cells.entrySet()) {
+            Key key = e.getKey();
+            byMonth.computeIfAbsent(key.month(), m -> new HashMap<>()).merge(key.type(), e.getValue(), Cell::plus);
+            byType.merge(key.type(), e.getValue(), Cell::plus);
+        }
+    }
+
+    /**
+     * Every non-empty cell of the rollup table.
+     *
+     * @return unmodifiable map of cells
+     */
+    public Map<Key, Cell> cells() {
+        return cells;
+    }
+
+    /**
+     * Total of one type in one month.
+     *
+     * @param month month, or null for all time
+     * @param type  Pemasukan/Pengeluaran
+     * @return sum of amounts
+     */
+    public long total(YearMonth month, String type) {
+        return cell(month, type).total();
+    }
+
+    /**
+     * Amount and count of one type in one month.
+     *
+     * @param month month, or null for all time
+     * @param type  Pemasukan/Pengeluaran
+     * @return aggregated cell, empty if nothing matched
+     */
+    public Cell cell(YearMonth month, String type) {
+        Map<String, Cell> types = month == null ? byType : byMonth.getOrDefault(month, Map.of());
+        return types.getOrDefault(typeKey(type), Cell.EMPTY);
+    }
+
+    /**
+     * Totals grouped by category.
+     *
+     * @param month month, or null for all time
+     * @param type  Pemasukan/Pengeluaran, or null for both
+     * @return category name to aggregated cell
+     */
+    public Map<String, Cell> byCategory(YearMonth month, String type) {
+        String typeKey = type == null ? null : typeKey(type);
+        Map<String, Cell> result = new LinkedHashMap<>();
+        for (Map.Entry<Key, Cell> e : cells.entrySet()) {
+            Key key = e.getKey();
+            if ((month == null || month.equals(key.month())) && (typeKey == null || typeKey.equals(key.type()))) {
+                result.merge(key.category(), e.getValue(), Cell::plus);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * All-time amount and count of one category, matched case-insensitively.
+     *
+     * @param type     Pemasukan/Pengeluaran
+     * @param category category name
+     * @return aggregated cell, empty if nothing matched
+     */
+    public Cell category(String type, String category) {
+        String typeKey = typeKey(type);
+        String wanted = category.toLowerCase(Locale.ROOT);
+        Cell sum = Cell.EMPTY;
+        for (Map.Entry<Key, Cell> e : cells.entrySet()) {
+            Key key = e.getKey();
+            if (typeKey.equals(key.type()) && key.category() != null
+                    && wanted.equals(key.category().toLowerCase(Locale.ROOT))) {
+                sum = sum.plus(e.getValue());
+            }
+        }
+        return sum;
+    }
+
+    // Anything that is not income counts as expense, as in isIncome()
+    static String typeKey(String type) {
+        return TransactionStore.TYPE_INCOME.equalsIgnoreCase(type)
+                ? TransactionStore.TYPE_INCOME
+                : TransactionStore.TYPE_EXPENSE;
+    }
+
+    /**
+     * Rollup table key.
+     *
+     * @param month    transaction month
+     * @param type     normalized type, Pemasukan or Pengeluaran
+     * @param category category name as stored
+     * @param account  account name as stored
+     */
+    public record Key(YearMonth month, String type, String category, String account) {
+    }
+
+    /**
+     * Aggregated amount and transaction count.
+     *
+     * @param total sum of amounts
+     * @param count number of transactions
+     */
+    public record Cell(long total, int count) {
+        public static final Cell EMPTY = new Cell(0, 0);
+
+        public Cell plus(Cell other) {
+            return new Cell(total + other.total, count + other.count);
+        }
+    }
+
+    /**
+     * Mutable rollup table owned by TransactionStore. Not thread-safe; the
+     * store guards it with its class lock.
+     */
+    static final class Table {
+        private final Map<Key, long[]> sums = new HashMap<>();
+        private TransactionRollup view;
+
+        void add(TransactionStore.Transaction tx) {
+            long[] sum = sums.computeIfAbsent(keyOf(tx), k -> new long[2]);
+            sum[0] += tx.amount();
+            sum[1]++;
+            view = null;
+        }
+
+        void remove(TransactionStore.Transaction tx) {
+            Key key = keyOf(tx);
+            long[] sum = sums.get(key);
+            if (sum == null) {
+                return;
+            }
+            sum[0] -= tx.amount();
+            sum[1]--;
+            if (sum[1] <= 0) {
+                sums.remove(key);
+            }
+            view = null;
+        }
+
+        void clear() {
+            sums.clear();
+            view = null;
+        }
+
+        /**
+         * Immutable view of the current table, rebuilt only after a change.
+         */
+        TransactionRollup view() {
+            if (view == null) {
+                Map<Key, Cell> copy = new HashMap<>(sums.size() * 2);
+                sums.forEach((key, sum) -> copy.put(key, new Cell(sum[0], (int) sum[1])));
+                view = new TransactionRollup(copy);
+            }
+            return view;
+        }
+
+        private static Key keyOf(TransactionStore.Transaction tx) {
+            return new Key(tx.yearMonth(), typeKey(tx.type()), tx.category(), tx.accountName());
+        }
+    }
+}
@@ -1,33 +1,102 @@
 package utils;
 
+import java.io.IOException;
 import java.time.LocalDate;
 import java.time.YearMonth;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.function.Consumer;
 
 public final class TransactionStore {
     public static final String TYPE_INCOME = "Pemasukan";
     public static final String TYPE_EXPENSE = "Pengeluaran";
     private static final DateTimeFormatter FMT = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+    private static final Comparator<Transaction> NEWEST_FIRST = Comparator.comparing(Transaction::date).reversed();
 
-    private static final List<Transaction> transactions = new ArrayList<>();
-    private static final List<Consumer<Snapshot>> listeners = new ArrayList<>();
+    // Primary storage by transaction ID; every write goes through
+    // putInternal/removeInternal/clearInternal so the indexes stay in step
+    private static final Map<String, Transaction> byId = new LinkedHashMap<>();
+    private static final Index<YearMonth> byMonth = new Index<>();
+    private static final Index<String> byCategory = new Index<>();
+    private static final Index<String> byAccount = new Index<>();
+    private static final Index<String> byType = new Index<>();
+    // Per (month, type, category, account) totals, kept alongside the indexes
+    private static final TransactionRollup.Table rollup = new TransactionRollup.Table();
+    // Description words to IDs, for prefix search
+    private static final SearchIndex search = new SearchIndex();
+    // All transactions newest first. Copy-on-write: a published array is
+    // never modified, so snapshots can wrap it without copying. Null while a
+    // bulk change is in progress; rebuilt with one sort on the next snapshot
+    private static Transaction[] sorted = new Transaction[0];
+    private static Snapshot cachedSnapshot;
+    // Above this many changes one sort beats per-row array copies
+    private static final int INCREMENTAL_LIMIT = 32;
+    // Commands this store sends through PendingOperations
+    private static final Set<String> COMMANDS = Set.of("ADD", "UPDATE", "DELETE", "ADD_BATCH");
+    // Rows per ADD_BATCH command, and logged fields per row
+    private static final int BATCH_SIZE = 500;
+    static final int BATCH_ROW_FIELDS = 8;
+    // Cleared once the backend rejects ADD_BATCH as unknown
+    private static volatile boolean batchCommandSupported = true;
+    // Delivers snapshots and change sets to listeners on the EDT
+    private static final StoreNotifier<Snapshot, Transaction> notifier =
+            new StoreNotifier<>(TransactionStore.class, TransactionStore::snapshot, Transaction::id);
     private static final SocketClient client = SocketClient.getInstance();
     private static final SessionManager sessionManager = SessionManager.getInstance();
 
+    // Ledger version reached through GET_SINCE; -1 when unknown (e.g. after a
+    // full GET_ALL reload, which carries no version)
+    private static long syncVersion = -1;
+    // Set once the whole ledger has been loaded, from the backend or the
+    // local cache; until then the store only holds local changes
+    private static boolean loaded;
+    // Cleared once the backend rejects GET_SINCE so we stop asking
+    private static volatile boolean deltaSyncSupported = true;
+    // Rows per DATA_CHUNK line when loading the whole ledger
+    private static final int LOAD_CHUNK_SIZE = 2000;
+    // Cleared once the backend rejects GET_ALL_CHUNKED
+    private static volatile boolean chunkedLoadSupported = true;
+
     private TransactionStore() {
     }
 
-    public static synchronized void addListener(Consumer<Snapshot> listener) {
-        listeners.add(listener);
-        listener.accept(snapshot());
+    /**
+     * Register a snapshot listener. Called once right away, then on the EDT
+     * after each batch of changes.
+     * 
+     * @param listener snapshot consumer
+     */
+    public static void addListener(Consumer<Snapshot> listener) {
+        notifier.addListener(listener);
     }
 
     /**
-     * Add transaction asynchronously via backend.
+     * Register a listener that also receives the added, updated and removed
+     * transactions, so it can update incrementally. Called once right away
+     * with a reset change set, then on the EDT after each batch of changes.
+     * 
+     * @param listener change listener
+     */
+    public static void addChangeListener(StoreNotifier.ChangeListener<Snapshot, Transaction> listener) {
+        notifier.addChangeListener(listener);
+    }
+
+    /**
+     * Add a transaction. It is stored under a provisional ID and shown to
+     * listeners right away, then sent to the backend in the background; the
+     * row moves to its real ID once the backend confirms it and is removed
+     * again if the backend rejects it.
      * 
      * @param date        transaction date (yyyy-MM-dd)
      * @param type        transaction type (Pemasukan/Pengeluaran)
@@ -36,66 +105,25 @@ public final class TransactionStore {
      * @param accountType account type
      * @param amount      transaction amount (long integer)
      * @param desc        transaction description
-     * @param onSuccess   callback with transaction ID on success
-     * @param onError     callback with error message on failure
+     * @param onSuccess   callback with the real transaction ID once confirmed
+     * @param onError     callback with error message after the rollback
      */
     public static void addTransaction(String date, String type, String category,
             String accountName, String accountType,
             long amount, String desc,
             Consumer<String> onSuccess,
             Consumer<String> onError) {
-        executeAsync(() -> {
-            try {
-                String sessionToken = sessionManager.getSessionToken();
-                if (sessionToken == null || sessionToken.isEmpty()) {
-                    updateUI(() -> onError.accept("No valid session. Please login."));
-                    return;
-                }
-
-                // Format:
-                // ADD|sessionToken|date|description|category|type|amount|accountName|accountType
-                String command = client.formatCommand("ADD", sessionToken, date, desc,
-                        category, type, String.valueOf(amount),
-                        accountName, accountType);
-                String response = client.sendCommand(command);
-
-                if (client.isErrorResponse(response)) {
-                    String errorMsg = client.getErrorMessage(response);
-                    updateUI(() -> onError.accept(errorMsg));
-                    return;
-                }
-
-                // Parse response - backend returns SUMMARY with transaction data
-                // For now, we'll generate a local ID and add to list
-                // Then reload from backend to get the actual ID
-                String[] parts = client.parseResponse(response);
-
-                // Response format:
-                // SUMMARY|id|username|date|desc|category|type|amount|accountName|accountType|balance
-                if (parts.length >= 2 && parts[0].equals("SUMMARY")) {
-                    String transactionId = parts[1];
-
-                    synchronized (TransactionStore.class) {
-                        addInternal(transactionId, parseDate(date), type, category,
-                                accountName, accountType, amount, desc);
-                        notifyListeners();
-                    }
-
-                    updateUI(() -> onSuccess.accept(transactionId));
-                } else {
-                    updateUI(() -> onError.accept("Unexpected response format"));
-                }
-
-            } catch (Exception e) {
-                updateUI(() -> onError.accept("Failed to add transaction: " + e.getMessage()));
-            }
-        });
+        // Format:
+        // ADD|sessionToken|date|description|category|type|amount|accountName|accountType|key
+        execute(PendingOperations.command("ADD", PendingOperations.provisionalId(), date, desc,
+                category, type, String.valueOf(amount), accountName, accountType), onSuccess, onError);
     }
 
     /**
-     * Update transaction asynchronously via backend.
+     * Update a transaction. The change is shown to listeners right away and
+     * undone if the backend rejects it.
      * 
-     * @param id          transaction ID
+     * @param id          transaction ID, provisional or real
      * @param date        transaction date (yyyy-MM-dd)
      * @param type        transaction type
      * @param category    transaction category
@@ -103,98 +131,921 @@ public final class TransactionStore {
      * @param accountType account type
      * @param amount      transaction amount
      * @param desc        transaction description
-     * @param onSuccess   callback on success
-     * @param onError     callback with error message on failure
+     * @param onSuccess   callback once confirmed
+     * @param onError     callback with error message after the rollback
      */
     public static void updateTransaction(String id, String date, String type,
             String category, String accountName,
             String accountType, long amount, String desc,
             Runnable onSuccess, Consumer<String> onError) {
-        executeAsync(() -> {
-            try {
-                String sessionToken = sessionManager.getSessionToken();
-                if (sessionToken == null || sessionToken.isEmpty()) {
-                    updateUI(() -> onError.accept("No valid session. Please login."));
-                    return;
-                }
+        // Format:
+        // UPDATE|sessionToken|id|date|description|category|type|amount|accountName|accountType|key
+        execute(PendingOperations.command("UPDATE", PendingOperations.resolve(id), date, desc,
+                category, type, String.valueOf(amount), accountName, accountType),
+                confirmedId -> onSuccess.run(), onError);
+    }
 
-                // Format:
-                // UPDATE|sessionToken|id|date|description|category|type|amount|accountName|accountType
-                String command = client.formatCommand("UPDATE", sessionToken, id, date, desc,
-                        category, type, String.valueOf(amount),
-                        accountName, accountType);
-                String response = client.sendCommand(command);
+    /**
+     * Remove a transaction. It disappears for listeners right away and comes
+     * back if the backend rejects the delete.
+     * 
+     * @param id        transaction ID to remove, provisional or real
+     * @param onSuccess callback once confirmed
+     * @param onError   callback with error message after the rollback
+     */
+    public static void removeTransaction(String id, Runnable onSuccess, Consumer<String> onError) {
+        // Format: DELETE|sessionToken|id|key
+        execute(PendingOperations.command("DELETE", PendingOperations.resolve(id)),
+                confirmedId -> onSuccess.run(), onError);
+    }
 
-                if (client.isErrorResponse(response)) {
-                    String errorMsg = client.getErrorMessage(response);
-                    updateUI(() -> onError.accept(errorMsg));
-                    return;
+    /**
+     * Add many transactions at once, e.g. from an imported statement. All
+     * rows are stored under provisional IDs in one change and listeners are
+     * notified once; they are then sent as ADD_BATCH commands of up to
+     * BATCH_SIZE rows each. Backends without ADD_BATCH get the rows as
+     * pipelined ADD commands instead.
+     * Rows with an invalid date or a non-positive amount are not sent.
+     * 
+     * @param rows       transactions to add
+     * @param onComplete callback with one result per row, in input order,
+     *                   once every row is confirmed or rejected
+     */
+    public static void addTransactions(List<NewTransaction> rows, Consumer<List<RowResult>> onComplete) {
+        RowResult[] results = new RowResult[rows.size()];
+        List<PendingOperations.Command> commands = new ArrayList<>();
+        List<int[]> positions = new ArrayList<>();
+        List<String> args = new ArrayList<>();
+        List<Integer> chunk = new ArrayList<>();
+        for (int i = 0; i <= rows.size(); i++) {
+            if (i == rows.size() || chunk.size() == BATCH_SIZE) {
+                if (!chunk.isEmpty()) {
+                    commands.add(PendingOperations.command("ADD_BATCH", null, args.toArray(new String[0])));
+                    positions.add(chunk.stream().mapToInt(Integer::intValue).toArray());
+                    args.clear();
+                    chunk.clear();
                 }
-
-                // Update local list
-                synchronized (TransactionStore.class) {
-                    transactions.removeIf(t -> t.id().equals(id));
-                    addInternal(id, parseDate(date), type, category, accountName, accountType, amount, desc);
-                    notifyListeners();
+                if (i == rows.size()) {
+                    break;
                 }
+            }
+            NewTransaction row = rows.get(i);
+            String error = row.validate();
+            if (error != null) {
+                results[i] = new RowResult(null, error);
+                continue;
+            }
+            // Fields per row: localId|date|description|category|type|amount|accountName|accountType
+            Collections.addAll(args, PendingOperations.provisionalId(), row.date(), row.description(),
+                    row.category(), row.type(), String.valueOf(row.amount()), row.accountName(),
+                    row.accountType());
+            chunk.add(i);
+        }
+        if (commands.isEmpty()) {
+            updateUI(() -> onComplete.accept(List.of(results)));
+            return;
+        }
 
-                updateUI(onSuccess);
+        synchronized (TransactionStore.class) {
+            applyBatchLocal(commands);
+            notifyListeners();
+        }
+        int[] remaining = { commands.size() };
+        for (int c = 0; c < commands.size(); c++) {
+            int[] at = positions.get(c);
+            submitBatch(commands.get(c), chunkResults -> {
+                // Runs on the EDT
+                for (int k = 0; k < at.length; k++) {
+                    results[at[k]] = chunkResults.get(k);
+                }
+                if (--remaining[0] == 0) {
+                    onComplete.accept(List.of(results));
+                }
+            });
+        }
+    }
 
-            } catch (Exception e) {
-                updateUI(() -> onError.accept("Failed to update transaction: " + e.getMessage()));
+    /**
+     * Apply a command left in the write-ahead log and queue it again.
+     * 
+     * @param command logged ADD, UPDATE, DELETE or ADD_BATCH
+     */
+    static void replay(PendingOperations.Command command) {
+        if (command.name().equals("ADD_BATCH")) {
+            synchronized (TransactionStore.class) {
+                applyBatchLocal(List.of(command));
+                notifyListeners();
             }
+            submitBatch(command, results -> {
+            });
+            return;
+        }
+        execute(command, confirmedId -> {
+        }, error -> {
         });
     }
 
     /**
-     * Remove transaction asynchronously via backend.
+     * Queue an ADD_BATCH whose rows are already applied locally. If the
+     * backend rejects the whole command, its unconfirmed rows are removed.
      * 
-     * @param id        transaction ID to remove
-     * @param onSuccess callback on success
-     * @param onError   callback with error message on failure
+     * @param onComplete callback on the EDT with one result per row
      */
-    public static void removeTransaction(String id, Runnable onSuccess, Consumer<String> onError) {
-        executeAsync(() -> {
-            try {
-                String sessionToken = sessionManager.getSessionToken();
-                if (sessionToken == null || sessionToken.isEmpty()) {
-                    updateUI(() -> onError.accept("No valid session. Please login."));
-                    return;
-                }
+    private static void submitBatch(PendingOperations.Command command, Consumer<List<RowResult>> onComplete) {
+        int count = batchRows(command);
+        PendingOperations.submit("Tambah " + count + " transaksi", command,
+                () -> sendBatch(command, onComplete), error -> {
+                    String[] errors = new String[count];
+                    Arrays.fill(errors, error);
+                    List<RowResult> results = settleBatch(command, errors);
+                    updateUI(() -> onComplete.accept(results));
+                });
+    }
 
-                // Format: DELETE|sessionToken|id
-                String command = client.formatCommand("DELETE", sessionToken, id);
-                String response = client.sendCommand(command);
+    /**
+     * Send the unconfirmed rows of an ADD_BATCH, as one command if the
+     * backend supports it and as pipelined ADD commands otherwise.
+     * 
+     * Format: ADD_BATCH|sessionToken|count|date|description|category|type|amount|accountName|accountType|...|key
+     * Response: BATCH_RESULT|count|status|value|... with one status per row,
+     * OK followed by the new ID or ERROR followed by the reason
+     * 
+     * @return null once every row is confirmed or rejected, otherwise the
+     *         error that rejected the whole command
+     * @throws IOException if the backend could not be reached; rows
+     *                     confirmed so far are not sent again
+     */
+    private static String sendBatch(PendingOperations.Command command, Consumer<List<RowResult>> onComplete)
+            throws IOException {
+        String sessionToken = sessionManager.getSessionToken();
+        if (sessionToken == null || sessionToken.isEmpty()) {
+            return "No valid session. Please login.";
+        }
+        int count = batchRows(command);
+        String[] errors = new String[count];
+        List<Integer> open = new ArrayList<>();
+        for (int row = 0; row < count; row++) {
+            String localId = command.arg(row * BATCH_ROW_FIELDS);
+            if (PendingOperations.resolve(localId).equals(localId)) {
+                open.add(row);
+            }
+        }
 
+        try {
+            if (!open.isEmpty() && batchCommandSupported) {
+                StringBuilder line = new StringBuilder("ADD_BATCH|").append(sessionToken).append('|')
+                        .append(open.size());
+                for (int row : open) {
+                    for (int f = 1; f < BATCH_ROW_FIELDS; f++) {
+                        line.append('|').append(command.arg(row * BATCH_ROW_FIELDS + f));
+                    }
+                }
+                line.append('|').append(command.key());
+                String response = client.sendCommand(line.toString());
+                String[] parts = client.parseResponse(response);
                 if (client.isErrorResponse(response)) {
-                    String errorMsg = client.getErrorMessage(response);
-                    updateUI(() -> onError.accept(errorMsg));
-                    return;
+                    String code = parts.length >= 3 ? parts[1] : "";
+                    if (code.startsWith("SESSION_")) {
+                        return client.getErrorMessage(response);
+                    }
+                    if (code.equals("UNKNOWN_COMMAND")) {
+                        // Older backend: send rows one by one from now on
+                        batchCommandSupported = false;
+                    }
+                    // Otherwise find out which rows it objects to
+                    sendRows(command, sessionToken, open, errors);
+                } else {
+                    if (parts.length != 2 + 2 * open.size() || !parts[0].equals("BATCH_RESULT")) {
+                        return "Unexpected response format";
+                    }
+                    for (int k = 0; k < open.size(); k++) {
+                        int row = open.get(k);
+                        String value = parts[3 + 2 * k];
+                        if (parts[2 + 2 * k].equals("OK")) {
+                            PendingOperations.confirmId(command.arg(row * BATCH_ROW_FIELDS), value);
+                        } else {
+                            errors[row] = value;
+                        }
+                    }
                 }
+            } else if (!open.isEmpty()) {
+                sendRows(command, sessionToken, open, errors);
+            }
+        } finally {
+            // Keep confirmed rows under their real IDs even if the
+            // connection dropped halfway
+            List<RowResult> results = settleBatch(command, errors);
+            if (results.stream().allMatch(r -> r.id() != null || r.error() != null)) {
+                updateUI(() -> onComplete.accept(results));
+            }
+        }
+        return null;
+    }
 
-                // Remove from local list
-                synchronized (TransactionStore.class) {
-                    transactions.removeIf(t -> t.id().equals(id));
-                    notifyListeners();
+    /**
+     * Send rows of an ADD_BATCH as individual ADD commands, all written
+     * before the first response is read. Each gets the batch key plus its
+     * row number as idempotency key.
+     * 
+     * @throws IOException if the connection was lost; rows whose response
+     *                     arrived are confirmed or rejected regardless
+     */
+    private static void sendRows(PendingOperations.Command command, String sessionToken, List<Integer> rows,
+            String[] errors) throws IOException {
+        List<java.util.concurrent.CompletableFuture<String>> responses = new ArrayList<>(rows.size());
+        for (int row : rows) {
+            List<String> parts = new ArrayList<>(BATCH_ROW_FIELDS + 2);
+            parts.add("ADD");
+            parts.add(sessionToken);
+            parts.addAll(command.args().subList(row * BATCH_ROW_FIELDS + 1, (row + 1) * BATCH_ROW_FIELDS));
+            parts.add(command.key() + "-" + row);
+            responses.add(client.sendCommandAsync(String.join("|", parts)));
+        }
+        IOException lost = null;
+        for (int k = 0; k < rows.size(); k++) {
+            int row = rows.get(k);
+            String response;
+            try {
+                response = responses.get(k).join();
+            } catch (java.util.concurrent.CompletionException e) {
+                lost = e.getCause() instanceof IOException io ? io : new IOException(e.getCause());
+                continue;
+            }
+            // Response format: SUMMARY|id|...
+            String[] parts = client.parseResponse(response);
+            if (client.isErrorResponse(response)) {
+                errors[row] = client.getErrorMessage(response);
+            } else if (parts.length < 2 || !parts[0].equals("SUMMARY")) {
+                errors[row] = "Unexpected response format";
+            } else {
+                PendingOperations.confirmId(command.arg(row * BATCH_ROW_FIELDS), parts[1]);
+            }
+        }
+        if (lost != null) {
+            throw lost;
+        }
+    }
+
+    /**
+     * Move confirmed rows of an ADD_BATCH to their real IDs and remove the
+     * rejected ones, as one change.
+     * 
+     * @param errors rejection per row, null for rows not rejected
+     * @return result per row; rows neither confirmed nor rejected have
+     *         neither an ID nor an error
+     */
+    private static List<RowResult> settleBatch(PendingOperations.Command command, String[] errors) {
+        int count = batchRows(command);
+        List<RowResult> results = new ArrayList<>(count);
+        synchronized (TransactionStore.class) {
+            Map<String, String> renames = new HashMap<>();
+            List<String> rejected = new ArrayList<>();
+            for (int row = 0; row < count; row++) {
+                String localId = command.arg(row * BATCH_ROW_FIELDS);
+                String realId = PendingOperations.resolve(localId);
+                if (!realId.equals(localId)) {
+                    renames.put(localId, realId);
+                    results.add(new RowResult(realId, null));
+                } else {
+                    if (errors[row] != null) {
+                        rejected.add(localId);
+                    }
+                    results.add(new RowResult(null, errors[row]));
                 }
+            }
+            beginBatch(rejected.size());
+            boolean changed = false;
+            for (String localId : rejected) {
+                changed |= removeInternal(localId);
+            }
+            renames.keySet().retainAll(byId.keySet());
+            renameInternal(renames);
+            if (changed || !renames.isEmpty()) {
+                notifyListeners();
+            }
+        }
+        return results;
+    }
 
-                updateUI(onSuccess);
+    /**
+     * Apply ADD_BATCH commands. The new rows are sorted among themselves and
+     * merged into the sorted array in one pass, so adding k rows to n costs
+     * O(n + k log k) instead of a re-sort of all n + k on the next snapshot.
+     * Caller must hold the class lock.
+     */
+    private static void applyBatchLocal(List<PendingOperations.Command> commands) {
+        Transaction[] before = sorted;
+        sorted = null; // Skip per-row array copies while adding
+        List<Transaction> added = new ArrayList<>();
+        for (PendingOperations.Command command : commands) {
+            for (int row = 0; row < batchRows(command); row++) {
+                String rowId = command.arg(row * BATCH_ROW_FIELDS);
+                if (PendingOperations.resolve(rowId).equals(rowId) && !byId.containsKey(rowId)) {
+                    added.add(batchRow(command, row));
+                }
+            }
+            applyLocal(command);
+        }
+        if (before != null) {
+            Transaction[] fresh = added.toArray(new Transaction[0]);
+            Arrays.sort(fresh, NEWEST_FIRST);
+            Transaction[] merged = new Transaction[before.length + fresh.length];
+            int i = 0;
+            int j = 0;
+            for (int k = 0; k < merged.length; k++) {
+                // Ties go to the existing rows, as in insertSorted
+                merged[k] = j == fresh.length || i < before.length && !before[i].date().isBefore(fresh[j].date())
+                        ? before[i++] : fresh[j++];
+            }
+            sorted = merged;
+        }
+        cachedSnapshot = null;
+    }
 
-            } catch (Exception e) {
-                updateUI(() -> onError.accept("Failed to remove transaction: " + e.getMessage()));
+    private static Transaction batchRow(PendingOperations.Command command, int row) {
+        // Fields: localId|date|description|category|type|amount|accountName|accountType
+        int at = row * BATCH_ROW_FIELDS;
+        return new Transaction(command.arg(at), parseDate(command.arg(at + 1)), command.arg(at + 4),
+                command.arg(at + 3), command.arg(at + 6), command.arg(at + 7), Long.parseLong(command.arg(at + 5)),
+                command.arg(at + 2));
+    }
+
+    private static int batchRows(PendingOperations.Command command) {
+        return command.args().size() / BATCH_ROW_FIELDS;
+    }
+
+    /**
+     * Apply a command locally, then queue it for the backend with a rollback
+     * that restores the row as it was before.
+     */
+    private static void execute(PendingOperations.Command command, Consumer<String> onSuccess,
+            Consumer<String> onError) {
+        Transaction before;
+        Transaction after;
+        synchronized (TransactionStore.class) {
+            String localId = PendingOperations.resolve(command.localId());
+            before = byId.get(localId);
+            applyLocal(command);
+            after = byId.get(localId);
+            notifyListeners();
+        }
+        String subject = after != null ? after.description() : before != null ? before.description() : "";
+        String description = switch (command.name()) {
+            case "ADD" -> "Tambah transaksi: ";
+            case "UPDATE" -> "Ubah transaksi: ";
+            default -> "Hapus transaksi: ";
+        } + subject;
+
+        PendingOperations.submit(description, command, () -> send(command, onSuccess), error -> {
+            synchronized (TransactionStore.class) {
+                String currentId = PendingOperations.resolve(command.localId());
+                Transaction current = byId.get(currentId);
+                if (command.name().equals("ADD")) {
+                    removeInternal(currentId);
+                } else if (Objects.equals(current, after != null ? after.withId(currentId) : null)) {
+                    // Only undo if no later change replaced this one
+                    if (before != null) {
+                        putInternal(before.withId(currentId));
+                    } else {
+                        removeInternal(currentId);
+                    }
+                }
+                notifyListeners();
             }
+            updateUI(() -> onError.accept(error));
         });
     }
 
+    /**
+     * Send a command and, for an add, move the row to its real ID.
+     * 
+     * @return null on success, otherwise the error message
+     * @throws IOException if the backend could not be reached
+     */
+    private static String send(PendingOperations.Command command, Consumer<String> onSuccess) throws IOException {
+        String sessionToken = sessionManager.getSessionToken();
+        if (sessionToken == null || sessionToken.isEmpty()) {
+            return "No valid session. Please login.";
+        }
+        boolean add = command.name().equals("ADD");
+        String remoteId = PendingOperations.resolve(command.localId());
+        if (!add && PendingOperations.isProvisional(remoteId)) {
+            // Its add was rejected: nothing to delete, nothing to update
+            return command.name().equals("DELETE") ? null : "Transaction was never saved";
+        }
+
+        String response = client.sendCommand(command.format(sessionToken, add ? null : remoteId));
+        if (client.isErrorResponse(response)) {
+            return client.getErrorMessage(response);
+        }
+        if (add) {
+            // Response format:
+            // SUMMARY|id|username|date|desc|category|type|amount|accountName|accountType|balance
+            String[] parts = client.parseResponse(response);
+            if (parts.length < 2 || !parts[0].equals("SUMMARY")) {
+                return "Unexpected response format";
+            }
+            remoteId = parts[1];
+            synchronized (TransactionStore.class) {
+                PendingOperations.confirmId(command.localId(), remoteId);
+                // Keep any local edit made while the add was in flight
+                Transaction current = byId.get(command.localId());
+                if (current != null) {
+                    removeInternal(command.localId());
+                    putInternal(current.withId(remoteId));
+                    notifyListeners();
+                }
+            }
+        }
+        String confirmedId = remoteId;
+        updateUI(() -> onSuccess.accept(confirmedId));
+        return null;
+    }
+
+    /**
+     * Apply the local effect of a queued command.
+     * Caller must hold the class lock.
+     */
+    private static void applyLocal(PendingOperations.Command command) {
+        String id = PendingOperations.resolve(command.localId());
+        switch (command.name()) {
+            case "ADD", "UPDATE" -> {
+                if (command.name().equals("ADD") && !PendingOperations.isProvisional(id)) {
+                    return; // Already confirmed; the real row is in the store
+                }
+                // Fields: date|description|category|type|amount|accountName|accountType
+                addInternal(id, parseDate(command.arg(0)), command.arg(3), command.arg(2), command.arg(5),
+                        command.arg(6), Long.parseLong(command.arg(4)), command.arg(1));
+            }
+            case "DELETE" -> removeInternal(id);
+            case "ADD_BATCH" -> {
+                for (int row = 0; row < batchRows(command); row++) {
+                    String rowId = command.arg(row * BATCH_ROW_FIELDS);
+                    if (PendingOperations.resolve(rowId).equals(rowId)) {
+                        putInternal(batchRow(command, row));
+                    }
+                }
+            }
+            default -> throw new IllegalArgumentException("Not a transaction command: " + command.name());
+        }
+    }
+
+    /**
+     * Apply the queued commands again after the store was reloaded, so a
+     * reload does not undo changes the backend has not confirmed yet.
+     * Caller must hold the class lock.
+     */
+    private static void reapplyQueued() {
+        for (PendingOperations.Command command : PendingOperations.queued(COMMANDS)) {
+            applyLocal(command);
+        }
+    }
+
+    /**
+     * Current transactions, newest first.
+     * Snapshots are immutable and shared until the next change, so calling
+     * this repeatedly costs nothing extra.
+     * 
+     * @return snapshot of all transactions
+     */
     public static synchronized Snapshot snapshot() {
-        List<Transaction> copy = new ArrayList<>(transactions);
-        copy.sort(Comparator.comparing(Transaction::date).reversed());
-        return new Snapshot(copy);
+        if (cachedSnapshot == null) {
+            if (sorted == null) {
+                sorted = byId.values().toArray(new Transaction[0]);
+                Arrays.sort(sorted, NEWEST_FIRST);
+            }
+            cachedSnapshot = new Snapshot(Collections.unmodifiableList(Arrays.asList(sorted)));
+        }
+        return cachedSnapshot;
+    }
+
+    /**
+     * Look up a transaction by ID.
+     * 
+     * @param id transaction ID
+     * @return the transaction, or null if unknown
+     */
+    public static synchronized Transaction findById(String id) {
+        return byId.get(id);
+    }
+
+    /**
+     * Transactions matching every given criterion, newest first.
+     * Only the smallest matching index bucket is scanned, so the cost follows
+     * the size of the result rather than the whole history.
+     * 
+     * @param month       month to match, or null for any
+     * @param type        Pemasukan/Pengeluaran, or null for any
+     * @param category    category name (case-insensitive), or null for any
+     * @param accountName account name, or null for any
+     * @return matching transactions
+     */
+    public static synchronized List<Transaction> query(YearMonth month, String type, String category,
+            String accountName) {
+        List<Transaction> result = new ArrayList<>();
+        for (Transaction tx : candidates(month, type, category, accountName)) {
+            if (matches(tx, month, type, category, accountName)) {
+                result.add(tx);
+            }
+        }
+        result.sort(NEWEST_FIRST);
+        return result;
+    }
+
+    /**
+     * Transactions passing the filter, newest first.
+     * A date range is cut out of the sorted array with two binary searches,
+     * and returned as a view of the snapshot when it is the only criterion;
+     * if a category, account or type bucket or the search hits for the text
+     * are much smaller than that range, those are scanned and sorted
+     * instead. Only the remaining predicates are checked per row.
+     *
+     * @param filter criteria to apply
+     * @return matching transactions
+     */
+    public static synchronized List<Transaction> filter(TransactionFilter filter) {
+        List<Transaction> all = snapshot().transactions();
+        if (filter.isEmpty()) {
+            return all;
+        }
+        int start = filter.to() == null ? 0 : firstOlderThan(sorted, filter.to().plusDays(1));
+        int end = filter.from() == null ? sorted.length : firstOlderThan(sorted, filter.from());
+        if (filter.withDates(null, null).isEmpty()) {
+            // A plain date range is a slice of the immutable snapshot, no copy needed
+            return all.subList(start, end);
+        }
+        Collection<Transaction> bucket = candidates(null, filter.type(), filter.category(), filter.account());
+        // Search hits settle the text criterion, so rows only need the rest
+        Set<String> hits = filter.text() != null ? search.search(filter.text()) : null;
+        TransactionFilter rest = hits != null ? filter.withText(null) : filter;
+        if (hits != null && hits.size() < bucket.size()) {
+            List<Transaction> found = new ArrayList<>(hits.size());
+            hits.forEach(id -> found.add(byId.get(id)));
+            bucket = found;
+        }
+
+        List<Transaction> result = new ArrayList<>();
+        // Sorting a bucket costs more per row than walking the sorted range
+        if (bucket.size() * 4L < end - start) {
+            for (Transaction tx : bucket) {
+                if (rest.matches(tx) && (hits == null || hits.contains(tx.id()))) {
+                    result.add(tx);
+                }
+            }
+            result.sort(NEWEST_FIRST);
+        } else {
+            for (int i = start; i < end; i++) {
+                Transaction tx = sorted[i];
+                if (rest.matches(tx) && (hits == null || hits.contains(tx.id()))) {
+                    result.add(tx);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Transactions whose description has a word starting with each word of
+     * the query, newest first. Uses the search index only, so the cost
+     * follows the number of hits.
+     *
+     * @param query search words, e.g. "nasi gor"
+     * @return matching transactions
+     */
+    public static synchronized List<Transaction> search(String query) {
+        Set<String> hits = search.search(query);
+        if (hits == null) {
+            return snapshot().transactions();
+        }
+        List<Transaction> result = new ArrayList<>(hits.size());
+        hits.forEach(id -> result.add(byId.get(id)));
+        result.sort(NEWEST_FIRST);
+        return result;
+    }
+
+    /**
+     * Sum of amounts of the transactions matching every given criterion.
+     * 
+     * @param month       month to match, or null for any
+     * @param type        Pemasukan/Pengeluaran, or null for any
+     * @param category    category name (case-insensitive), or null for any
+     * @param accountName account name, or null for any
+     * @return total amount
+     */
+    public static synchronized long total(YearMonth month, String type, String category, String accountName) {
+        long sum = 0;
+        for (Transaction tx : candidates(month, type, category, accountName)) {
+            if (matches(tx, month, type, category, accountName)) {
+                sum += tx.amount();
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * Pre-aggregated totals by month, type, category and account.
+     * The view is immutable and only rebuilt after the ledger changed.
+     * 
+     * @return current rollup view
+     */
+    public static synchronized TransactionRollup rollup() {
+        return rollup.view();
+    }
+
+    /**
+     * Pick the smallest index bucket among the given criteria.
+     */
+    private static Collection<Transaction> candidates(YearMonth month, String type, String category,
+            String accountName) {
+        Collection<Transaction> best = byId.values();
+        if (month != null) {
+            best = smaller(best, byMonth.get(month));
+        }
+        if (category != null) {
+            best = smaller(best, byCategory.get(categoryKey(category)));
+        }
+        if (accountName != null) {
+            best = smaller(best, byAccount.get(accountName));
+        }
+        if (type != null) {
+            best = smaller(best, byType.get(typeKey(type)));
+        }
+        return best;
+    }
+
+    private static Collection<Transaction> smaller(Collection<Transaction> a, Collection<Transaction> b) {
+        return b.size() < a.size() ? b : a;
+    }
+
+    private static boolean matches(Transaction tx, YearMonth month, String type, String category,
+            String accountName) {
+        return (month == null || month.equals(tx.yearMonth()))
+                && (type == null || typeKey(type).equals(typeKey(tx.type())))
+                && (category == null || categoryKey(category).equals(categoryKey(tx.category())))
+                && (accountName == null || accountName.equals(tx.accountName()));
     }
 
     private static void addInternal(String id, LocalDate date, String type, String category, String accountName,
             String accountType, long amount, String desc) {
-        transactions.add(new Transaction(id, date, type, category, accountName, accountType, amount, desc));
+        putInternal(new Transaction(id, date, type, category, accountName, accountType, amount, desc));
+    }
+
+    /**
+     * Insert or replace a transaction and update every index.
+     * Caller must hold the class lock.
+     * 
+     * @return false if an identical transaction was already stored
+     */
+    private static boolean putInternal(Transaction tx) {
+        Transaction old = byId.put(tx.id(), tx);
+        if (tx.equals(old)) {
+            return false;
+        }
+        if (old != null) {
+            unindex(old);
+        }
+        cachedSnapshot = null;
+        if (old != null) {
+            notifier.updated(tx);
+        } else {
+            notifier.added(tx);
+        }
+        if (sorted != null) {
+            sorted = old != null && old.date().equals(tx.date())
+                    ? replaceSorted(sorted, old, tx)
+                    : insertSorted(old != null ? removeSorted(sorted, old) : sorted, tx);
+        }
+        index(tx);
+        return true;
+    }
+
+    /**
+     * Move transactions to new IDs, e.g. once the backend confirmed
+     * provisional ones. Dates do not change, so the sorted array keeps its
+     * order and is copied once for the whole batch instead of once per row.
+     * Caller must hold the class lock.
+     * 
+     * @param renames current ID to new ID
+     */
+    private static void renameInternal(Map<String, String> renames) {
+        List<Transaction> moved = new ArrayList<>(renames.size());
+        for (Map.Entry<String, String> e : renames.entrySet()) {
+            Transaction old = byId.get(e.getKey());
+            if (old == null) {
+                continue;
+            }
+            if (byId.containsKey(e.getValue())) {
+                removeInternal(old.id()); // The backend's copy arrived first
+            } else {
+                moved.add(old);
+            }
+        }
+        if (moved.isEmpty()) {
+            return;
+        }
+        Map<String, Transaction> replacements = new HashMap<>();
+        Set<LocalDate> dates = new java.util.HashSet<>();
+        for (Transaction old : moved) {
+            Transaction tx = old.withId(renames.get(old.id()));
+            byId.remove(old.id());
+            byId.put(tx.id(), tx);
+            byMonth.remove(old.yearMonth(), old);
+            byMonth.add(tx.yearMonth(), tx);
+            byCategory.remove(categoryKey(old.category()), old);
+            byCategory.add(categoryKey(tx.category()), tx);
+            byAccount.remove(old.accountName(), old);
+            byAccount.add(tx.accountName(), tx);
+            byType.remove(typeKey(old.type()), old);
+            byType.add(typeKey(tx.type()), tx);
+            // Rollup totals do not depend on the ID
+            search.rename(old.id(), tx.id(), tx.description());
+            notifier.removed(old);
+            notifier.added(tx);
+            replacements.put(old.id(), tx);
+            dates.add(tx.date());
+        }
+        if (sorted != null) {
+            // Walk each touched date's run once rather than once per row
+            Transaction[] array = sorted.clone();
+            int replaced = 0;
+            for (LocalDate date : dates) {
+                for (int i = firstOlderThan(array, date) - 1; i >= 0 && array[i].date().equals(date); i--) {
+                    Transaction tx = replacements.get(array[i].id());
+                    if (tx != null) {
+                        array[i] = tx;
+                        replaced++;
+                    }
+                }
+            }
+            sorted = replaced == moved.size() ? array : null;
+        }
+        cachedSnapshot = null;
+    }
+
+    /**
+     * Remove a transaction and its index entries.
+     * Caller must hold the class lock.
+     * 
+     * @return true if the transaction existed
+     */
+    private static boolean removeInternal(String id) {
+        Transaction old = byId.remove(id);
+        if (old == null) {
+            return false;
+        }
+        unindex(old);
+        cachedSnapshot = null;
+        notifier.removed(old);
+        if (sorted != null) {
+            sorted = removeSorted(sorted, old);
+        }
+        return true;
+    }
+
+    private static void clearInternal() {
+        sorted = null;
+        cachedSnapshot = null;
+        notifier.reset();
+        byId.clear();
+        byMonth.clear();
+        byCategory.clear();
+        byAccount.clear();
+        byType.clear();
+        rollup.clear();
+        search.clear();
+    }
+
+    /**
+     * Announce a batch of changes. Large batches drop the sorted array so it
+     * is rebuilt with one sort instead of one array copy per row.
+     * Caller must hold the class lock.
+     */
+    private static void beginBatch(int changes) {
+        if (changes > INCREMENTAL_LIMIT) {
+            sorted = null;
+            cachedSnapshot = null;
+        }
+    }
+
+    /**
+     * Copy of array with tx inserted after every transaction of the same
+     * date, so ties keep arrival order.
+     */
+    private static Transaction[] insertSorted(Transaction[] array, Transaction tx) {
+        int at = firstOlderThan(array, tx.date());
+        Transaction[] copy = new Transaction[array.length + 1];
+        System.arraycopy(array, 0, copy, 0, at);
+        copy[at] = tx;
+        System.arraycopy(array, at, copy, at + 1, array.length - at);
+        return copy;
+    }
+
+    private static Transaction[] removeSorted(Transaction[] array, Transaction tx) {
+        int at = indexOf(array, tx);
+        if (at < 0) {
+            return array;
+        }
+        Transaction[] copy = new Transaction[array.length - 1];
+        System.arraycopy(array, 0, copy, 0, at);
+        System.arraycopy(array, at + 1, copy, at, array.length - at - 1);
+        return copy;
+    }
+
+    // Same date, so the position does not change
+    private static Transaction[] replaceSorted(Transaction[] array, Transaction old, Transaction tx) {
+        int at = indexOf(array, old);
+        if (at < 0) {
+            return insertSorted(array, tx);
+        }
+        Transaction[] copy = array.clone();
+        copy[at] = tx;
+        return copy;
+    }
+
+    /**
+     * Binary search for the first position holding a date older than date.
+     */
+    private static int firstOlderThan(Transaction[] array, LocalDate date) {
+        int lo = 0;
+        int hi = array.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (array[mid].date().isBefore(date)) {
+                hi = mid;
+            } else {
+                lo = mid + 1;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * Position of tx, searching only the run of transactions on its date.
+     */
+    private static int indexOf(Transaction[] array, Transaction tx) {
+        for (int i = firstOlderThan(array, tx.date()) - 1; i >= 0 && array[i].date().equals(tx.date()); i--) {
+            if (array[i].id().equals(tx.id())) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static void index(Transaction tx) {
+        byMonth.add(tx.yearMonth(), tx);
+        byCategory.add(categoryKey(tx.category()), tx);
+        byAccount.add(tx.accountName(), tx);
+        byType.add(typeKey(tx.type()), tx);
+        rollup.add(tx);
+        search.add(tx.id(), tx.description());
+    }
+
+    private static void unindex(Transaction tx) {
+        byMonth.remove(tx.yearMonth(), tx);
+        byCategory.remove(categoryKey(tx.category()), tx);
+        byAccount.remove(tx.accountName(), tx);
+        byType.remove(typeKey(tx.type()), tx);
+        rollup.remove(tx);
+        search.remove(tx.id(), tx.description());
+    }
+
+    private static String categoryKey(String category) {
+        return category == null ? "" : category.toLowerCase(Locale.ROOT);
+    }
+
+    private static String typeKey(String type) {
+        return TransactionRollup.typeKey(type);
+    }
+
+    /**
+     * Secondary index: transactions grouped by key, each group keyed by ID
+     * so removal is O(1).
+     */
+    private static final class Index<K> {
+        private final Map<K, Map<String, Transaction>> buckets = new HashMap<>();
+
+        void add(K key, Transaction tx) {
+            buckets.computeIfAbsent(key, k -> new LinkedHashMap<>()).put(tx.id(), tx);
+        }
+
+        void remove(K key, Transaction tx) {
+            Map<String, Transaction> bucket = buckets.get(key);
+            if (bucket != null) {
+                bucket.remove(tx.id());
+                if (bucket.isEmpty()) {
+                    buckets.remove(key);
+                }
+            }
+        }
+
+        Collection<Transaction> get(K key) {
+            Map<String, Transaction> bucket = buckets.get(key);
+            return bucket != null ? bucket.values() : List.of();
+        }
+
+        void clear() {
+            buckets.clear();
+        }
     }
 
     private static LocalDate parseDate(String input) {
@@ -214,18 +1065,65 @@ public final class TransactionStore {
         public YearMonth yearMonth() {
             return YearMonth.from(date);
         }
+
+        Transaction withId(String newId) {
+            return newId.equals(id) ? this : new Transaction(newId, date, type, category, accountName,
+                    accountType, amount, description);
+        }
     }
 
     public record Snapshot(List<Transaction> transactions) {
     }
 
-    private static void notifyListeners() {
-        Snapshot snap = snapshot();
-        for (Consumer<Snapshot> l : listeners) {
-            l.accept(snap);
+    /**
+     * A transaction to add through addTransactions.
+     * 
+     * @param date        transaction date (yyyy-MM-dd)
+     * @param type        transaction type (Pemasukan/Pengeluaran)
+     * @param category    transaction category
+     * @param accountName account name
+     * @param accountType account type
+     * @param amount      transaction amount, positive
+     * @param description transaction description
+     */
+    public record NewTransaction(String date, String type, String category, String accountName,
+            String accountType, long amount, String description) {
+        /**
+         * @return why the row cannot be sent, or null if it can
+         */
+        String validate() {
+            try {
+                // ISO parsing is strict, so 2025-06-31 is refused, not rounded
+                LocalDate.parse(date);
+            } catch (Exception e) {
+                return "Invalid date: " + date;
+            }
+            if (amount <= 0) {
+                return "Amount must be positive";
+            }
+            if (type == null || category == null || accountName == null) {
+                return "Missing type, category or account";
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Outcome of one row of addTransactions.
+     * 
+     * @param id    ID assigned by the backend, null if the row was rejected
+     * @param error why the row was rejected, null if it was added
+     */
+    public record RowResult(String id, String error) {
+        public boolean ok() {
+            return error == null;
         }
     }
 
+    private static void notifyListeners() {
+        notifier.publish();
+    }
+
     /**
      * Load all transactions from backend.
      * 
@@ -233,90 +1131,406 @@ public final class TransactionStore {
      * @param onError   callback with error message on failure
      */
     public static void loadFromBackend(Runnable onSuccess, Consumer<String> onError) {
-        executeAsync(() -> {
-            try {
-                String sessionToken = sessionManager.getSessionToken();
-                if (sessionToken == null || sessionToken.isEmpty()) {
-                    updateUI(() -> onError.accept("No valid session. Please login."));
-                    return;
-                }
+        // Reloads requested while one is still queued share that reload
+        BackgroundExecutor.submitCoalesced("TransactionStore.load", TransactionStore::fetchAll)
+                .whenComplete((error, ex) -> {
+                    if (ex != null) {
+                        updateUI(() -> onError.accept("Failed to load transactions: " + ex.getMessage()));
+                    } else if (error != null) {
+                        updateUI(() -> onError.accept(error));
+                    } else {
+                        updateUI(onSuccess);
+                    }
+                });
+    }
 
-                // Format: GET_ALL|sessionToken
-                String command = client.formatCommand("GET_ALL", sessionToken);
-                String response = client.sendCommand(command);
+    /**
+     * Fetch all data from backend and replace local state.
+     * Records are parsed straight off the socket, one at a time.
+     * 
+     * @return error message, or null on success
+     */
+    private static String fetchAll() {
+        try {
+            String sessionToken = sessionManager.getSessionToken();
+            if (sessionToken == null || sessionToken.isEmpty()) {
+                return "No valid session. Please login.";
+            }
 
-                if (client.isErrorResponse(response)) {
-                    String errorMsg = client.getErrorMessage(response);
-                    updateUI(() -> onError.accept(errorMsg));
-                    return;
+            Batch batch = null;
+            if (chunkedLoadSupported) {
+                // Format: GET_ALL_CHUNKED|sessionToken|chunkSize
+                String command = client.formatCommand("GET_ALL_CHUNKED", sessionToken,
+                        String.valueOf(LOAD_CHUNK_SIZE));
+                batch = client.sendCommand(command, TransactionStore::readChunkedAll);
+                if ("UNKNOWN_COMMAND".equals(batch.errorCode())) {
+                    // Backend without chunk support: plain GET_ALL from now on
+                    chunkedLoadSupported = false;
+                    batch = null;
                 }
+            }
+            if (batch == null) {
+                // Format: GET_ALL|sessionToken
+                String command = client.formatCommand("GET_ALL", sessionToken);
+                batch = client.sendCommand(command, TransactionStore::readAll);
+            }
 
-                // Parse DATA_ALL response
-                // Format:
-                // DATA_ALL|count|id1|username1|date1|desc1|cat1|type1|amount1|accName1|accType1|...
-                String[] parts = client.parseResponse(response);
+            if (batch.errorCode() != null) {
+                return batch.errorMessage();
+            }
 
-                if (parts.length < 2 || !parts[0].equals("DATA_ALL")) {
-                    updateUI(() -> onError.accept("Unexpected response format"));
-                    return;
+            // Update local list
+            synchronized (TransactionStore.class) {
+                clearInternal();
+                for (Transaction tx : batch.rows()) {
+                    putInternal(tx);
                 }
+                reapplyQueued();
+                // GET_ALL carries no version; the next sync re-baselines
+                syncVersion = -1;
+                loaded = true;
+                notifyListeners();
+            }
 
-                int count = Integer.parseInt(parts[1]);
-                List<Transaction> newTransactions = new ArrayList<>();
+            return null;
 
-                int index = 2;
-                for (int i = 0; i < count; i++) {
-                    if (index + 8 >= parts.length) {
-                        break; // Not enough data
+        } catch (Exception e) {
+            return "Failed to load transactions: " + e.getMessage();
+        }
+    }
+    /**
+     * Apply only the transactions changed since the last sync.
+     * Falls back to a full reload when the backend reports a stale cursor
+     * or does not support delta sync.
+     * 
+     * @param onSuccess callback on success
+     * @param onError   callback with error message on failure
+     */
+    public static void syncFromBackend(Runnable onSuccess, Consumer<String> onError) {
+        BackgroundExecutor.submitCoalesced("TransactionStore.sync", TransactionStore::fetchDelta)
+                .whenComplete((error, ex) -> {
+                    if (ex != null) {
+                        updateUI(() -> onError.accept("Failed to sync transactions: " + ex.getMessage()));
+                    } else if (error != null) {
+                        updateUI(() -> onError.accept(error));
+                    } else {
+                        updateUI(onSuccess);
                     }
+                });
+    }
+
+    /**
+     * Fetch changes since the last known version and apply them locally.
+     * 
+     * @return error message, or null on success
+     */
+    private static String fetchDelta() {
+        if (!deltaSyncSupported) {
+            return fetchAll();
+        }
+
+        try {
+            String sessionToken = sessionManager.getSessionToken();
+            if (sessionToken == null || sessionToken.isEmpty()) {
+                return "No valid session. Please login.";
+            }
+
+            long since;
+            synchronized (TransactionStore.class) {
+                since = Math.max(0, syncVersion);
+            }
+
+            // Format: GET_SINCE|sessionToken|version
+            String command = client.formatCommand("GET_SINCE", sessionToken, String.valueOf(since));
+            Batch batch = client.sendCommand(command, TransactionStore::readDelta);
 
-                    String id = parts[index++];
-                    index++; // Skip username field
-                    String date = parts[index++];
-                    String desc = parts[index++];
-                    String category = parts[index++];
-                    String type = parts[index++];
-                    long amount = Long.parseLong(parts[index++]);
-                    String accountName = parts[index++];
-                    String accountType = parts[index++];
-
-                    newTransactions.add(new Transaction(id, parseDate(date), type,
-                            category, accountName, accountType,
-                            amount, desc));
+            String code = batch.errorCode();
+            if (code != null) {
+                if (code.startsWith("SESSION_")) {
+                    return batch.errorMessage();
                 }
+                if (code.equals("CURSOR_STALE")) {
+                    if (since == 0) {
+                        return fetchAll();
+                    }
+                    // Version 0 asks for a fresh baseline of the whole ledger
+                    synchronized (TransactionStore.class) {
+                        syncVersion = -1;
+                    }
+                    return fetchDelta();
+                }
+                if (code.equals("UNKNOWN_COMMAND")) {
+                    // Backend without delta support: use full reloads from now on
+                    deltaSyncSupported = false;
+                    return fetchAll();
+                }
+                return batch.errorMessage();
+            }
 
-                // Update local list
-                synchronized (TransactionStore.class) {
-                    transactions.clear();
-                    transactions.addAll(newTransactions);
+            // Apply changes to local list
+            synchronized (TransactionStore.class) {
+                beginBatch(batch.deletes().size() + batch.rows().size());
+                if (batch.full()) {
+                    clearInternal();
+                }
+                for (String id : batch.deletes()) {
+                    removeInternal(id);
+                }
+                for (Transaction tx : batch.rows()) {
+                    putInternal(tx);
+                }
+                if (batch.full() || !batch.rows().isEmpty()) {
+                    reapplyQueued();
+                }
+                syncVersion = batch.version();
+                loaded |= batch.full();
+                if (batch.full() || !batch.deletes().isEmpty() || !batch.rows().isEmpty()) {
                     notifyListeners();
                 }
+            }
 
-                updateUI(onSuccess);
+            return null;
 
-            } catch (Exception e) {
-                updateUI(() -> onError.accept("Failed to load transactions: " + e.getMessage()));
+        } catch (Exception e) {
+            return "Failed to sync transactions: " + e.getMessage();
+        }
+    }
+
+    /**
+     * Replace local state with transactions read from the local cache.
+     * The next syncFromBackend asks only for changes since version.
+     * 
+     * @param cached  transactions as last saved
+     * @param version ledger version they reflect, or -1 if unknown
+     */
+    static void restoreFromCache(Collection<Transaction> cached, long version) {
+        synchronized (TransactionStore.class) {
+            clearInternal();
+            for (Transaction tx : cached) {
+                putInternal(tx);
             }
-        });
+            syncVersion = version;
+            loaded = true;
+            notifyListeners();
+        }
     }
 
     /**
-     * Execute task on background thread.
+     * Whether the store holds the whole ledger, so views can page through
+     * its snapshot instead of asking the backend.
+     *
+     * @return true once a full load or the local cache has been applied
+     */
+    public static synchronized boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * Ledger version the local state is known to include, or -1.
+     */
+    static synchronized long syncVersion() {
+        return syncVersion;
+    }
+
+    /**
+     * Insert or replace a single transaction pushed by the server.
      * 
-     * @param task runnable to execute
+     * @param tx transaction as sent by the server
      */
-    private static void executeAsync(Runnable task) {
-        new Thread(() -> {
-            try {
-                task.run();
-            } catch (Exception e) {
-                // Log error but don't crash
-                System.err.println("Background task error: " + e.getMessage());
-                e.printStackTrace();
+    public static void applyRemoteUpsert(Transaction tx) {
+        applyRemoteChanges(List.of(tx), Set.of());
+    }
+
+    /**
+     * Remove a single transaction deleted on another client.
+     * 
+     * @param id transaction ID
+     */
+    public static void applyRemoteDelete(String id) {
+        applyRemoteChanges(List.of(), Set.of(id));
+    }
+
+    /**
+     * Apply changes pushed by the server as one mutation with at most one
+     * listener notification.
+     * Rows identical to the local copy, e.g. the echo of a change this
+     * client made itself, do not count as changes.
+     * 
+     * @param upserts transactions to insert or replace
+     * @param deletes IDs of transactions to remove
+     */
+    public static void applyRemoteChanges(Collection<Transaction> upserts, Set<String> deletes) {
+        synchronized (TransactionStore.class) {
+            boolean changed = false;
+            beginBatch(deletes.size() + upserts.size());
+            for (String id : deletes) {
+                changed |= removeInternal(id);
+            }
+            for (Transaction tx : upserts) {
+                changed |= putInternal(tx);
+            }
+            if (changed) {
+                notifyListeners();
+            }
+        }
+    }
+
+    /**
+     * Stream a DATA_ALL response.
+     * Format:
+     * DATA_ALL|count|id1|username1|date1|desc1|cat1|type1|amount1|accName1|accType1|...
+     */
+    private static Batch readAll(ResponseReader reader) throws IOException {
+        String head = reader.nextField();
+        if (!"DATA_ALL".equals(head)) {
+            return Batch.failed(head, reader);
+        }
+        int count = reader.nextInt();
+        List<Transaction> rows = new ArrayList<>(Math.min(count, LOAD_CHUNK_SIZE));
+        readRows(reader, count, rows, null, new HashMap<>());
+        reader.finishLine();
+        return new Batch(rows, List.of(), -1, true, null, null);
+    }
+
+    /**
+     * Stream a chunked DATA_ALL response: one line per chunk, so no single
+     * line grows with the size of the ledger.
+     * Format, repeated until last=1:
+     * DATA_CHUNK|seq|last|count|id1|username1|date1|...|accType1|...
+     */
+    private static Batch readChunkedAll(ResponseReader reader) throws IOException {
+        List<Transaction> rows = new ArrayList<>();
+        Map<String, String> pool = new HashMap<>();
+        while (true) {
+            String head = reader.nextField();
+            if (!"DATA_CHUNK".equals(head)) {
+                return Batch.failed(head, reader);
+            }
+            reader.skipField(); // Chunk sequence number
+            boolean last = "1".equals(reader.nextField());
+            int count = reader.nextInt();
+            readRows(reader, count, rows, null, pool);
+            reader.finishLine();
+            if (last) {
+                return new Batch(rows, List.of(), -1, true, null, null);
+            }
+        }
+    }
+
+    /**
+     * Stream a DATA_DELTA response.
+     * Format:
+     * DATA_DELTA|version|full|count|op1|...|opN|...
+     * where op is U|id|username|date|desc|cat|type|amount|accName|accType
+     * or D|id; full=1 means the rows replace the whole ledger
+     */
+    private static Batch readDelta(ResponseReader reader) throws IOException {
+        String head = reader.nextField();
+        if (!"DATA_DELTA".equals(head)) {
+            return Batch.failed(head, reader);
+        }
+        long version = reader.nextLong();
+        boolean full = "1".equals(reader.nextField());
+        int count = reader.nextInt();
+        List<Transaction> upserts = new ArrayList<>();
+        List<String> deletes = new ArrayList<>();
+        readRows(reader, count, upserts, deletes, new HashMap<>());
+        reader.finishLine();
+        return new Batch(upserts, deletes, version, full, null, null);
+    }
+
+    /**
+     * Read up to count records from the current line.
+     * With deletes given, each record is prefixed by an op field (U or D).
+     * Stops quietly at the end of the line like the old array parser did.
+     */
+    private static void readRows(ResponseReader reader, int count, List<Transaction> rows,
+            List<String> deletes, Map<String, String> pool) throws IOException {
+        for (int i = 0; i < count && reader.hasMoreFields(); i++) {
+            if (deletes != null && "D".equals(reader.nextField())) {
+                String id = reader.nextField();
+                if (id == null) {
+                    break; // Not enough data
+                }
+                deletes.add(id);
+                continue;
             }
-        }).start();
+            Transaction tx = readTransaction(reader, pool);
+            if (tx == null) {
+                break; // Not enough data
+            }
+            rows.add(tx);
+        }
+    }
+
+    /**
+     * Read one id|username|date|desc|cat|type|amount|accName|accType record.
+     * Repeated strings (category, type, account) share one instance.
+     * 
+     * @return the record, or null if the line ended before it was complete
+     */
+    private static Transaction readTransaction(ResponseReader reader, Map<String, String> pool)
+            throws IOException {
+        return readTransaction(reader.nextField(), reader, pool);
+    }
+
+    /**
+     * Read the username|date|desc|cat|type|amount|accName|accType part of a
+     * record whose id was already read.
+     * 
+     * @return the record, or null if the line ended before it was complete
+     */
+    static Transaction readTransaction(String id, ResponseReader reader, Map<String, String> pool)
+            throws IOException {
+        reader.skipField(); // Skip username field
+        LocalDate date = reader.nextDate();
+        String desc = reader.nextField();
+        String category = dedupe(pool, reader.nextField());
+        String type = dedupe(pool, reader.nextField());
+        if (!reader.hasMoreFields()) {
+            return null;
+        }
+        long amount = reader.nextLong();
+        String accountName = dedupe(pool, reader.nextField());
+        String accountType = dedupe(pool, reader.nextField());
+        if (accountType == null) {
+            return null;
+        }
+        return new Transaction(id, date != null ? date : LocalDate.now(), type,
+                category, accountName, accountType, amount, desc);
+    }
+
+    private static String dedupe(Map<String, String> pool, String value) {
+        if (value == null) {
+            return null;
+        }
+        String existing = pool.putIfAbsent(value, value);
+        return existing != null ? existing : value;
     }
 
+    /**
+     * Parsed transaction response, or the error the backend sent instead.
+     */
+    private record Batch(List<Transaction> rows, List<String> deletes, long version, boolean full,
+            String errorCode, String errorMessage) {
+        static final String UNEXPECTED = "UNEXPECTED_RESPONSE";
+
+        /**
+         * Consume the rest of a response that did not have the expected
+         * header.
+         */
+        static Batch failed(String head, ResponseReader reader) throws IOException {
+            if ("ERROR".equals(head)) {
+                String rest = reader.restOfLine();
+                String response = rest.isEmpty() ? "ERROR" : "ERROR|" + rest;
+                String[] parts = client.parseResponse(response);
+                String code = parts.length >= 2 ? parts[1] : "";
+                return new Batch(List.of(), List.of(), -1, false, code, client.getErrorMessage(response));
+            }
+            reader.finishLine();
+            return new Batch(List.of(), List.of(), -1, false, UNEXPECTED, "Unexpected response format");
+        }
+    }
     /**
      * Execute task on Event Dispatch Thread (EDT).
      * 
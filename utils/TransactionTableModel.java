@@ -0,0 +1,272 @@
+package utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.swing.table.AbstractTableModel;
+
+/**
+ * TransactionTableModel shows a TransactionStore snapshot in a JTable without
+ * copying it into per-row vectors.
+ * Rows are read straight from the immutable snapshot list, cell text is
+ * formatted when the table asks for it and kept in a small LRU cache, and the
+ * running balance lives in one long array. Change sets from the store are
+ * applied with row-range events so the table only repaints what moved.
+ * Must be used on the EDT only.
+ */
+public class TransactionTableModel extends AbstractTableModel {
+    public static final int COL_DATE = 0;
+    public static final int COL_DESCRIPTION = 1;
+    public static final int COL_CATEGORY = 2;
+    public static final int COL_ACCOUNT = 3;
+    public static final int COL_BALANCE = 4;
+    public static final int COL_ACTIONS = 5;
+
+    private static final String[] COLUMNS = { "Tanggal", "Keterangan", "Kategori", "Akun", "Saldo", "Aksi" };
+    private static final String ACTIONS = "Edit | Hapus";
+    // A few screens' worth of cells; anything older is cheap to format again
+    private static final int CACHE_CELLS = 4096;
+    // Past this many changes one dataChanged event is cheaper than row events
+    private static final int DELTA_LIMIT = 256;
+
+    private List<TransactionStore.Transaction> rows = List.of();
+    // Running balance of everything before the first row, for paged views
+    private long carry;
+    // balances[i] = carry + running balance of rows 0..i, newest first
+    private long[] balances = new long[0];
+    private final Map<Long, Object> cellCache = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Object> eldest) {
+            return size() > CACHE_CELLS;
+        }
+    };
+
+    /**
+     * Replace all rows with the given snapshot.
+     *
+     * @param transactions store snapshot, newest first; not copied
+     */
+    public void setTransactions(List<TransactionStore.Transaction> transactions) {
+        setTransactions(transactions, 0);
+    }
+
+    private void setTransactions(List<TransactionStore.Transaction> transactions, long carry) {
+        this.carry = carry;
+        rows = transactions;
+        cellCache.clear();
+        recomputeBalances(0);
+        fireTableDataChanged();
+    }
+
+    /**
+     * Move to a new snapshot, firing row events for the given changes only.
+     * Falls back to a full refresh for resets, large batches, or when the
+     * change set does not explain the difference between the two snapshots.
+     *
+     * @param transactions new store snapshot, newest first; not copied
+     * @param changes      changes between the current and the new snapshot
+     */
+    public void apply(List<TransactionStore.Transaction> transactions, ChangeSet<TransactionStore.Transaction> changes) {
+        if (changes.reset() || changes.size() > DELTA_LIMIT) {
+            setTransactions(transactions, carry);
+            return;
+        }
+
+        // Updated rows may move, so they leave and re-enter like the rest
+        Set<String> outgoing = new HashSet<>();
+        changes.removed().forEach(tx -> outgoing.add(tx.id()));
+        changes.updated().forEach(tx -> outgoing.add(tx.id()));
+        Set<String> incoming = new HashSet<>();
+        changes.added().forEach(tx -> incoming.add(tx.id()));
+        changes.updated().forEach(tx -> incoming.add(tx.id()));
+
+        // Step through the intermediate states so every event matches what
+        // getRowCount reports while listeners handle it
+        List<TransactionStore.Transaction> working = new ArrayList<>(rows);
+        rows = working;
+        cellCache.clear();
+        int firstChanged = working.size();
+        for (int row = working.size() - 1; row >= 0 && !outgoing.isEmpty(); row--) {
+            if (outgoing.remove(working.get(row).id())) {
+                working.remove(row);
+                fireTableRowsDeleted(row, row);
+                firstChanged = row;
+            }
+        }
+        for (int i = 0; i < transactions.size() && !incoming.isEmpty(); i++) {
+            TransactionStore.Transaction tx = transactions.get(i);
+            if (incoming.remove(tx.id()) && i <= working.size()) {
+                working.add(i, tx);
+                fireTableRowsInserted(i, i);
+                firstChanged = Math.min(firstChanged, i);
+            }
+        }
+
+        if (!sameRows(working, transactions)) {
+            System.err.println("[TransactionTable] Change set out of step with snapshot, refreshing");
+            setTransactions(transactions, carry);
+            return;
+        }
+        rows = transactions;
+        if (firstChanged < rows.size()) {
+            recomputeBalances(firstChanged);
+            fireTableRowsUpdated(firstChanged, rows.size() - 1);
+        } else {
+            recomputeBalances(rows.size());
+        }
+    }
+
+    /**
+     * Show one page of a larger ledger. Rows that stayed on the page are
+     * left alone; only the difference to the current rows is repainted.
+     *
+     * @param transactions rows of the page, newest first; not copied
+     * @param carry        running balance of all rows before the page
+     */
+    public void showPage(List<TransactionStore.Transaction> transactions, long carry) {
+        if (carry != this.carry) {
+            setTransactions(transactions, carry); // Every balance moved anyway
+            return;
+        }
+        Map<String, TransactionStore.Transaction> current = new HashMap<>();
+        rows.forEach(tx -> current.put(tx.id(), tx));
+        List<TransactionStore.Transaction> added = new ArrayList<>();
+        List<TransactionStore.Transaction> updated = new ArrayList<>();
+        for (TransactionStore.Transaction tx : transactions) {
+            TransactionStore.Transaction old = current.remove(tx.id());
+            if (old == null) {
+                added.add(tx);
+            } else if (!old.equals(tx)) {
+                updated.add(tx);
+            }
+        }
+        List<TransactionStore.Transaction> removed = new ArrayList<>(current.values());
+        apply(transactions, new ChangeSet<>(added, updated, removed, false));
+    }
+
+    /**
+     * Transaction shown in the given row.
+     *
+     * @param row model row
+     * @return transaction, or null if the row is out of range
+     */
+    public TransactionStore.Transaction getTransaction(int row) {
+        return row >= 0 && row < rows.size() ? rows.get(row) : null;
+    }
+
+    /**
+     * Row of the transaction with the given ID.
+     *
+     * @param id transaction ID
+     * @return model row, or -1 if not shown
+     */
+    public int indexOf(String id) {
+        for (int i = 0; i < rows.size(); i++) {
+            if (rows.get(i).id().equals(id)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Running balance up to and including the given row.
+     *
+     * @param row model row
+     * @return balance in rupiah
+     */
+    public long balanceAt(int row) {
+        return balances[row];
+    }
+
+    @Override
+    public int getRowCount() {
+        return rows.size();
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMNS.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return COLUMNS[column];
+    }
+
+    @Override
+    public Class<?> getColumnClass(int column) {
+        return String.class;
+    }
+
+    @Override
+    public boolean isCellEditable(int row, int column) {
+        return false;
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        if (column == COL_ACTIONS) {
+            return ACTIONS;
+        }
+        if (column == COL_CATEGORY) {
+            return rows.get(row).category();
+        }
+        if (column == COL_ACCOUNT) {
+            return rows.get(row).accountName();
+        }
+        long key = ((long) row << 3) | column;
+        Object cached = cellCache.get(key);
+        if (cached == null) {
+            cached = format(row, column);
+            cellCache.put(key, cached);
+        }
+        return cached;
+    }
+
+    private Object format(int row, int column) {
+        TransactionStore.Transaction tx = rows.get(row);
+        return switch (column) {
+            case COL_DATE -> tx.date().toString();
+            case COL_DESCRIPTION -> tx.description() == null || tx.description().isBlank() ? "-" : tx.description();
+            case COL_BALANCE -> formatRupiah(balances[row]);
+            default -> "";
+        };
+    }
+
+    private void recomputeBalances(int from) {
+        int n = rows.size();
+        if (balances.length < n || balances.length > n * 2 + 64) {
+            // Grow with headroom, shrink once mostly unused
+            balances = Arrays.copyOf(balances, n + n / 8 + 16);
+        }
+        long running = from > 0 ? balances[from - 1] : carry;
+        for (int i = from; i < n; i++) {
+            TransactionStore.Transaction tx = rows.get(i);
+            running += tx.isIncome() ? tx.amount() : -tx.amount();
+            balances[i] = running;
+        }
+    }
+
+    private static boolean sameRows(List<TransactionStore.Transaction> a, List<TransactionStore.Transaction> b) {
+        if (a.size() != b.size()) {
+            return false;
+        }
+        for (int i = 0; i < a.size(); i++) {
+            if (!a.get(i).id().equals(b.get(i).id())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String formatRupiah(long value) {
+        String raw = String.format("%,d", value).replace(",", ".");
+        return "Rp " + raw;
+    }
+}
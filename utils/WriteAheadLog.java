@@ -0,0 +1,246 @@
+package utils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Append-only log of the backend commands PendingOperations has not
+ * finished yet, so local changes survive a crash, a restart or a long
+ * disconnect and can be sent later in their original order.
+ *
+ * One entry per line:
+ * PUT|key|username|localId|command|argCount|arg...|END  command queued
+ * MAP|provisionalId|realId                              add confirmed
+ * DONE|key                                              command finished
+ *
+ * The file is deleted once every command in it is done, and rewritten
+ * without finished entries when loaded. A PUT cut short by a crash lacks
+ * its END marker and is skipped.
+ */
+final class WriteAheadLog {
+    private final Path file;
+    private FileChannel channel;
+    // Commands written but not done, in order, by key
+    private final Map<String, PendingOperations.Command> open = new LinkedHashMap<>();
+    private final Map<String, String> realIds = new LinkedHashMap<>();
+
+    /**
+     * @param file log file; created on first append
+     */
+    WriteAheadLog(Path file) {
+        this.file = file;
+    }
+
+    /**
+     * Read the log, drop finished entries and rewrite it compacted.
+     *
+     * @return commands not done yet, in the order they were queued
+     */
+    synchronized List<PendingOperations.Command> load() {
+        open.clear();
+        realIds.clear();
+        if (!Files.exists(file)) {
+            return List.of();
+        }
+        try {
+            for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+                String[] f = line.split("\\|", -1);
+                switch (f[0]) {
+                    case "PUT" -> {
+                        PendingOperations.Command command = parsePut(f);
+                        if (command != null) {
+                            open.put(command.key(), command);
+                        }
+                    }
+                    case "MAP" -> {
+                        if (f.length == 3) {
+                            realIds.put(f[1], f[2]);
+                        }
+                    }
+                    case "DONE" -> {
+                        if (f.length == 2) {
+                            open.remove(f[1]);
+                        }
+                    }
+                    default -> System.err.println("[WAL] Skipping unknown entry: " + f[0]);
+                }
+            }
+            rewrite();
+        } catch (IOException e) {
+            System.err.println("Warning: Failed to read write-ahead log: " + e.getMessage());
+        }
+        return List.copyOf(open.values());
+    }
+
+    /**
+     * Real IDs recorded for provisional IDs still referenced by open
+     * commands. Valid after load().
+     *
+     * @return provisional ID to real ID
+     */
+    synchronized Map<String, String> realIds() {
+        return Map.copyOf(realIds);
+    }
+
+    /**
+     * Log a queued command. Does nothing if it is already open, e.g. when it
+     * is being replayed.
+     *
+     * @param command command to log
+     * @throws IOException if the entry could not be written
+     */
+    synchronized void append(PendingOperations.Command command) throws IOException {
+        if (open.putIfAbsent(command.key(), command) != null) {
+            return;
+        }
+        List<String> fields = new ArrayList<>(List.of("PUT", command.key(), command.username(),
+                command.localId() != null ? command.localId() : "", command.name(),
+                String.valueOf(command.args().size())));
+        fields.addAll(command.args());
+        fields.add("END");
+        write(fields);
+    }
+
+    /**
+     * Log the real ID of a provisionally added row.
+     *
+     * @param provisionalId ID the row was created with
+     * @param realId        ID assigned by the backend
+     * @throws IOException if the entry could not be written
+     */
+    synchronized void map(String provisionalId, String realId) throws IOException {
+        realIds.put(provisionalId, realId);
+        write(List.of("MAP", provisionalId, realId));
+    }
+
+    /**
+     * Log that a command finished, confirmed or rejected. Deletes the file
+     * when nothing is left open.
+     *
+     * @param key command key
+     * @throws IOException if the entry could not be written
+     */
+    synchronized void complete(String key) throws IOException {
+        if (open.remove(key) == null) {
+            return;
+        }
+        if (open.isEmpty()) {
+            close();
+            realIds.clear();
+            Files.deleteIfExists(file);
+        } else {
+            write(List.of("DONE", key));
+        }
+    }
+
+    /**
+     * Flush written entries to the storage device.
+     *
+     * @throws IOException if flushing fails
+     */
+    synchronized void force() throws IOException {
+        if (channel != null) {
+            channel.force(false);
+        }
+    }
+
+    private void write(List<String> fields) throws IOException {
+        StringBuilder line = new StringBuilder();
+        for (int i = 0; i < fields.size(); i++) {
+            if (i > 0) {
+                line.append('|');
+            }
+            // The protocol cannot carry separators or line breaks either
+            String value = fields.get(i);
+            line.append(value == null ? "" : value.replace('|', ' ').replace('\n', ' ').replace('\r', ' '));
+        }
+        line.append('\n');
+        if (channel == null) {
+            channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.APPEND);
+        }
+        ByteBuffer bytes = ByteBuffer.wrap(line.toString().getBytes(StandardCharsets.UTF_8));
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+    }
+
+    /**
+     * Replace the file with the open commands and the ID mappings they need.
+     */
+    private void rewrite() throws IOException {
+        close();
+        if (open.isEmpty()) {
+            realIds.clear();
+            Files.deleteIfExists(file);
+            return;
+        }
+        Set<String> referenced = new HashSet<>();
+        for (PendingOperations.Command command : open.values()) {
+            referenced.add(command.localId());
+            if (command.name().equals("ADD_BATCH")) {
+                // Each row carries its own provisional ID; rows confirmed
+                // before a restart must not be sent again
+                for (int at = 0; at < command.args().size(); at += TransactionStore.BATCH_ROW_FIELDS) {
+                    referenced.add(command.arg(at));
+                }
+            }
+        }
+        realIds.keySet().retainAll(referenced);
+
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.deleteIfExists(temp);
+        WriteAheadLog compacted = new WriteAheadLog(temp);
+        for (PendingOperations.Command command : open.values()) {
+            compacted.append(command);
+        }
+        for (Map.Entry<String, String> e : realIds.entrySet()) {
+            compacted.map(e.getKey(), e.getValue());
+        }
+        compacted.force();
+        compacted.close();
+        try {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    private static PendingOperations.Command parsePut(String[] f) {
+        if (f.length < 6) {
+            return null;
+        }
+        int argCount;
+        try {
+            argCount = Integer.parseInt(f[5]);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        if (f.length != 7 + argCount || !"END".equals(f[f.length - 1])) {
+            return null; // Cut short by a crash
+        }
+        return new PendingOperations.Command(f[1], f[2], f[4], f[3].isEmpty() ? null : f[3],
+                List.copyOf(Arrays.asList(f).subList(6, f.length - 1)));
+    }
+}